@@ -0,0 +1,68 @@
+package benchmarks;
+
+import game.BattleAction;
+import game.BattleSystem;
+import model.characters.Warrior;
+import model.exceptions.InvalidActionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BattleSystem.processAllActions with a queue of {@code size} actions.
+ * Actions alternate between DEFEND and a SPECIAL that fails for lack of rage,
+ * so the battle never ends and every queued action is sorted and executed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BattleBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private Warrior player;
+    private Warrior enemy;
+    private BattleAction[] actions;
+
+    @Setup
+    public void setup() {
+        player = new Warrior("Player");
+        enemy = new Warrior("Enemy");
+        player.setConsoleOutput(false);
+        enemy.setConsoleOutput(false);
+
+        actions = new BattleAction[size];
+        for (int i = 0; i < size; i++) {
+            boolean playerTurn = i % 2 == 0;
+            BattleAction.ActionType type = (i / 2) % 2 == 0
+                ? BattleAction.ActionType.DEFEND
+                : BattleAction.ActionType.SPECIAL;
+            actions[i] = playerTurn
+                ? new BattleAction(player, enemy, type)
+                : new BattleAction(enemy, player, type);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<String> processAllActions() throws InvalidActionException {
+        BattleSystem battle = new BattleSystem(player, enemy, true);
+        for (BattleAction action : actions) {
+            battle.queueAction(action);
+        }
+        return battle.processAllActions();
+    }
+}
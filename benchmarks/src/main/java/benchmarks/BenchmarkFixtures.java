@@ -0,0 +1,86 @@
+package benchmarks;
+
+import game.DungeonMap;
+import game.GameLocation;
+import game.Shop;
+import model.exceptions.InvalidActionException;
+import model.items.Armor;
+import model.items.Item;
+import model.items.Potion;
+import model.items.Weapon;
+import java.util.ArrayList;
+
+/**
+ * Builders for benchmark inputs of a given size.
+ * Every builder is deterministic so runs are comparable across commits.
+ */
+final class BenchmarkFixtures {
+
+    private static final Item.ItemRarity[] RARITIES = Item.ItemRarity.values();
+    private static final Weapon.WeaponType[] WEAPON_TYPES = Weapon.WeaponType.values();
+    private static final Armor.ArmorSlot[] ARMOR_SLOTS = Armor.ArmorSlot.values();
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Item number i: weapons, armor and potions in rotation with varying price and rarity.
+     */
+    static Item item(int i) {
+        Item.ItemRarity rarity = RARITIES[i % RARITIES.length];
+        int price = 10 + (i * 37) % 500;
+        switch (i % 3) {
+            case 0:
+                return new Weapon("Weapon " + i, "Benchmark weapon", 1 + i % 10, price, rarity,
+                    5, 15, WEAPON_TYPES[i % WEAPON_TYPES.length]);
+            case 1:
+                return new Armor("Armor " + i, "Benchmark armor", 1 + i % 10, price, rarity,
+                    5 + i % 20, ARMOR_SLOTS[i % ARMOR_SLOTS.length]);
+            default:
+                return new Potion("Potion " + i, "Benchmark potion", price, rarity,
+                    Potion.PotionType.HEALTH, 30, 1);
+        }
+    }
+
+    static ArrayList<Item> items(int size) {
+        ArrayList<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(item(i));
+        }
+        return items;
+    }
+
+    static Shop shop(int size) {
+        Shop shop = new Shop("Benchmark Shop");
+        for (int i = 0; i < size; i++) {
+            shop.addItemToShop(item(i), 1_000_000);
+        }
+        return shop;
+    }
+
+    /**
+     * A chain of rooms where each room also links to the room two steps ahead,
+     * so every room has up to four neighbours. Every other room is visited.
+     */
+    static DungeonMap map(int size) {
+        DungeonMap map = new DungeonMap();
+        for (int i = 0; i < size; i++) {
+            map.addLocation(new GameLocation("room-" + i, "Room " + i, "Benchmark room", i % 6));
+        }
+        try {
+            for (int i = 0; i + 1 < size; i++) {
+                map.connectLocations("room-" + i, "room-" + (i + 1));
+                if (i + 2 < size) {
+                    map.connectLocations("room-" + i, "room-" + (i + 2));
+                }
+            }
+        } catch (InvalidActionException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < size; i += 2) {
+            map.getLocation("room-" + i).markAsVisited();
+        }
+        map.setStartLocation("room-" + (size / 2));
+        return map;
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import game.Shop;
+import model.characters.Warrior;
+import model.exceptions.InsufficientGoldException;
+import model.exceptions.InventoryFullException;
+import model.exceptions.ItemNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Four customers, each on its own thread, buying and selling back in one shared shop.
+ * {@code hot} makes every thread trade the same item, so they all contend on one stock counter;
+ * otherwise each thread trades its own item.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentShopBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Market {
+
+        @Param({"false", "true"})
+        public boolean hot;
+
+        Shop shop;
+
+        @Setup
+        public void setup() {
+            shop = BenchmarkFixtures.shop(ITEMS);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Warrior customer;
+        String itemName;
+        int spread;
+
+        @Setup
+        public void setup(Market market) {
+            customer = new Warrior("Customer", 100);
+            customer.setConsoleOutput(false);
+            customer.addGold(Integer.MAX_VALUE / 2);
+            // Weapons only (every third fixture item), which stay sellable after purchase
+            int item = market.hot ? 0 : 3 * (int) (Thread.currentThread().getId() % (ITEMS / 3));
+            itemName = BenchmarkFixtures.item(item).getName();
+            spread = BenchmarkFixtures.item(item).getBuyPrice() - BenchmarkFixtures.item(item).getSellPrice();
+        }
+    }
+
+    @Benchmark
+    public int buyThenSell(Market market, Session session) throws ItemNotFoundException,
+            InsufficientGoldException, InventoryFullException {
+        market.shop.buyItem(session.customer, session.itemName);
+        // Refund the buy/sell spread so long runs never run out of gold
+        session.customer.addGold(session.spread);
+        return market.shop.sellItem(session.customer, session.itemName);
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import game.DungeonGraph;
+import game.DungeonMap;
+import game.GameLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DungeonMap queries on a map with {@code size} rooms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DungeonMapBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private DungeonMap map;
+    private String neighborId;
+
+    @Setup
+    public void setup() {
+        map = BenchmarkFixtures.map(size);
+        neighborId = map.getAccessibleLocations().get(0).getId();
+    }
+
+    @Benchmark
+    public ArrayList<GameLocation> getAccessibleLocations() {
+        return map.getAccessibleLocations();
+    }
+
+    @Benchmark
+    public boolean isConnectedTo() {
+        return map.getCurrentLocation().isConnectedTo(neighborId);
+    }
+
+    /**
+     * Walks the current room's neighbours through the graph without allocating.
+     */
+    @Benchmark
+    public int sumNeighborIndexes() {
+        DungeonGraph graph = map.getGraph();
+        int node = map.getCurrentLocation().getGraphIndex();
+        int sum = 0;
+        for (int k = 0; k < graph.getNeighborCount(node); k++) {
+            sum += graph.getNeighbor(node, k);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int countLocationsInDangerRange() {
+        return map.countLocationsInDangerRange(2, 4);
+    }
+
+    @Benchmark
+    public ArrayList<GameLocation> findNearestLocationsWithDanger() {
+        return map.findNearestLocationsWithDanger(5, 4);
+    }
+
+    @Benchmark
+    public double getExplorationProgress() {
+        return map.getExplorationProgress();
+    }
+
+    /**
+     * Streams unvisited rooms straight from the visited bitset, stopping at the first one.
+     */
+    @Benchmark
+    public GameLocation firstUnvisited() {
+        return map.iterateUnvisitedLocations().iterator().next();
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import model.items.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.GameUtils;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameUtils sort and filter helpers on lists of {@code size} items.
+ * The sort benchmarks include copying the list; {@link #copyBaseline} measures the copy alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameUtilsBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private ArrayList<Item> items;
+
+    @Setup
+    public void setup() {
+        items = BenchmarkFixtures.items(size);
+    }
+
+    @Benchmark
+    public ArrayList<Item> copyBaseline() {
+        return new ArrayList<>(items);
+    }
+
+    @Benchmark
+    public ArrayList<Item> sortItemsByPrice() {
+        ArrayList<Item> copy = new ArrayList<>(items);
+        GameUtils.sortItemsByPrice(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public ArrayList<Item> sortItemsByRarity() {
+        ArrayList<Item> copy = new ArrayList<>(items);
+        GameUtils.sortItemsByRarity(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public ArrayList<Item> sortItemsByName() {
+        ArrayList<Item> copy = new ArrayList<>(items);
+        GameUtils.sortItemsByName(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public ArrayList<Item> filterAffordableItems() {
+        return GameUtils.filterAffordableItems(items, 250);
+    }
+
+    @Benchmark
+    public ArrayList<Item> filterByRarity() {
+        return GameUtils.filterByRarity(items, Item.ItemRarity.RARE);
+    }
+}
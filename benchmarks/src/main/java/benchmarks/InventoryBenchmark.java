@@ -0,0 +1,85 @@
+package benchmarks;
+
+import model.characters.Warrior;
+import model.exceptions.InventoryFullException;
+import model.exceptions.ItemNotFoundException;
+import model.items.Armor;
+import model.items.Item;
+import model.items.Weapon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Character inventory operations on an inventory holding {@code size} distinct items.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private Warrior character;
+    private String lastItemName;
+
+    @Setup
+    public void setup() throws InventoryFullException, ItemNotFoundException {
+        character = new Warrior("Bot", size + 10);
+        character.setConsoleOutput(false);
+        for (Item item : BenchmarkFixtures.items(size)) {
+            character.addItem(item);
+        }
+        lastItemName = BenchmarkFixtures.item(size - 1).getName();
+
+        for (Armor.ArmorSlot slot : Armor.ArmorSlot.values()) {
+            Armor armor = new Armor("Equipped " + slot, "", 1, 10,
+                Item.ItemRarity.COMMON, 5, slot);
+            character.addItem(armor);
+            character.equipArmor(armor);
+        }
+    }
+
+    /**
+     * Removes the most recently added item and puts it back (the worst case for a scan).
+     */
+    @Benchmark
+    public Item removeAndAddLast() throws ItemNotFoundException, InventoryFullException {
+        Item item = character.removeItem(lastItemName);
+        character.addItem(item);
+        return item;
+    }
+
+    @Benchmark
+    public int getItemCount() {
+        return character.getItemCount(lastItemName);
+    }
+
+    @Benchmark
+    public int weaponsView() {
+        return character.getItemsView(Weapon.class).size();
+    }
+
+    @Benchmark
+    public int commonItemsView() {
+        return character.getItemsOfRarity(Item.ItemRarity.COMMON).size();
+    }
+
+    @Benchmark
+    public int getTotalDefense() {
+        return character.getTotalDefense();
+    }
+}
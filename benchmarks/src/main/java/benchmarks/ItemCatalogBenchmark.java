@@ -0,0 +1,75 @@
+package benchmarks;
+
+import model.exceptions.ItemNotFoundException;
+import model.items.Item;
+import model.items.ItemCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening a memory-mapped item catalog of {@code size} items and creating items from it by name.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemCatalogBenchmark {
+
+    @Param({"1000", "500000"})
+    public int size;
+
+    private Path file;
+    private ItemCatalog catalog;
+    private String[] names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ArrayList<Item> items = BenchmarkFixtures.items(size);
+        file = Files.createTempFile("catalog", ".cat");
+        ItemCatalog.write(file, items);
+        catalog = ItemCatalog.open(file);
+        names = new String[1024];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = items.get((int) ((i * 2654435761L) % size)).getName();
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Startup cost: map the file and create one item.
+     */
+    @Benchmark
+    public Item openAndCreateFirst() throws IOException, ItemNotFoundException {
+        return ItemCatalog.open(file).create(names[0]);
+    }
+
+    @Benchmark
+    public Item createByName() throws ItemNotFoundException {
+        next = (next + 1) & (names.length - 1);
+        return catalog.create(names[next]);
+    }
+}
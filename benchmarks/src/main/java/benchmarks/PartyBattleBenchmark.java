@@ -0,0 +1,60 @@
+package benchmarks;
+
+import game.BattleSystem;
+import game.simulation.BattleSimulator;
+import game.simulation.CombatantSpec;
+import game.simulation.PlayerPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.RandomSource;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete raid battle with {@code size} combatants on each side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PartyBattleBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int size;
+
+    private BattleSimulator simulator;
+    private ArrayList<CombatantSpec> party;
+    private ArrayList<CombatantSpec> enemies;
+    private PlayerPolicy policy;
+    private RandomSource random;
+
+    @Setup
+    public void setup() {
+        simulator = new BattleSimulator();
+        party = new ArrayList<>();
+        enemies = new ArrayList<>();
+        CombatantSpec.CharacterClass[] classes = CombatantSpec.CharacterClass.values();
+        for (int i = 0; i < size; i++) {
+            party.add(new CombatantSpec(classes[i % classes.length], 4));
+            enemies.add(new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 3));
+        }
+        policy = PlayerPolicy.specialEvery(3);
+        random = new RandomSource(7);
+    }
+
+    @Benchmark
+    public BattleSystem runPartyBattle() {
+        return simulator.runPartyBattle(party, enemies, policy, random.split());
+    }
+}
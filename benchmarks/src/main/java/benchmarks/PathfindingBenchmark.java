@@ -0,0 +1,80 @@
+package benchmarks;
+
+import game.DungeonMap;
+import game.DungeonPath;
+import game.Pathfinder;
+import model.exceptions.InvalidActionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path queries from the map's middle room to its last room, with and without the path cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathfindingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private DungeonMap cachedMap;
+    private DungeonMap uncachedMap;
+    private String fromId;
+    private String toId;
+
+    @Setup
+    public void setup() {
+        cachedMap = BenchmarkFixtures.map(size);
+        uncachedMap = BenchmarkFixtures.map(size);
+        uncachedMap.getPathfinder().setCacheCapacity(0);
+        fromId = cachedMap.getCurrentLocationId();
+        toId = "room-" + (size - 1);
+    }
+
+    @Benchmark
+    public DungeonPath shortestPathCached() throws InvalidActionException {
+        return cachedMap.findShortestPath(fromId, toId);
+    }
+
+    @Benchmark
+    public DungeonPath shortestPathUncached() throws InvalidActionException {
+        return uncachedMap.findShortestPath(fromId, toId);
+    }
+
+    @Benchmark
+    public DungeonPath safestPathUncached() throws InvalidActionException {
+        return uncachedMap.findSafestPath(fromId, toId);
+    }
+
+    /**
+     * A* with the remaining index distance as heuristic: each step advances at most two rooms and costs at least 1.
+     */
+    @Benchmark
+    public DungeonPath aStarUncached() throws InvalidActionException {
+        return uncachedMap.findPath(fromId, toId, new Pathfinder.Heuristic() {
+            @Override
+            public int estimate(int node, int goal) {
+                return Math.abs(goal - node) / 2;
+            }
+        });
+    }
+
+    @Benchmark
+    public DungeonPath nearestUnvisited() {
+        return uncachedMap.findPathToNearestUnvisited();
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import game.PricingEngine;
+import game.Shop;
+import model.characters.Warrior;
+import model.exceptions.InsufficientGoldException;
+import model.exceptions.InventoryFullException;
+import model.exceptions.ItemNotFoundException;
+import model.items.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price quotes read by three threads while a fourth keeps trading the same item,
+ * with static prices or with the dynamic pricing engine attached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class PricingBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    @Param({"false", "true"})
+    public boolean dynamic;
+
+    private Shop shop;
+    private Item item;
+    private Warrior trader;
+    private String itemName;
+
+    @Setup
+    public void setup() {
+        shop = BenchmarkFixtures.shop(ITEMS);
+        if (dynamic) {
+            shop.setPricingEngine(new PricingEngine().withUpdateInterval(1));
+        }
+        // A weapon, which stays sellable after purchase
+        item = BenchmarkFixtures.item(0);
+        itemName = item.getName();
+        trader = new Warrior("Trader", 100);
+        trader.setConsoleOutput(false);
+        trader.addGold(Integer.MAX_VALUE / 2);
+    }
+
+    @Benchmark
+    @Group("market")
+    @GroupThreads(3)
+    public int readPrice() {
+        return shop.getBuyPrice(item);
+    }
+
+    @Benchmark
+    @Group("market")
+    @GroupThreads(1)
+    public int trade() throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        // Only this thread trades, so the quote is the price buyItem charges
+        int paid = shop.getBuyPrice(item);
+        shop.buyItem(trader, itemName);
+        int received = shop.sellItem(trader, itemName);
+        // Refund the spread so long runs never run out of gold
+        trader.addGold(paid - received);
+        return received;
+    }
+}
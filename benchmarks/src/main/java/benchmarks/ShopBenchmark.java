@@ -0,0 +1,130 @@
+package benchmarks;
+
+import game.Shop;
+import game.ShopReceipt;
+import model.characters.Warrior;
+import model.exceptions.InsufficientGoldException;
+import model.exceptions.InventoryFullException;
+import model.exceptions.ItemNotFoundException;
+import model.items.Item;
+import utils.GameUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shop trading and queries on a shop with {@code size} unique items in stock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShopBenchmark {
+
+    private static final int BATCH = 10;
+
+    @Param({"10", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Shop shop;
+    private Warrior customer;
+    private String lastItemName;
+    private int spread;
+    private HashMap<String, Integer> batch;
+
+    @Setup
+    public void setup() {
+        shop = BenchmarkFixtures.shop(size);
+        customer = new Warrior("Customer", 100);
+        customer.setConsoleOutput(false);
+        customer.addGold(Integer.MAX_VALUE / 2);
+        // The last item is a weapon or armor, which stay sellable after purchase
+        int last = size - 1;
+        while (BenchmarkFixtures.item(last).getName().startsWith("Potion")) {
+            last--;
+        }
+        lastItemName = BenchmarkFixtures.item(last).getName();
+        spread = BenchmarkFixtures.item(last).getBuyPrice() - BenchmarkFixtures.item(last).getSellPrice();
+        batch = new HashMap<>();
+        batch.put(lastItemName, BATCH);
+    }
+
+    /**
+     * Buys the last listed item and sells it back, leaving stock and gold balanced.
+     * The customer is refunded the buy/sell spread so long runs never run out of gold.
+     */
+    @Benchmark
+    public int buyThenSell() throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        shop.buyItem(customer, lastItemName);
+        customer.addGold(spread);
+        return shop.sellItem(customer, lastItemName);
+    }
+
+    /**
+     * Buys BATCH copies of the last item one call at a time and sells them back the same way.
+     */
+    @Benchmark
+    public int buyThenSellOneByOne() throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        for (int i = 0; i < BATCH; i++) {
+            shop.buyItem(customer, lastItemName);
+        }
+        customer.addGold(spread * BATCH);
+        int total = 0;
+        for (int i = 0; i < BATCH; i++) {
+            total += shop.sellItem(customer, lastItemName);
+        }
+        return total;
+    }
+
+    /**
+     * The same trade as one buy cart and one sell list.
+     */
+    @Benchmark
+    public ShopReceipt buyThenSellBatch() throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        shop.buyItems(customer, batch);
+        customer.addGold(spread * BATCH);
+        return shop.sellItems(customer, batch);
+    }
+
+    @Benchmark
+    public ArrayList<Item> getItemsByCategory() {
+        return shop.getItemsByCategory("potion");
+    }
+
+    /**
+     * Items the customer could buy with 50 gold, from the price index.
+     */
+    @Benchmark
+    public ArrayList<Item> getAffordableItems() {
+        return shop.getAffordableItems(50);
+    }
+
+    /**
+     * The same question answered by scanning and filtering the whole shop.
+     */
+    @Benchmark
+    public ArrayList<Item> filterAvailableItems() {
+        return GameUtils.filterAffordableItems(shop.getAvailableItems(), 50);
+    }
+
+    @Benchmark
+    public ArrayList<Item> getBestValueItems() {
+        return shop.getBestValueItems(10);
+    }
+}
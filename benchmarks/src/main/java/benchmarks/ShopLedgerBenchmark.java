@@ -0,0 +1,117 @@
+package benchmarks;
+
+import game.Shop;
+import game.ShopLedger;
+import model.characters.Warrior;
+import model.exceptions.InsufficientGoldException;
+import model.exceptions.InventoryFullException;
+import model.exceptions.ItemNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trading with and without a transaction ledger attached, and rebuilding a shop
+ * from a ledger of {@code events} buy/sell events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShopLedgerBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    @Param({"10000", "1000000"})
+    public int events;
+
+    private Path dir;
+    private Path replayFile;
+    private Shop plainShop;
+    private Shop loggedShop;
+    private ShopLedger ledger;
+    private Warrior customer;
+    private String itemName;
+    private int spread;
+
+    @Setup
+    public void setup() throws IOException, ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        dir = Files.createTempDirectory("ledger-bench");
+        customer = new Warrior("Customer", 100);
+        customer.setConsoleOutput(false);
+        customer.addGold(Integer.MAX_VALUE / 2);
+        // A weapon, which stays sellable after purchase
+        itemName = BenchmarkFixtures.item(0).getName();
+        spread = BenchmarkFixtures.item(0).getBuyPrice() - BenchmarkFixtures.item(0).getSellPrice();
+
+        Shop source = BenchmarkFixtures.shop(ITEMS);
+        replayFile = dir.resolve("replay.ledger");
+        ShopLedger writer = ShopLedger.create(replayFile, source);
+        for (int i = 0; i < events / 2; i++) {
+            source.buyItem(customer, itemName);
+            customer.addGold(spread);
+            source.sellItem(customer, itemName);
+        }
+        writer.close();
+
+        plainShop = BenchmarkFixtures.shop(ITEMS);
+        loggedShop = BenchmarkFixtures.shop(ITEMS);
+        ledger = ShopLedger.create(dir.resolve("trade.ledger"), loggedShop);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ledger.close();
+        for (java.io.File leftover : dir.toFile().listFiles()) {
+            leftover.delete();
+        }
+        dir.toFile().delete();
+    }
+
+    @Benchmark
+    public int buyThenSell() throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        return trade(plainShop);
+    }
+
+    @Benchmark
+    public int buyThenSellWithLedger() throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        return trade(loggedShop);
+    }
+
+    /**
+     * Reads the whole ledger, rebuilding the shop and the revenue totals.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long replay() throws IOException {
+        ShopLedger reopened = ShopLedger.open(replayFile);
+        reopened.close();
+        return reopened.getTotalRevenue();
+    }
+
+    private int trade(Shop shop) throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        shop.buyItem(customer, itemName);
+        customer.addGold(spread);
+        return shop.sellItem(customer, itemName);
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import game.BattleSystem;
+import game.simulation.BattleSimulator;
+import game.simulation.CombatantSpec;
+import game.simulation.PlayerPolicy;
+import model.items.Item;
+import model.items.Weapon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.RandomSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One complete headless battle, from character creation to the final round.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+
+    private BattleSimulator simulator;
+    private CombatantSpec player;
+    private CombatantSpec enemy;
+    private PlayerPolicy policy;
+    private RandomSource random;
+
+    @Setup
+    public void setup() {
+        simulator = new BattleSimulator();
+        player = new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 5)
+            .withWeapon(new Weapon("Iron Sword", "", 6, 50,
+                Item.ItemRarity.COMMON, 8, 15, Weapon.WeaponType.SWORD));
+        enemy = new CombatantSpec(CombatantSpec.CharacterClass.ARCHER, 5)
+            .withWeapon(new Weapon("Hunting Bow", "", 3, 55,
+                Item.ItemRarity.COMMON, 7, 14, Weapon.WeaponType.BOW));
+        policy = PlayerPolicy.specialEvery(4);
+        random = new RandomSource(42);
+    }
+
+    @Benchmark
+    public BattleSystem runBattle() {
+        return simulator.runBattle(player, enemy, policy, random.split());
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import model.characters.StatusEffect;
+import model.characters.StatusEffectEngine;
+import model.characters.Warrior;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One round of the status-effect clock with {@code size} long-running buffs spread over
+ * {@code size / 100} characters, plus one harmless poison per character that ticks every
+ * round. The cost per round should track the ticking poisons, not the waiting buffs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StatusEffectBenchmark {
+
+    private static final int EFFECTS_PER_CHARACTER = 100;
+    private static final int BUFF_DURATION = 1_000_000_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private StatusEffectEngine engine;
+
+    @Setup
+    public void setup() {
+        engine = new StatusEffectEngine();
+        int characterCount = Math.max(1, size / EFFECTS_PER_CHARACTER);
+        for (int c = 0; c < characterCount; c++) {
+            Warrior warrior = new Warrior("Bot " + c);
+            warrior.setConsoleOutput(false);
+            warrior.setStatusEffectEngine(engine);
+            for (int e = 0; e < EFFECTS_PER_CHARACTER; e++) {
+                warrior.applyStatusEffect(new StatusEffect(StatusEffect.Type.STRENGTH, 1, BUFF_DURATION - e));
+            }
+            warrior.applyStatusEffect(new StatusEffect(StatusEffect.Type.POISON, 0, BUFF_DURATION));
+        }
+    }
+
+    @Benchmark
+    public int advanceRound() {
+        return engine.advance();
+    }
+}
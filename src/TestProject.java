@@ -2,10 +2,20 @@ import model.characters.*;
 import model.items.*;
 import model.exceptions.*;
 import game.*;
+import game.events.*;
+import game.simulation.*;
 import utils.GameUtils;
+import utils.RandomSource;
+import utils.TimerWheel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * מחלקת בדיקות לפרויקט.
@@ -34,6 +44,28 @@ public class TestProject {
         testShop();
         testDungeonMap();
         testSortingAndFiltering();
+        testBattleSimulator();
+        testEncounterBalancer();
+        testBattleEvents();
+        testPartyBattles();
+        testInventoryIndex();
+        testDerivedStats();
+        testStatusEffects();
+        testDungeonGraph();
+        testPathfinding();
+        testDungeonGenerator();
+        testPagedRegions();
+        testVisitTracking();
+        testDangerIndex();
+        testSaveLoad();
+        testSaveJournal();
+        testItemCatalog();
+        testItemTemplates();
+        testConcurrentShop();
+        testShopPriceIndex();
+        testShopBatchTransactions();
+        testDynamicPricing();
+        testShopLedger();
         
         // סיכום
         System.out.println("\n=================================");
@@ -71,6 +103,13 @@ public class TestProject {
             testNotImplemented("Weapon averageDamage");
         }
         
+        try {
+            new Weapon("Bent Sword", "", 5, 100, Item.ItemRarity.COMMON, 20, 10, Weapon.WeaponType.SWORD);
+            test("Weapon rejects inverted damage range", false);
+        } catch (IllegalArgumentException e) {
+            test("Weapon rejects inverted damage range", true);
+        }
+        
         // Test Armor
         Armor helmet = new Armor("Steel Helmet", "Protects your head", 3, 80,
             Item.ItemRarity.UNCOMMON, 15, Armor.ArmorSlot.HEAD);
@@ -478,6 +517,1789 @@ public class TestProject {
         }
     }
     
+    // ============================================================
+    // בדיקות סימולטור קרבות
+    // ============================================================
+    
+    private static void testBattleSimulator() {
+        System.out.println("\n--- Testing Battle Simulator ---");
+        
+        BattleSystem headless = new BattleSystem(new Warrior("A"), new Warrior("B"), true);
+        test("Headless battle has no log", headless.getBattleLog().isEmpty());
+        
+        CombatantSpec strong = new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 5)
+            .withWeapon(new Weapon("Sim Sword", "", 5, 100,
+                Item.ItemRarity.COMMON, 10, 20, Weapon.WeaponType.SWORD));
+        CombatantSpec weak = new CombatantSpec(CombatantSpec.CharacterClass.MAGE, 1);
+        
+        test("CombatantSpec level", strong.create("Lvl").getLevel() == 5);
+        test("CombatantSpec weapon equipped", 
+            strong.create("Eq").getEquippedWeapon() != null);
+        
+        SimulationResult result = new BattleSimulator().run(strong, weak,
+            PlayerPolicy.attackOnly(), 200);
+        test("Simulator battle count", result.getBattles() == 200
+            && result.getWins() + result.getLosses() + result.getFled()
+               + result.getTimeouts() == 200);
+        test("Simulator strong player wins", result.getWinRate() > 0.9);
+        test("Simulator rounds recorded", result.getAverageRounds() >= 1);
+        test("Simulator damage recorded", result.getDamageDealt().getMean() > 0);
+        
+        // Same seed must produce identical battles
+        CombatantSpec archer = new CombatantSpec(CombatantSpec.CharacterClass.ARCHER, 3)
+            .withWeapon(new Weapon("Sim Bow", "", 3, 50,
+                Item.ItemRarity.COMMON, 5, 15, Weapon.WeaponType.BOW));
+        SimulationResult first = new BattleSimulator().run(archer, strong,
+            PlayerPolicy.specialEvery(3), 100, new RandomSource(42));
+        SimulationResult second = new BattleSimulator().run(archer, strong,
+            PlayerPolicy.specialEvery(3), 100, new RandomSource(42));
+        test("Seeded simulations identical", first.getWins() == second.getWins()
+            && first.getTotalRounds() == second.getTotalRounds()
+            && first.getDamageDealt().getMean() == second.getDamageDealt().getMean()
+            && first.getDamageTaken().getMean() == second.getDamageTaken().getMean());
+    }
+    
+    // ============================================================
+    // בדיקות סורק איזון
+    // ============================================================
+    
+    private static void testEncounterBalancer() {
+        System.out.println("\n--- Testing Encounter Balancer ---");
+        
+        EncounterBalancer balancer = new EncounterBalancer(PlayerPolicy.attackOnly(), 1200, 7)
+            .addClass(CombatantSpec.CharacterClass.WARRIOR)
+            .addClass(CombatantSpec.CharacterClass.ARCHER)
+            .addLevel(1).addLevel(4)
+            .addEnemy("Goblin", new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 1))
+            .addEnemy("Orc", new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 3));
+        
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ForkJoinPool single = new ForkJoinPool(1);
+        BalanceMatrix parallel;
+        BalanceMatrix sequential;
+        try {
+            parallel = balancer.run(pool);
+            sequential = balancer.run(single);
+        } finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+        
+        test("Balancer cell count", parallel.getCellCount() == 8);
+        test("Balancer battles per cell", parallel.getResult(0, 0).getBattles() == 1200);
+        
+        boolean identical = true;
+        for (int p = 0; p < parallel.getPlayerSpecCount(); p++) {
+            for (int e = 0; e < parallel.getEnemyCount(); e++) {
+                SimulationResult a = parallel.getResult(p, e);
+                SimulationResult b = sequential.getResult(p, e);
+                identical &= a.getWins() == b.getWins() && a.getTotalRounds() == b.getTotalRounds();
+            }
+        }
+        test("Balancer deterministic across pool sizes", identical);
+        
+        // Level 4 warrior (row 1) should beat the orc (column 1) more often than level 1 (row 0)
+        test("Balancer level scaling", 
+            parallel.getResult(1, 1).getWinRate() >= parallel.getResult(0, 1).getWinRate());
+        test("Balancer danger suggestion", BalanceMatrix.suggestDangerLevel(1.0) == 1
+            && BalanceMatrix.suggestDangerLevel(0.0) == 5);
+    }
+    
+    // ============================================================
+    // בדיקות אירועי קרב
+    // ============================================================
+    
+    private static void testBattleEvents() {
+        System.out.println("\n--- Testing Battle Events ---");
+        
+        Warrior hero = new Warrior("Hero");
+        Mage victim = new Mage("Victim");
+        hero.setConsoleOutput(false);
+        BattleSystem battle = new BattleSystem(hero, victim, true, new RandomSource(3));
+        RingBufferEventSink sink = new RingBufferEventSink(4);
+        battle.setEventListener(sink);
+        
+        try {
+            while (!battle.isBattleEnded()) {
+                battle.queuePlayerAction(BattleAction.ActionType.ATTACK);
+                battle.processRound();
+            }
+        } catch (InvalidActionException e) {
+            test("Battle events (invalid action)", false);
+        }
+        
+        test("Ring buffer keeps capacity", sink.size() == 4);
+        test("Ring buffer counts all events", sink.getPublishedCount() > 4);
+        
+        BattleEvent last = sink.get(sink.size() - 1, new BattleEvent());
+        BattleEvent beforeLast = sink.get(sink.size() - 2, new BattleEvent());
+        test("Last event is reward", last.getType() == BattleEvent.Type.REWARD
+            && last.getActor() == hero && last.getAmount() == victim.getLevel() * 10);
+        test("Defeat precedes reward", beforeLast.getType() == BattleEvent.Type.DEFEAT
+            && beforeLast.getActor() == victim);
+        test("Event text formatting", last.toString().contains("Hero gained"));
+    }
+    
+    // ============================================================
+    // בדיקות קרבות קבוצתיים
+    // ============================================================
+    
+    private static void testPartyBattles() {
+        System.out.println("\n--- Testing Party Battles ---");
+        
+        // Initiative: same priority, faster weapon acts first
+        Warrior slow = new Warrior("Slow");
+        Warrior fast = new Warrior("Fast");
+        try {
+            Weapon axe = new Weapon("Axe", "", 10, 50, Item.ItemRarity.COMMON, 1, 2, Weapon.WeaponType.AXE);
+            Weapon dagger = new Weapon("Dagger", "", 2, 50, Item.ItemRarity.COMMON, 1, 2, Weapon.WeaponType.DAGGER);
+            slow.addItem(axe);
+            slow.equipWeapon(axe);
+            fast.addItem(dagger);
+            fast.equipWeapon(dagger);
+        } catch (Exception e) {
+            test("Initiative setup", false);
+        }
+        test("Dagger faster than axe", fast.getInitiative() > slow.getInitiative());
+        
+        InitiativeScheduler scheduler = new InitiativeScheduler();
+        scheduler.schedule(new BattleAction(slow, fast, BattleAction.ActionType.ATTACK));
+        scheduler.schedule(new BattleAction(fast, slow, BattleAction.ActionType.ATTACK));
+        scheduler.schedule(new BattleAction(slow, fast, BattleAction.ActionType.FLEE));
+        test("Scheduler priority first", scheduler.next().getActionType() == BattleAction.ActionType.FLEE);
+        test("Scheduler initiative second", scheduler.next().getActor() == fast);
+        
+        // Raid: 150 vs 150
+        ArrayList<CombatantSpec> raid = new ArrayList<>();
+        ArrayList<CombatantSpec> horde = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            raid.add(new CombatantSpec(CombatantSpec.CharacterClass.values()[i % 3], 5));
+            horde.add(new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 1));
+        }
+        BattleSystem battle = new BattleSimulator().runPartyBattle(raid, horde,
+            PlayerPolicy.attackOnly(), new RandomSource(11));
+        test("Raid battle ends", battle.isBattleEnded());
+        test("Raid party wins", battle.getWinner() == battle.getPlayer()
+            && battle.getLivingEnemyCount() == 0 && battle.getLivingPartyCount() > 0);
+        test("Raid sides kept", battle.getParty().size() == 150 && battle.getEnemies().size() == 150);
+    }
+    
+    // ============================================================
+    // בדיקות מלאי עם אינדקס וערימות
+    // ============================================================
+    
+    private static void testInventoryIndex() {
+        System.out.println("\n--- Testing Inventory Index ---");
+        
+        Inventory inventory = new Inventory();
+        inventory.add(new Potion("Health Potion", "Heals", 25, Item.ItemRarity.COMMON,
+            Potion.PotionType.HEALTH, 30, 1));
+        inventory.add(new Weapon("Sword", "", 5, 50, Item.ItemRarity.COMMON, 5, 10, Weapon.WeaponType.SWORD));
+        inventory.add(new Potion("Health Potion", "Heals", 25, Item.ItemRarity.COMMON,
+            Potion.PotionType.HEALTH, 30, 1));
+        inventory.add(new Potion("Health Potion", "Heals more", 60, Item.ItemRarity.RARE,
+            Potion.PotionType.HEALTH, 60, 1));
+        
+        test("Inventory stacks identical items", inventory.size() == 4 && inventory.stackCount() == 3);
+        test("Inventory count by name", inventory.countByName("Health Potion") == 3);
+        test("Inventory keeps insertion order", inventory.toList().get(2).getName().equals("Sword"));
+        
+        Item removed = inventory.removeByName("Health Potion");
+        test("Inventory removes first by name", removed.getRarity() == Item.ItemRarity.COMMON
+            && inventory.countByName("Health Potion") == 2);
+        inventory.removeByName("Health Potion");
+        inventory.removeByName("Health Potion");
+        test("Inventory empties stacks", !inventory.containsName("Health Potion")
+            && inventory.removeByName("Health Potion") == null && inventory.size() == 1);
+        
+        // Partitioned views: updated incrementally, read-only
+        List<Weapon> weaponView = inventory.getWeapons();
+        List<Item> commonView = inventory.getItemsOfRarity(Item.ItemRarity.COMMON);
+        Armor cap = new Armor("Cap", "", 1, 10, Item.ItemRarity.COMMON, 2, Armor.ArmorSlot.HEAD);
+        inventory.add(cap);
+        inventory.add(new Weapon("Bow", "", 3, 40, Item.ItemRarity.RARE, 4, 8, Weapon.WeaponType.BOW));
+        test("Views track additions", weaponView.size() == 2 && inventory.getArmors().get(0) == cap
+            && commonView.size() == 2 && inventory.getItemsOfRarity(Item.ItemRarity.RARE).size() == 1);
+        inventory.removeByName("Sword");
+        test("Views track removals", weaponView.size() == 1 && weaponView.get(0).getName().equals("Bow")
+            && commonView.size() == 1 && commonView.get(0) == cap);
+        boolean readOnly = false;
+        try {
+            weaponView.clear();
+        } catch (UnsupportedOperationException e) {
+            readOnly = true;
+        }
+        test("Views are read-only", readOnly && weaponView.size() == 1);
+        
+        // Large bot inventory through Character
+        Warrior bot = new Warrior("Bot", 100_000);
+        try {
+            for (int i = 0; i < 50_000; i++) {
+                bot.addItem(new Potion("Potion " + (i % 100), "", 10, Item.ItemRarity.COMMON,
+                    Potion.PotionType.MANA, 10, 1));
+            }
+            test("Bot inventory count", bot.getInventorySize() == 50_000 && bot.getItemCount("Potion 7") == 500);
+            for (int i = 0; i < 500; i++) {
+                bot.removeItem("Potion 7");
+            }
+            test("Bot inventory remove", !bot.hasItem("Potion 7") && bot.getInventorySize() == 49_500);
+            test("Bot potion view", bot.getItemsView(Potion.class).size() == 49_500
+                && bot.getItemsOfRarity(Item.ItemRarity.COMMON).size() == 49_500
+                && bot.getItemsView(Weapon.class).isEmpty());
+        } catch (Exception e) {
+            test("Bot inventory", false);
+        }
+    }
+    
+    // ============================================================
+    // בדיקות נתונים נגזרים (cache)
+    // ============================================================
+    
+    private static void testDerivedStats() {
+        System.out.println("\n--- Testing Derived Stats ---");
+        
+        Warrior warrior = new Warrior("Cached");
+        warrior.setConsoleOutput(false);
+        test("Base derived stats", warrior.getTotalDefense() == 10 && warrior.getAttackStrength() == 15
+            && warrior.getMinAttackDamage() == 15 && warrior.getArmorDamageReduction() == 0.0);
+        
+        try {
+            Weapon sword = new Weapon("Sword", "", 5, 50, Item.ItemRarity.COMMON, 8, 12, Weapon.WeaponType.SWORD);
+            Armor chest = new Armor("Plate", "", 10, 80, Item.ItemRarity.COMMON, 20, Armor.ArmorSlot.CHEST);
+            warrior.addItem(sword);
+            warrior.addItem(chest);
+            warrior.equipWeapon(sword);
+            warrior.equipArmor(chest);
+            test("Equip refreshes attack", warrior.getMinAttackDamage() == 23 && warrior.getMaxAttackDamage() == 27);
+            test("Equip refreshes defense", warrior.getTotalDefense() == 30
+                && warrior.getArmorDamageReduction() == chest.calculateDamageReduction());
+        } catch (Exception e) {
+            test("Derived stats equipment", false);
+        }
+        
+        warrior.gainExperience(model.characters.Character.getExperiencePerLevel());
+        test("Level up refreshes stats", warrior.getTotalDefense() == 33 && warrior.getAttackStrength() == 20);
+        
+        warrior.applyStatBonus(5, 2);
+        test("Buff refreshes stats", warrior.getAttackStrength() == 25 && warrior.getTotalDefense() == 35);
+        warrior.applyStatBonus(-5, -2);
+        int healthBefore = warrior.getCurrentHealth();
+        warrior.takeDamage(40);
+        test("Damage uses cached defense", warrior.getCurrentHealth() == healthBefore - 7);
+    }
+    
+    // ============================================================
+    // בדיקות אפקטים וגלגל טיימרים
+    // ============================================================
+    
+    private static int timerMisfires;
+    
+    private static void testStatusEffects() {
+        System.out.println("\n--- Testing Status Effects ---");
+        
+        // Timer wheel: every timer fires exactly on its deadline, across all levels
+        TimerWheel wheel = new TimerWheel();
+        RandomSource delays = new RandomSource(5);
+        timerMisfires = 0;
+        for (int i = 0; i < 5_000; i++) {
+            wheel.schedule(new TimerWheel.Timer() {
+                @Override
+                protected void onExpire(TimerWheel w, long tick) {
+                    if (tick != getDeadline()) {
+                        timerMisfires++;
+                    }
+                }
+            }, 1 + delays.nextInt(i % 2 == 0 ? 100 : 300_000));
+        }
+        TimerWheel.Timer cancelled = new TimerWheel.Timer() {
+            @Override
+            protected void onExpire(TimerWheel w, long tick) {
+                timerMisfires++;
+            }
+        };
+        wheel.schedule(cancelled, 50);
+        wheel.cancel(cancelled);
+        int fired = 0;
+        for (int t = 0; t < 300_001; t++) {
+            fired += wheel.advance();
+        }
+        test("Timer wheel fires on deadline", timerMisfires == 0 && fired == 5_000 && wheel.isEmpty());
+
+        // Beyond the top level: parked in overflow and cascaded down when the wheel wraps
+        TimerWheel farWheel = new TimerWheel();
+        for (long delay : new long[] {20_000_000L, 40_000_000L}) {
+            farWheel.schedule(new TimerWheel.Timer() {
+                @Override
+                protected void onExpire(TimerWheel w, long tick) {
+                    if (tick != getDeadline()) {
+                        timerMisfires++;
+                    }
+                }
+            }, delay);
+        }
+        int farFired = 0;
+        for (int t = 0; t < 40_000_000; t++) {
+            farFired += farWheel.advance();
+        }
+        test("Timer wheel overflow", timerMisfires == 0 && farFired == 2);
+        
+        // Defend stance halves damage after defense, and expires at round end
+        Warrior guard = new Warrior("Guard");
+        guard.setConsoleOutput(false);
+        guard.defend();
+        int before = guard.getCurrentHealth();
+        guard.takeDamage(30);
+        test("Defend reduces damage", guard.getCurrentHealth() == before - 10);
+        guard.getStatusEffectEngine().advance();
+        test("Defend expires", !guard.hasStatusEffect(StatusEffect.Type.DEFEND)
+            && guard.getStatusEffects().isEmpty());
+        
+        // Poison ticks every round until it expires
+        guard.applyStatusEffect(new StatusEffect(StatusEffect.Type.POISON, 5, 3));
+        before = guard.getCurrentHealth();
+        StatusEffectEngine engine = guard.getStatusEffectEngine();
+        for (int i = 0; i < 5; i++) {
+            engine.advance();
+        }
+        test("Poison ticks for its duration", guard.getCurrentHealth() == before - 15
+            && engine.getActiveEffectCount() == 0);
+        
+        // Buffs and debuffs go through the derived stat cache
+        Potion strength = new Potion("Giant Strength", "", 50, Item.ItemRarity.RARE,
+            Potion.PotionType.STRENGTH, 10, 1);
+        int strengthBefore = guard.getAttackStrength();
+        strength.use(guard);
+        guard.applyStatusEffect(new StatusEffect(StatusEffect.Type.DEFENSE, -4, 1));
+        test("Buff and debuff applied", guard.getAttackStrength() == strengthBefore + 10
+            && guard.getTotalDefense() == 6);
+        for (int i = 0; i < 3; i++) {
+            engine.advance();
+        }
+        test("Buff and debuff expire", guard.getAttackStrength() == strengthBefore
+            && guard.getTotalDefense() == 10);
+        
+        // Mana shield and evasion are hooked into takeDamage
+        Mage mage = new Mage("Shielded");
+        mage.setConsoleOutput(false);
+        test("Mana shield cast", mage.castManaShield() && !mage.castManaShield());
+        before = mage.getCurrentHealth();
+        mage.takeDamage(43);
+        test("Mana shield absorbs", mage.getCurrentHealth() == before && mage.getCurrentMana() == 130);
+        Archer archer = new Archer("Evasive");
+        archer.setConsoleOutput(false);
+        archer.applyStatusEffect(new StatusEffect(StatusEffect.Type.EVASION, 100, 1));
+        before = archer.getCurrentHealth();
+        archer.takeDamage(50);
+        test("Evasion dodges", archer.getCurrentHealth() == before);
+        
+        // In battle: stunned actors lose their action, poison can end the battle
+        Warrior hero = new Warrior("Hero");
+        Warrior victim = new Warrior("Victim");
+        BattleSystem battle = new BattleSystem(hero, victim, true, new RandomSource(3));
+        RingBufferEventSink effectEvents = new RingBufferEventSink(16);
+        battle.setEventListener(effectEvents);
+        hero.applyStatusEffect(new StatusEffect(StatusEffect.Type.STUN, 0, 1));
+        victim.applyStatusEffect(new StatusEffect(StatusEffect.Type.POISON, 1_000, 1));
+        try {
+            battle.queuePlayerAction(BattleAction.ActionType.ATTACK);
+            battle.processRound();
+        } catch (InvalidActionException e) {
+            test("Battle with effects", false);
+        }
+        BattleEvent first = effectEvents.get(0, new BattleEvent());
+        test("Stunned actor skips turn", first.getActor() == hero && !first.isSuccess() && first.getAmount() == 0);
+        test("Poison ends battle", battle.isBattleEnded() && battle.getWinner() == hero);
+        test("Effects engine shared", hero.getStatusEffectEngine() == battle.getStatusEffectEngine()
+            && battle.getStatusEffectEngine().getActiveEffectCount() == 0);
+
+        // Out of battle: effects expire as the character advances its own clock (room moves in Game)
+        Warrior traveler = new Warrior("Traveler");
+        traveler.setConsoleOutput(false);
+        int travelerStrength = traveler.getAttackStrength();
+        traveler.applyStatusEffect(new StatusEffect(StatusEffect.Type.STRENGTH, 5, 3));
+        traveler.advanceStatusEffects();
+        // A battle takes the buff over with the rounds it has left, and owns the clock meanwhile
+        Warrior sparring = new Warrior("Sparring");
+        BattleSystem spar = new BattleSystem(traveler, sparring, true, new RandomSource(5));
+        boolean carried = traveler.hasStatusEffect(StatusEffect.Type.STRENGTH)
+            && traveler.getAttackStrength() == travelerStrength + 5
+            && traveler.getStatusEffectEngine() == spar.getStatusEffectEngine()
+            && traveler.advanceStatusEffects() == 0;
+        spar.getStatusEffectEngine().advance();
+        traveler.setStatusEffectEngine(null);
+        boolean stillActive = traveler.hasStatusEffect(StatusEffect.Type.STRENGTH)
+            && traveler.getStatusEffectEngine() != spar.getStatusEffectEngine();
+        traveler.advanceStatusEffects();
+        test("Out-of-battle effects expire", carried && stillActive
+            && !traveler.hasStatusEffect(StatusEffect.Type.STRENGTH)
+            && traveler.getAttackStrength() == travelerStrength);
+    }
+    
+    // ============================================================
+    // בדיקות גרף המבוך (CSR)
+    // ============================================================
+    
+    private static void testDungeonGraph() {
+        System.out.println("\n--- Testing Dungeon Graph ---");
+        
+        DungeonGraph graph = new DungeonGraph();
+        int a = graph.addNode("a");
+        int b = graph.addNode("b");
+        int c = graph.addNode("c");
+        test("Graph interns ids", graph.addNode("b") == b && graph.indexOf("c") == c
+            && graph.indexOf("missing") == DungeonGraph.NO_NODE && graph.getId(a).equals("a"));
+        
+        graph.connect(a, c);
+        graph.connect(a, b);
+        graph.connect(a, b);
+        test("Graph dedupes and sorts rows", graph.getNeighborCount(a) == 2
+            && graph.getNeighbor(a, 0) == b && graph.getNeighbor(a, 1) == c && graph.getEdgeCount() == 4);
+        test("Graph connectivity", graph.isConnected(b, a) && !graph.isConnected(b, c));
+        
+        // Nodes and edges added after compaction are merged on the next query
+        int d = graph.addNode("d");
+        graph.connect(c, d);
+        test("Graph merges later edges", graph.isConnected(d, c) && graph.getNeighborCount(a) == 2
+            && graph.getNeighborCount(d) == 1);
+        
+        // GameLocation delegates to the map's graph
+        DungeonMap map = new DungeonMap();
+        GameLocation first = new GameLocation("first", "First", "", 1);
+        GameLocation second = new GameLocation("second", "Second", "", 1);
+        first.addConnection("second");
+        map.addLocation(second);
+        map.addLocation(first);
+        test("Location connections move into graph", first.isConnectedTo("second")
+            && !second.isConnectedTo("first") && first.getConnectedLocationIds().size() == 1);
+
+        // A room already in the map connects to a room that is added later
+        GameLocation third = new GameLocation("third", "Third", "", 1);
+        first.addConnection("third");
+        map.addLocation(third);
+        try {
+            map.connectLocations("second", "first");
+            map.moveTo("first");
+            ArrayList<GameLocation> reachable = map.getAccessibleLocations();
+            test("Pending connection moves into graph when target is added",
+                first.isConnectedTo("third") && reachable.size() == 2 && reachable.contains(third)
+                && first.getConnectedLocationIds().size() == 2
+                && map.findShortestPath("first", "third").getStepCount() == 1);
+        } catch (InvalidActionException e) {
+            test("Pending connection moves into graph when target is added", false);
+        }
+
+        // Large grid
+        int side = 400;
+        DungeonGraph grid = new DungeonGraph();
+        for (int i = 0; i < side * side; i++) {
+            grid.addNode("cell-" + i);
+        }
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int cell = y * side + x;
+                if (x + 1 < side) grid.connect(cell, cell + 1);
+                if (y + 1 < side) grid.connect(cell, cell + side);
+            }
+        }
+        int center = (side / 2) * side + side / 2;
+        test("Large grid graph", grid.getEdgeCount() == 4 * side * (side - 1)
+            && grid.getNeighborCount(center) == 4 && grid.isConnected(center, center - side)
+            && grid.getNeighborCount(0) == 2);
+    }
+    
+    // ============================================================
+    // בדיקות חיפוש מסלולים
+    // ============================================================
+    
+    private static void testPathfinding() {
+        System.out.println("\n--- Testing Pathfinding ---");
+        
+        // start - risky (danger 9) - boss, and a longer safe detour start - a - b - boss
+        DungeonMap map = new DungeonMap();
+        map.addLocation(new GameLocation("start", "Start", "", 0));
+        map.addLocation(new GameLocation("risky", "Risky", "", 9));
+        map.addLocation(new GameLocation("a", "A", "", 1));
+        map.addLocation(new GameLocation("b", "B", "", 1));
+        map.addLocation(new GameLocation("boss", "Boss", "", 2));
+        map.addLocation(new GameLocation("island", "Island", "", 0));
+        map.setBossLocation("boss");
+        
+        try {
+            map.connectLocations("start", "risky");
+            map.connectLocations("risky", "boss");
+            map.connectLocations("start", "a");
+            map.connectLocations("a", "b");
+            map.connectLocations("b", "boss");
+            
+            DungeonPath shortest = map.findShortestPath("start", "boss");
+            test("BFS shortest path", shortest != null && shortest.getStepCount() == 2
+                && shortest.getNextLocationId().equals("risky"));
+            
+            DungeonPath safest = map.findSafestPath("start", "boss");
+            test("Dijkstra safest path", safest != null && safest.getStepCount() == 3
+                && safest.getCost() == 7 && safest.getLocationIds().get(1).equals("a"));
+            
+            final DungeonGraph graph = map.getGraph();
+            final int bossIndex = graph.indexOf("boss");
+            DungeonPath aStar = map.findPath("start", "boss", new Pathfinder.Heuristic() {
+                @Override
+                public int estimate(int node, int goal) {
+                    return node == bossIndex ? 0 : 1;
+                }
+            });
+            test("A* matches Dijkstra cost", aStar != null && aStar.getCost() == safest.getCost());
+            test("Path to boss", map.findPathToBoss() != null && map.findPathToBoss().getCost() == 7);
+            test("Unreachable path is null", map.findShortestPath("start", "island") == null);
+            
+            // Cache hits return the same immutable instance
+            Pathfinder pathfinder = map.getPathfinder();
+            long hits = pathfinder.getCacheHits();
+            test("Path cache hit", map.findShortestPath("start", "boss") == shortest
+                && pathfinder.getCacheHits() == hits + 1);
+            
+            // Changing the graph invalidates cached paths
+            map.connectLocations("start", "boss");
+            DungeonPath direct = map.findShortestPath("start", "boss");
+            test("Path cache invalidated on connect", direct != shortest && direct.getStepCount() == 1);
+            
+            // LRU eviction
+            pathfinder.setCacheCapacity(2);
+            map.findShortestPath("start", "a");
+            map.findShortestPath("start", "b");
+            map.findShortestPath("start", "a");
+            map.findShortestPath("a", "b");
+            test("Path cache bounded", pathfinder.getCacheSize() == 2);
+            
+            DungeonPath explore = map.findPathToNearestUnvisited();
+            test("Nearest unvisited", explore != null && explore.getStepCount() == 1);
+            map.moveTo("a");
+            map.moveTo("start");
+            map.moveTo("risky");
+            map.moveTo("boss");
+            map.moveTo("b");
+            test("No unvisited reachable", map.findPathToNearestUnvisited() == null);
+        } catch (InvalidActionException e) {
+            test("Pathfinding: " + e.getMessage(), false);
+        }
+        
+        try {
+            map.findShortestPath("start", "missing");
+            test("Path to missing location throws", false);
+        } catch (InvalidActionException e) {
+            test("Path to missing location throws", true);
+        }
+        
+        // Large grid: corner to corner
+        int side = 300;
+        DungeonMap grid = new DungeonMap();
+        for (int i = 0; i < side * side; i++) {
+            grid.addLocation(new GameLocation("cell-" + i, "Cell", "", 0));
+        }
+        try {
+            for (int y = 0; y < side; y++) {
+                for (int x = 0; x < side; x++) {
+                    int cell = y * side + x;
+                    if (x + 1 < side) grid.connectLocations("cell-" + cell, "cell-" + (cell + 1));
+                    if (y + 1 < side) grid.connectLocations("cell-" + cell, "cell-" + (cell + side));
+                }
+            }
+            String corner = "cell-" + (side * side - 1);
+            DungeonPath bfs = grid.findShortestPath("cell-0", corner);
+            DungeonPath dijkstra = grid.findSafestPath("cell-0", corner);
+            test("Large grid paths", bfs.getStepCount() == 2 * (side - 1)
+                && dijkstra.getCost() == 2 * (side - 1));
+        } catch (InvalidActionException e) {
+            test("Large grid paths: " + e.getMessage(), false);
+        }
+    }
+    
+    // ============================================================
+    // בדיקות מחולל המבוכים
+    // ============================================================
+    
+    private static void testDungeonGenerator() {
+        System.out.println("\n--- Testing Dungeon Generator ---");
+        
+        int rooms = 5000;
+        DungeonMap parallel = new DungeonGenerator(rooms, 42L).withRegionSize(256).generate();
+        ForkJoinPool single = new ForkJoinPool(1);
+        DungeonMap serial;
+        try {
+            serial = new DungeonGenerator(rooms, 42L).withRegionSize(256).generate(single);
+        } finally {
+            single.shutdown();
+        }
+        test("Generator room count", parallel.getTotalLocations() == rooms);
+        
+        boolean same = parallel.getGraph().getEdgeCount() == serial.getGraph().getEdgeCount();
+        for (int i = 0; same && i < rooms; i++) {
+            GameLocation a = parallel.getLocation(i);
+            GameLocation b = serial.getLocation(i);
+            same = a.getId().equals(b.getId()) && a.getName().equals(b.getName())
+                && a.getDangerLevel() == b.getDangerLevel() && a.hasLoot() == b.hasLoot()
+                && a.getConnectedLocationIds().equals(b.getConnectedLocationIds());
+        }
+        test("Generator deterministic across pool sizes", same);
+        
+        DungeonMap other = new DungeonGenerator(rooms, 43L).withRegionSize(256).generate();
+        test("Generator depends on seed", !other.getLocation(1).getConnectedLocationIds()
+            .equals(parallel.getLocation(1).getConnectedLocationIds())
+            || !other.getLocation(1).getName().equals(parallel.getLocation(1).getName()));
+        
+        GameLocation boss = parallel.getLocation(rooms - 1);
+        test("Generator start and boss", parallel.getCurrentLocationId().equals(DungeonGenerator.roomId(0))
+            && parallel.getBossLocationId().equals(boss.getId()) && boss.hasMaster()
+            && boss.getDangerLevel() == DungeonGenerator.DEFAULT_MAX_DANGER_LEVEL);
+        
+        try {
+            test("Generator boss reachable", parallel.findPathToBoss() != null);
+        } catch (InvalidActionException e) {
+            test("Generator boss reachable: " + e.getMessage(), false);
+        }
+        
+        int early = 0;
+        int late = 0;
+        int lootRooms = 0;
+        for (int i = 0; i < rooms; i++) {
+            GameLocation location = parallel.getLocation(i);
+            if (i < rooms / 10) early += location.getDangerLevel();
+            if (i >= rooms - rooms / 10) late += location.getDangerLevel();
+            if (location.hasLoot()) lootRooms++;
+        }
+        test("Generator danger gradient", late > early * 3);
+        test("Generator places loot", lootRooms > rooms / 20 && lootRooms < rooms / 4);
+    }
+    
+    // ============================================================
+    // בדיקות דפדוף אזורים
+    // ============================================================
+    
+    private static void testPagedRegions() {
+        System.out.println("\n--- Testing Paged Regions ---");
+        
+        int rooms = 5000;
+        int regionSize = 256;
+        DungeonMap eager = new DungeonGenerator(rooms, 7L).withRegionSize(regionSize).generate();
+        DungeonMap paged = new DungeonGenerator(rooms, 7L).withRegionSize(regionSize).generatePaged(3);
+        test("Paged map starts small", paged.isPaged() && paged.getTotalLocations() == rooms
+            && paged.getResidentRegionCount() <= 2);
+        
+        boolean same = true;
+        for (int i = 0; same && i < rooms; i += 97) {
+            GameLocation a = eager.getLocation(i);
+            GameLocation b = paged.getLocation(i);
+            same = a.getName().equals(b.getName()) && a.getDangerLevel() == b.getDangerLevel()
+                && a.hasLoot() == b.hasLoot()
+                && a.getConnectedLocationIds().equals(b.getConnectedLocationIds());
+        }
+        test("Paged rooms match eager generation", same);
+        test("Paged residency bounded", paged.getResidentRegionCount() <= paged.getMaxResidentRegions());
+        
+        // Loot collected in a cold region survives eviction
+        int lootRoom = -1;
+        for (int i = regionSize; i < 2 * regionSize && lootRoom < 0; i++) {
+            if (paged.getLocation(i).hasLoot()) {
+                lootRoom = i;
+            }
+        }
+        paged.getLocation(lootRoom).collectAllLoot();
+        for (int i = 2 * regionSize; i < rooms; i += regionSize) {
+            paged.getLocation(i);
+        }
+        test("Paged loot written back", !paged.getLocation(lootRoom).hasLoot());
+        
+        // The master flag is stored with the region, not re-derived from the boss id
+        int guardedRoom = lootRoom + 1;
+        paged.getLocation(guardedRoom).setHasMaster(true);
+        for (int i = 2 * regionSize; i < rooms; i += regionSize) {
+            paged.getLocation(i);
+        }
+        test("Paged master flag written back", paged.getLocation(guardedRoom).hasMaster()
+            && !paged.getLocation(lootRoom).hasMaster());
+        
+        try {
+            // Walk to the boss; visited flags persist and the current region stays resident
+            DungeonPath path = paged.findShortestPath(paged.getCurrentLocationId(), paged.getBossLocationId());
+            for (int step = 1; step <= path.getStepCount(); step++) {
+                paged.moveTo(path.getLocationIdAt(step));
+            }
+            test("Paged walk to boss", paged.getCurrentLocation().hasMaster()
+                && paged.getResidentRegionCount() <= 3);
+            
+            String midway = path.getLocationIdAt(path.getStepCount() / 2);
+            test("Paged visited written back", paged.getLocation(midway).isVisited()
+                && paged.getLocation(DungeonGenerator.roomId(0)).isVisited());
+            test("Paged safest path", paged.findSafestPath(DungeonGenerator.roomId(0), paged.getBossLocationId())
+                .getCost() == eager.findSafestPath(DungeonGenerator.roomId(0), eager.getBossLocationId()).getCost());
+        } catch (InvalidActionException e) {
+            test("Paged walk: " + e.getMessage(), false);
+        }
+        
+        // Neighbours in more regions than fit in memory are all still attached to the map
+        DungeonMap tight = new DungeonGenerator(rooms, 7L).withRegionSize(64).generatePaged(2);
+        DungeonGraph tightGraph = tight.getGraph();
+        int spread = -1;
+        for (int node = 0; node < rooms && spread < 0; node++) {
+            java.util.HashSet<Integer> regions = new java.util.HashSet<>();
+            for (int k = 0; k < tightGraph.getNeighborCount(node); k++) {
+                regions.add(tightGraph.getNeighbor(node, k) / 64);
+            }
+            regions.remove(node / 64);
+            if (regions.size() >= 2) {
+                spread = node;
+            }
+        }
+        try {
+            DungeonPath path = tight.findShortestPath(tight.getCurrentLocationId(), tightGraph.getId(spread));
+            for (int step = 1; step <= path.getStepCount(); step++) {
+                tight.moveTo(path.getLocationIdAt(step));
+            }
+            ArrayList<GameLocation> neighbours = tight.getAccessibleLocations();
+            boolean attached = neighbours.size() == tightGraph.getNeighborCount(spread);
+            for (int k = 0; attached && k < neighbours.size(); k++) {
+                attached = neighbours.get(k).getGraphIndex() == tightGraph.getNeighbor(spread, k);
+            }
+            test("Paged neighbours stay attached", attached);
+        } catch (InvalidActionException | RuntimeException e) {
+            test("Paged neighbours stay attached", false);
+        }
+    }
+    
+    // ============================================================
+    // בדיקות מעקב ביקורים
+    // ============================================================
+    
+    private static void testVisitTracking() {
+        System.out.println("\n--- Testing Visit Tracking ---");
+        
+        DungeonMap map = new DungeonMap();
+        GameLocation start = new GameLocation("start", "Start", "", 1);
+        GameLocation hall = new GameLocation("hall", "Hall", "", 1);
+        GameLocation vault = new GameLocation("vault", "Vault", "", 2);
+        GameLocation cellar = new GameLocation("cellar", "Cellar", "", 2);
+        map.addLocation(start);
+        map.addLocation(hall);
+        map.addLocation(vault);
+        map.addLocation(cellar);
+        test("Start counts as visited", map.getVisitedCount() == 1
+            && Math.abs(map.getExplorationProgress() - 0.25) < 1e-9);
+        
+        try {
+            map.connectLocations("start", "hall");
+            map.moveTo("hall");
+            map.moveTo("start");
+        } catch (InvalidActionException e) {
+            test("Visit tracking: " + e.getMessage(), false);
+        }
+        vault.markAsVisited();
+        vault.markAsVisited();
+        test("Visits counted once", map.getVisitedCount() == 3
+            && Math.abs(map.getExplorationProgress() - 0.75) < 1e-9);
+        
+        ArrayList<String> unvisitedIds = new ArrayList<>();
+        for (GameLocation location : map.iterateUnvisitedLocations()) {
+            unvisitedIds.add(location.getId());
+        }
+        int visitedSeen = 0;
+        for (GameLocation location : map.iterateVisitedLocations()) {
+            if (location.isVisited()) visitedSeen++;
+        }
+        test("Lazy visit iteration", unvisitedIds.size() == 1 && unvisitedIds.get(0).equals("cellar")
+            && visitedSeen == 3 && map.getVisitedLocations().size() == 3
+            && map.getUnvisitedLocations().get(0) == cellar);
+        
+        // Replacing a room resets its visit state to the new room's flag
+        map.addLocation(new GameLocation("vault", "New Vault", "", 2));
+        test("Replaced room visit state", map.getVisitedCount() == 2
+            && !map.getLocation("vault").isVisited());
+        
+        // A pre-visited room added later is counted
+        GameLocation seen = new GameLocation("seen", "Seen", "", 1);
+        seen.markAsVisited();
+        map.addLocation(seen);
+        test("Pre-visited room counted", map.getVisitedCount() == 3
+            && Math.abs(map.getExplorationProgress() - 0.6) < 1e-9);
+    }
+    
+    // ============================================================
+    // בדיקות אינדקס רמות סכנה
+    // ============================================================
+    
+    private static void testDangerIndex() {
+        System.out.println("\n--- Testing Danger Index ---");
+        
+        // A corridor start(1) - r1(3) - r2(5) - r3(4) - r4(5) - r5(2)
+        DungeonMap map = new DungeonMap();
+        int[] dangers = {1, 3, 5, 4, 5, 2};
+        for (int i = 0; i < dangers.length; i++) {
+            map.addLocation(new GameLocation("r" + i, "Room " + i, "", dangers[i]));
+        }
+        try {
+            for (int i = 0; i + 1 < dangers.length; i++) {
+                map.connectLocations("r" + i, "r" + (i + 1));
+            }
+        } catch (InvalidActionException e) {
+            test("Danger index: " + e.getMessage(), false);
+        }
+        
+        test("Danger level counts", map.countLocationsWithDanger(5) == 2
+            && map.countLocationsWithDanger(6) == 0 && map.countLocationsWithDanger(1) == 1);
+        test("Danger range count", map.countLocationsInDangerRange(3, 5) == 4
+            && map.countLocationsInDangerRange(6, 9) == 0 && map.countLocationsInDangerRange(5, 3) == 0
+            && map.countLocationsInDangerRange(Integer.MIN_VALUE, Integer.MAX_VALUE) == 6);
+        
+        ArrayList<GameLocation> range = map.getLocationsInDangerRange(3, 4);
+        test("Danger range query", range.size() == 2 && range.get(0).getId().equals("r1")
+            && range.get(1).getId().equals("r3"));
+        
+        ArrayList<GameLocation> nearest = map.findNearestLocationsWithDanger(4, 2);
+        test("Nearest by danger", nearest.size() == 2 && nearest.get(0).getId().equals("r2")
+            && nearest.get(1).getId().equals("r3"));
+        test("Nearest by danger limited by index", map.findNearestLocationsWithDanger(5, 10).size() == 2
+            && map.findNearestLocationsWithDanger(9, 3).isEmpty());
+        
+        // Replacing a room moves it between levels, and a new level is inserted in order
+        map.addLocation(new GameLocation("r3", "Deep Room", "", 9));
+        map.addLocation(new GameLocation("r6", "Safe Room", "", 0));
+        test("Danger index updated on addLocation", map.countLocationsWithDanger(4) == 0
+            && map.countLocationsWithDanger(9) == 1 && map.countLocationsInDangerRange(0, 2) == 3
+            && map.getLocationsByDangerLevel().get(9).get(0).getName().equals("Deep Room")
+            && !map.getLocationsByDangerLevel().containsKey(4));
+        
+        // Paged maps answer from the index without loading regions
+        DungeonMap paged = new DungeonGenerator(3000, 3L).withRegionSize(200).generatePaged(2);
+        int maxDanger = DungeonGenerator.DEFAULT_MAX_DANGER_LEVEL;
+        test("Paged danger counts", paged.countLocationsInDangerRange(1, maxDanger) == 3000
+            && paged.countLocationsWithDanger(maxDanger) >= 1 && paged.getResidentRegionCount() <= 2);
+    }
+    
+    // ============================================================
+    // בדיקות שמירה וטעינה
+    // ============================================================
+    
+    private static void testSaveLoad() {
+        System.out.println("\n--- Testing Save/Load ---");
+        
+        Mage mage = new Mage("Saver");
+        mage.setConsoleOutput(false);
+        Weapon staff = new Weapon("Oak Staff", "A magical staff", 4, 60,
+            Item.ItemRarity.RARE, 6, 12, Weapon.WeaponType.STAFF);
+        Armor hat = new Armor("Wizard Hat", "Pointy", 1, 30, Item.ItemRarity.COMMON, 5, Armor.ArmorSlot.HEAD);
+        Potion potion = new Potion("Mana Potion", "Restores 25 MP", 25,
+            Item.ItemRarity.COMMON, Potion.PotionType.MANA, 25, 3);
+        Potion usedPotion = new Potion(potion);
+        try {
+            mage.addItem(staff);
+            mage.addItem(hat);
+            mage.equipWeapon(staff);
+            mage.equipArmor(hat);
+            mage.addItem(potion);
+            mage.addItem(new Potion(potion));
+            mage.useMana(30);
+            usedPotion.use(mage);
+            mage.addItem(usedPotion);
+        } catch (InventoryFullException | ItemNotFoundException e) {
+            test("Save/load setup: " + e.getMessage(), false);
+        }
+        mage.gainExperience(model.characters.Character.getExperiencePerLevel() + 30);
+        mage.addGold(123);
+        mage.takeDamage(40);
+        mage.applyStatBonus(3, -1);
+        mage.pushRecentlyUsed(new Potion(potion));
+        mage.pushRecentlyUsed(staff);
+        
+        DungeonMap map = new DungeonMap();
+        GameLocation entrance = new GameLocation("entrance", "Entrance", "Cold stones", 1);
+        GameLocation vault = new GameLocation("vault", "Vault", "Shiny", 4);
+        GameLocation lair = new GameLocation("lair", "Lair", "Smells bad", 7);
+        lair.addConnection("secret-room");
+        map.addLocation(entrance);
+        map.addLocation(vault);
+        map.addLocation(lair);
+        vault.addLoot(new Weapon("Rusty Sword", "Old", 5, 20, Item.ItemRarity.COMMON, 5, 10, Weapon.WeaponType.SWORD));
+        map.setBossLocation("lair");
+        try {
+            map.connectLocations("entrance", "vault");
+            map.connectLocations("vault", "lair");
+            map.moveTo("vault");
+        } catch (InvalidActionException e) {
+            test("Save/load setup: " + e.getMessage(), false);
+        }
+        
+        Shop shop = new Shop("Saved Shop");
+        shop.addItemToShop(new Armor("Chain Mail", "Decent", 8, 80, Item.ItemRarity.UNCOMMON, 15,
+            Armor.ArmorSlot.CHEST), 2);
+        shop.addItemToShop(potion, 0);
+        
+        Path file = null;
+        try {
+            file = Files.createTempFile("dungeon", ".sav");
+            long size = new SaveGame(mage, map, shop).write(file);
+            test("Save file written", size == Files.size(file) && size < 1024);
+            
+            SaveGame loaded = SaveGame.read(file);
+            model.characters.Character player = loaded.getPlayer();
+            test("Loaded character stats", player instanceof Mage && player.getName().equals("Saver")
+                && player.getLevel() == mage.getLevel() && player.getExperience() == mage.getExperience()
+                && player.getGold() == 123 && player.getCurrentHealth() == mage.getCurrentHealth()
+                && player.getMaxMana() == mage.getMaxMana() && player.getCurrentMana() == mage.getCurrentMana()
+                && player.getAttackStrength() == mage.getAttackStrength()
+                && player.getTotalDefense() == mage.getTotalDefense()
+                && ((Mage) player).getSpellPower() == mage.getSpellPower());
+            test("Loaded equipment", player.getEquippedWeapon() != null
+                && player.getEquippedWeapon().getName().equals("Oak Staff")
+                && player.getEquippedWeapon().getRarity() == Item.ItemRarity.RARE
+                && player.getEquippedArmor().get(Armor.ArmorSlot.HEAD).getDefense() == 5);
+            int usesLeft = 0;
+            for (Potion p : player.getItemsView(Potion.class)) {
+                usesLeft += p.getRemainingUses();
+            }
+            test("Loaded inventory", player.getItemCount("Mana Potion") == 3 && usesLeft == 8
+                && player.getInventorySize() == mage.getInventorySize());
+            test("Loaded recently used stack", player.popRecentlyUsed().getName().equals("Oak Staff")
+                && player.popRecentlyUsed() instanceof Potion && player.popRecentlyUsed() == null);
+            
+            DungeonMap loadedMap = loaded.getMap();
+            test("Loaded map", loadedMap.getTotalLocations() == 3
+                && loadedMap.getCurrentLocationId().equals("vault")
+                && loadedMap.getBossLocationId().equals("lair") && loadedMap.getLocation("lair").hasMaster()
+                && loadedMap.getVisitedCount() == 2 && !loadedMap.getLocation("lair").isVisited()
+                && loadedMap.getLocation("vault").hasLoot()
+                && loadedMap.getLocation("vault").isConnectedTo("lair")
+                && !loadedMap.getLocation("entrance").isConnectedTo("lair")
+                && loadedMap.getLocation("lair").isConnectedTo("secret-room")
+                && loadedMap.countLocationsWithDanger(7) == 1);
+            
+            Shop loadedShop = loaded.getShop();
+            test("Loaded shop", loadedShop.getName().equals("Saved Shop")
+                && loadedShop.getItemStock("Chain Mail") == 2 && loadedShop.getUniqueItemCount() == 2
+                && loadedShop.getItemStock("Mana Potion") == 0);
+            
+            // Active buffs are saved with the rounds they have left and still expire after loading
+            Warrior buffed = new Warrior("Buffed");
+            buffed.setConsoleOutput(false);
+            int baseAttack = buffed.getAttackStrength();
+            buffed.applyStatusEffect(new StatusEffect(StatusEffect.Type.STRENGTH, 7, 3));
+            buffed.applyStatusEffect(new StatusEffect(StatusEffect.Type.DEFENSE, 2, 5));
+            buffed.advanceStatusEffects();
+            new SaveGame(buffed, null, null).write(file);
+            model.characters.Character reloadedBuffed = SaveGame.read(file).getPlayer();
+            boolean buffLoaded = reloadedBuffed.getAttackStrength() == baseAttack + 7
+                && reloadedBuffed.getTotalDefense() == buffed.getTotalDefense()
+                && reloadedBuffed.getStatusEffects().size() == 2;
+            reloadedBuffed.advanceStatusEffects();
+            boolean stillBuffed = reloadedBuffed.hasStatusEffect(StatusEffect.Type.STRENGTH);
+            reloadedBuffed.advanceStatusEffects();
+            boolean strengthExpired = reloadedBuffed.getAttackStrength() == baseAttack
+                && !reloadedBuffed.hasStatusEffect(StatusEffect.Type.STRENGTH);
+            for (int i = 0; i < 10; i++) {
+                reloadedBuffed.advanceStatusEffects();
+            }
+            test("Saved buffs expire after loading", buffLoaded && stillBuffed && strengthExpired
+                && reloadedBuffed.getStatusEffects().isEmpty()
+                && reloadedBuffed.getTotalDefense() == new Warrior("Plain").getTotalDefense());
+            
+            // Generated map round trip
+            DungeonMap generated = new DungeonGenerator(20000, 5L).withRegionSize(1024).generate();
+            generated.getLocation(DungeonGenerator.roomId(500)).markAsVisited();
+            new SaveGame(null, generated, null).write(file);
+            DungeonMap reloaded = SaveGame.read(file).getMap();
+            boolean same = reloaded.getGraph().getEdgeCount() == generated.getGraph().getEdgeCount()
+                && reloaded.getVisitedCount() == generated.getVisitedCount();
+            for (int i = 0; same && i < 20000; i += 37) {
+                GameLocation a = generated.getLocation(i);
+                GameLocation b = reloaded.getLocation(i);
+                same = a.getName().equals(b.getName()) && a.hasLoot() == b.hasLoot()
+                    && a.getConnectedLocationIds().equals(b.getConnectedLocationIds());
+            }
+            test("Generated map round trip", same && SaveGame.read(file).getPlayer() == null);
+            
+            Files.write(file, new byte[] {1, 2, 3, 4, 5});
+            try {
+                SaveGame.read(file);
+                test("Rejects invalid save", false);
+            } catch (IOException e) {
+                test("Rejects invalid save", true);
+            }
+        } catch (IOException e) {
+            test("Save/load: " + e.getMessage(), false);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // קובץ זמני - לא קריטי
+                }
+            }
+        }
+    }
+    
+    // ============================================================
+    // בדיקות יומן שמירה
+    // ============================================================
+    
+    private static void testSaveJournal() {
+        System.out.println("\n--- Testing Save Journal ---");
+        
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("journal");
+            Path file = dir.resolve("dungeon.sav");
+            
+            Warrior hero = new Warrior("Journaler");
+            hero.setConsoleOutput(false);
+            hero.addGold(200);
+            DungeonMap map = new DungeonMap();
+            map.addLocation(new GameLocation("hall", "Hall", "Quiet", 0));
+            GameLocation cellar = new GameLocation("cellar", "Cellar", "Damp", 3);
+            cellar.addLoot(new Potion("Health Potion", "Heals", 20, Item.ItemRarity.COMMON,
+                Potion.PotionType.HEALTH, 30, 1));
+            map.addLocation(cellar);
+            map.connectLocations("hall", "cellar");
+            Shop shop = new Shop("Journal Shop");
+            shop.addItemToShop(new Weapon("Short Sword", "Sharp", 3, 50, Item.ItemRarity.COMMON,
+                4, 8, Weapon.WeaponType.SWORD), 2);
+            
+            try (SaveJournal journal = SaveJournal.create(file, hero, map, shop)
+                    .withSyncEvery(4).withSyncInterval(0).withCompactEvery(0)) {
+                journal.moveTo("cellar");
+                journal.collectLoot();
+                journal.buyItem("Short Sword");
+                journal.gainExperience(40);
+                journal.addItem(new Armor("Helm", "Iron", 2, 15, Item.ItemRarity.COMMON, 3, Armor.ArmorSlot.HEAD));
+                journal.sellItem("Helm");
+                journal.spendGold(30);
+                test("Journal rejects overspending", !journal.spendGold(100000));
+                hero.takeDamage(25);
+                journal.recordPlayer();
+                journal.addGold(1);
+                test("Journal group commit", journal.getSyncCount() == 2 && journal.getPendingRecords() == 1);
+            }
+            
+            try (SaveJournal reopened = SaveJournal.open(file)) {
+                model.characters.Character player = reopened.getPlayer();
+                test("Journal replays actions", reopened.getReplayedRecords() == 9
+                    && player.getGold() == hero.getGold() && player.getExperience() == 40
+                    && player.getCurrentHealth() == hero.getCurrentHealth()
+                    && player.hasItem("Short Sword") && player.hasItem("Health Potion") && !player.hasItem("Helm"));
+                test("Journal replays map and shop", reopened.getMap().getCurrentLocationId().equals("cellar")
+                    && !reopened.getMap().getLocation("cellar").hasLoot()
+                    && reopened.getShop().getItemStock("Short Sword") == 1 && reopened.getShop().getItemStock("Helm") == 1);
+            }
+            
+            // רשומה קטועה בסוף היומן נחתכת, ורשומות חדשות נכתבות אחריה
+            Path journalFile = SaveJournal.journalPathFor(file);
+            long validSize = Files.size(journalFile);
+            Files.write(journalFile, new byte[] {0, 0, 0, 40, 1, 2, 3}, java.nio.file.StandardOpenOption.APPEND);
+            try (SaveJournal reopened = SaveJournal.open(file).withSyncEvery(1)) {
+                test("Journal truncates torn record", reopened.getReplayedRecords() == 9
+                    && Files.size(journalFile) == validSize);
+                reopened.addGold(5);
+            }
+            int gold;
+            try (SaveJournal reopened = SaveJournal.open(file)) {
+                test("Journal appends after recovery", reopened.getReplayedRecords() == 10
+                    && reopened.getPlayer().getGold() == hero.getGold() + 5);
+                
+                // דחיסה: תמונה חדשה, יומן ריק מאותו דור
+                gold = reopened.getPlayer().getGold();
+                reopened.compact();
+                reopened.withCompactEvery(5);
+                for (int i = 0; i < 7; i++) {
+                    reopened.addGold(1);
+                }
+                test("Journal compacts into snapshot", reopened.getGeneration() == 3
+                    && reopened.getJournalRecords() == 2);
+            }
+            try (SaveJournal reopened = SaveJournal.open(file)) {
+                test("Journal replays after compaction", reopened.getReplayedRecords() == 2
+                    && reopened.getPlayer().getGold() == gold + 7);
+            }
+            
+            // קריסה בין כתיבת התמונה להחלפת היומן: יומן מדור ישן כבר כלול בתמונה
+            SaveGame snapshot = SaveGame.read(file);
+            new SaveGame(snapshot.getPlayer(), snapshot.getMap(), snapshot.getShop(),
+                snapshot.getGeneration() + 1).write(file);
+            int actions = 20000;
+            try (SaveJournal reopened = SaveJournal.open(file)) {
+                test("Journal ignores stale generation", reopened.getReplayedRecords() == 0
+                    && reopened.getPlayer().getGold() == gold + 5);
+                
+                // הרבה פעולות בקבוצות גדולות
+                reopened.withSyncEvery(1024).withSyncInterval(0).withCompactEvery(0);
+                for (int i = 0; i < actions; i++) {
+                    reopened.addGold(1);
+                }
+            }
+            try (SaveJournal reopened = SaveJournal.open(file)) {
+                test("Journal replays many grouped actions", reopened.getReplayedRecords() == actions
+                    && reopened.getPlayer().getGold() == gold + 5 + actions);
+            }
+        } catch (IOException | InvalidActionException | InventoryFullException | ItemNotFoundException
+                | InsufficientGoldException e) {
+            test("Save journal: " + e, false);
+        } finally {
+            if (dir != null) {
+                // תיקייה זמנית - לא קריטי אם המחיקה נכשלת
+                for (java.io.File leftover : dir.toFile().listFiles()) {
+                    leftover.delete();
+                }
+                dir.toFile().delete();
+            }
+        }
+    }
+    
+    // ============================================================
+    // בדיקות קטלוג פריטים
+    // ============================================================
+    
+    private static void testItemCatalog() {
+        System.out.println("\n--- Testing Item Catalog ---");
+        
+        ArrayList<Item> items = new ArrayList<>();
+        items.add(new Weapon("Iron Sword", "A sturdy iron sword", 6, 50,
+            Item.ItemRarity.COMMON, 8, 15, Weapon.WeaponType.SWORD));
+        items.add(new Armor("Chain Mail", "Decent chest protection", 8, 80,
+            Item.ItemRarity.UNCOMMON, 15, Armor.ArmorSlot.CHEST));
+        items.add(new Potion("Elixir \u05e9\u05dc \u05d7\u05d9\u05d9\u05dd", "Restores 60 HP", 50,
+            Item.ItemRarity.EPIC, Potion.PotionType.HEALTH, 60, 3));
+        
+        Path file = null;
+        try {
+            file = Files.createTempFile("items", ".cat");
+            ItemCatalog.write(file, items);
+            ItemCatalog catalog = ItemCatalog.open(file);
+            test("Catalog size", catalog.size() == 3);
+            
+            Item sword = catalog.create("Iron Sword");
+            test("Catalog weapon", sword instanceof Weapon && ((Weapon) sword).getMinDamage() == 8
+                && ((Weapon) sword).getMaxDamage() == 15 && ((Weapon) sword).getWeaponType() == Weapon.WeaponType.SWORD
+                && sword.getWeight() == 6 && sword.getBuyPrice() == items.get(0).getBuyPrice()
+                && sword.getDescription().equals("A sturdy iron sword"));
+            Item mail = catalog.create("Chain Mail");
+            test("Catalog armor", mail instanceof Armor && ((Armor) mail).getDefense() == 15
+                && ((Armor) mail).getSlot() == Armor.ArmorSlot.CHEST && mail.getRarity() == Item.ItemRarity.UNCOMMON);
+            Item elixir = catalog.create(items.get(2).getName());
+            test("Catalog potion", elixir instanceof Potion && ((Potion) elixir).getMaxUses() == 3
+                && ((Potion) elixir).getPotency() == 60 && elixir.getName().equals(items.get(2).getName()));
+            test("Catalog creates new items", catalog.create("Iron Sword") != sword);
+            test("Catalog lookup by name", catalog.indexOf("Chain Mail") == 1 && !catalog.contains("Wooden Spoon"));
+            try {
+                catalog.create("Wooden Spoon");
+                test("Catalog rejects unknown item", false);
+            } catch (ItemNotFoundException e) {
+                test("Catalog rejects unknown item", e.getItemName().equals("Wooden Spoon"));
+            }
+            
+            items.add(new Armor("Chain Mail", "Again", 1, 1, Item.ItemRarity.COMMON, 1, Armor.ArmorSlot.HEAD));
+            try {
+                ItemCatalog.write(file, items);
+                test("Catalog rejects duplicate names", false);
+            } catch (IllegalArgumentException e) {
+                test("Catalog rejects duplicate names", ItemCatalog.open(file).size() == 3);
+            }
+            
+            // קטלוג גדול: הפתיחה לא מפענחת רשומות
+            int count = 200000;
+            ArrayList<Item> many = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                many.add(new Weapon("Blade #" + i, "Mass produced", 3, 10 + i % 90, Item.ItemRarity.COMMON,
+                    1 + i % 7, 8 + i % 7, Weapon.WeaponType.DAGGER));
+            }
+            ItemCatalog.write(file, many);
+            ItemCatalog large = ItemCatalog.open(file);
+            Item last = large.create("Blade #" + (count - 1));
+            boolean found = true;
+            for (int i = 0; found && i < count; i += 997) {
+                found = large.indexOf("Blade #" + i) == i;
+            }
+            test("Large catalog lookup", found && last.getName().equals("Blade #" + (count - 1))
+                && ((Weapon) last).getMinDamage() == 1 + (count - 1) % 7);
+            
+            Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+            try {
+                ItemCatalog.open(file);
+                test("Catalog rejects invalid file", false);
+            } catch (IOException e) {
+                test("Catalog rejects invalid file", true);
+            }
+        } catch (IOException | ItemNotFoundException e) {
+            test("Item catalog: " + e, false);
+        } finally {
+            if (file != null) {
+                // קובץ ממופה נשאר פתוח עד ה-GC; במערכות שאוסרות מחיקה שלו זה לא קריטי
+                file.toFile().delete();
+            }
+        }
+    }
+    
+    // ============================================================
+    // בדיקות תבניות פריטים
+    // ============================================================
+    
+    private static void testItemTemplates() {
+        System.out.println("\n--- Testing Item Templates ---");
+        
+        PotionTemplate tonic = new PotionTemplate("Tonic", "Restores 20 HP", 10,
+            Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 20, 2);
+        Potion first = tonic.newInstance();
+        Potion second = new Potion(first);
+        Warrior drinker = new Warrior("Drinker");
+        drinker.setConsoleOutput(false);
+        drinker.takeDamage(50);
+        first.use(drinker);
+        test("Potions share template", first.getTemplate() == second.getTemplate()
+            && second.getName().equals("Tonic") && second.getMaxUses() == 2);
+        test("Potion uses are per instance", first.getRemainingUses() == 1 && second.getRemainingUses() == 2
+            && !first.isSellable() && second.isSellable());
+        Weapon blade = new Weapon("Blade", "Sharp", 3, 40, Item.ItemRarity.RARE, 4, 9, Weapon.WeaponType.SWORD);
+        test("Weapon reads its template", blade.getTemplate().getMinDamage() == 4 && blade.getMaxDamage() == 9
+            && blade.getBuyPrice() == 100 && blade.getTemplate().newInstance().equals(blade));
+        
+        Path file = null;
+        try {
+            file = Files.createTempFile("templates", ".sav");
+            Warrior hoarder = new Warrior("Hoarder", 200);
+            hoarder.setConsoleOutput(false);
+            for (int i = 0; i < 100; i++) {
+                hoarder.addItem(tonic.newInstance());
+            }
+            hoarder.addItem(first);
+            long size = new SaveGame(hoarder, null, null).write(file);
+            model.characters.Character loaded = SaveGame.read(file).getPlayer();
+            List<Potion> potions = loaded.getItemsView(Potion.class);
+            int uses = 0;
+            boolean shared = true;
+            for (Potion potion : potions) {
+                uses += potion.getRemainingUses();
+                shared = shared && potion.getTemplate() == potions.get(0).getTemplate();
+            }
+            test("Save writes each template once", size < 400 && potions.size() == 101 && shared && uses == 201);
+            
+            // שמירה מגרסה 2: כל פריט נכתב במלואו, בלי הפניה לתבנית
+            try (utils.BinaryWriter out = utils.BinaryWriter.open(file)) {
+                out.writeInt(SaveGame.MAGIC);
+                out.writeVarInt(2);
+                out.writeByte(4);
+                out.writeLong(0);
+                out.writeString("Old Shop");
+                out.writeVarInt(1);
+                out.writeByte(3);
+                out.writeSharedString("Old Tonic");
+                out.writeSharedString("Dusty");
+                out.writeVarInt(1);
+                out.writeVarInt(20);
+                out.writeByte(0);
+                out.writeByte(0);
+                out.writeVarInt(30);
+                out.writeVarInt(2);
+                out.writeVarInt(1);
+                out.writeVarInt(5);
+                out.writeInt(SaveGame.MAGIC);
+            }
+            Shop oldShop = SaveGame.read(file).getShop();
+            Potion oldTonic = (Potion) oldShop.getAvailableItems().get(0);
+            test("Loads version 2 items", oldShop.getItemStock("Old Tonic") == 5 && oldTonic.getPotency() == 30
+                && oldTonic.getMaxUses() == 2 && oldTonic.getRemainingUses() == 1);
+            
+            // ordinal או מספר פריטים מחוץ לטווח הם קובץ פגום, לא חריגת מערך
+            int rejected = 0;
+            for (int corruption = 0; corruption < 2; corruption++) {
+                try (utils.BinaryWriter out = utils.BinaryWriter.open(file)) {
+                    out.writeInt(SaveGame.MAGIC);
+                    out.writeVarInt(2);
+                    out.writeByte(4);
+                    out.writeLong(0);
+                    out.writeString("Bad Shop");
+                    out.writeVarInt(corruption == 0 ? 1 : -1);
+                    out.writeByte(3);
+                    out.writeSharedString("Bad Tonic");
+                    out.writeSharedString("Dusty");
+                    out.writeVarInt(1);
+                    out.writeVarInt(20);
+                    out.writeByte(corruption == 0 ? 9 : 0);
+                    out.writeByte(0);
+                    out.writeVarInt(30);
+                    out.writeVarInt(2);
+                    out.writeVarInt(1);
+                    out.writeVarInt(5);
+                    out.writeInt(SaveGame.MAGIC);
+                }
+                try {
+                    SaveGame.read(file);
+                } catch (IOException e) {
+                    rejected++;
+                }
+            }
+            test("Rejects out-of-range ordinals and counts", rejected == 2);
+        } catch (IOException | InventoryFullException e) {
+            test("Item templates: " + e, false);
+        } finally {
+            if (file != null) {
+                file.toFile().delete();
+            }
+        }
+        
+        // תבנית אחת לכל המופעים; פריט שנבנה מהשדות מקבל תבנית משלו
+        Potion own = new Potion("Tonic", "Restores 20 HP", 10, Item.ItemRarity.COMMON,
+            Potion.PotionType.HEALTH, 20, 2);
+        test("Instances share their template", tonic.newInstance().getTemplate() == tonic
+            && first.getTemplate() == tonic && own.getTemplate() != tonic);
+    }
+    
+    // ============================================================
+    // בדיקות חנות מקבילית
+    // ============================================================
+    
+    private static void testConcurrentShop() {
+        System.out.println("\n--- Testing Concurrent Shop ---");
+        
+        final Shop market = new Shop("Market");
+        final Weapon dagger = new Weapon("Market Dagger", "Cheap", 1, 10, Item.ItemRarity.COMMON,
+            1, 3, Weapon.WeaponType.DAGGER);
+        final int initialStock = 500;
+        market.addItemToShop(dagger, initialStock);
+        final int price = dagger.getBuyPrice();
+        
+        // רכישה שנכשלת לא משנה כלום
+        Warrior poor = new Warrior("Poor", 5);
+        poor.setConsoleOutput(false);
+        try {
+            market.buyItem(poor, "Market Dagger");
+            test("Failed purchase rolls back", false);
+        } catch (InsufficientGoldException e) {
+            test("Failed purchase rolls back", market.getItemStock("Market Dagger") == initialStock
+                && poor.getInventorySize() == 0 && poor.getGold() == 0);
+        } catch (ItemNotFoundException | InventoryFullException e) {
+            test("Failed purchase rolls back", false);
+        }
+        Warrior packed = new Warrior("Packed", 1);
+        packed.setConsoleOutput(false);
+        packed.addGold(100);
+        try {
+            packed.addItem(new Potion("Filler", "Takes space", 1, Item.ItemRarity.COMMON,
+                Potion.PotionType.HEALTH, 1, 1));
+            market.buyItem(packed, "Market Dagger");
+            test("Full inventory rolls back", false);
+        } catch (InventoryFullException e) {
+            test("Full inventory rolls back", market.getItemStock("Market Dagger") == initialStock
+                && packed.getGold() == 100 && packed.getInventorySize() == 1);
+        } catch (ItemNotFoundException | InsufficientGoldException e) {
+            test("Full inventory rolls back", false);
+        }
+        
+        // קונים ומוכרים במקביל: אין מכירת יתר, והזהב והמלאי מתאזנים
+        int threadCount = 8;
+        final Warrior[] customers = new Warrior[threadCount];
+        final int[] bought = new int[threadCount];
+        final int[] sold = new int[threadCount];
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            customers[t] = new Warrior("Buyer " + t, 1000);
+            customers[t].setConsoleOutput(false);
+            customers[t].addGold(price * 200);
+            final int index = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 300; i++) {
+                        try {
+                            market.buyItem(customers[index], "Market Dagger");
+                            bought[index]++;
+                            if (i % 3 == 0) {
+                                market.sellItem(customers[index], "Market Dagger");
+                                sold[index]++;
+                            }
+                        } catch (ItemNotFoundException | InsufficientGoldException | InventoryFullException e) {
+                            // המלאי או הזהב נגמרו
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        boolean balanced = true;
+        int totalBought = 0;
+        int totalSold = 0;
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            balanced = false;
+        }
+        for (int t = 0; t < threadCount; t++) {
+            totalBought += bought[t];
+            totalSold += sold[t];
+            balanced = balanced && customers[t].getItemCount("Market Dagger") == bought[t] - sold[t]
+                && customers[t].getGold() == price * 200 - bought[t] * price + sold[t] * dagger.getSellPrice();
+        }
+        test("Concurrent trades balance", balanced
+            && market.getItemStock("Market Dagger") == initialStock - totalBought + totalSold
+            && market.getItemStock("Market Dagger") >= 0 && totalBought > initialStock);
+        test("Buyers get their own items", customers[0].getItemCount("Market Dagger") == 0
+            || customers[0].getInventory().get(0) != dagger);
+    }
+    
+    // ============================================================
+    // בדיקות אינדקס מחירים בחנות
+    // ============================================================
+    
+    private static void testShopPriceIndex() {
+        System.out.println("\n--- Testing Shop Price Index ---");
+        
+        Shop market = new Shop("Index Market");
+        Weapon club = new Weapon("Club", "Heavy", 5, 30, Item.ItemRarity.COMMON, 4, 6, Weapon.WeaponType.AXE);
+        Weapon blade = new Weapon("Blade", "Sharp", 3, 80, Item.ItemRarity.COMMON, 10, 20, Weapon.WeaponType.SWORD);
+        Weapon stick = new Weapon("Stick", "Light", 1, 5, Item.ItemRarity.COMMON, 1, 3, Weapon.WeaponType.STAFF);
+        Armor vest = new Armor("Vest", "Leather", 4, 40, Item.ItemRarity.COMMON, 8, Armor.ArmorSlot.CHEST);
+        Potion tonic = new Potion("Tonic", "Heals", 20, Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 30, 2);
+        market.addItemToShop(club, 1);
+        market.addItemToShop(blade, 2);
+        market.addItemToShop(stick, 3);
+        market.addItemToShop(vest, 1);
+        market.addItemToShop(tonic, 1);
+        
+        ArrayList<Item> weapons = market.getItemsByCategory("Weapon");
+        test("Category sorted by price", weapons.size() == 3 && weapons.get(0) == stick
+            && weapons.get(1) == club && weapons.get(2) == blade);
+        ArrayList<Item> affordable = market.getAffordableItems("weapon", 30);
+        test("Affordable in category", affordable.size() == 2 && affordable.get(0) == stick
+            && affordable.get(1) == club);
+        ArrayList<Item> anything = market.getAffordableItems(40);
+        test("Affordable across categories", anything.size() == 4 && anything.get(0) == stick
+            && anything.get(3) == vest && market.getAffordableItems(4).isEmpty()
+            && market.getAffordableItems("gem", 100).isEmpty());
+        
+        // תמורה: שיקוי 60/20, מקל 2/5, להב 15/80, שריון 8/40, אלה 5/30
+        ArrayList<Item> best = market.getBestValueItems(2);
+        test("Best value first", best.size() == 2 && best.get(0) == tonic && best.get(1) == stick);
+        ArrayList<Item> bestWeapons = market.getBestValueItems("weapon", 10);
+        test("Best value in category", bestWeapons.size() == 3 && bestWeapons.get(0) == stick
+            && bestWeapons.get(1) == blade && bestWeapons.get(2) == club);
+        
+        // פריט שנגמר יוצא מהאינדקס, ופריט שנמכר בחזרה נכנס שוב
+        Warrior buyer = new Warrior("Index Buyer", 100);
+        buyer.setConsoleOutput(false);
+        buyer.addGold(500);
+        try {
+            market.buyItem(buyer, "Club");
+            boolean removed = !market.getAffordableItems("weapon", 30).contains(club)
+                && !market.getBestValueItems(10).contains(club);
+            market.buyItem(buyer, "Stick");
+            boolean partial = market.getItemsByCategory("weapon").get(0) == stick;
+            market.sellItem(buyer, "Club");
+            test("Index follows stock", removed && partial
+                && market.getItemsByCategory("weapon").get(1) == club
+                && market.getBestValueItems("weapon", 10).contains(club));
+        } catch (ItemNotFoundException | InsufficientGoldException | InventoryFullException e) {
+            test("Index follows stock", false);
+        }
+    }
+    
+    // ============================================================
+    // בדיקות עסקאות מרובות פריטים
+    // ============================================================
+    
+    private static void testShopBatchTransactions() {
+        System.out.println("\n--- Testing Shop Batch Transactions ---");
+        
+        Shop market = new Shop("Batch Market");
+        Potion tonic = new Potion("Batch Tonic", "Heals", 10, Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 20, 1);
+        Weapon spear = new Weapon("Batch Spear", "Long", 4, 50, Item.ItemRarity.COMMON, 5, 9, Weapon.WeaponType.SWORD);
+        market.addItemToShop(tonic, 30);
+        market.addItemToShop(spear, 2);
+        
+        Warrior buyer = new Warrior("Batch Buyer", 20);
+        buyer.setConsoleOutput(false);
+        buyer.addGold(300);
+        
+        LinkedHashMap<String, Integer> cart = new LinkedHashMap<>();
+        cart.put("Batch Tonic", 5);
+        cart.put("Batch Spear", 2);
+        try {
+            ShopReceipt receipt = market.buyItems(buyer, cart);
+            test("Batch buy", receipt.isPurchase() && receipt.getItemCount() == 7
+                && receipt.getTotal() == 150 && buyer.getGold() == 150
+                && buyer.getItemCount("Batch Tonic") == 5 && buyer.getItemCount("Batch Spear") == 2
+                && market.getItemStock("Batch Tonic") == 25 && market.getItemStock("Batch Spear") == 0
+                && market.getItemsByCategory("weapon").isEmpty());
+        } catch (ItemNotFoundException | InsufficientGoldException | InventoryFullException e) {
+            test("Batch buy", false);
+        }
+        
+        // כל שורה שנכשלת מבטלת את כל העגלה
+        LinkedHashMap<String, Integer> tooMany = new LinkedHashMap<>();
+        tooMany.put("Batch Tonic", 3);
+        tooMany.put("Batch Spear", 1);
+        boolean outOfStock = false;
+        try {
+            market.buyItems(buyer, tooMany);
+        } catch (ItemNotFoundException e) {
+            outOfStock = market.getItemStock("Batch Tonic") == 25 && buyer.getGold() == 150;
+        } catch (InsufficientGoldException | InventoryFullException e) {
+            // חריגה אחרת - הבדיקה נכשלת
+        }
+        LinkedHashMap<String, Integer> expensive = new LinkedHashMap<>();
+        expensive.put("Batch Tonic", 16);
+        boolean noGold = false;
+        try {
+            market.buyItems(buyer, expensive);
+        } catch (InsufficientGoldException e) {
+            noGold = market.getItemStock("Batch Tonic") == 25 && buyer.getItemCount("Batch Tonic") == 5;
+        } catch (ItemNotFoundException | InventoryFullException e) {
+            // חריגה אחרת - הבדיקה נכשלת
+        }
+        buyer.addGold(1000);
+        boolean noRoom = false;
+        try {
+            market.buyItems(buyer, expensive);
+        } catch (InventoryFullException e) {
+            noRoom = market.getItemStock("Batch Tonic") == 25 && buyer.getGold() == 1150;
+        } catch (ItemNotFoundException | InsufficientGoldException e) {
+            // חריגה אחרת - הבדיקה נכשלת
+        }
+        test("Batch buy rolls back", outOfStock && noGold && noRoom);
+        
+        // החריגה מציינת את השורה שכבר לא נכנסת לתיק, לא את הראשונה בעגלה
+        market.addItemToShop(new Armor("Batch Shield", "Round", 5, 20, Item.ItemRarity.COMMON, 3,
+            Armor.ArmorSlot.CHEST), 20);
+        LinkedHashMap<String, Integer> bulky = new LinkedHashMap<>();
+        bulky.put("Batch Tonic", 5);
+        bulky.put("Batch Shield", 10);
+        String overflowing = null;
+        try {
+            market.buyItems(buyer, bulky);
+        } catch (InventoryFullException e) {
+            overflowing = e.getItemName();
+        } catch (ItemNotFoundException | InsufficientGoldException e) {
+            // חריגה אחרת - הבדיקה נכשלת
+        }
+        test("Batch buy names overflowing line", "Batch Shield".equals(overflowing)
+            && market.getItemStock("Batch Shield") == 20);
+        
+        // מכירה: שיקוי משומש מבטל את כל הרשימה
+        LinkedHashMap<String, Integer> bag = new LinkedHashMap<>();
+        bag.put("Batch Spear", 2);
+        bag.put("Batch Tonic", 5);
+        try {
+            Potion used = new Potion("Batch Tonic", "Boost", 10, Item.ItemRarity.COMMON, Potion.PotionType.STRENGTH, 2, 1);
+            ShopReceipt sold = market.sellItems(buyer, bag);
+            test("Batch sell", !sold.isPurchase() && sold.getItemCount() == 7
+                && buyer.getItemCount("Batch Tonic") == 0 && buyer.getItemCount("Batch Spear") == 0
+                && buyer.getGold() == 1150 + sold.getTotal()
+                && market.getItemStock("Batch Tonic") == 30 && market.getItemStock("Batch Spear") == 2
+                && market.getItemsByCategory("weapon").size() == 1);
+            used.use(buyer);
+            buyer.addItem(used);
+            buyer.addItem(spear.getTemplate().newInstance());
+            LinkedHashMap<String, Integer> mixed = new LinkedHashMap<>();
+            mixed.put("Batch Spear", 1);
+            mixed.put("Batch Tonic", 1);
+            int gold = buyer.getGold();
+            try {
+                market.sellItems(buyer, mixed);
+                test("Batch sell rolls back", false);
+            } catch (ItemNotFoundException e) {
+                test("Batch sell rolls back", buyer.getGold() == gold && buyer.getItemCount("Batch Spear") == 1
+                    && buyer.getItemCount("Batch Tonic") == 1 && market.getItemStock("Batch Spear") == 2);
+            }
+        } catch (ItemNotFoundException | InventoryFullException e) {
+            test("Batch sell", false);
+        }
+    }
+    
+    // ============================================================
+    // בדיקות תמחור דינמי
+    // ============================================================
+    
+    private static void testDynamicPricing() {
+        System.out.println("\n--- Testing Dynamic Pricing ---");
+        
+        final long[] now = {0};
+        PricingEngine.Clock clock = new PricingEngine.Clock() {
+            @Override
+            public long nanoTime() {
+                return now[0];
+            }
+        };
+        Shop market = new Shop("Dynamic Market");
+        Potion elixir = new Potion("Elixir", "Heals", 100, Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 10, 1);
+        Weapon axe = new Weapon("Market Axe", "Heavy", 6, 200, Item.ItemRarity.COMMON, 6, 12, Weapon.WeaponType.AXE);
+        market.addItemToShop(elixir, 10);
+        market.addItemToShop(axe, 10);
+        market.setPricingEngine(new PricingEngine().withClock(clock).withHalfLife(1000)
+            .withUpdateInterval(0).withStockTarget(10, 0.25));
+        market.refreshPrices();
+        test("Prices start at base", market.getBuyPrice(elixir) == elixir.getBuyPrice()
+            && market.getSellPrice(elixir) == elixir.getSellPrice());
+        
+        Warrior trader = new Warrior("Trader", 50);
+        trader.setConsoleOutput(false);
+        trader.addGold(10000);
+        try {
+            // הקונה משלם את המחיר שהוצג לו ברגע הקנייה
+            int paid = 0;
+            for (int i = 0; i < 5; i++) {
+                paid += market.getBuyPrice(elixir);
+                market.buyItem(trader, "Elixir");
+            }
+            int[] quoted = market.getPriceComparison().get("Elixir");
+            test("Demand raises price", quoted[0] > elixir.getBuyPrice() && quoted[1] > elixir.getSellPrice()
+                && quoted[0] == market.getBuyPrice(elixir) && trader.getGold() == 10000 - paid
+                && market.getBuyPrice(axe) == axe.getBuyPrice());
+            test("Price index follows price", !market.getAffordableItems(elixir.getBuyPrice()).contains(elixir)
+                && market.getAffordableItems(quoted[0]).contains(elixir));
+            
+            now[0] += 20_000_000_000L;
+            market.addItemToShop(elixir, 5);
+            test("Demand decays", market.getBuyPrice(elixir) == elixir.getBuyPrice());
+            
+            int gold = trader.getGold();
+            int received = 0;
+            for (int i = 0; i < 5; i++) {
+                received += market.getSellPrice(elixir);
+                market.sellItem(trader, "Elixir");
+            }
+            test("Supply lowers price", market.getBuyPrice(elixir) < elixir.getBuyPrice()
+                && market.getSellPrice(elixir) < elixir.getSellPrice() && trader.getGold() == gold + received);
+        } catch (ItemNotFoundException | InsufficientGoldException | InventoryFullException e) {
+            test("Dynamic pricing trades", false);
+        }
+        
+        // מחשבים מחדש לכל היותר פעם ב-updateInterval, ובתוך טווח המחירים
+        Shop throttled = new Shop("Throttled Market");
+        throttled.addItemToShop(axe, 10);
+        throttled.setPricingEngine(new PricingEngine().withClock(clock).withUpdateInterval(100)
+            .withPriceRange(0.5, 1.1));
+        try {
+            throttled.buyItem(trader, "Market Axe");
+            int first = throttled.getBuyPrice(axe);
+            throttled.buyItem(trader, "Market Axe");
+            throttled.buyItem(trader, "Market Axe");
+            boolean held = throttled.getBuyPrice(axe) == first;
+            now[0] += 100_000_000L;
+            throttled.buyItem(trader, "Market Axe");
+            test("Price updates are throttled and capped", held && first > axe.getBuyPrice()
+                && throttled.getBuyPrice(axe) == (int) Math.round(axe.getBuyPrice() * 1.1));
+        } catch (ItemNotFoundException | InsufficientGoldException | InventoryFullException e) {
+            test("Price updates are throttled and capped", false);
+        }
+        
+        throttled.setPricingEngine(null);
+        test("Static prices restored", throttled.getBuyPrice(axe) == axe.getBuyPrice());
+    }
+    
+    // ============================================================
+    // בדיקות יומן עסקאות החנות
+    // ============================================================
+    
+    private static void testShopLedger() {
+        System.out.println("\n--- Testing Shop Ledger ---");
+        
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("ledger");
+            Path file = dir.resolve("shop.ledger");
+            
+            Shop market = new Shop("Ledger Market");
+            Potion draught = new Potion("Draught", "Heals", 10, Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 20, 1);
+            Weapon saber = new Weapon("Saber", "Curved", 3, 100, Item.ItemRarity.RARE, 8, 14, Weapon.WeaponType.SWORD);
+            market.addItemToShop(draught, 10);
+            market.addItemToShop(saber, 3);
+            
+            // 10:30 ואז 11:10 ביום הראשון של 1970
+            final long[] now = {37_800_000L};
+            ShopLedger ledger = ShopLedger.create(file, market).withClock(new ShopLedger.Clock() {
+                @Override
+                public long currentTimeMillis() {
+                    return now[0];
+                }
+            });
+            Warrior client = new Warrior("Client", 30);
+            client.setConsoleOutput(false);
+            client.addGold(2000);
+            
+            market.buyItem(client, "Draught");
+            market.buyItem(client, "Draught");
+            market.buyItem(client, "Draught");
+            HashMap<String, Integer> cart = new HashMap<>();
+            cart.put("Saber", 2);
+            market.buyItems(client, cart);
+            market.sellItem(client, "Draught");
+            now[0] = 40_200_000L;
+            market.buyItem(client, "Draught");
+            market.addItemToShop(draught, 5);
+            
+            int draughtPrice = draught.getBuyPrice();
+            int saberPrice = saber.getBuyPrice();
+            long revenue = 4L * draughtPrice + 2L * saberPrice;
+            long payouts = draught.getSellPrice();
+            HashMap<String, long[]> byItem = ledger.getRevenueByItem();
+            HashMap<Item.ItemRarity, long[]> byRarity = ledger.getRevenueByRarity();
+            java.util.TreeMap<Long, long[]> byHour = ledger.getRevenueByHour();
+            test("Ledger totals match gold flow", ledger.getTotalRevenue() == revenue
+                && ledger.getTotalPayouts() == payouts && client.getGold() == 2000 - revenue + payouts);
+            test("Ledger revenue by item and rarity", byItem.get("Draught")[0] == 4L * draughtPrice
+                && byItem.get("Draught")[1] == payouts && byItem.get("Saber")[0] == 2L * saberPrice
+                && byRarity.get(Item.ItemRarity.RARE)[0] == 2L * saberPrice
+                && byRarity.get(Item.ItemRarity.COMMON)[0] == 4L * draughtPrice);
+            test("Ledger revenue by hour", byHour.size() == 2 && byHour.firstKey() == 36_000_000L
+                && byHour.get(36_000_000L)[0] == 3L * draughtPrice + 2L * saberPrice
+                && byHour.get(39_600_000L)[0] == draughtPrice);
+            ledger.close();
+            
+            // הרצה מחדש בונה את אותה חנות ואותם סיכומים
+            ShopLedger reopened = ShopLedger.open(file);
+            Shop rebuilt = reopened.getShop();
+            test("Ledger replay rebuilds shop", rebuilt.getName().equals("Ledger Market")
+                && rebuilt.getItemStock("Draught") == market.getItemStock("Draught")
+                && rebuilt.getItemStock("Saber") == market.getItemStock("Saber")
+                && reopened.getTotalRevenue() == revenue && reopened.getTotalPayouts() == payouts
+                && reopened.getRevenueByHour().get(39_600_000L)[0] == draughtPrice
+                && reopened.getEventCount() == 9);
+            
+            rebuilt.buyItem(client, "Saber");
+            reopened.close();
+            // רשומה קטועה בסוף (קריסה באמצע כתיבה) נחתכת
+            long size = Files.size(file);
+            Files.write(file, new byte[]{0, 0, 0, 40, 1, 2}, java.nio.file.StandardOpenOption.APPEND);
+            ShopLedger third = ShopLedger.open(file);
+            test("Ledger appends and drops torn tail", third.getShop().getItemStock("Saber") == 0
+                && third.getTotalRevenue() == revenue + saberPrice && Files.size(file) == size
+                && third.getShop().getLedger() == third);
+            third.close();
+
+            // רשומה פגומה באמצע היא שגיאה, והקובץ נשאר כמו שהוא
+            byte[] intact = Files.readAllBytes(file);
+            byte[] corrupt = intact.clone();
+            corrupt[12 + 8 + 2] ^= 0x55;
+            Files.write(file, corrupt);
+            boolean rejected = false;
+            try {
+                ShopLedger.open(file).close();
+            } catch (IOException e) {
+                rejected = true;
+            }
+            test("Ledger rejects corrupt middle record", rejected
+                && java.util.Arrays.equals(Files.readAllBytes(file), corrupt));
+            Files.write(file, intact);
+        } catch (IOException | ItemNotFoundException | InsufficientGoldException | InventoryFullException e) {
+            test("Shop ledger", false);
+        } finally {
+            if (dir != null) {
+                // תיקייה זמנית - לא קריטי אם המחיקה נכשלת
+                for (java.io.File leftover : dir.toFile().listFiles()) {
+                    leftover.delete();
+                }
+                dir.toFile().delete();
+            }
+        }
+    }
+    
     // ============================================================
     // Utility Methods
     // ============================================================
@@ -31,6 +31,8 @@ public class BattleAction {
     private ActionType actionType;
     private String itemName; // אם הפעולה היא USE_ITEM
     private int priority; // עדיפות לביצוע (גבוה יותר = קודם)
+    private int initiative; // מהירות השחקן - שובר שוויון בין פעולות באותה עדיפות
+    private long sequence; // סדר ההכנסה לתור - שובר שוויון אחרון (FIFO)
     
     public BattleAction(Character actor, Character target, ActionType actionType) {
         this.actor = actor;
@@ -38,6 +40,7 @@ public class BattleAction {
         this.actionType = actionType;
         this.itemName = null;
         this.priority = calculateDefaultPriority();
+        this.initiative = actor.getInitiative();
     }
     
     public BattleAction(Character actor, Character target, 
@@ -85,6 +88,22 @@ public class BattleAction {
         this.priority = priority;
     }
     
+    public int getInitiative() {
+        return initiative;
+    }
+    
+    public void setInitiative(int initiative) {
+        this.initiative = initiative;
+    }
+    
+    long getSequence() {
+        return sequence;
+    }
+    
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+    
     @Override
     public String toString() {
         String actionStr = String.format("%s -> %s: %s",
@@ -1,37 +1,107 @@
 package game;
 
+import game.events.BattleEvent;
+import game.events.BattleEventListener;
+import game.events.NoOpEventSink;
 import model.characters.Character;
+import model.characters.StatusEffectEngine;
 import model.items.Item;
 import model.items.Potion;
 import model.exceptions.InvalidActionException;
 import model.exceptions.ItemNotFoundException;
+import utils.RandomSource;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Comparator;
+import java.util.HashMap;
 
 /**
  * מערכת הקרב של המשחק.
- * משתמשת ב-Queue לניהול תור הפעולות.
+ * תומכת בקרב אחד על אחד וגם בקרבות קבוצה מול קבוצה (N מול M).
+ * תור הפעולות הוא ערימת יוזמה (InitiativeScheduler) - כל פעולה עולה O(log n).
  */
 public class BattleSystem {
     
-    private Character player;
-    private Character enemy;
-    private Queue<BattleAction> actionQueue;
+    private Character player; // מנהיג הקבוצה - הדמות הראשונה בקבוצה
+    private Character enemy;  // מנהיג האויבים - הדמות הראשונה בקבוצת האויב
+    private final Side partySide;
+    private final Side enemySide;
+    private final HashMap<Character, Side> sides;
+    private final InitiativeScheduler actionQueue;
+    private boolean enemyActionsQueued;
     private ArrayList<String> battleLog;
     private boolean battleEnded;
     private Character winner;
     
+    // מצב ללא פלט (סימולציות) - ללא הדפסה וללא שמירת יומן
+    private final boolean headless;
+    
+    // מקור האקראיות של הקרב (החלטות האויב, בריחה, בחירת מטרות)
+    private final RandomSource random;
+    
+    // שעון האפקטים המשותף לכל הדמויות בקרב - מתקדם בסוף כל סבב
+    private final StatusEffectEngine effects;
+    
+    // אירועי קרב - מופע אחד שממוחזר לכל האירועים
+    private BattleEventListener eventListener;
+    private final BattleEvent event;
+    
+    // סטטיסטיקות קרב
+    private int roundsPlayed;
+    private int damageDealtByPlayer;
+    private int damageDealtByEnemy;
+    
     public BattleSystem(Character player, Character enemy) {
-        this.player = player;
-        this.enemy = enemy;
-        this.actionQueue = new LinkedList<>();
+        this(player, enemy, false);
+    }
+    
+    /**
+     * @param headless true כדי להריץ את הקרב ללא הדפסות וללא יומן קרב
+     */
+    public BattleSystem(Character player, Character enemy, boolean headless) {
+        this(player, enemy, headless, new RandomSource());
+    }
+    
+    /**
+     * @param headless true כדי להריץ את הקרב ללא הדפסות וללא יומן קרב
+     * @param random מקור האקראיות של הקרב - זרע זהה נותן קרב זהה
+     */
+    public BattleSystem(Character player, Character enemy, boolean headless, RandomSource random) {
+        this(singleton(player), singleton(enemy), headless, random);
+    }
+    
+    /**
+     * קרב קבוצות. הדמות הראשונה בכל קבוצה היא המנהיג (getPlayer / getEnemy).
+     * @param party קבוצת השחקנים
+     * @param enemies קבוצת האויבים
+     * @param headless true כדי להריץ את הקרב ללא הדפסות וללא יומן קרב
+     * @param random מקור האקראיות של הקרב
+     */
+    public BattleSystem(ArrayList<Character> party, ArrayList<Character> enemies,
+                        boolean headless, RandomSource random) {
+        if (party.isEmpty() || enemies.isEmpty()) {
+            throw new IllegalArgumentException("Both sides need at least one combatant");
+        }
+        this.player = party.get(0);
+        this.enemy = enemies.get(0);
+        this.sides = new HashMap<>();
+        this.partySide = new Side(party, sides);
+        this.enemySide = new Side(enemies, sides);
+        this.actionQueue = new InitiativeScheduler();
+        this.enemyActionsQueued = false;
         this.battleLog = new ArrayList<>();
         this.battleEnded = false;
         this.winner = null;
+        this.headless = headless;
+        this.random = random;
+        this.eventListener = NoOpEventSink.INSTANCE;
+        this.event = new BattleEvent();
+        this.effects = new StatusEffectEngine();
+        attachEffects(partySide.members);
+        attachEffects(enemySide.members);
         
-        logMessage("Battle started: " + player.getName() + " vs " + enemy.getName());
+        if (!headless) {
+            logMessage("Battle started: " + describeSide(partySide) + " vs " + describeSide(enemySide));
+        }
     }
     
     // ============================================================
@@ -45,7 +115,10 @@ public class BattleSystem {
             // Updated to use 2 parameters based on your example
             throw new InvalidActionException("Battle", "Battle has already ended.");
         }
-        actionQueue.add(action);
+        if (sides.get(action.getActor()) == enemySide) {
+            enemyActionsQueued = true;
+        }
+        actionQueue.schedule(action);
     }
 
     public void queuePlayerAction(BattleAction.ActionType actionType)
@@ -58,8 +131,31 @@ public class BattleSystem {
         BattleAction action = new BattleAction(player, enemy, BattleAction.ActionType.USE_ITEM, itemName);
         queueAction(action);
     }
+
+    /**
+     * מוסיף פעולה לחבר קבוצה, נגד אויב חי אקראי.
+     * @param member חבר הקבוצה
+     * @param actionType סוג הפעולה
+     */
+    public void queuePartyAction(Character member, BattleAction.ActionType actionType)
+            throws InvalidActionException {
+        if (sides.get(member) != partySide) {
+            throw new InvalidActionException(actionType.getDisplayName(),
+                member.getName() + " is not in the party.");
+        }
+        queueAction(new BattleAction(member, enemySide.randomLiving(random), actionType));
+    }
+
     public BattleAction generateEnemyAction() {
-        double roll = Math.random();
+        return generateEnemyAction(enemy);
+    }
+
+    /**
+     * מייצר פעולה אקראית לאויב נגד חבר קבוצה חי אקראי.
+     * @param actor האויב הפועל
+     */
+    public BattleAction generateEnemyAction(Character actor) {
+        double roll = random.nextDouble();
         BattleAction.ActionType actionType;
 
         if (roll < 0.60) {
@@ -70,49 +166,92 @@ public class BattleSystem {
             actionType = BattleAction.ActionType.DEFEND;
         }
 
-        return new BattleAction(enemy, player, actionType);
+        Character target = partySide.livingCount() > 0 ? partySide.randomLiving(random) : player;
+        return new BattleAction(actor, target, actionType);
     }
 
+    /**
+     * מבצע את הפעולה הבאה בתור.
+     * @return הודעת התוצאה, או null אם התור ריק או שהפועל כבר הובס
+     */
     public String processNextAction() {
         if (actionQueue.isEmpty()) {
             return null;
         }
 
-        BattleAction action = actionQueue.poll();
+        BattleAction action = actionQueue.next();
+        Character actor = action.getActor();
+        if (!actor.isAlive()) {
+            return null;
+        }
+        Character target = resolveTarget(action.getTarget());
+        int targetHealthBefore = target.getCurrentHealth();
         String resultMessage = "";
+        BattleEvent.Type eventType = BattleEvent.Type.ATTACK;
+        boolean success = true;
+
+        if (actor.isStunned()) {
+            String message = headless ? "" : actor.getName() + " is stunned and cannot act.";
+            publish(eventTypeOf(action.getActionType()), actor, target, 0, 0, false, action.getItemName());
+            logMessage(message);
+            return message;
+        }
 
         try {
             switch (action.getActionType()) {
                 case ATTACK:
-                    int damage = executeAttack(action.getActor(), action.getTarget());
-                    resultMessage = action.getActor().getName() + " attacked for " + damage + " damage.";
+                    int damage = executeAttack(actor, target);
+                    if (!headless) {
+                        resultMessage = actor.getName() + " attacked for " + damage + " damage.";
+                    }
                     break;
                 case SPECIAL:
-                    boolean success = executeSpecialAbility(action.getActor(), action.getTarget());
-                    resultMessage = action.getActor().getName() + (success ? " used special ability!" : " failed special ability.");
+                    eventType = BattleEvent.Type.SPECIAL;
+                    success = executeSpecialAbility(actor, target);
+                    if (!headless) {
+                        resultMessage = actor.getName() + (success ? " used special ability!" : " failed special ability.");
+                    }
                     break;
                 case DEFEND:
-                    executeDefend(action.getActor());
-                    resultMessage = action.getActor().getName() + " is defending.";
+                    eventType = BattleEvent.Type.DEFEND;
+                    executeDefend(actor);
+                    if (!headless) {
+                        resultMessage = actor.getName() + " is defending.";
+                    }
                     break;
                 case USE_ITEM:
-                    boolean used = executeUseItem(action.getActor(), action.getItemName());
-                    resultMessage = action.getActor().getName() + (used ? " used " + action.getItemName() : " failed to use item.");
+                    eventType = BattleEvent.Type.ITEM;
+                    success = executeUseItem(actor, action.getItemName());
+                    if (!headless) {
+                        resultMessage = actor.getName() + (success ? " used " + action.getItemName() : " failed to use item.");
+                    }
                     break;
                 case FLEE:
-                    boolean fled = executeFlee(action.getActor());
-                    resultMessage = action.getActor().getName() + (fled ? " fled the battle!" : " failed to flee.");
-                    if (fled) {
+                    eventType = BattleEvent.Type.FLEE;
+                    success = executeFlee(actor, target);
+                    if (!headless) {
+                        resultMessage = actor.getName() + (success ? " fled the battle!" : " failed to flee.");
+                    }
+                    if (success) {
+                        // בריחה מסיימת את הקרב עבור כל הקבוצה
                         battleEnded = true;
-                        winner = action.getActor() == player ? enemy : player; // Technically no winner, but battle ends
+                        winner = sides.get(actor) == partySide ? enemy : player; // Technically no winner, but battle ends
                     }
                     break;
             }
         } catch (ItemNotFoundException e) {
-            resultMessage = "Error: " + e.getMessage();
+            success = false;
+            if (!headless) {
+                resultMessage = "Error: " + e.getMessage();
+            }
         }
 
+        int damageDealt = Math.max(0, targetHealthBefore - target.getCurrentHealth());
+        recordDamage(actor, damageDealt);
+        publish(eventType, actor, target, damageDealt, 0, success, action.getItemName());
         logMessage(resultMessage);
+        registerCasualty(target, actor);
+        registerCasualty(actor, target);
         checkBattleEnd();
 
         return resultMessage;
@@ -121,24 +260,107 @@ public class BattleSystem {
     public ArrayList<String> processAllActions() {
         ArrayList<String> results = new ArrayList<>();
 
-        // Add enemy action if queue only has player action (simplified turn logic)
-        if (!battleEnded && actionQueue.size() == 1 && actionQueue.peek().getActor() == player) {
-            actionQueue.add(generateEnemyAction());
-        }
-
-        // Sort actions to determine order
-        ArrayList<BattleAction> actionsList = new ArrayList<>(actionQueue);
-        sortActionsByPriority(actionsList);
-        actionQueue.clear();
-        actionQueue.addAll(actionsList);
-
+        prepareRound();
         while (!actionQueue.isEmpty() && !battleEnded) {
             String res = processNextAction();
             if (res != null) results.add(res);
         }
+        finishRound();
 
         return results;
     }
+
+    /**
+     * מבצע סבב שלם בלי לאסוף את הודעות התוצאה.
+     * מיועד לסימולציות שבהן אין צורך בטקסט.
+     */
+    public void processRound() {
+        prepareRound();
+        while (!actionQueue.isEmpty() && !battleEnded) {
+            processNextAction();
+        }
+        finishRound();
+    }
+
+    private void prepareRound() {
+        // אם השחקנים פעלו והאויבים לא - כל אויב חי מקבל פעולה (simplified turn logic)
+        if (!battleEnded && !actionQueue.isEmpty() && !enemyActionsQueued) {
+            ArrayList<Character> livingEnemies = enemySide.living;
+            for (int i = 0; i < livingEnemies.size(); i++) {
+                actionQueue.schedule(generateEnemyAction(livingEnemies.get(i)));
+            }
+        }
+        enemyActionsQueued = false;
+
+        if (!battleEnded) {
+            roundsPlayed++;
+        }
+    }
+
+    /**
+     * סוף סבב: מקדם את שעון האפקטים (רעל, ריפוי, פקיעת אפקטים) ומטפל במי שהובס ממנו.
+     */
+    private void finishRound() {
+        if (battleEnded) {
+            return;
+        }
+        effects.advance();
+        ArrayList<Character> defeated = effects.getDefeatedLastTick();
+        for (int i = 0; i < defeated.size(); i++) {
+            registerCasualty(defeated.get(i), null);
+        }
+        if (!defeated.isEmpty()) {
+            checkBattleEnd();
+        }
+    }
+
+    private void attachEffects(ArrayList<Character> combatants) {
+        for (int i = 0; i < combatants.size(); i++) {
+            combatants.get(i).setStatusEffectEngine(effects);
+        }
+    }
+
+    private static BattleEvent.Type eventTypeOf(BattleAction.ActionType actionType) {
+        switch (actionType) {
+            case SPECIAL: return BattleEvent.Type.SPECIAL;
+            case DEFEND: return BattleEvent.Type.DEFEND;
+            case USE_ITEM: return BattleEvent.Type.ITEM;
+            case FLEE: return BattleEvent.Type.FLEE;
+            default: return BattleEvent.Type.ATTACK;
+        }
+    }
+
+    /**
+     * אם המטרה כבר הובסה, בוחר מטרה חיה אחרת מאותו צד.
+     */
+    private Character resolveTarget(Character target) {
+        if (target.isAlive()) {
+            return target;
+        }
+        Side side = sides.get(target);
+        if (side == null || side.livingCount() == 0) {
+            return target;
+        }
+        return side.randomLiving(random);
+    }
+
+    private void publish(BattleEvent.Type type, Character actor, Character target,
+                         int amount, int secondaryAmount, boolean success, String itemName) {
+        eventListener.onEvent(event.set(type, roundsPlayed, actor, target,
+            amount, secondaryAmount, success, itemName));
+    }
+
+    private void recordDamage(Character actor, int damage) {
+        if (damage <= 0) {
+            return;
+        }
+        Side side = sides.get(actor);
+        if (side == partySide) {
+            damageDealtByPlayer += damage;
+        } else if (side == enemySide) {
+            damageDealtByEnemy += damage;
+        }
+    }
     
     // ============================================================
     // TODO: ביצוע פעולות (Action Execution)
@@ -175,38 +397,62 @@ public class BattleSystem {
     }
 
     private void executeDefend(Character defender) {
-        logMessage(defender.getName() + " takes defensive stance.");
-        // Note: Actual damage reduction logic would be in Character.takeDamage()
-        // or handled by a temporary status effect system.
+        if (!headless) {
+            logMessage(defender.getName() + " takes defensive stance.");
+        }
+        // עמידת ההגנה (והגנות של המחלקה) היא אפקט שפוקע בסוף הסבב
+        defender.defend();
     }
 
-    private boolean executeFlee(Character fleeing) {
+    private boolean executeFlee(Character fleeing, Character opponent) {
         double baseChance = 0.30;
-        int levelDiff = fleeing.getLevel() - (fleeing == player ? enemy.getLevel() : player.getLevel());
+        int levelDiff = fleeing.getLevel() - opponent.getLevel();
         double chance = baseChance + (levelDiff * 0.05);
 
-        return Math.random() < chance;
+        return random.chance(chance);
     }
     
     // ============================================================
     // TODO: בדיקת סיום קרב
     // ============================================================
 
+    /**
+     * מסיר דמות שהובסה מרשימת החיים של הצד שלה (O(1)).
+     */
+    private void registerCasualty(Character fallen, Character defeatedBy) {
+        if (fallen.isAlive()) {
+            return;
+        }
+        Side side = sides.get(fallen);
+        if (side != null && side.removeLiving(fallen)) {
+            publish(BattleEvent.Type.DEFEAT, fallen, defeatedBy, 0, 0, true, null);
+            if (!headless) {
+                logMessage(fallen.getName() + " was defeated!");
+            }
+        }
+    }
+
     private void checkBattleEnd() {
-        if (!player.isAlive()) {
+        if (partySide.livingCount() == 0) {
             battleEnded = true;
             winner = enemy;
-            logMessage(player.getName() + " was defeated!");
-        } else if (!enemy.isAlive()) {
+        } else if (enemySide.livingCount() == 0) {
             battleEnded = true;
             winner = player;
-            logMessage(enemy.getName() + " was defeated!");
 
             // Loot logic could go here
-            int goldReward = enemy.getLevel() * 10;
-            player.addGold(goldReward);
-            player.gainExperience(enemy.getLevel() * 20);
-            logMessage(player.getName() + " gained " + goldReward + " gold.");
+            int goldReward = enemySide.totalLevels * 10;
+            int experienceReward = enemySide.totalLevels * 20;
+            ArrayList<Character> survivors = partySide.living;
+            for (int i = 0; i < survivors.size(); i++) {
+                Character member = survivors.get(i);
+                member.addGold(goldReward);
+                member.gainExperience(experienceReward);
+                publish(BattleEvent.Type.REWARD, member, enemy, goldReward, experienceReward, true, null);
+                if (!headless) {
+                    logMessage(member.getName() + " gained " + goldReward + " gold.");
+                }
+            }
         }
     }
     
@@ -246,10 +492,82 @@ public class BattleSystem {
     // ============================================================
     
     private void logMessage(String message) {
+        if (headless) {
+            return;
+        }
         battleLog.add(message);
         System.out.println(message);
     }
     
+    private static String describeSide(Side side) {
+        Character leader = side.living.get(0);
+        int others = side.living.size() - 1;
+        return others == 0 ? leader.getName() : leader.getName() + " and " + others + " allies";
+    }
+    
+    private static ArrayList<Character> singleton(Character character) {
+        ArrayList<Character> list = new ArrayList<>(1);
+        list.add(character);
+        return list;
+    }
+    
+    /**
+     * צד בקרב: הדמויות שעדיין בחיים ומיקומן ברשימה, להסרה ב-O(1).
+     */
+    private static final class Side {
+        private final ArrayList<Character> members;
+        private final ArrayList<Character> living;
+        private final HashMap<Character, Integer> positions;
+        private final int totalLevels;
+        
+        Side(ArrayList<Character> members, HashMap<Character, Side> sides) {
+            this.members = new ArrayList<>(members);
+            this.living = new ArrayList<>(members.size());
+            this.positions = new HashMap<>();
+            int levels = 0;
+            for (Character member : members) {
+                if (sides.containsKey(member)) {
+                    throw new IllegalArgumentException(member.getName() + " appears more than once in the battle");
+                }
+                sides.put(member, this);
+                levels += member.getLevel();
+                if (member.isAlive()) {
+                    positions.put(member, living.size());
+                    living.add(member);
+                }
+            }
+            this.totalLevels = levels;
+        }
+        
+        int livingCount() {
+            return living.size();
+        }
+        
+        Character randomLiving(RandomSource random) {
+            if (living.size() == 1) {
+                return living.get(0);
+            }
+            return living.get(random.nextInt(living.size()));
+        }
+        
+        /**
+         * מחליף את הדמות עם האחרונה ברשימה ומסיר - O(1).
+         * @return true אם הדמות הייתה ברשימת החיים
+         */
+        boolean removeLiving(Character character) {
+            Integer position = positions.remove(character);
+            if (position == null) {
+                return false;
+            }
+            Character last = living.remove(living.size() - 1);
+            if (last != character) {
+                living.set(position, last);
+                positions.put(last, position);
+            }
+            return true;
+        }
+    }
+    
     // Getters
     public Character getPlayer() {
         return player;
@@ -259,6 +577,22 @@ public class BattleSystem {
         return enemy;
     }
     
+    public ArrayList<Character> getParty() {
+        return new ArrayList<>(partySide.members);
+    }
+    
+    public ArrayList<Character> getEnemies() {
+        return new ArrayList<>(enemySide.members);
+    }
+    
+    public int getLivingPartyCount() {
+        return partySide.livingCount();
+    }
+    
+    public int getLivingEnemyCount() {
+        return enemySide.livingCount();
+    }
+    
     public boolean isBattleEnded() {
         return battleEnded;
     }
@@ -267,6 +601,48 @@ public class BattleSystem {
         return winner;
     }
     
+    /**
+     * מגדיר מאזין לאירועי הקרב (ברירת מחדל: NoOpEventSink).
+     * @param eventListener המאזין, למשל RingBufferEventSink או TextEventSink
+     */
+    public void setEventListener(BattleEventListener eventListener) {
+        this.eventListener = eventListener != null ? eventListener : NoOpEventSink.INSTANCE;
+    }
+    
+    public BattleEventListener getEventListener() {
+        return eventListener;
+    }
+    
+    public StatusEffectEngine getStatusEffectEngine() {
+        return effects;
+    }
+    
+    public RandomSource getRandomSource() {
+        return random;
+    }
+    
+    public boolean isHeadless() {
+        return headless;
+    }
+    
+    public int getRoundsPlayed() {
+        return roundsPlayed;
+    }
+    
+    /**
+     * @return הנזק שגרמה קבוצת השחקן (בקרב אחד על אחד - השחקן עצמו)
+     */
+    public int getDamageDealtByPlayer() {
+        return damageDealtByPlayer;
+    }
+    
+    /**
+     * @return הנזק שגרמה קבוצת האויב
+     */
+    public int getDamageDealtByEnemy() {
+        return damageDealtByEnemy;
+    }
+    
     public ArrayList<String> getBattleLog() {
         return new ArrayList<>(battleLog);
     }
@@ -0,0 +1,200 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * אינדקס ממוין של חדרי המפה לפי רמת סכנה.
+ *
+ * הרמות השונות שמורות במערך ממוין, ולכל רמה רשימה ממוינת של אינדקסים בגרף.
+ * עץ Fenwick על מיקומי הרמות נותן ספירה לטווח רמות ב-O(log L), והגבולות של טווח
+ * נמצאים בחיפוש בינארי. רמה חדשה (נדיר) מזיזה את המערכים ובונה את העץ מחדש.
+ */
+class DangerIndex {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] levels;
+    private int[][] nodes;
+    private int[] sizes;
+    // fenwick[i] - סכום הגדלים בטווח הרמות שמסתיים במיקום i - 1 (אינדקס מ-1)
+    private int[] fenwick;
+    private int levelCount;
+    private int total;
+
+    DangerIndex() {
+        this.levels = new int[INITIAL_CAPACITY];
+        this.nodes = new int[INITIAL_CAPACITY][];
+        this.sizes = new int[INITIAL_CAPACITY];
+        this.fenwick = new int[INITIAL_CAPACITY + 1];
+        this.levelCount = 0;
+        this.total = 0;
+    }
+
+    // ============================================================
+    // עדכון
+    // ============================================================
+
+    void add(int danger, int node) {
+        int position = Arrays.binarySearch(levels, 0, levelCount, danger);
+        if (position < 0) {
+            position = insertLevel(-position - 1, danger);
+        }
+        int[] row = nodes[position];
+        int size = sizes[position];
+        // בדרך כלל האינדקסים מגיעים בסדר עולה, ואז ההכנסה היא בסוף
+        int at = size;
+        if (size > 0 && row[size - 1] >= node) {
+            int found = Arrays.binarySearch(row, 0, size, node);
+            if (found >= 0) {
+                return;
+            }
+            at = -found - 1;
+        }
+        if (size == row.length) {
+            row = Arrays.copyOf(row, size * 2);
+            nodes[position] = row;
+        }
+        System.arraycopy(row, at, row, at + 1, size - at);
+        row[at] = node;
+        sizes[position] = size + 1;
+        update(position, 1);
+        total++;
+    }
+
+    void remove(int danger, int node) {
+        int position = Arrays.binarySearch(levels, 0, levelCount, danger);
+        if (position < 0) {
+            return;
+        }
+        int[] row = nodes[position];
+        int size = sizes[position];
+        int at = Arrays.binarySearch(row, 0, size, node);
+        if (at < 0) {
+            return;
+        }
+        System.arraycopy(row, at + 1, row, at, size - at - 1);
+        sizes[position] = size - 1;
+        update(position, -1);
+        total--;
+    }
+
+    private int insertLevel(int position, int danger) {
+        if (levelCount == levels.length) {
+            int capacity = levels.length * 2;
+            levels = Arrays.copyOf(levels, capacity);
+            nodes = Arrays.copyOf(nodes, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        int moved = levelCount - position;
+        System.arraycopy(levels, position, levels, position + 1, moved);
+        System.arraycopy(nodes, position, nodes, position + 1, moved);
+        System.arraycopy(sizes, position, sizes, position + 1, moved);
+        levels[position] = danger;
+        nodes[position] = new int[INITIAL_CAPACITY];
+        sizes[position] = 0;
+        levelCount++;
+        rebuildFenwick();
+        return position;
+    }
+
+    // ============================================================
+    // שאילתות
+    // ============================================================
+
+    /**
+     * @return מספר החדרים ברמת הסכנה הנתונה - O(log L)
+     */
+    int count(int danger) {
+        int position = Arrays.binarySearch(levels, 0, levelCount, danger);
+        return position < 0 ? 0 : sizes[position];
+    }
+
+    /**
+     * @return מספר החדרים עם רמת סכנה בטווח [min, max] - O(log L)
+     */
+    int countInRange(int min, int max) {
+        if (min > max) {
+            return 0;
+        }
+        int end = max == Integer.MAX_VALUE ? levelCount : ceilPosition(max + 1);
+        return prefix(end) - prefix(ceilPosition(min));
+    }
+
+    /**
+     * מעתיק את האינדקסים של החדרים בטווח [min, max], לפי רמה ואז לפי אינדקס.
+     * @return מערך בגודל התוצאה בדיוק
+     */
+    int[] nodesInRange(int min, int max) {
+        int[] result = new int[countInRange(min, max)];
+        int write = 0;
+        for (int position = ceilPosition(min); position < levelCount && levels[position] <= max; position++) {
+            System.arraycopy(nodes[position], 0, result, write, sizes[position]);
+            write += sizes[position];
+        }
+        return result;
+    }
+
+    int size() {
+        return total;
+    }
+
+    int getLevelCount() {
+        return levelCount;
+    }
+
+    int getLevelAt(int position) {
+        return levels[position];
+    }
+
+    int getSizeAt(int position) {
+        return sizes[position];
+    }
+
+    int getNodeAt(int position, int k) {
+        return nodes[position][k];
+    }
+
+    /**
+     * @return המיקום הראשון שרמתו לפחות danger (levelCount אם אין כזה)
+     */
+    private int ceilPosition(int danger) {
+        int position = Arrays.binarySearch(levels, 0, levelCount, danger);
+        return position < 0 ? -position - 1 : position;
+    }
+
+    // ============================================================
+    // עץ Fenwick
+    // ============================================================
+
+    private void update(int position, int delta) {
+        for (int i = position + 1; i <= levelCount; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+
+    /**
+     * @return סכום הגדלים במיקומים [0, end)
+     */
+    private int prefix(int end) {
+        int sum = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            sum += fenwick[i];
+        }
+        return sum;
+    }
+
+    private void rebuildFenwick() {
+        if (fenwick.length < levelCount + 1) {
+            fenwick = new int[levels.length + 1];
+        } else {
+            Arrays.fill(fenwick, 0);
+        }
+        for (int i = 1; i <= levelCount; i++) {
+            fenwick[i] += sizes[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= levelCount) {
+                fenwick[parent] += fenwick[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package game;
+
+import model.items.Armor;
+import model.items.ArmorTemplate;
+import model.items.Item;
+import model.items.ItemTemplate;
+import model.items.Potion;
+import model.items.PotionTemplate;
+import model.items.Weapon;
+import model.items.WeaponTemplate;
+import utils.RandomSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * מחולל מבוכים פרוצדורלי ומקבילי.
+ *
+ * החדרים מחולקים לאזורים רציפים של regionSize חדרים. כל אזור נבנה במשימת fork/join
+ * משלו עם זרם אקראיות משלו (לפי הזרע ומספר האזור): חדרים, שלל, רמות סכנה ומסדרונות
+ * פנימיים (עץ פורש ועוד לולאות), ומסדרון אחד לאזור הקודם. האזורים לא חולקים מצב,
+ * ולכן אין נעילות, והתוצאה דטרמיניסטית לכל זרע ללא תלות במספר הליבות.
+ * בסוף, שלב סדרתי קצר מכניס את האזורים למפה לפי הסדר.
+ *
+ * generatePaged בונה מפה מדופדפת: רק הגרף ורמות הסכנה נשמרים, והחדרים עצמם נבנים
+ * מחדש מהזרע כשהאזור שלהם נטען, עם המצב (ביקור ושלל) שנשמר כשהאזור פונה.
+ *
+ * רמת הסכנה עולה בהדרגה מהכניסה (חדר 0, רמה 1) ועד חדר הבוס (החדר האחרון, maxDangerLevel).
+ */
+public class DungeonGenerator {
+
+    public static final int DEFAULT_REGION_SIZE = 4096;
+    public static final int DEFAULT_MAX_DANGER_LEVEL = 10;
+
+    private static final String[] ADJECTIVES = {
+        "Dark", "Damp", "Forgotten", "Flooded", "Ruined", "Silent", "Burning", "Frozen", "Haunted", "Ancient"
+    };
+    private static final String[] ROOM_TYPES = {
+        "Hallway", "Cellar", "Crypt", "Armory", "Library", "Shrine", "Barracks", "Cavern", "Vault", "Prison"
+    };
+    private static final String[] DESCRIPTIONS = {
+        "Torches flicker on the walls.",
+        "Water drips from the ceiling.",
+        "Bones are scattered across the floor.",
+        "Cobwebs cover every corner.",
+        "Strange runes glow faintly on the stones.",
+        "The air is thick with dust."
+    };
+
+    private final int roomCount;
+    private final long seed;
+    private int regionSize;
+    private int maxDangerLevel;
+    private double extraConnectionChance;
+    private double lootChance;
+    // תבניות השלל לפי רמת סכנה - כל השלל מאותו סוג ורמה חולק תבנית אחת
+    private ItemTemplate[][] lootTemplates;
+
+    /**
+     * @param roomCount מספר החדרים במבוך (לפחות 1)
+     * @param seed זרע המחולל
+     */
+    public DungeonGenerator(int roomCount, long seed) {
+        if (roomCount < 1) {
+            throw new IllegalArgumentException("Room count must be at least 1: " + roomCount);
+        }
+        this.roomCount = roomCount;
+        this.seed = seed;
+        this.regionSize = DEFAULT_REGION_SIZE;
+        this.maxDangerLevel = DEFAULT_MAX_DANGER_LEVEL;
+        this.extraConnectionChance = 0.2;
+        this.lootChance = 0.15;
+    }
+
+    // ============================================================
+    // הגדרות
+    // ============================================================
+
+    /**
+     * @param regionSize מספר החדרים באזור - יחידת העבודה המקבילית
+     */
+    public DungeonGenerator withRegionSize(int regionSize) {
+        if (regionSize < 1) {
+            throw new IllegalArgumentException("Region size must be at least 1: " + regionSize);
+        }
+        this.regionSize = regionSize;
+        return this;
+    }
+
+    public DungeonGenerator withMaxDangerLevel(int maxDangerLevel) {
+        if (maxDangerLevel < 1) {
+            throw new IllegalArgumentException("Max danger level must be at least 1: " + maxDangerLevel);
+        }
+        this.maxDangerLevel = maxDangerLevel;
+        return this;
+    }
+
+    /**
+     * @param extraConnectionChance הסתברות למסדרון נוסף (לולאה) מכל חדר
+     */
+    public DungeonGenerator withExtraConnectionChance(double extraConnectionChance) {
+        this.extraConnectionChance = extraConnectionChance;
+        return this;
+    }
+
+    /**
+     * @param lootChance הסתברות לשלל בחדר
+     */
+    public DungeonGenerator withLootChance(double lootChance) {
+        this.lootChance = lootChance;
+        return this;
+    }
+
+    // ============================================================
+    // יצירה
+    // ============================================================
+
+    public DungeonMap generate() {
+        return generate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * בונה מפה חדשה על ה-pool הנתון.
+     * @param pool ה-pool להרצה (מספר ה-workers קובע את רמת המקביליות)
+     * @return המפה, עם נקודת התחלה בחדר 0 ובוס בחדר האחרון
+     */
+    public DungeonMap generate(ForkJoinPool pool) {
+        Region[] regions = buildRegions(pool, true);
+
+        // מיזוג סדרתי לפי סדר האזורים - האינדקס בגרף שווה למספר החדר
+        DungeonMap map = new DungeonMap();
+        for (Region region : regions) {
+            for (GameLocation room : region.rooms) {
+                map.addLocation(room);
+            }
+        }
+        connect(map.getGraph(), regions);
+
+        map.setBossLocation(roomId(roomCount - 1));
+        return map;
+    }
+
+    public DungeonMap generatePaged(int maxResidentRegions) {
+        return generatePaged(ForkJoinPool.commonPool(), maxResidentRegions);
+    }
+
+    /**
+     * בונה מפה מדופדפת: אותו מבוך כמו generate, אבל לכל היותר maxResidentRegions אזורים
+     * של חדרים בזיכרון בכל רגע.
+     * @param pool ה-pool לבניית הגרף
+     * @param maxResidentRegions מספר האזורים המרבי בזיכרון (לפחות 2)
+     */
+    public DungeonMap generatePaged(ForkJoinPool pool, int maxResidentRegions) {
+        Region[] regions = buildRegions(pool, false);
+
+        DungeonMap map = new DungeonMap(new GeneratedRegionStore(), maxResidentRegions);
+        for (int r = 0; r < regions.length; r++) {
+            int[] dangerLevels = regions[r].dangerLevels;
+            for (int i = 0; i < dangerLevels.length; i++) {
+                map.addPagedLocation(roomId(r * regionSize + i), dangerLevels[i]);
+            }
+        }
+        connect(map.getGraph(), regions);
+
+        map.setStartLocation(roomId(0));
+        map.setBossLocation(roomId(roomCount - 1));
+        return map;
+    }
+
+    private Region[] buildRegions(ForkJoinPool pool, boolean keepRooms) {
+        int regionCount = (roomCount + regionSize - 1) / regionSize;
+        Region[] regions = new Region[regionCount];
+        lootTemplates = buildLootTemplates();
+        pool.invoke(new RegionTask(regions, keepRooms, 0, regionCount));
+        return regions;
+    }
+
+    private static void connect(DungeonGraph graph, Region[] regions) {
+        for (Region region : regions) {
+            for (int e = 0; e < region.edgeCount; e += 2) {
+                graph.connect(region.edges[e], region.edges[e + 1]);
+            }
+        }
+        graph.compact();
+    }
+
+    private Region buildRegion(int regionIndex) {
+        int first = regionIndex * regionSize;
+        int count = Math.min(regionSize, roomCount - first);
+        RandomSource random = RandomSource.forStream(seed, regionIndex);
+        Region region = new Region(count);
+
+        for (int local = 0; local < count; local++) {
+            int room = first + local;
+            int danger = dangerLevelOf(room, random);
+            GameLocation location = new GameLocation(roomId(room),
+                ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + ROOM_TYPES[random.nextInt(ROOM_TYPES.length)],
+                DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)], danger);
+            if (random.chance(lootChance)) {
+                location.addLoot(createLoot(danger, random));
+            }
+            region.rooms[local] = location;
+
+            if (local > 0) {
+                // עץ פורש: חיבור לאחד החדרים האחרונים יוצר מסדרונות מתפצלים
+                int back = 1 + random.nextInt(Math.min(local, 4));
+                region.addEdge(room, room - back);
+                if (local > 1 && random.chance(extraConnectionChance)) {
+                    int target = first + random.nextInt(local);
+                    if (target != room - back) {
+                        region.addEdge(room, target);
+                    }
+                }
+            } else if (regionIndex > 0) {
+                // מעבר לאזור הקודם
+                region.addEdge(room, first - regionSize + random.nextInt(regionSize));
+            }
+        }
+        return region;
+    }
+
+    /**
+     * שיפוע סכנה לפי המיקום במבוך, עם סטייה קטנה. הכניסה תמיד 1 והבוס תמיד המקסימום.
+     */
+    private int dangerLevelOf(int room, RandomSource random) {
+        if (room == 0) {
+            return 1;
+        }
+        if (room == roomCount - 1) {
+            return maxDangerLevel;
+        }
+        double progress = (double) room / (roomCount - 1);
+        int danger = 1 + (int) Math.round(progress * (maxDangerLevel - 1)) + random.nextInt(-1, 2);
+        return Math.max(1, Math.min(maxDangerLevel, danger));
+    }
+
+    /**
+     * שלל לפי רמת הסכנה - חדרים מסוכנים יותר מחזיקים פריטים נדירים יותר.
+     */
+    private Item createLoot(int danger, RandomSource random) {
+        ItemTemplate[] row = lootTemplates[danger];
+        int weaponTypes = Weapon.WeaponType.values().length;
+        switch (random.nextInt(3)) {
+            case 0:
+                return row[random.nextInt(weaponTypes)].newInstance();
+            case 1:
+                return row[weaponTypes + random.nextInt(Armor.ArmorSlot.values().length)].newInstance();
+            default:
+                return row[row.length - 1].newInstance();
+        }
+    }
+
+    /**
+     * @return לכל רמת סכנה: תבנית לכל סוג נשק, לכל מקום שריון, ובסוף שיקוי
+     */
+    private ItemTemplate[][] buildLootTemplates() {
+        Item.ItemRarity[] rarities = Item.ItemRarity.values();
+        Weapon.WeaponType[] weaponTypes = Weapon.WeaponType.values();
+        Armor.ArmorSlot[] slots = Armor.ArmorSlot.values();
+        ItemTemplate[][] templates = new ItemTemplate[maxDangerLevel + 1][];
+        for (int danger = 1; danger <= maxDangerLevel; danger++) {
+            int tier = Math.min(rarities.length - 1, (danger - 1) * rarities.length / maxDangerLevel);
+            Item.ItemRarity rarity = rarities[tier];
+            int power = 5 + danger * 2;
+            ItemTemplate[] row = new ItemTemplate[weaponTypes.length + slots.length + 1];
+            for (int i = 0; i < weaponTypes.length; i++) {
+                row[i] = new WeaponTemplate(rarity + " " + weaponTypes[i], "Found in the depths", 5, 10 * power,
+                    rarity, power, power * 2, weaponTypes[i]);
+            }
+            for (int i = 0; i < slots.length; i++) {
+                row[weaponTypes.length + i] = new ArmorTemplate(rarity + " " + slots[i].name() + " Armor",
+                    "Found in the depths", 4, 8 * power, rarity, power, slots[i]);
+            }
+            row[row.length - 1] = new PotionTemplate("Health Potion", "Restores " + power * 3 + " HP", 3 * power,
+                rarity, Potion.PotionType.HEALTH, power * 3, 1);
+            templates[danger] = row;
+        }
+        return templates;
+    }
+
+    public static String roomId(int room) {
+        return "room-" + room;
+    }
+
+    /**
+     * התוצר של אזור אחד: החדרים שלו וזוגות החיבורים (לפי מספרי חדרים גלובליים).
+     * במפה מדופדפת החדרים מוחלפים ברמות הסכנה שלהם בלבד.
+     */
+    private static final class Region {
+        GameLocation[] rooms;
+        int[] dangerLevels;
+        int[] edges;
+        int edgeCount;
+
+        Region(int roomCount) {
+            this.rooms = new GameLocation[roomCount];
+            this.edges = new int[roomCount * 2 + 2];
+            this.edgeCount = 0;
+        }
+
+        void addEdge(int from, int to) {
+            if (edgeCount + 2 > edges.length) {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[edgeCount++] = from;
+            edges[edgeCount++] = to;
+        }
+
+        void dropRooms() {
+            dangerLevels = new int[rooms.length];
+            for (int i = 0; i < rooms.length; i++) {
+                dangerLevels[i] = rooms[i].getDangerLevel();
+            }
+            rooms = null;
+        }
+    }
+
+    /**
+     * מצב שמור של אזור שפונה: דגלי ביקור ואדון (bitsets) והשלל שנשאר בכל חדר.
+     */
+    private static final class SavedRegion {
+        final long[] visited;
+        final long[] masters;
+        final Item[][] loot;
+
+        SavedRegion(GameLocation[] rooms) {
+            this.visited = new long[(rooms.length + 63) >>> 6];
+            this.masters = new long[visited.length];
+            this.loot = new Item[rooms.length][];
+            for (int i = 0; i < rooms.length; i++) {
+                if (rooms[i].isVisited()) {
+                    visited[i >>> 6] |= 1L << i;
+                }
+                if (rooms[i].hasMaster()) {
+                    masters[i >>> 6] |= 1L << i;
+                }
+                if (rooms[i].hasLoot()) {
+                    ArrayList<Item> items = rooms[i].getLoot();
+                    loot[i] = items.toArray(new Item[items.size()]);
+                }
+            }
+        }
+
+        void applyTo(GameLocation[] rooms) {
+            for (int i = 0; i < rooms.length; i++) {
+                if ((visited[i >>> 6] & (1L << i)) != 0) {
+                    rooms[i].markAsVisited();
+                }
+                rooms[i].setHasMaster((masters[i >>> 6] & (1L << i)) != 0);
+                rooms[i].collectAllLoot();
+                if (loot[i] != null) {
+                    for (Item item : loot[i]) {
+                        rooms[i].addLoot(item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * store שבונה אזורים מחדש מהזרע ומחיל עליהם את המצב שנשמר בפינוי.
+     * רק אזורים שפונו אי פעם תופסים זיכרון, ובצורה דחוסה.
+     */
+    private class GeneratedRegionStore implements RegionStore {
+
+        private final HashMap<Integer, SavedRegion> saved = new HashMap<>();
+
+        @Override
+        public int getRegionSize() {
+            return regionSize;
+        }
+
+        @Override
+        public GameLocation[] loadRegion(int region) {
+            GameLocation[] rooms = buildRegion(region).rooms;
+            SavedRegion state = saved.get(region);
+            if (state != null) {
+                state.applyTo(rooms);
+            }
+            return rooms;
+        }
+
+        @Override
+        public void storeRegion(int region, GameLocation[] rooms) {
+            saved.put(region, new SavedRegion(rooms));
+        }
+    }
+
+    /**
+     * משימת fork/join על טווח אזורים [from, to).
+     * מתפצלת לחצאים עד אזור אחד, שנבנה ונכתב לתא הפרטי שלו.
+     */
+    private class RegionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Region[] regions;
+        private final boolean keepRooms;
+        private final int from;
+        private final int to;
+
+        RegionTask(Region[] regions, boolean keepRooms, int from, int to) {
+            this.regions = regions;
+            this.keepRooms = keepRooms;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RegionTask(regions, keepRooms, from, mid),
+                    new RegionTask(regions, keepRooms, mid, to));
+                return;
+            }
+            Region region = buildRegion(from);
+            if (!keepRooms) {
+                region.dropRooms();
+            }
+            regions[from] = region;
+        }
+    }
+
+    // Getters
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    public int getMaxDangerLevel() {
+        return maxDangerLevel;
+    }
+
+    /**
+     * יצירת מבוך גדול לבדיקות עומס.
+     * ארגומנטים (אופציונליים): מספר חדרים, זרע, מספר אזורים בזיכרון (למפה מדופדפת).
+     */
+    public static void main(String[] args) {
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+
+        DungeonGenerator generator = new DungeonGenerator(rooms, seed);
+        long start = System.nanoTime();
+        DungeonMap map = args.length > 2
+            ? generator.generatePaged(Integer.parseInt(args[2]))
+            : generator.generate();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%d rooms, %d corridors in %.2fs (%d workers)%n",
+            map.getTotalLocations(), map.getGraph().getEdgeCount() / 2, seconds,
+            ForkJoinPool.commonPool().getParallelism());
+    }
+}
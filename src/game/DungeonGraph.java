@@ -0,0 +1,291 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * גרף המבוך בייצוג דחוס (CSR - compressed sparse row) על מערכי int פרימיטיביים.
+ *
+ * כל מזהה חדר מקבל אינדקס רציף (interning) בטבלת גיבוב פתוחה, והשכנים של חדר u
+ * שמורים ב-targets[offsets[u] .. offsets[u + 1]), ממוינים וללא כפילויות.
+ * קשתות חדשות נצברות ברשימה ממתינה ומתמזגות לייצוג הדחוס בשאילתה הבאה (O(V + E)),
+ * כך שבניית מפה גדולה ואחריה שאילתות היא זולה. מעבר על שכנים ובדיקת חיבור לא מקצים זיכרון.
+ *
+ * המחלקה אינה בטוחה לשימוש מכמה threads (גם שאילתות עשויות לדחוס את הגרף).
+ */
+public class DungeonGraph {
+
+    public static final int NO_NODE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // צמתים: אינדקס -> מזהה, וטבלת גיבוב פתוחה מזהה -> אינדקס + 1 (0 = תא ריק)
+    private String[] ids;
+    private int nodeCount;
+    private int[] table;
+
+    // ייצוג דחוס של הקשתות שכבר מוזגו
+    private int[] offsets;
+    private int[] targets;
+    private int compactedNodes;
+
+    // קשתות שעדיין לא מוזגו
+    private int[] pendingFrom;
+    private int[] pendingTo;
+    private int pendingCount;
+
+    // מונה שינויים - מאפשר למטמונים (למשל של מסלולים) לזהות שהגרף השתנה
+    private int modCount;
+
+    public DungeonGraph() {
+        this.ids = new String[INITIAL_CAPACITY];
+        this.nodeCount = 0;
+        this.table = new int[INITIAL_CAPACITY * 2];
+        this.offsets = new int[1];
+        this.targets = new int[0];
+        this.compactedNodes = 0;
+        this.pendingFrom = new int[INITIAL_CAPACITY];
+        this.pendingTo = new int[INITIAL_CAPACITY];
+        this.pendingCount = 0;
+    }
+
+    // ============================================================
+    // צמתים (interning של מזהים)
+    // ============================================================
+
+    /**
+     * מוסיף צומת למזהה, או מחזיר את האינדקס הקיים שלו.
+     * @return האינדקס של הצומת
+     */
+    public int addNode(String id) {
+        int existing = indexOf(id);
+        if (existing != NO_NODE) {
+            return existing;
+        }
+        if (nodeCount == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        if ((nodeCount + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int index = nodeCount++;
+        ids[index] = id;
+        insert(id, index);
+        modCount++;
+        return index;
+    }
+
+    /**
+     * מקצה מראש מקום ל-nodes צמתים, כדי שטעינה גדולה לא תגדיל ותגבב מחדש שוב ושוב.
+     */
+    void ensureNodeCapacity(int nodes) {
+        if (ids.length < nodes) {
+            ids = Arrays.copyOf(ids, nodes);
+        }
+        int capacity = table.length;
+        while (nodes * 2 > capacity) {
+            capacity *= 2;
+        }
+        if (capacity != table.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * @return האינדקס של המזהה, או NO_NODE אם אין צומת כזה
+     */
+    public int indexOf(String id) {
+        int mask = table.length - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return NO_NODE;
+            }
+            if (ids[entry - 1].equals(id)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    public String getId(int node) {
+        checkNode(node);
+        return ids[node];
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private void insert(String id, int index) {
+        int mask = table.length - 1;
+        int slot = hash(id) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int i = 0; i < nodeCount; i++) {
+            insert(ids[i], i);
+        }
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ============================================================
+    // קשתות
+    // ============================================================
+
+    /**
+     * מוסיף קשת מכוונת. כפילויות מוסרות במיזוג הבא.
+     */
+    public void addEdge(int from, int to) {
+        checkNode(from);
+        checkNode(to);
+        if (pendingCount == pendingFrom.length) {
+            pendingFrom = Arrays.copyOf(pendingFrom, pendingCount * 2);
+            pendingTo = Arrays.copyOf(pendingTo, pendingCount * 2);
+        }
+        pendingFrom[pendingCount] = from;
+        pendingTo[pendingCount] = to;
+        pendingCount++;
+        modCount++;
+    }
+
+    /**
+     * מחבר שני צמתים בשני הכיוונים.
+     */
+    public void connect(int a, int b) {
+        addEdge(a, b);
+        addEdge(b, a);
+    }
+
+    /**
+     * בדיקת חיבור בחיפוש בינארי בשורה של from - ללא הקצאות.
+     */
+    public boolean isConnected(int from, int to) {
+        checkNode(from);
+        compact();
+        return Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to) >= 0;
+    }
+
+    public int getNeighborCount(int node) {
+        checkNode(node);
+        compact();
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * השכן ה-k של הצומת (לפי סדר האינדקסים).
+     * לולאה טיפוסית: for (int k = 0; k < getNeighborCount(u); k++) getNeighbor(u, k)
+     */
+    public int getNeighbor(int node, int k) {
+        checkNode(node);
+        compact();
+        int start = offsets[node];
+        if (k < 0 || start + k >= offsets[node + 1]) {
+            throw new IndexOutOfBoundsException("Neighbor " + k + " of node " + node);
+        }
+        return targets[start + k];
+    }
+
+    /**
+     * @return מספר הקשתות המכוונות (חיבור דו-כיווני נספר פעמיים)
+     */
+    public int getEdgeCount() {
+        compact();
+        return offsets[nodeCount];
+    }
+
+    // ============================================================
+    // מיזוג לייצוג הדחוס
+    // ============================================================
+
+    /**
+     * ממזג את הקשתות הממתינות ואת הצמתים החדשים לייצוג הדחוס.
+     * נקרא אוטומטית בשאילתות; זול כשאין שינויים.
+     */
+    public void compact() {
+        if (pendingCount == 0 && compactedNodes == nodeCount) {
+            return;
+        }
+        int n = nodeCount;
+
+        // ספירת דרגות (ישנות + ממתינות) וסכומי קידומת
+        int[] newOffsets = new int[n + 1];
+        for (int u = 0; u < compactedNodes; u++) {
+            newOffsets[u + 1] = offsets[u + 1] - offsets[u];
+        }
+        for (int p = 0; p < pendingCount; p++) {
+            newOffsets[pendingFrom[p] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            newOffsets[u + 1] += newOffsets[u];
+        }
+
+        // מילוי: קודם השורות הקיימות, אחר כך הקשתות הממתינות
+        int[] newTargets = new int[newOffsets[n]];
+        int[] cursor = Arrays.copyOf(newOffsets, n);
+        for (int u = 0; u < compactedNodes; u++) {
+            int length = offsets[u + 1] - offsets[u];
+            System.arraycopy(targets, offsets[u], newTargets, cursor[u], length);
+            cursor[u] += length;
+        }
+        for (int p = 0; p < pendingCount; p++) {
+            newTargets[cursor[pendingFrom[p]]++] = pendingTo[p];
+        }
+
+        // מיון כל שורה והסרת כפילויות תוך הזזה שמאלה
+        int write = 0;
+        int rowStart = 0;
+        for (int u = 0; u < n; u++) {
+            int rowEnd = newOffsets[u + 1];
+            Arrays.sort(newTargets, rowStart, rowEnd);
+            newOffsets[u] = write;
+            for (int k = rowStart; k < rowEnd; k++) {
+                if (k == rowStart || newTargets[k] != newTargets[k - 1]) {
+                    newTargets[write++] = newTargets[k];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        newOffsets[n] = write;
+
+        this.offsets = newOffsets;
+        this.targets = write == newTargets.length ? newTargets : Arrays.copyOf(newTargets, write);
+        this.compactedNodes = n;
+        this.pendingCount = 0;
+    }
+
+    /**
+     * טוען שורות דחוסות מוכנות (למשל מקובץ שמירה) במקום למזג קשתות אחת-אחת.
+     * השורות חייבות להיות ממוינות וללא כפילויות; קשתות ממתינות יתמזגו אליהן כרגיל.
+     * @param rowOffsets מערך באורך getNodeCount() + 1
+     */
+    void loadRows(int[] rowOffsets, int[] rowTargets) {
+        if (rowOffsets.length != nodeCount + 1 || rowOffsets[nodeCount] != rowTargets.length) {
+            throw new IllegalArgumentException("Rows do not match " + nodeCount + " nodes");
+        }
+        this.offsets = rowOffsets;
+        this.targets = rowTargets;
+        this.compactedNodes = nodeCount;
+        modCount++;
+    }
+
+    /**
+     * @return מונה שגדל בכל הוספת צומת או קשת
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node " + node + " out of " + nodeCount);
+        }
+    }
+}
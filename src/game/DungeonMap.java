@@ -1,23 +1,92 @@
 package game;
 
 import model.exceptions.InvalidActionException;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * מחלקה המייצגת את מפת המבוך.
- * משתמשת ב-HashMap למיפוי מזהי מיקום לאובייקטי GameLocation.
+ * מזהי המיקומים ממופים לאינדקסים רציפים ב-DungeonGraph, שמחזיק גם את החיבורים
+ * בייצוג דחוס (CSR). אובייקטי GameLocation שמורים ברשימה לפי אותו אינדקס.
+ *
+ * במפה עם RegionStore (מפה "מדופדפת") הגרף, המזהים ורמות הסכנה נשארים בזיכרון,
+ * אבל אובייקטי החדרים נטענים לפי אזורים רק כשמגיעים אליהם, ואזורים קרים מפונים
+ * לפי LRU אחרי שמצבם (ביקור, שלל ואדון) נשמר ב-store. אזור המיקום הנוכחי לא מפונה.
+ * אחרי פינוי, אובייקט GameLocation ישן כבר לא מחובר למפה ושינויים בו לא נשמרים.
+ * שאילתה שמחזירה כמה חדרים (getAccessibleLocations) לא מפנה אזורים עד שהיא מסתיימת,
+ * כך שכל החדרים בתוצאה מחוברים; הטעינה הבאה מחזירה את המפה למגבלה.
+ *
+ * אינדקס ממוין לפי רמת סכנה (DangerIndex) מתעדכן בכל הוספת חדר ועונה על שאילתות
+ * טווח וספירה בלי לבנות מבנים מחדש.
+ *
+ * מצב הביקור של כל החדרים נשמר גם ב-bitset לפי אינדקס, עם מונה רץ שמתעדכן
+ * ב-markAsVisited, כך שהתקדמות החקירה היא O(1) ולא דורשת טעינת אזורים.
  */
 public class DungeonMap {
     
-    // HashMap ממזהה מיקום לאובייקט המיקום
-    private HashMap<String, GameLocation> locations;
+    // גרף המפה: מזהה -> אינדקס, וחיבורים בין אינדקסים
+    private final DungeonGraph graph;
+    // אינדקס בגרף -> אובייקט המיקום
+    private final ArrayList<GameLocation> locations;
+    // חיפוש מסלולים עם מטמון - מתרוקן אוטומטית כשהגרף משתנה
+    private final Pathfinder pathfinder;
+    // דפדוף: null במפה שכולה בזיכרון
+    private final RegionStore regionStore;
+    private final int regionSize;
+    private final int maxResidentRegions;
+    private final LinkedHashMap<Integer, GameLocation[]> residentRegions;
+    // כל עוד גדול מ-0 לא מפנים אזורים (גם אם עוברים את maxResidentRegions)
+    private int evictionHolds;
+    // חדרים [0, pagedNodeCount) שייכים לאזורים; חדרים שנוספו אחריהם תמיד בזיכרון
+    private int pagedNodeCount;
+    private int[] pagedDangerLevels;
+    // מזהה שעוד לא במפה -> החדרים שכבר חיברו אליו חיבור מקומי
+    private final HashMap<String, ArrayList<GameLocation>> pendingConnections;
+    // אינדקס רמות סכנה -> אינדקסים בגרף
+    private final DangerIndex dangerIndex;
+    // ביקורים לפי אינדקס בגרף, ומספר הביטים הדולקים
+    private final BitSet visitedBits;
+    private int visitedCount;
     private String currentLocationId;
     private String startLocationId;
     private String bossLocationId;
     
     public DungeonMap() {
-        this.locations = new HashMap<>();
+        this(null, 0);
+    }
+    
+    /**
+     * מפה מדופדפת. את המזהים והחיבורים מוסיפים דרך addPagedLocation ו-getGraph().
+     * @param regionStore מקור האזורים
+     * @param maxResidentRegions מספר האזורים המרבי בזיכרון (לפחות 2)
+     */
+    DungeonMap(RegionStore regionStore, int maxResidentRegions) {
+        if (regionStore != null && maxResidentRegions < 2) {
+            throw new IllegalArgumentException("At least 2 resident regions are required: " + maxResidentRegions);
+        }
+        this.graph = new DungeonGraph();
+        this.locations = new ArrayList<>();
+        this.pathfinder = new Pathfinder(graph, this);
+        this.regionStore = regionStore;
+        this.regionSize = regionStore == null ? 0 : regionStore.getRegionSize();
+        this.maxResidentRegions = maxResidentRegions;
+        this.residentRegions = new LinkedHashMap<>(16, 0.75f, true);
+        this.evictionHolds = 0;
+        this.pagedNodeCount = 0;
+        this.pagedDangerLevels = new int[0];
+        this.pendingConnections = new HashMap<>();
+        this.dangerIndex = new DangerIndex();
+        this.visitedBits = new BitSet();
+        this.visitedCount = 0;
         this.currentLocationId = null;
         this.startLocationId = null;
         this.bossLocationId = null;
@@ -27,35 +96,63 @@ public class DungeonMap {
     // TODO: ניהול מפה
     // ============================================================
 
+    /**
+     * מוסיף מיקום למפה. חיבורים שחדרים אחרים כבר הוסיפו למזהה שלו עוברים לגרף.
+     * מיקום עם מזהה קיים מחליף את הקודם ויורש את כל הקשתות של המזהה בגרף
+     * (החיבורים שייכים למזהה, לא לאובייקט), כולל אלה שהחדר הקודם הוסיף.
+     */
     public void addLocation(GameLocation location) {
-        locations.put(location.getId(), location);
+        int index = graph.addNode(location.getId());
+        if (index == locations.size()) {
+            locations.add(location);
+            dangerIndex.add(location.getDangerLevel(), index);
+        } else {
+            if (index < pagedNodeCount) {
+                throw new IllegalStateException("Cannot replace paged location " + location.getId());
+            }
+            // מזהה קיים - המיקום החדש מחליף את הישן
+            GameLocation old = locations.get(index);
+            old.detachFromMap();
+            dangerIndex.remove(old.getDangerLevel(), index);
+            dangerIndex.add(location.getDangerLevel(), index);
+            locations.set(index, location);
+            clearVisit(index);
+            // רמת הסכנה עשויה להשתנות - המסלולים הבטוחים כבר לא תקפים
+            pathfinder.invalidate();
+        }
+        location.attachToMap(this, index);
+        resolvePendingConnections(location.getId());
+        syncVisit(location, index);
         if (startLocationId == null) {
             setStartLocation(location.getId());
         }
     }
     public void connectLocations(String locationId1, String locationId2)
             throws InvalidActionException {
-        if (!locations.containsKey(locationId1)) {
+        int index1 = graph.indexOf(locationId1);
+        if (index1 == DungeonGraph.NO_NODE) {
             throw new InvalidActionException("connect", "Location " + locationId1 + " does not exist");
         }
-        if (!locations.containsKey(locationId2)) {
+        int index2 = graph.indexOf(locationId2);
+        if (index2 == DungeonGraph.NO_NODE) {
             throw new InvalidActionException("connect", "Location " + locationId2 + " does not exist");
         }
 
-        locations.get(locationId1).addConnection(locationId2);
-        locations.get(locationId2).addConnection(locationId1);
+        graph.connect(index1, index2);
     }
     public GameLocation getLocation(String locationId) {
-        return locations.get(locationId);
+        int index = graph.indexOf(locationId);
+        return index == DungeonGraph.NO_NODE ? null : location(index);
     }
 
     public GameLocation getCurrentLocation() {
         if (currentLocationId == null) return null;
-        return locations.get(currentLocationId);
+        return getLocation(currentLocationId);
     }
 
     public void moveTo(String locationId) throws InvalidActionException {
-        if (!locations.containsKey(locationId)) {
+        int target = graph.indexOf(locationId);
+        if (target == DungeonGraph.NO_NODE) {
             throw new InvalidActionException("move", "Location " + locationId + " does not exist");
         }
 
@@ -65,41 +162,85 @@ public class DungeonMap {
         }
 
         currentLocationId = locationId;
-        locations.get(locationId).markAsVisited();
+        location(target).markAsVisited();
     }
 
     public ArrayList<GameLocation> getVisitedLocations() {
-        ArrayList<GameLocation> visited = new ArrayList<>();
-        for (GameLocation loc : locations.values()) {
-            if (loc.isVisited()) {
-                visited.add(loc);
-            }
+        ArrayList<GameLocation> visited = new ArrayList<>(visitedCount);
+        for (GameLocation loc : iterateVisitedLocations()) {
+            visited.add(loc);
         }
         return visited;
     }
     public ArrayList<GameLocation> getUnvisitedLocations() {
-        ArrayList<GameLocation> unvisited = new ArrayList<>();
-        for (GameLocation loc : locations.values()) {
-            if (!loc.isVisited()) {
-                unvisited.add(loc);
-            }
+        ArrayList<GameLocation> unvisited = new ArrayList<>(locations.size() - visitedCount);
+        for (GameLocation loc : iterateUnvisitedLocations()) {
+            unvisited.add(loc);
         }
         return unvisited;
     }
+    
+    /**
+     * מעבר עצל על החדרים שבוקרו, לפי סדר האינדקסים, ישירות מה-bitset (ללא רשימת ביניים).
+     */
+    public Iterable<GameLocation> iterateVisitedLocations() {
+        return locationsByVisit(true);
+    }
+    
+    /**
+     * מעבר עצל על החדרים שלא בוקרו, לפי סדר האינדקסים, ישירות מה-bitset (ללא רשימת ביניים).
+     */
+    public Iterable<GameLocation> iterateUnvisitedLocations() {
+        return locationsByVisit(false);
+    }
+    
+    private Iterable<GameLocation> locationsByVisit(final boolean visited) {
+        return new Iterable<GameLocation>() {
+            @Override
+            public Iterator<GameLocation> iterator() {
+                return new Iterator<GameLocation>() {
+                    private int next = nextIndex(0);
+                    
+                    private int nextIndex(int from) {
+                        int index = visited ? visitedBits.nextSetBit(from) : visitedBits.nextClearBit(from);
+                        return index < 0 || index >= locations.size() ? DungeonGraph.NO_NODE : index;
+                    }
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next != DungeonGraph.NO_NODE;
+                    }
+                    
+                    @Override
+                    public GameLocation next() {
+                        if (next == DungeonGraph.NO_NODE) {
+                            throw new NoSuchElementException();
+                        }
+                        GameLocation location = location(next);
+                        next = nextIndex(next + 1);
+                        return location;
+                    }
+                };
+            }
+        };
+    }
     public ArrayList<GameLocation> getAccessibleLocations() {
-        ArrayList<GameLocation> options = new ArrayList<>();
         GameLocation current = getCurrentLocation();
-
         if (current == null) {
-            return options;
+            return new ArrayList<>();
         }
 
-        ArrayList<String> neighborIds = current.getConnectedLocationIds();
-        for (String id : neighborIds) {
-            GameLocation neighbor = locations.get(id);
-            if (neighbor != null) {
-                options.add(neighbor);
+        int node = current.getGraphIndex();
+        int count = graph.getNeighborCount(node);
+        ArrayList<GameLocation> options = new ArrayList<>(count);
+        // טעינת אזור של שכן לא תפנה אזור של שכן שכבר בתוצאה
+        evictionHolds++;
+        try {
+            for (int k = 0; k < count; k++) {
+                options.add(location(graph.getNeighbor(node, k)));
             }
+        } finally {
+            evictionHolds--;
         }
         return options;
     }
@@ -107,42 +248,151 @@ public class DungeonMap {
     public HashMap<Integer, ArrayList<GameLocation>> getLocationsByDangerLevel() {
         HashMap<Integer, ArrayList<GameLocation>> map = new HashMap<>();
 
-        for (GameLocation loc : locations.values()) {
-            int danger = loc.getDangerLevel();
-            map.putIfAbsent(danger, new ArrayList<>());
-            map.get(danger).add(loc);
+        for (int position = 0; position < dangerIndex.getLevelCount(); position++) {
+            int size = dangerIndex.getSizeAt(position);
+            if (size == 0) {
+                continue;
+            }
+            ArrayList<GameLocation> level = new ArrayList<>(size);
+            for (int k = 0; k < size; k++) {
+                level.add(location(dangerIndex.getNodeAt(position, k)));
+            }
+            map.put(dangerIndex.getLevelAt(position), level);
         }
 
         return map;
     }
 
+    // ============================================================
+    // שאילתות לפי רמת סכנה
+    // ============================================================
+
+    /**
+     * @return מספר החדרים ברמת הסכנה הנתונה - O(log L), כש-L מספר הרמות השונות
+     */
+    public int countLocationsWithDanger(int dangerLevel) {
+        return dangerIndex.count(dangerLevel);
+    }
+
+    /**
+     * @return מספר החדרים עם רמת סכנה בטווח [minDanger, maxDanger] - O(log L)
+     */
+    public int countLocationsInDangerRange(int minDanger, int maxDanger) {
+        return dangerIndex.countInRange(minDanger, maxDanger);
+    }
+
+    /**
+     * @return החדרים עם רמת סכנה בטווח [minDanger, maxDanger], לפי רמה ואז לפי אינדקס
+     */
+    public ArrayList<GameLocation> getLocationsInDangerRange(int minDanger, int maxDanger) {
+        int[] nodes = dangerIndex.nodesInRange(minDanger, maxDanger);
+        ArrayList<GameLocation> result = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            result.add(location(node));
+        }
+        return result;
+    }
+
+    /**
+     * עד count החדרים הקרובים ביותר למיקום הנוכחי (במספר צעדים) עם רמת סכנה של לפחות minDanger.
+     * האינדקס חוסם את החיפוש: הוא נעצר ברגע שנמצאו כל החדרים המתאימים שקיימים.
+     * @return החדרים מהקרוב לרחוק (כולל המיקום הנוכחי אם הוא מתאים)
+     */
+    public ArrayList<GameLocation> findNearestLocationsWithDanger(int minDanger, int count) {
+        GameLocation current = getCurrentLocation();
+        int limit = Math.min(count, dangerIndex.countInRange(minDanger, Integer.MAX_VALUE));
+        if (current == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int[] nodes = pathfinder.findNearestWithDanger(current.getGraphIndex(), minDanger, limit);
+        ArrayList<GameLocation> result = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            result.add(location(node));
+        }
+        return result;
+    }
+
+    // ============================================================
+    // חיפוש מסלולים
+    // ============================================================
+
+    /**
+     * המסלול עם הכי מעט צעדים בין שני מיקומים.
+     * @return המסלול, או null אם אין דרך ביניהם
+     */
+    public DungeonPath findShortestPath(String fromId, String toId) throws InvalidActionException {
+        return pathfinder.findShortestPath(requireIndex("findPath", fromId), requireIndex("findPath", toId));
+    }
+
+    /**
+     * המסלול הבטוח ביותר: כל כניסה לחדר עולה 1 + רמת הסכנה שלו.
+     * @return המסלול, או null אם אין דרך ביניהם
+     */
+    public DungeonPath findSafestPath(String fromId, String toId) throws InvalidActionException {
+        return pathfinder.findSafestPath(requireIndex("findPath", fromId), requireIndex("findPath", toId));
+    }
+
+    /**
+     * המסלול הבטוח ביותר בחיפוש A* עם היוריסטיקה (על אינדקסים בגרף).
+     * @return המסלול, או null אם אין דרך ביניהם
+     */
+    public DungeonPath findPath(String fromId, String toId, Pathfinder.Heuristic heuristic)
+            throws InvalidActionException {
+        return pathfinder.findSafestPath(requireIndex("findPath", fromId), requireIndex("findPath", toId),
+                heuristic);
+    }
+
+    /**
+     * @return המסלול הבטוח ביותר מהמיקום הנוכחי לבוס, או null אם אין בוס או דרך אליו
+     */
+    public DungeonPath findPathToBoss() throws InvalidActionException {
+        if (currentLocationId == null || bossLocationId == null) {
+            return null;
+        }
+        return findSafestPath(currentLocationId, bossLocationId);
+    }
+
+    /**
+     * @return המסלול הקצר ביותר מהמיקום הנוכחי לחדר שעוד לא ביקרו בו, או null אם אין כזה
+     */
+    public DungeonPath findPathToNearestUnvisited() {
+        GameLocation current = getCurrentLocation();
+        if (current == null) {
+            return null;
+        }
+        return pathfinder.findNearestUnvisited(current.getGraphIndex());
+    }
+
+    private int requireIndex(String action, String locationId) throws InvalidActionException {
+        int index = graph.indexOf(locationId);
+        if (index == DungeonGraph.NO_NODE) {
+            throw new InvalidActionException(action, "Location " + locationId + " does not exist");
+        }
+        return index;
+    }
+
     public double getExplorationProgress() {
         if (locations.isEmpty()) {
             return 0.0;
         }
 
-        int visitedCount = 0;
-        for (GameLocation loc : locations.values()) {
-            if (loc.isVisited()) {
-                visitedCount++;
-            }
-        }
-
         return (double) visitedCount / locations.size();
     }
     // Setters for special locations
     public void setStartLocation(String locationId) {
         this.startLocationId = locationId;
         this.currentLocationId = locationId;
-        if (locations.containsKey(locationId)) {
-            locations.get(locationId).markAsVisited();
+        GameLocation start = getLocation(locationId);
+        if (start != null) {
+            start.markAsVisited();
         }
     }
     
     public void setBossLocation(String locationId) {
         this.bossLocationId = locationId;
-        if (locations.containsKey(locationId)) {
-            locations.get(locationId).setHasMaster(true);
+        GameLocation boss = getLocation(locationId);
+        if (boss != null) {
+            boss.setHasMaster(true);
         }
     }
     
@@ -164,6 +414,284 @@ public class DungeonMap {
     }
     
     public HashMap<String, GameLocation> getAllLocations() {
-        return new HashMap<>(locations);
+        HashMap<String, GameLocation> all = new HashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            GameLocation location = location(i);
+            all.put(location.getId(), location);
+        }
+        return all;
+    }
+    
+    /**
+     * @return הגרף של המפה (לשאילתות על אינדקסים, ללא הקצאות)
+     */
+    public DungeonGraph getGraph() {
+        return graph;
+    }
+    
+    public Pathfinder getPathfinder() {
+        return pathfinder;
+    }
+    
+    /**
+     * @return המיקום באינדקס הנתון בגרף
+     */
+    public GameLocation getLocation(int graphIndex) {
+        return location(graphIndex);
+    }
+    
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+    
+    /**
+     * כותב את המפה: מיקומים מיוחדים, החדרים לפי סדר האינדקסים, ואז שורות הגרף
+     * (דרגה ואחריה הפרשים בין שכנים ממוינים - בדרך כלל בית אחד לשכן).
+     * מפה מדופדפת נכתבת במלואה, אזור אחרי אזור דרך ה-LRU.
+     */
+    public void writeTo(BinaryWriter out) throws IOException {
+        int count = locations.size();
+        out.writeVarInt(count);
+        out.writeString(startLocationId);
+        out.writeString(currentLocationId);
+        out.writeString(bossLocationId);
+        for (int i = 0; i < count; i++) {
+            location(i).writeTo(out);
+        }
+        for (int node = 0; node < count; node++) {
+            int degree = graph.getNeighborCount(node);
+            out.writeVarInt(degree);
+            int previous = 0;
+            for (int k = 0; k < degree; k++) {
+                int target = graph.getNeighbor(node, k);
+                out.writeVarInt(target - previous);
+                previous = target;
+            }
+        }
+    }
+    
+    /**
+     * קורא מפה שנכתבה ב-writeTo. המפה שנטענת תמיד כולה בזיכרון.
+     */
+    public static DungeonMap readFrom(BinaryReader in) throws IOException {
+        DungeonMap map = new DungeonMap();
+        int count = in.readLength();
+        // מגדירים את נקודת ההתחלה מראש, כדי ש-addLocation לא יקבע אותה מחדש
+        map.startLocationId = in.readString();
+        String currentLocationId = in.readString();
+        String bossLocationId = in.readString();
+        map.graph.ensureNodeCapacity(count);
+        map.locations.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            map.addLocation(GameLocation.readFrom(in));
+        }
+        if (map.locations.size() != count) {
+            throw new IOException("Duplicate location ids in saved map");
+        }
+        
+        int[] offsets = new int[count + 1];
+        int[] targets = new int[16];
+        for (int node = 0; node < count; node++) {
+            int degree = in.readLength();
+            int start = offsets[node];
+            if (start + degree > targets.length) {
+                targets = Arrays.copyOf(targets, Math.max(start + degree, targets.length * 2));
+            }
+            int target = 0;
+            for (int k = 0; k < degree; k++) {
+                target += in.readVarInt();
+                if (target < 0 || target >= count || (k > 0 && target <= targets[start + k - 1])) {
+                    throw new IOException("Corrupt connection " + node + " -> " + target);
+                }
+                targets[start + k] = target;
+            }
+            offsets[node + 1] = start + degree;
+        }
+        map.graph.loadRows(offsets, Arrays.copyOf(targets, offsets[count]));
+        
+        map.currentLocationId = currentLocationId;
+        map.bossLocationId = bossLocationId;
+        return map;
+    }
+    
+    /**
+     * נקרא מ-GameLocation.addConnection כשחדר במפה מתחבר למזהה שעוד לא נוסף.
+     */
+    void addPendingConnection(String locationId, GameLocation source) {
+        ArrayList<GameLocation> sources = pendingConnections.get(locationId);
+        if (sources == null) {
+            sources = new ArrayList<>(1);
+            pendingConnections.put(locationId, sources);
+        }
+        // חדרים שהוחלפו או פונו כבר לא מחוברים; חדר שנטען מחדש נרשם שוב
+        Iterator<GameLocation> it = sources.iterator();
+        while (it.hasNext()) {
+            GameLocation pending = it.next();
+            if (pending == source || !pending.isAttachedTo(this)) {
+                it.remove();
+            }
+        }
+        sources.add(source);
+    }
+    
+    private void resolvePendingConnections(String locationId) {
+        ArrayList<GameLocation> sources = pendingConnections.remove(locationId);
+        if (sources == null) {
+            return;
+        }
+        for (GameLocation source : sources) {
+            if (source.isAttachedTo(this)) {
+                source.resolvePendingConnection(locationId);
+            }
+        }
+    }
+    
+    // ============================================================
+    // דפדוף אזורים
+    // ============================================================
+    
+    /**
+     * מוסיף חדר מדופדף: רק המזהה ורמת הסכנה נשמרים, והאובייקט נטען מה-store.
+     * חייב לבוא לפני כל addLocation רגיל, לפי סדר האינדקסים של ה-store.
+     * @return האינדקס של החדר בגרף
+     */
+    int addPagedLocation(String locationId, int dangerLevel) {
+        if (regionStore == null) {
+            throw new IllegalStateException("Map has no region store");
+        }
+        if (pagedNodeCount != locations.size()) {
+            throw new IllegalStateException("Paged locations must be added before regular locations");
+        }
+        int index = graph.addNode(locationId);
+        if (index != pagedNodeCount) {
+            throw new IllegalStateException("Duplicate paged location " + locationId);
+        }
+        if (index == pagedDangerLevels.length) {
+            pagedDangerLevels = Arrays.copyOf(pagedDangerLevels, Math.max(16, index * 2));
+        }
+        pagedDangerLevels[index] = dangerLevel;
+        dangerIndex.add(dangerLevel, index);
+        locations.add(null);
+        pagedNodeCount++;
+        return index;
+    }
+    
+    /**
+     * @return המיקום באינדקס, אחרי טעינת האזור שלו אם צריך
+     */
+    private GameLocation location(int index) {
+        GameLocation location = locations.get(index);
+        if (location == null) {
+            loadRegion(index / regionSize);
+            location = locations.get(index);
+        }
+        return location;
+    }
+    
+    private void loadRegion(int region) {
+        // האזור הנוכחי נוגע ראשון, כדי שלא יהיה הוותיק ביותר בזמן הפינוי
+        int current = currentLocationId == null ? DungeonGraph.NO_NODE : graph.indexOf(currentLocationId);
+        if (current != DungeonGraph.NO_NODE && current < pagedNodeCount) {
+            residentRegions.get(current / regionSize);
+        }
+        // מפנים לפי LRU עד שיש מקום לאזור החדש; אזור המיקום הנוכחי הכי צעיר ולכן נשאר
+        if (evictionHolds == 0) {
+            Iterator<Map.Entry<Integer, GameLocation[]>> eldest = residentRegions.entrySet().iterator();
+            while (residentRegions.size() >= maxResidentRegions && eldest.hasNext()) {
+                Map.Entry<Integer, GameLocation[]> entry = eldest.next();
+                eldest.remove();
+                evictRegion(entry.getKey(), entry.getValue());
+            }
+        }
+        
+        GameLocation[] rooms = regionStore.loadRegion(region);
+        int first = region * regionSize;
+        for (int i = 0; i < rooms.length; i++) {
+            GameLocation room = rooms[i];
+            locations.set(first + i, room);
+            room.attachToMap(this, first + i);
+            syncVisit(room, first + i);
+        }
+        residentRegions.put(region, rooms);
+    }
+    
+    private void evictRegion(int region, GameLocation[] rooms) {
+        regionStore.storeRegion(region, rooms);
+        int first = region * regionSize;
+        for (int i = 0; i < rooms.length; i++) {
+            locations.set(first + i, null);
+            rooms[i].detachFromMap();
+        }
+    }
+    
+    /**
+     * שומר ב-store את מצב כל האזורים שבזיכרון (בלי לפנות אותם).
+     */
+    public void flushRegions() {
+        for (Map.Entry<Integer, GameLocation[]> entry : residentRegions.entrySet()) {
+            regionStore.storeRegion(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * רמת הסכנה של חדר בלי לטעון את האזור שלו.
+     */
+    int getDangerLevelAt(int index) {
+        return index < pagedNodeCount ? pagedDangerLevels[index] : locations.get(index).getDangerLevel();
+    }
+    
+    // ============================================================
+    // מעקב ביקורים
+    // ============================================================
+    
+    /**
+     * נקרא מ-GameLocation.markAsVisited של חדר שמחובר למפה.
+     */
+    void recordVisit(int index) {
+        if (!visitedBits.get(index)) {
+            visitedBits.set(index);
+            visitedCount++;
+        }
+    }
+    
+    private void clearVisit(int index) {
+        if (visitedBits.get(index)) {
+            visitedBits.clear(index);
+            visitedCount--;
+        }
+    }
+    
+    /**
+     * מיישב בין דגל החדר ל-bitset כשחדר מחובר למפה: ביקור שנרשם באחד מהם נרשם בשניהם.
+     */
+    private void syncVisit(GameLocation location, int index) {
+        if (location.isVisited()) {
+            recordVisit(index);
+        } else if (visitedBits.get(index)) {
+            location.markAsVisited();
+        }
+    }
+    
+    /**
+     * בדיקת ביקור בלי לטעון את האזור של החדר.
+     */
+    boolean isVisitedAt(int index) {
+        return visitedBits.get(index);
+    }
+    
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+    
+    public boolean isPaged() {
+        return regionStore != null;
+    }
+    
+    public int getResidentRegionCount() {
+        return residentRegions.size();
+    }
+    
+    public int getMaxResidentRegions() {
+        return maxResidentRegions;
     }
 }
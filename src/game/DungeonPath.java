@@ -0,0 +1,69 @@
+package game;
+
+import java.util.ArrayList;
+
+/**
+ * מסלול במבוך: רצף אינדקסים בגרף מהמקור (כולל) ועד היעד (כולל).
+ * אובייקט בלתי ניתן לשינוי, ולכן אפשר להחזיר את אותו מופע מהמטמון שוב ושוב.
+ */
+public class DungeonPath {
+
+    private final DungeonGraph graph;
+    private final int[] nodes;
+    private final int cost;
+
+    DungeonPath(DungeonGraph graph, int[] nodes, int cost) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.cost = cost;
+    }
+
+    /**
+     * @return מספר הצעדים (מספר החדרים במסלול פחות אחד)
+     */
+    public int getStepCount() {
+        return nodes.length - 1;
+    }
+
+    /**
+     * @return עלות המסלול: מספר צעדים במסלול הקצר, או סכום 1 + dangerLevel של כל חדר שנכנסים אליו במסלול הבטוח
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    public int getNodeAt(int index) {
+        return nodes[index];
+    }
+
+    public String getLocationIdAt(int index) {
+        return graph.getId(nodes[index]);
+    }
+
+    /**
+     * @return מזהה החדר הבא בדרך, או null אם המקור הוא היעד
+     */
+    public String getNextLocationId() {
+        return nodes.length > 1 ? graph.getId(nodes[1]) : null;
+    }
+
+    public ArrayList<String> getLocationIds() {
+        ArrayList<String> ids = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            ids.add(graph.getId(node));
+        }
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < nodes.length; i++) {
+            if (i > 0) {
+                sb.append(" -> ");
+            }
+            sb.append(graph.getId(nodes[i]));
+        }
+        return sb.append(" (cost ").append(cost).append(')').toString();
+    }
+}
@@ -4,6 +4,10 @@ import model.characters.*;
 import model.characters.Character;
 import model.items.*;
 import model.exceptions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.ArrayList;
 /**
@@ -12,9 +16,14 @@ import java.util.ArrayList;
  */
 public class Game {
     
+    private static final Path SAVE_FILE = Paths.get("dungeon.sav");
+    private static final Path CATALOG_FILE = Paths.get("items.cat");
+    
     private Character player;
     private DungeonMap map;
     private Shop shop;
+    private SaveJournal journal;
+    private ItemCatalog catalog;
     private Scanner scanner;
     private boolean gameRunning;
     
@@ -31,9 +40,20 @@ public class Game {
         System.out.println("  Welcome to Dungeon Adventure!");
         System.out.println("=================================\n");
         
-        createCharacter();
-        initializeMap();
-        initializeShop();
+        if (!loadGame()) {
+            if (!loadCatalog()) {
+                return;
+            }
+            createCharacter();
+            initializeMap();
+            initializeShop();
+            try {
+                journal = SaveJournal.create(SAVE_FILE, player, map, shop);
+            } catch (IOException e) {
+                System.out.println("Could not create save file: " + e.getMessage());
+                return;
+            }
+        }
         
         gameRunning = true;
         gameLoop();
@@ -72,6 +92,60 @@ public class Game {
         }
     }
 
+    /**
+     * ממפה את קטלוג הפריטים, ויוצר אותו מהגדרות ברירת המחדל אם הקובץ חסר.
+     * @return false אם אי אפשר לטעון את הקטלוג
+     */
+    private boolean loadCatalog() {
+        try {
+            if (!Files.exists(CATALOG_FILE)) {
+                ItemCatalog.write(CATALOG_FILE, defaultCatalogItems());
+            }
+            catalog = ItemCatalog.open(CATALOG_FILE);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Could not load item catalog: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * הגדרות ברירת המחדל של הקטלוג - רק לכתיבת קובץ הקטלוג הראשון.
+     */
+    private static ArrayList<Item> defaultCatalogItems() {
+        ArrayList<Item> items = new ArrayList<>();
+
+        // Weapons
+        items.add(new Weapon("Rusty Sword", "An old but usable sword", 5, 20,
+                Item.ItemRarity.COMMON, 5, 10, Weapon.WeaponType.SWORD));
+        items.add(new Weapon("Iron Sword", "A sturdy iron sword", 6, 50,
+                Item.ItemRarity.COMMON, 8, 15, Weapon.WeaponType.SWORD));
+        items.add(new Weapon("Battle Axe", "A heavy battle axe", 10, 75,
+                Item.ItemRarity.UNCOMMON, 12, 20, Weapon.WeaponType.AXE));
+        items.add(new Weapon("Oak Staff", "A magical staff", 4, 60,
+                Item.ItemRarity.COMMON, 6, 12, Weapon.WeaponType.STAFF));
+        items.add(new Weapon("Hunting Bow", "A reliable bow", 3, 55,
+                Item.ItemRarity.COMMON, 7, 14, Weapon.WeaponType.BOW));
+
+        // Armor
+        items.add(new Armor("Leather Helmet", "Basic head protection", 2, 30,
+                Item.ItemRarity.COMMON, 5, Armor.ArmorSlot.HEAD));
+        items.add(new Armor("Chain Mail", "Decent chest protection", 8, 80,
+                Item.ItemRarity.UNCOMMON, 15, Armor.ArmorSlot.CHEST));
+        items.add(new Armor("Iron Boots", "Sturdy boots", 4, 40,
+                Item.ItemRarity.COMMON, 8, Armor.ArmorSlot.BOOTS));
+
+        // Potions
+        items.add(new Potion("Health Potion", "Restores 30 HP", 20,
+                Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 30, 1));
+        items.add(new Potion("Mana Potion", "Restores 25 MP", 25,
+                Item.ItemRarity.COMMON, Potion.PotionType.MANA, 25, 1));
+        items.add(new Potion("Greater Health Potion", "Restores 60 HP", 50,
+                Item.ItemRarity.UNCOMMON, Potion.PotionType.HEALTH, 60, 1));
+
+        return items;
+    }
+
     private void initializeMap() {
         map = new DungeonMap();
 
@@ -109,10 +183,12 @@ public class Game {
         map.setBossLocation("throne");
 
         // Add some loot to locations
-        armory.addLoot(new Weapon("Rusty Sword", "An old but usable sword", 5, 20,
-                Item.ItemRarity.COMMON, 5, 10, Weapon.WeaponType.SWORD));
-        treasury.addLoot(new Potion("Health Potion", "Restores 30 HP", 15,
-                Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 30, 1));
+        try {
+            armory.addLoot(catalog.create("Rusty Sword"));
+            treasury.addLoot(catalog.create("Health Potion"));
+        } catch (ItemNotFoundException e) {
+            System.out.println("Missing catalog item: " + e.getItemName());
+        }
 
         System.out.println("Map initialized with 5 locations.");
     }
@@ -120,31 +196,17 @@ public class Game {
     private void initializeShop() {
         shop = new Shop("Village Shop");
 
-        // Add weapons
-        shop.addItemToShop(new Weapon("Iron Sword", "A sturdy iron sword", 6, 50,
-                Item.ItemRarity.COMMON, 8, 15, Weapon.WeaponType.SWORD), 3);
-        shop.addItemToShop(new Weapon("Battle Axe", "A heavy battle axe", 10, 75,
-                Item.ItemRarity.UNCOMMON, 12, 20, Weapon.WeaponType.AXE), 2);
-        shop.addItemToShop(new Weapon("Oak Staff", "A magical staff", 4, 60,
-                Item.ItemRarity.COMMON, 6, 12, Weapon.WeaponType.STAFF), 2);
-        shop.addItemToShop(new Weapon("Hunting Bow", "A reliable bow", 3, 55,
-                Item.ItemRarity.COMMON, 7, 14, Weapon.WeaponType.BOW), 2);
-
-        // Add armor
-        shop.addItemToShop(new Armor("Leather Helmet", "Basic head protection", 2, 30,
-                Item.ItemRarity.COMMON, 5, Armor.ArmorSlot.HEAD), 3);
-        shop.addItemToShop(new Armor("Chain Mail", "Decent chest protection", 8, 80,
-                Item.ItemRarity.UNCOMMON, 15, Armor.ArmorSlot.CHEST), 2);
-        shop.addItemToShop(new Armor("Iron Boots", "Sturdy boots", 4, 40,
-                Item.ItemRarity.COMMON, 8, Armor.ArmorSlot.BOOTS), 3);
-
-        // Add potions
-        shop.addItemToShop(new Potion("Health Potion", "Restores 30 HP", 20,
-                Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 30, 1), 10);
-        shop.addItemToShop(new Potion("Mana Potion", "Restores 25 MP", 25,
-                Item.ItemRarity.COMMON, Potion.PotionType.MANA, 25, 1), 8);
-        shop.addItemToShop(new Potion("Greater Health Potion", "Restores 60 HP", 50,
-                Item.ItemRarity.UNCOMMON, Potion.PotionType.HEALTH, 60, 1), 5);
+        String[] stock = {"Iron Sword", "Battle Axe", "Oak Staff", "Hunting Bow",
+                "Leather Helmet", "Chain Mail", "Iron Boots",
+                "Health Potion", "Mana Potion", "Greater Health Potion"};
+        int[] quantities = {3, 2, 2, 2, 3, 2, 3, 10, 8, 5};
+        for (int i = 0; i < stock.length; i++) {
+            try {
+                shop.addItemToShop(catalog.create(stock[i]), quantities[i]);
+            } catch (ItemNotFoundException e) {
+                System.out.println("Missing catalog item: " + e.getItemName());
+            }
+        }
 
         System.out.println("Shop initialized with " + shop.getTotalItemCount() + " items.");
     }
@@ -180,6 +242,7 @@ public class Game {
      * קורא בחירה מהשחקן.
      */
     private int getPlayerChoice() {
+        syncJournal();
         try {
             return Integer.parseInt(scanner.nextLine().trim());
         } catch (NumberFormatException e) {
@@ -207,6 +270,7 @@ public class Game {
                 startBattle();
                 break;
             case 6:
+                saveGame();
                 gameRunning = false;
                 break;
             default:
@@ -216,6 +280,59 @@ public class Game {
 
 
 
+    /**
+     * מציע להמשיך משמירה קיימת - תמונת המצב האחרונה ועליה היומן של SaveJournal.
+     * @return true אם המשחק נטען
+     */
+    private boolean loadGame() {
+        if (!Files.exists(SAVE_FILE)) {
+            return false;
+        }
+        System.out.print("Continue saved game? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            return false;
+        }
+        try {
+            journal = SaveJournal.open(SAVE_FILE);
+            player = journal.getPlayer();
+            map = journal.getMap();
+            shop = journal.getShop();
+            System.out.println("Welcome back, " + player.getName() + "!");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Could not load save: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * כותב לדיסק את הרשומות שממתינות ביומן לפני שמחכים לשחקן, כדי שפעולות
+     * אחרונות לא יישארו בזיכרון כל זמן שהשחקן לא עושה כלום.
+     */
+    private void syncJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.out.println("Could not save progress: " + e.getMessage());
+        }
+    }
+
+    /**
+     * כל פעולה כבר נשמרת ביומן; ביציאה כותבים תמונת מצב מלאה כדי שהטעינה הבאה תהיה מהירה.
+     */
+    private void saveGame() {
+        try {
+            journal.compact();
+            journal.close();
+            System.out.println("Game saved.");
+        } catch (IOException e) {
+            System.out.println("Could not save game: " + e.getMessage());
+        }
+    }
+
     private void viewCharacter() {
         System.out.println("\n=== Character Sheet ===");
         System.out.println(player.toString());
@@ -255,12 +372,13 @@ public class Game {
         if (choice > 0 && choice <= connections.size()) {
             String targetId = connections.get(choice - 1);
             try {
-                map.moveTo(targetId); // Может выбросить InvalidActionException
+                journal.moveTo(targetId); // Может выбросить InvalidActionException
                 System.out.println("Moved to " + map.getCurrentLocation().getName());
+                // מחוץ לקרב כל מעבר חדר הוא סבב של אפקטים (שיקויי כוח והגנה)
+                player.advanceStatusEffects();
 
                 // Подбираем лут
-                for (Item item : map.getCurrentLocation().collectAllLoot()) {
-                    player.addItem(item);
+                for (Item item : journal.collectLoot()) {
                     System.out.println("Found item: " + item.getName());
                 }
             } catch (Exception e) {
@@ -300,14 +418,14 @@ public class Game {
                 System.out.println("\nItems for sale:");
                 for (int i = 0; i < items.size(); i++) {
                     Item item = items.get(i);
-                    System.out.println((i + 1) + ". " + item.getName() + " - " + item.getBuyPrice() + " Gold");
+                    System.out.println((i + 1) + ". " + item.getName() + " - " + shop.getBuyPrice(item) + " Gold");
                 }
                 System.out.println("0. Back");
 
                 int buyChoice = getPlayerChoice();
                 if (buyChoice > 0 && buyChoice <= items.size()) {
                     try {
-                        shop.buyItem(player, items.get(buyChoice - 1).getName());
+                        journal.buyItem(items.get(buyChoice - 1).getName());
                         System.out.println("Purchase successful!");
                     } catch (Exception e) {
                         System.out.println("Cannot buy: " + e.getMessage());
@@ -325,14 +443,14 @@ public class Game {
                 System.out.println("\nYour inventory:");
                 for (int i = 0; i < inventory.size(); i++) {
                     Item item = inventory.get(i);
-                    System.out.println((i + 1) + ". " + item.getName() + " - Sell for: " + item.getSellPrice() + " Gold");
+                    System.out.println((i + 1) + ". " + item.getName() + " - Sell for: " + shop.getSellPrice(item) + " Gold");
                 }
                 System.out.println("0. Back");
 
                 int sellChoice = getPlayerChoice();
                 if (sellChoice > 0 && sellChoice <= inventory.size()) {
                     try {
-                        shop.sellItem(player, inventory.get(sellChoice - 1).getName());
+                        journal.sellItem(inventory.get(sellChoice - 1).getName());
                         System.out.println("Item sold!");
                     } catch (Exception e) {
                         System.out.println("Cannot sell: " + e.getMessage());
@@ -416,13 +534,22 @@ public class Game {
         }
 
 
-        if (battle.getWinner() == player) {
-            System.out.println("\nVICTORY! You defeated " + enemy.getName());
+        // אפקטים שנשארו מהקרב ממשיכים לפקוע במעברי חדרים
+        player.setStatusEffectEngine(null);
 
-            player.addGold(10 * map.getCurrentLocation().getDangerLevel());
-        } else if (battle.getWinner() == enemy) {
-            System.out.println("\nDEFEAT! You were knocked out...");
+        try {
+            // הקרב משנה בריאות, שיקויים וניסיון - שומרים את הדמות כולה
+            journal.recordPlayer();
+            if (battle.getWinner() == player) {
+                System.out.println("\nVICTORY! You defeated " + enemy.getName());
+
+                journal.addGold(10 * map.getCurrentLocation().getDangerLevel());
+            } else if (battle.getWinner() == enemy) {
+                System.out.println("\nDEFEAT! You were knocked out...");
 
+            }
+        } catch (IOException e) {
+            System.out.println("Autosave failed: " + e.getMessage());
         }
     }
     
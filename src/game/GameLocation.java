@@ -1,6 +1,9 @@
 package game;
 
 import model.items.Item;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -11,7 +14,12 @@ public class GameLocation {
     private String id;
     private String name;
     private String description;
+    // חיבורים: כשהמיקום שייך למפה הם נשמרים בגרף של המפה, ורק חיבורים
+    // למזהים שאינם במפה נשמרים ברשימה מקומית (נוצרת רק בעת הצורך)
     private ArrayList<String> connectedLocationIds;
+    private DungeonMap map;
+    private DungeonGraph graph;
+    private int graphIndex;
     private ArrayList<Item> loot;
     private boolean visited;
     private boolean hasMaster;
@@ -22,7 +30,10 @@ public class GameLocation {
         this.name = name;
         this.description = description;
         this.dangerLevel = dangerLevel;
-        this.connectedLocationIds = new ArrayList<>();
+        this.connectedLocationIds = null;
+        this.map = null;
+        this.graph = null;
+        this.graphIndex = DungeonGraph.NO_NODE;
         this.loot = new ArrayList<>();
         this.visited = false;
         this.hasMaster = false;
@@ -33,13 +44,76 @@ public class GameLocation {
     // ============================================================
 
     public void addConnection(String locationId) {
+        if (graph != null) {
+            int target = graph.indexOf(locationId);
+            if (target != DungeonGraph.NO_NODE) {
+                graph.addEdge(graphIndex, target);
+                return;
+            }
+        }
+        if (connectedLocationIds == null) {
+            connectedLocationIds = new ArrayList<>();
+        }
         if (!connectedLocationIds.contains(locationId)) {
             connectedLocationIds.add(locationId);
+            if (map != null) {
+                // החיבור יעבור לגרף כשהחדר עם המזהה הזה יתווסף למפה
+                map.addPendingConnection(locationId, this);
+            }
         }
     }
 
     public boolean isConnectedTo(String locationId) {
-        return connectedLocationIds.contains(locationId);
+        if (graph != null) {
+            int target = graph.indexOf(locationId);
+            if (target != DungeonGraph.NO_NODE && graph.isConnected(graphIndex, target)) {
+                return true;
+            }
+        }
+        return connectedLocationIds != null && connectedLocationIds.contains(locationId);
+    }
+
+    /**
+     * מחבר את המיקום למפה ולגרף שלה. חיבורים מקומיים לחדרים שכבר בגרף עוברים אליו.
+     */
+    void attachToMap(DungeonMap map, int graphIndex) {
+        this.map = map;
+        this.graph = map.getGraph();
+        this.graphIndex = graphIndex;
+        if (connectedLocationIds == null) {
+            return;
+        }
+        ArrayList<String> local = connectedLocationIds;
+        connectedLocationIds = null;
+        for (String locationId : local) {
+            addConnection(locationId);
+        }
+    }
+
+    /**
+     * מעביר לגרף חיבור מקומי לחדר שזה עתה נוסף למפה.
+     */
+    void resolvePendingConnection(String locationId) {
+        if (graph == null || connectedLocationIds == null || !connectedLocationIds.remove(locationId)) {
+            return;
+        }
+        if (connectedLocationIds.isEmpty()) {
+            connectedLocationIds = null;
+        }
+        graph.addEdge(graphIndex, graph.indexOf(locationId));
+    }
+
+    /**
+     * @return true אם המיקום מחובר כרגע למפה הנתונה
+     */
+    boolean isAttachedTo(DungeonMap map) {
+        return this.map == map;
+    }
+
+    void detachFromMap() {
+        this.map = null;
+        this.graph = null;
+        this.graphIndex = DungeonGraph.NO_NODE;
     }
 
     public void addLoot(Item item) {
@@ -54,10 +128,63 @@ public class GameLocation {
     }
     
     /**
-     * מסמן את המיקום כמבוקר.
+     * מסמן את המיקום כמבוקר ומעדכן את מעקב הביקורים של המפה.
      */
     public void markAsVisited() {
+        if (visited) {
+            return;
+        }
         this.visited = true;
+        if (map != null) {
+            map.recordVisit(graphIndex);
+        }
+    }
+    
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+    
+    private static final int FLAG_VISITED = 1;
+    private static final int FLAG_MASTER = 2;
+    
+    /**
+     * כותב את המיקום. חיבורים שבגרף נכתבים עם המפה, וכאן רק חיבורים מקומיים.
+     */
+    void writeTo(BinaryWriter out) throws IOException {
+        out.writeString(id);
+        out.writeSharedString(name);
+        out.writeSharedString(description);
+        out.writeSignedVarInt(dangerLevel);
+        out.writeByte((visited ? FLAG_VISITED : 0) | (hasMaster ? FLAG_MASTER : 0));
+        out.writeVarInt(loot.size());
+        for (Item item : loot) {
+            item.writeTo(out);
+        }
+        if (connectedLocationIds == null) {
+            out.writeVarInt(0);
+        } else {
+            out.writeVarInt(connectedLocationIds.size());
+            for (String locationId : connectedLocationIds) {
+                out.writeString(locationId);
+            }
+        }
+    }
+    
+    static GameLocation readFrom(BinaryReader in) throws IOException {
+        GameLocation location = new GameLocation(in.readString(), in.readSharedString(),
+            in.readSharedString(), in.readSignedVarInt());
+        int flags = in.readByte();
+        location.visited = (flags & FLAG_VISITED) != 0;
+        location.hasMaster = (flags & FLAG_MASTER) != 0;
+        int lootCount = in.readLength();
+        for (int i = 0; i < lootCount; i++) {
+            location.loot.add(Item.readFrom(in));
+        }
+        int connectionCount = in.readLength();
+        for (int i = 0; i < connectionCount; i++) {
+            location.addConnection(in.readString());
+        }
+        return location;
     }
     
     // Getters & Setters
@@ -74,7 +201,24 @@ public class GameLocation {
     }
     
     public ArrayList<String> getConnectedLocationIds() {
-        return new ArrayList<>(connectedLocationIds);
+        ArrayList<String> result = new ArrayList<>();
+        if (graph != null) {
+            int count = graph.getNeighborCount(graphIndex);
+            for (int k = 0; k < count; k++) {
+                result.add(graph.getId(graph.getNeighbor(graphIndex, k)));
+            }
+        }
+        if (connectedLocationIds != null) {
+            result.addAll(connectedLocationIds);
+        }
+        return result;
+    }
+    
+    /**
+     * @return האינדקס של המיקום בגרף המפה, או DungeonGraph.NO_NODE אם אינו במפה
+     */
+    public int getGraphIndex() {
+        return graphIndex;
     }
     
     public boolean isVisited() {
@@ -93,6 +237,13 @@ public class GameLocation {
         return dangerLevel;
     }
     
+    /**
+     * @return עותק של השלל במיקום (בלי לאסוף אותו)
+     */
+    public ArrayList<Item> getLoot() {
+        return new ArrayList<>(loot);
+    }
+    
     public boolean hasLoot() {
         return !loot.isEmpty();
     }
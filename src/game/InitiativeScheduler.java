@@ -0,0 +1,59 @@
+package game;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * תור פעולות קרב לפי יוזמה, מבוסס ערימה (PriorityQueue).
+ * סדר: עדיפות הפעולה (גבוה קודם), אחר כך יוזמת השחקן (מהיר קודם),
+ * ולבסוף סדר ההכנסה. הכנסה והוצאה ב-O(log n), ללא מיון מחדש בכל סבב.
+ */
+public class InitiativeScheduler {
+
+    private final PriorityQueue<BattleAction> heap;
+    private long nextSequence;
+
+    public InitiativeScheduler() {
+        this.heap = new PriorityQueue<>(new Comparator<BattleAction>() {
+            @Override
+            public int compare(BattleAction a1, BattleAction a2) {
+                if (a1.getPriority() != a2.getPriority()) {
+                    return Integer.compare(a2.getPriority(), a1.getPriority());
+                }
+                if (a1.getInitiative() != a2.getInitiative()) {
+                    return Integer.compare(a2.getInitiative(), a1.getInitiative());
+                }
+                return Long.compare(a1.getSequence(), a2.getSequence());
+            }
+        });
+        this.nextSequence = 0;
+    }
+
+    public void schedule(BattleAction action) {
+        action.setSequence(nextSequence++);
+        heap.add(action);
+    }
+
+    /**
+     * @return הפעולה הבאה לביצוע, או null אם התור ריק
+     */
+    public BattleAction next() {
+        return heap.poll();
+    }
+
+    public BattleAction peek() {
+        return heap.peek();
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    public void clear() {
+        heap.clear();
+    }
+}
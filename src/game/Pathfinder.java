@@ -0,0 +1,379 @@
+package game;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * חיפוש מסלולים על גרף המבוך: BFS (מעט צעדים), Dijkstra (לפי סכנה) ו-A* עם היוריסטיקה.
+ *
+ * מערכי העבודה (מרחקים, הורים, תור וערימה) מוקצים פעם אחת ומשמשים שוב בכל חיפוש.
+ * במקום לאפס אותם, כל חיפוש מקבל מספר דור, ותא נחשב מאותחל רק אם הדור שלו תואם.
+ * תוצאות BFS ו-Dijkstra נשמרות במטמון LRU חסום, שמתרוקן כשהגרף משתנה.
+ *
+ * המחלקה אינה בטוחה לשימוש מכמה threads.
+ */
+public class Pathfinder {
+
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+    private static final int MODE_SHORTEST = 0;
+    private static final int MODE_SAFEST = 1;
+
+    /**
+     * הערכת עלות מצומת ליעד עבור A*.
+     * חייבת לא להעריך יותר מהעלות האמיתית (admissible), אחרת המסלול עלול לא להיות הזול ביותר.
+     */
+    public interface Heuristic {
+        int estimate(int node, int goal);
+    }
+
+    /**
+     * היוריסטיקה אפס - A* מתנהג כמו Dijkstra.
+     */
+    public static final Heuristic ZERO_HEURISTIC = new Heuristic() {
+        @Override
+        public int estimate(int node, int goal) {
+            return 0;
+        }
+    };
+
+    private final DungeonGraph graph;
+    private final DungeonMap map;
+    private final LinkedHashMap<Long, DungeonPath> cache;
+    private int cacheCapacity;
+    private int cachedModCount;
+    private long cacheHits;
+    private long cacheMisses;
+
+    // מערכי עבודה משותפים לכל החיפושים
+    private int[] generation;
+    private int[] distance;
+    private int[] parent;
+    private int[] queue;
+    private long[] heap;
+    private int currentGeneration;
+
+    Pathfinder(DungeonGraph graph, DungeonMap map) {
+        this.graph = graph;
+        this.map = map;
+        this.cacheCapacity = DEFAULT_CACHE_CAPACITY;
+        this.cache = new LinkedHashMap<Long, DungeonPath>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DungeonPath> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+        this.cachedModCount = graph.getModCount();
+        this.generation = new int[0];
+        this.distance = new int[0];
+        this.parent = new int[0];
+        this.queue = new int[0];
+        this.heap = new long[16];
+        this.currentGeneration = 0;
+    }
+
+    // ============================================================
+    // חיפושים
+    // ============================================================
+
+    /**
+     * המסלול עם הכי מעט צעדים (BFS).
+     * @return המסלול, או null אם היעד לא נגיש
+     */
+    public DungeonPath findShortestPath(int from, int to) {
+        long key = cacheKey(MODE_SHORTEST, from, to);
+        DungeonPath cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        DungeonPath path = bfs(from, to, false);
+        store(key, path);
+        return path;
+    }
+
+    /**
+     * המסלול הבטוח ביותר (Dijkstra): כניסה לחדר עולה 1 + רמת הסכנה שלו.
+     * @return המסלול, או null אם היעד לא נגיש
+     */
+    public DungeonPath findSafestPath(int from, int to) {
+        return findSafestPath(from, to, ZERO_HEURISTIC);
+    }
+
+    /**
+     * A* עם אותה עלות כמו findSafestPath. עם היוריסטיקה admissible התוצאה זולה באותה מידה,
+     * ולכן היא נשמרת ונקראת מאותו מטמון.
+     * @return המסלול, או null אם היעד לא נגיש
+     */
+    public DungeonPath findSafestPath(int from, int to, Heuristic heuristic) {
+        long key = cacheKey(MODE_SAFEST, from, to);
+        DungeonPath cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        DungeonPath path = aStar(from, to, heuristic);
+        store(key, path);
+        return path;
+    }
+
+    /**
+     * המסלול הקצר ביותר לחדר שעוד לא ביקרו בו (BFS שעוצר בחדר הראשון כזה).
+     * לא נשמר במטמון, כי מצב הביקור משתנה בכל צעד.
+     * @return המסלול, או null אם אין חדר לא מבוקר נגיש
+     */
+    public DungeonPath findNearestUnvisited(int from) {
+        checkCache();
+        return bfs(from, DungeonGraph.NO_NODE, true);
+    }
+
+    /**
+     * החדרים הקרובים ביותר (במספר צעדים) עם רמת סכנה של לפחות minDanger, כולל from עצמו.
+     * @param limit מספר החדרים המרבי להחזרה
+     * @return אינדקסים בגרף, מהקרוב לרחוק
+     */
+    public int[] findNearestWithDanger(int from, int minDanger, int limit) {
+        int[] found = new int[limit];
+        int count = 0;
+        if (limit <= 0) {
+            return found;
+        }
+        int gen = beginSearch();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        generation[from] = gen;
+
+        while (head < tail) {
+            int node = queue[head++];
+            if (map.getDangerLevelAt(node) >= minDanger) {
+                found[count++] = node;
+                if (count == limit) {
+                    return found;
+                }
+            }
+            int neighbors = graph.getNeighborCount(node);
+            for (int k = 0; k < neighbors; k++) {
+                int next = graph.getNeighbor(node, k);
+                if (generation[next] != gen) {
+                    generation[next] = gen;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private DungeonPath bfs(int from, int to, boolean stopAtUnvisited) {
+        int gen = beginSearch();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        generation[from] = gen;
+        distance[from] = 0;
+        parent[from] = DungeonGraph.NO_NODE;
+
+        while (head < tail) {
+            int node = queue[head++];
+            if (node == to || (stopAtUnvisited && !map.isVisitedAt(node))) {
+                return buildPath(node, distance[node]);
+            }
+            int count = graph.getNeighborCount(node);
+            for (int k = 0; k < count; k++) {
+                int next = graph.getNeighbor(node, k);
+                if (generation[next] != gen) {
+                    generation[next] = gen;
+                    distance[next] = distance[node] + 1;
+                    parent[next] = node;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A* עם ערימה בינארית של long (עדיפות בביטים העליונים, צומת בתחתונים) ומחיקה עצלה.
+     */
+    private DungeonPath aStar(int from, int to, Heuristic heuristic) {
+        int gen = beginSearch();
+        int heapSize = 0;
+        generation[from] = gen;
+        distance[from] = 0;
+        parent[from] = DungeonGraph.NO_NODE;
+        heapSize = push(heapSize, heuristic.estimate(from, to), from);
+
+        while (heapSize > 0) {
+            long top = heap[0];
+            heapSize = pop(heapSize);
+            int node = (int) top;
+            int priority = (int) (top >>> 32);
+            if (priority - heuristic.estimate(node, to) > distance[node]) {
+                continue; // רשומה ישנה
+            }
+            if (node == to) {
+                return buildPath(node, distance[node]);
+            }
+            int count = graph.getNeighborCount(node);
+            for (int k = 0; k < count; k++) {
+                int next = graph.getNeighbor(node, k);
+                int cost = distance[node] + 1 + map.getDangerLevelAt(next);
+                if (generation[next] != gen || cost < distance[next]) {
+                    generation[next] = gen;
+                    distance[next] = cost;
+                    parent[next] = node;
+                    heapSize = push(heapSize, cost + heuristic.estimate(next, to), next);
+                }
+            }
+        }
+        return null;
+    }
+
+    private DungeonPath buildPath(int target, int cost) {
+        int length = 1;
+        for (int node = target; parent[node] != DungeonGraph.NO_NODE; node = parent[node]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        int node = target;
+        for (int i = length - 1; i >= 0; i--) {
+            nodes[i] = node;
+            node = parent[node];
+        }
+        return new DungeonPath(graph, nodes, cost);
+    }
+
+    /**
+     * מכין את מערכי העבודה לחיפוש חדש.
+     * @return מספר הדור של החיפוש
+     */
+    private int beginSearch() {
+        checkCache();
+        int n = graph.getNodeCount();
+        if (generation.length < n) {
+            int capacity = Math.max(n, generation.length * 2);
+            generation = Arrays.copyOf(generation, capacity);
+            distance = new int[capacity];
+            parent = new int[capacity];
+            queue = new int[capacity];
+        }
+        currentGeneration++;
+        if (currentGeneration == 0) {
+            // גלישה של המונה - מאפסים פעם אחת
+            Arrays.fill(generation, 0);
+            currentGeneration = 1;
+        }
+        return currentGeneration;
+    }
+
+    // ============================================================
+    // ערימה בינארית
+    // ============================================================
+
+    private int push(int size, int priority, int node) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long entry = ((long) priority << 32) | (node & 0xFFFFFFFFL);
+        int i = size;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+        return size + 1;
+    }
+
+    private int pop(int size) {
+        int last = size - 1;
+        long entry = heap[last];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (entry <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = entry;
+        return last;
+    }
+
+    // ============================================================
+    // מטמון LRU
+    // ============================================================
+
+    private static long cacheKey(int mode, int from, int to) {
+        return ((long) mode << 62) | ((long) from << 31) | to;
+    }
+
+    private DungeonPath lookup(long key) {
+        checkCache();
+        DungeonPath path = cache.get(key);
+        if (path != null) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+        return path;
+    }
+
+    private void store(long key, DungeonPath path) {
+        if (path != null && cacheCapacity > 0) {
+            cache.put(key, path);
+        }
+    }
+
+    /**
+     * מרוקן את המטמון אם הגרף השתנה מאז החיפוש הקודם.
+     */
+    private void checkCache() {
+        int modCount = graph.getModCount();
+        if (modCount != cachedModCount) {
+            cache.clear();
+            cachedModCount = modCount;
+        }
+    }
+
+    /**
+     * מרוקן את המטמון ידנית (למשל אחרי החלפת מיקום עם רמת סכנה אחרת).
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    // Getters & Setters
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public int getCacheCapacity() {
+        return cacheCapacity;
+    }
+
+    public void setCacheCapacity(int cacheCapacity) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("Cache capacity cannot be negative: " + cacheCapacity);
+        }
+        this.cacheCapacity = cacheCapacity;
+        cache.clear();
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+}
@@ -0,0 +1,201 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * תמחור דינמי לפי היצע וביקוש לחנות (Shop.setPricingEngine).
+ *
+ * לכל פריט נספרים קניות ומכירות, ומהם נגזר קצב דועך (חלון נע עם זמן מחצית חיים):
+ * קניות מעלות את המחיר, מכירות מורידות אותו, ומלאי נמוך ביחס למלאי היעד מייקר.
+ * המכפיל נחסם בטווח [minMultiplier, maxMultiplier] וחל על מחיר הקנייה ומחיר המכירה.
+ *
+ * הספירה בכל עסקה היא LongAdder, בלי נעילה. החישוב מחדש קורה לכל היותר פעם
+ * ב-updateInterval לכל פריט, ע"י thread אחד שזוכה ב-CAS; החנות שומרת את התוצאה
+ * בשדה volatile, כך שקריאת מחיר היא O(1) ולא מחכה לאף אחד.
+ * את ההגדרות יש לקבוע לפני שמחברים את המנוע לחנות.
+ */
+public class PricingEngine {
+
+    /**
+     * מקור זמן בננו-שניות (להחלפה בבדיקות).
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    // מונע מעסקה בודדת להזיז את המחיר עד הקצה
+    private static final double DEMAND_DAMPING = 4.0;
+
+    private Clock clock;
+    private long halfLifeNanos;
+    private long updateIntervalNanos;
+    private double demandWeight;
+    private double stockWeight;
+    private int targetStock;
+    private double minMultiplier;
+    private double maxMultiplier;
+
+    public PricingEngine() {
+        this.clock = SYSTEM_CLOCK;
+        this.halfLifeNanos = 60_000_000_000L;
+        this.updateIntervalNanos = 250_000_000L;
+        this.demandWeight = 0.5;
+        this.stockWeight = 0.25;
+        this.targetStock = 10;
+        this.minMultiplier = 0.5;
+        this.maxMultiplier = 2.0;
+    }
+
+    // ============================================================
+    // הגדרות
+    // ============================================================
+
+    public PricingEngine withClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock is required");
+        }
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * @param millis אחרי כמה זמן עסקה שוקלת חצי ממה ששקלה כשקרתה
+     */
+    public PricingEngine withHalfLife(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Half-life must be positive: " + millis);
+        }
+        this.halfLifeNanos = millis * 1_000_000L;
+        return this;
+    }
+
+    /**
+     * @param millis הזמן המינימלי בין שני חישובים של מחיר אותו פריט (0 - בכל עסקה)
+     */
+    public PricingEngine withUpdateInterval(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Update interval cannot be negative: " + millis);
+        }
+        this.updateIntervalNanos = millis * 1_000_000L;
+        return this;
+    }
+
+    /**
+     * @param weight כמה הביקוש מזיז את המחיר: 0.5 - עד פי 1.5 כשרק קונים, עד פי 0.5 כשרק מוכרים
+     */
+    public PricingEngine withDemandWeight(double weight) {
+        if (weight < 0 || weight >= 1) {
+            throw new IllegalArgumentException("Demand weight must be in [0, 1): " + weight);
+        }
+        this.demandWeight = weight;
+        return this;
+    }
+
+    /**
+     * @param weight כמה המלאי מזיז את המחיר ביחס ל-target (0 - המלאי לא משפיע)
+     * @param target המלאי שבו המחיר לא מושפע מהמלאי
+     */
+    public PricingEngine withStockTarget(int target, double weight) {
+        if (target < 1 || weight < 0 || weight >= 1) {
+            throw new IllegalArgumentException("Invalid stock target " + target + " / weight " + weight);
+        }
+        this.targetStock = target;
+        this.stockWeight = weight;
+        return this;
+    }
+
+    public PricingEngine withPriceRange(double minMultiplier, double maxMultiplier) {
+        if (minMultiplier <= 0 || minMultiplier > 1 || maxMultiplier < 1) {
+            throw new IllegalArgumentException("Invalid price range " + minMultiplier + " - " + maxMultiplier);
+        }
+        this.minMultiplier = minMultiplier;
+        this.maxMultiplier = maxMultiplier;
+        return this;
+    }
+
+    // ============================================================
+    // ביקוש לפריט
+    // ============================================================
+
+    /**
+     * מצב הביקוש של פריט אחד בחנות.
+     */
+    static final class Demand {
+        // מונים מצטברים - מתעדכנים בלי נעילה
+        final LongAdder buys;
+        final LongAdder sells;
+        // מתי מותר לחשב שוב (לפי Clock)
+        final AtomicLong nextUpdate;
+        // הקצבים הדועכים וכמה מהמונים כבר נכללו בהם - רק תחת המוניטור של Demand
+        double buyRate;
+        double sellRate;
+        long seenBuys;
+        long seenSells;
+        long lastUpdate;
+
+        Demand(long now) {
+            this.buys = new LongAdder();
+            this.sells = new LongAdder();
+            this.nextUpdate = new AtomicLong(now);
+            this.lastUpdate = now;
+        }
+    }
+
+    Demand newDemand() {
+        return new Demand(clock.nanoTime());
+    }
+
+    /**
+     * @return true אם הגיע הזמן לחשב מחדש, ל-thread אחד בלבד מכל אלה שמגיעים באותו רגע
+     */
+    boolean claimUpdate(Demand demand) {
+        long now = clock.nanoTime();
+        long next = demand.nextUpdate.get();
+        return now - next >= 0 && demand.nextUpdate.compareAndSet(next, now + updateIntervalNanos);
+    }
+
+    /**
+     * מכניס לקצבים הדועכים את העסקאות מאז החישוב הקודם.
+     * @return מכפיל המחיר לפי הביקוש והמלאי הנוכחי
+     */
+    double update(Demand demand, int stock) {
+        long now = clock.nanoTime();
+        double buyRate;
+        double sellRate;
+        synchronized (demand) {
+            double decay = Math.pow(0.5, (double) Math.max(0, now - demand.lastUpdate) / halfLifeNanos);
+            long buys = demand.buys.sum();
+            long sells = demand.sells.sum();
+            demand.buyRate = demand.buyRate * decay + (buys - demand.seenBuys);
+            demand.sellRate = demand.sellRate * decay + (sells - demand.seenSells);
+            demand.seenBuys = buys;
+            demand.seenSells = sells;
+            demand.lastUpdate = now;
+            buyRate = demand.buyRate;
+            sellRate = demand.sellRate;
+        }
+
+        // בין -1 (רק מכירות) ל-1 (רק קניות)
+        double pressure = (buyRate - sellRate) / (buyRate + sellRate + DEMAND_DAMPING);
+        // בין -1 (הרבה מעל היעד) ל-1 (אזל)
+        int clampedStock = Math.max(0, stock);
+        double scarcity = (double) (targetStock - clampedStock) / (targetStock + clampedStock);
+        double multiplier = (1 + demandWeight * pressure) * (1 + stockWeight * scarcity);
+        return Math.max(minMultiplier, Math.min(maxMultiplier, multiplier));
+    }
+
+    /**
+     * @return המחיר אחרי המכפיל, מעוגל לשלם הקרוב (כך שמכפיל 1 מחזיר בדיוק את מחיר הבסיס)
+     */
+    static int applyMultiplier(int basePrice, double multiplier) {
+        return (int) Math.round(basePrice * multiplier);
+    }
+}
@@ -0,0 +1,102 @@
+package game;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * מערך בתים שגדל לפי הצורך, לרשומות של יומן (SaveJournal, ShopLedger).
+ * BinaryWriter כותב לתוכו כמו לערוץ, וכל רשומה מתחילה ב-FRAME_SIZE בתים
+ * שמתמלאים באורך וב-CRC כשהיא נסגרת.
+ */
+final class RecordBuffer implements WritableByteChannel {
+
+    static final int FRAME_SIZE = 8;
+
+    byte[] bytes = new byte[4096];
+    int size;
+    private int recordStart;
+
+    void reserve(int count) {
+        ensureCapacity(size + count);
+        recordStart = size;
+        size += count;
+    }
+
+    void sealRecord(CRC32 crc) {
+        int payload = recordStart + FRAME_SIZE;
+        int length = size - payload;
+        crc.reset();
+        crc.update(bytes, payload, length);
+        ByteBuffer.wrap(bytes, recordStart, FRAME_SIZE).putInt(length).putInt((int) crc.getValue());
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+
+    /**
+     * קורא את הרשומה הבאה מ-data ומקדם אותו אחריה.
+     * @return התוכן של הרשומה, או null אם היא קטועה או שה-CRC לא מתאים (ואז data לא זז)
+     */
+    static ByteBuffer nextRecord(ByteBuffer data, CRC32 crc) {
+        if (data.remaining() < FRAME_SIZE) {
+            return null;
+        }
+        int start = data.position();
+        int length = data.getInt(start);
+        int checksum = data.getInt(start + 4);
+        if (length < 1 || length > data.remaining() - FRAME_SIZE) {
+            return null;
+        }
+        crc.reset();
+        crc.update(data.array(), data.arrayOffset() + start + FRAME_SIZE, length);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        data.position(start + FRAME_SIZE);
+        ByteBuffer record = data.slice();
+        record.limit(length);
+        data.position(start + FRAME_SIZE + length);
+        return record;
+    }
+
+    /**
+     * בודק אם מה שנשאר ב-data אחרי הרשומה התקינה האחרונה הוא רשומה אחרונה שנכתבה
+     * חלקית או שלא הגיעה בשלמותה לדיסק: מסגרת חלקית, או רשומה שמגיעה בדיוק עד סוף
+     * הקובץ או אמורה להמשיך אחריו. כל דבר אחר הוא השחתה באמצע, ואסור לחתוך אחריה.
+     */
+    static boolean isTornTail(ByteBuffer data) {
+        int remaining = data.remaining();
+        if (remaining < FRAME_SIZE) {
+            return true;
+        }
+        int length = data.getInt(data.position());
+        return length >= remaining - FRAME_SIZE;
+    }
+
+    @Override
+    public int write(ByteBuffer source) {
+        int count = source.remaining();
+        ensureCapacity(size + count);
+        source.get(bytes, size, count);
+        size += count;
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
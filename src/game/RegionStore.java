@@ -0,0 +1,30 @@
+package game;
+
+/**
+ * מקור לאזורי מבוך שנטענים לזיכרון לפי הצורך (paging).
+ *
+ * אזור הוא טווח רציף של getRegionSize() חדרים לפי האינדקס בגרף: אזור r מכיל
+ * את החדרים [r * regionSize, (r + 1) * regionSize). DungeonMap טוען אזור כשמגיעים
+ * לאחד החדרים שלו, ומחזיר אותו ל-store (כולל דגלי ביקור ואדון ושלל שנשאר) כשהוא מפונה.
+ */
+public interface RegionStore {
+
+    /**
+     * @return מספר החדרים בכל אזור (האזור האחרון עשוי להיות קטן יותר)
+     */
+    int getRegionSize();
+
+    /**
+     * טוען אזור. החדרים מוחזרים לפי סדר האינדקסים, ובמצב שבו נשמרו לאחרונה.
+     * @param region מספר האזור
+     * @return מופעים חדשים של החדרים באזור
+     */
+    GameLocation[] loadRegion(int region);
+
+    /**
+     * שומר את מצב האזור לפני פינוי: דגלי ביקור ואדון ושלל שנשאר.
+     * @param region מספר האזור
+     * @param rooms החדרים באזור, לפי סדר האינדקסים
+     */
+    void storeRegion(int region, GameLocation[] rooms);
+}
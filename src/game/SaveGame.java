@@ -0,0 +1,140 @@
+package game;
+
+import model.characters.Character;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * מצב משחק שלם לשמירה וטעינה: הדמות, המפה והחנות (כל אחד מהם יכול להיות null).
+ *
+ * פורמט הקובץ: MAGIC, גרסת פורמט (varint), דגלי נוכחות, מספר דור (מגרסה 2,
+ * ראו SaveJournal), ואחריהם הקטעים לפי הסדר
+ * (דמות, מפה, חנות) ו-MAGIC נוסף בסוף לזיהוי קובץ קטוע. כל מחלקה כותבת את עצמה
+ * (writeTo / readFrom) עם varint ומחרוזות משותפות, דרך BinaryWriter מעל FileChannel.
+ * מגרסה 3 כל תבנית פריט נכתבת פעם אחת בקובץ, ושאר העותקים שלה שומרים רק הפניה ומצב.
+ * מגרסה 4 הדמות שומרת את האפקטים הפעילים שלה, והבונוסים נכתבים בלעדיהם.
+ * שדה חדש מוסיפים בסוף הקטע שלו עם העלאת FORMAT_VERSION, וקוד הקריאה בודק
+ * את BinaryReader.getFormatVersion() לפני שהוא קורא אותו.
+ */
+public class SaveGame {
+
+    public static final int MAGIC = 0x44475356; // "DGSV"
+    public static final int FORMAT_VERSION = 4;
+
+    private static final int HAS_PLAYER = 1;
+    private static final int HAS_MAP = 2;
+    private static final int HAS_SHOP = 4;
+
+    private final Character player;
+    private final DungeonMap map;
+    private final Shop shop;
+    private final long generation;
+
+    public SaveGame(Character player, DungeonMap map, Shop shop) {
+        this(player, map, shop, 0);
+    }
+
+    /**
+     * @param generation מספר הדור של השמירה - היומן של SaveJournal נקשר אליו
+     */
+    public SaveGame(Character player, DungeonMap map, Shop shop, long generation) {
+        this.player = player;
+        this.map = map;
+        this.shop = shop;
+        this.generation = generation;
+    }
+
+    // ============================================================
+    // כתיבה
+    // ============================================================
+
+    /**
+     * כותב לקובץ זמני ומחליף את הקובץ בסוף, כך שקריסה באמצע לא משאירה שמירה חלקית.
+     * @return גודל הקובץ בבתים
+     */
+    public long write(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        long size;
+        try (BinaryWriter out = BinaryWriter.open(temp)) {
+            write(out);
+            size = out.getBytesWritten();
+            out.sync();
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    public void write(BinaryWriter out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeVarInt(FORMAT_VERSION);
+        out.writeByte((player != null ? HAS_PLAYER : 0) | (map != null ? HAS_MAP : 0)
+            | (shop != null ? HAS_SHOP : 0));
+        out.writeLong(generation);
+        if (player != null) {
+            player.writeTo(out);
+        }
+        if (map != null) {
+            map.writeTo(out);
+        }
+        if (shop != null) {
+            shop.writeTo(out);
+        }
+        out.writeInt(MAGIC);
+    }
+
+    // ============================================================
+    // קריאה
+    // ============================================================
+
+    public static SaveGame read(Path path) throws IOException {
+        try (BinaryReader in = BinaryReader.open(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * @throws IOException אם הקובץ אינו שמירה, מגרסה חדשה מדי או קטוע
+     */
+    public static SaveGame read(BinaryReader in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a save file");
+        }
+        int version = in.readVarInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported save format version " + version);
+        }
+        in.setFormatVersion(version);
+
+        int sections = in.readByte();
+        long generation = version >= 2 ? in.readLong() : 0;
+        Character player = (sections & HAS_PLAYER) != 0 ? Character.readFrom(in) : null;
+        DungeonMap map = (sections & HAS_MAP) != 0 ? DungeonMap.readFrom(in) : null;
+        Shop shop = (sections & HAS_SHOP) != 0 ? Shop.readFrom(in) : null;
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Save file is corrupt");
+        }
+        return new SaveGame(player, map, shop, generation);
+    }
+
+    // Getters
+    public Character getPlayer() {
+        return player;
+    }
+
+    public DungeonMap getMap() {
+        return map;
+    }
+
+    public Shop getShop() {
+        return shop;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+}
@@ -0,0 +1,497 @@
+package game;
+
+import model.characters.Character;
+import model.exceptions.*;
+import model.items.Item;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * שמירה אוטומטית מצטברת: תמונת מצב מלאה (SaveGame) ויומן שמוסיף רשומה קצרה לכל פעולה.
+ *
+ * הפעולות שמשנות את המצב (מעבר חדר, איסוף שלל, הוספה והסרה של פריטים, קנייה ומכירה,
+ * ניסיון וזהב) עוברות דרך היומן: הוא מבצע אותן ורושם אותן. הרשומות נאספות בזיכרון
+ * ונכתבות לדיסק יחד עם fsync אחד לכל קבוצה (group commit) - אחרי syncEvery רשומות
+ * או כשרשומה נוספת אחרי שעבר syncInterval מאז הכתיבה הקודמת. אין כאן טיימר: הבדיקה
+ * קורית רק בהוספת רשומה, ולכן הקבוצה האחרונה מחכה עד הפעולה הבאה או עד sync/close.
+ * מי שמחכה לקלט (כמו Game לפני כל בחירה) קורא ל-sync, וכך קריסה מאבדת לכל היותר
+ * את הקבוצה האחרונה שעוד לא נכתבה.
+ *
+ * כל רשומה נכתבת עם אורך ו-CRC32, כך שרשומה קטועה בסוף הקובץ מזוהה ונחתכת בטעינה.
+ * כשהיומן מגיע ל-compactEvery רשומות נכתבת תמונת מצב חדשה עם מספר דור גדול יותר
+ * ויומן ריק מאותו דור; יומן מדור ישן יותר מהתמונה כבר כלול בה ולכן מתעלמים ממנו.
+ * את הטעינה עושה open: קריאת התמונה והרצה מחדש של רשומות היומן.
+ *
+ * שינויים שלא עוברים כאן (למשל בריאות ושיקויים בקרב) נשמרים ב-recordPlayer,
+ * שרושם את כל הדמות.
+ */
+public class SaveJournal implements Closeable {
+
+    public static final int MAGIC = 0x44474a4c; // "DGJL"
+    public static final int FORMAT_VERSION = 3;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int FRAME_SIZE = RecordBuffer.FRAME_SIZE;
+
+    private static final int MOVE = 1;
+    private static final int COLLECT_LOOT = 2;
+    private static final int ADD_ITEM = 3;
+    private static final int REMOVE_ITEM = 4;
+    private static final int BUY_ITEM = 5;
+    private static final int SELL_ITEM = 6;
+    private static final int EXPERIENCE = 7;
+    private static final int GOLD = 8;
+    private static final int PLAYER = 9;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private Character player;
+    private final DungeonMap map;
+    private final Shop shop;
+    private long generation;
+
+    private FileChannel channel;
+    private final RecordBuffer pending;
+    private final BinaryWriter writer;
+    private final CRC32 crc;
+    private int pendingRecords;
+    private long lastSyncNanos;
+
+    private int syncEvery;
+    private long syncIntervalNanos;
+    private int compactEvery;
+
+    private int journalRecords;
+    private int replayedRecords;
+    private long syncCount;
+
+    private SaveJournal(Path snapshotPath, Character player, DungeonMap map, Shop shop, long generation) {
+        this.snapshotPath = snapshotPath.toAbsolutePath();
+        this.journalPath = journalPathFor(this.snapshotPath);
+        this.player = player;
+        this.map = map;
+        this.shop = shop;
+        this.generation = generation;
+        this.pending = new RecordBuffer();
+        this.writer = new BinaryWriter(pending);
+        this.crc = new CRC32();
+        this.pendingRecords = 0;
+        this.lastSyncNanos = System.nanoTime();
+        this.syncEvery = 64;
+        this.syncIntervalNanos = 100_000_000L;
+        this.compactEvery = 10_000;
+        this.journalRecords = 0;
+        this.replayedRecords = 0;
+        this.syncCount = 0;
+    }
+
+    /**
+     * מתחיל שמירה חדשה: כותב תמונת מצב ראשונה ויומן ריק.
+     */
+    public static SaveJournal create(Path snapshotPath, Character player, DungeonMap map, Shop shop)
+            throws IOException {
+        if (player == null || map == null || shop == null) {
+            throw new IllegalArgumentException("Player, map and shop are required");
+        }
+        SaveJournal journal = new SaveJournal(snapshotPath, player, map, shop, 1);
+        new SaveGame(player, map, shop, journal.generation).write(journal.snapshotPath);
+        journal.resetJournal();
+        return journal;
+    }
+
+    /**
+     * טוען את תמונת המצב ומריץ מחדש את רשומות היומן שנכתבו אחריה.
+     * רשומה קטועה בסוף היומן (קריסה באמצע כתיבה) נחתכת; רשומה פגומה לפני הסוף היא שגיאה.
+     * @throws IOException אם הקבצים פגומים או שרשומה לא מצליחה לרוץ מחדש
+     */
+    public static SaveJournal open(Path snapshotPath) throws IOException {
+        SaveGame snapshot = SaveGame.read(snapshotPath);
+        if (snapshot.getPlayer() == null || snapshot.getMap() == null || snapshot.getShop() == null) {
+            throw new IOException("Snapshot is incomplete");
+        }
+        SaveJournal journal = new SaveJournal(snapshotPath, snapshot.getPlayer(), snapshot.getMap(),
+            snapshot.getShop(), snapshot.getGeneration());
+        journal.recover();
+        return journal;
+    }
+
+    public static Path journalPathFor(Path snapshotPath) {
+        Path absolute = snapshotPath.toAbsolutePath();
+        return absolute.resolveSibling(absolute.getFileName() + ".journal");
+    }
+
+    // ============================================================
+    // הגדרות
+    // ============================================================
+
+    /**
+     * @param records מספר הרשומות המקסימלי בין שני fsync
+     */
+    public SaveJournal withSyncEvery(int records) {
+        if (records < 1) {
+            throw new IllegalArgumentException("Sync batch must be at least 1: " + records);
+        }
+        this.syncEvery = records;
+        return this;
+    }
+
+    /**
+     * @param millis אחרי כמה זמן מה-fsync הקודם הרשומה הבאה שנוספת כותבת את הקבוצה
+     *        (0 - רק לפי syncEvery). נבדק רק בהוספת רשומה - ללא פעולות, sync אחראי לכתיבה
+     */
+    public SaveJournal withSyncInterval(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Sync interval cannot be negative: " + millis);
+        }
+        this.syncIntervalNanos = millis * 1_000_000L;
+        return this;
+    }
+
+    /**
+     * @param records מספר הרשומות ביומן שאחריו נכתבת תמונת מצב חדשה (0 - רק ב-compact)
+     */
+    public SaveJournal withCompactEvery(int records) {
+        if (records < 0) {
+            throw new IllegalArgumentException("Compaction threshold cannot be negative: " + records);
+        }
+        this.compactEvery = records;
+        return this;
+    }
+
+    // ============================================================
+    // פעולות
+    // ============================================================
+
+    public void moveTo(String locationId) throws InvalidActionException, IOException {
+        map.moveTo(locationId);
+        BinaryWriter out = begin(MOVE);
+        out.writeString(locationId);
+        end();
+    }
+
+    /**
+     * אוסף את השלל בחדר הנוכחי לתוך המלאי.
+     * אם המלאי מתמלא באמצע, מה שלא נכנס הולך לאיבוד (כמו במשחק עצמו).
+     * @return הפריטים שנאספו מהחדר
+     */
+    public ArrayList<Item> collectLoot() throws InventoryFullException, IOException {
+        ArrayList<Item> loot = map.getCurrentLocation().collectAllLoot();
+        begin(COLLECT_LOOT);
+        end();
+        for (Item item : loot) {
+            player.addItem(item);
+        }
+        return loot;
+    }
+
+    public void addItem(Item item) throws InventoryFullException, IOException {
+        player.addItem(item);
+        BinaryWriter out = begin(ADD_ITEM);
+        item.writeTo(out);
+        end();
+    }
+
+    public Item removeItem(String itemName) throws ItemNotFoundException, IOException {
+        Item item = player.removeItem(itemName);
+        BinaryWriter out = begin(REMOVE_ITEM);
+        out.writeString(itemName);
+        end();
+        return item;
+    }
+
+    public Item buyItem(String itemName)
+            throws ItemNotFoundException, InsufficientGoldException, InventoryFullException, IOException {
+        Item item = shop.buyItem(player, itemName);
+        BinaryWriter out = begin(BUY_ITEM);
+        out.writeString(itemName);
+        end();
+        return item;
+    }
+
+    public int sellItem(String itemName) throws ItemNotFoundException, IOException {
+        int price = shop.sellItem(player, itemName);
+        BinaryWriter out = begin(SELL_ITEM);
+        out.writeString(itemName);
+        end();
+        return price;
+    }
+
+    public void gainExperience(int amount) throws IOException {
+        player.gainExperience(amount);
+        BinaryWriter out = begin(EXPERIENCE);
+        out.writeSignedVarInt(amount);
+        end();
+    }
+
+    public void addGold(int amount) throws IOException {
+        player.addGold(amount);
+        BinaryWriter out = begin(GOLD);
+        out.writeSignedVarInt(amount);
+        end();
+    }
+
+    public boolean spendGold(int amount) throws IOException {
+        if (!player.spendGold(amount)) {
+            return false;
+        }
+        BinaryWriter out = begin(GOLD);
+        out.writeSignedVarInt(-amount);
+        end();
+        return true;
+    }
+
+    /**
+     * רושם את כל מצב הדמות - אחרי שינויים שלא עברו דרך היומן, כמו קרב.
+     */
+    public void recordPlayer() throws IOException {
+        BinaryWriter out = begin(PLAYER);
+        player.writeTo(out);
+        end();
+    }
+
+    // ============================================================
+    // כתיבת רשומות
+    // ============================================================
+
+    private BinaryWriter begin(int type) throws IOException {
+        if (channel == null) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        // מקום לאורך ול-CRC, שיתמלאו ב-end
+        pending.reserve(FRAME_SIZE);
+        writer.clearSharedTables();
+        writer.writeByte(type);
+        return writer;
+    }
+
+    private void end() throws IOException {
+        writer.flush();
+        pending.sealRecord(crc);
+        pendingRecords++;
+        journalRecords++;
+        if (pendingRecords >= syncEvery
+                || (syncIntervalNanos > 0 && System.nanoTime() - lastSyncNanos >= syncIntervalNanos)) {
+            sync();
+        }
+        if (compactEvery > 0 && journalRecords >= compactEvery) {
+            compact();
+        }
+    }
+
+    /**
+     * כותב לדיסק את כל הרשומות שממתינות, עם fsync אחד.
+     */
+    public void sync() throws IOException {
+        if (pendingRecords > 0) {
+            ByteBuffer data = ByteBuffer.wrap(pending.bytes, 0, pending.size);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+            pending.clear();
+            pendingRecords = 0;
+            syncCount++;
+        }
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * כותב תמונת מצב חדשה ומתחיל יומן ריק מהדור שלה.
+     */
+    public void compact() throws IOException {
+        sync();
+        long next = generation + 1;
+        new SaveGame(player, map, shop, next).write(snapshotPath);
+        // מכאן היומן הישן כבר כלול בתמונה, גם אם נקרוס לפני שיוחלף
+        generation = next;
+        resetJournal();
+    }
+
+    private void resetJournal() throws IOException {
+        closeChannel();
+        Path temp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(generation).flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            out.force(true);
+        }
+        Files.move(temp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journalPath, StandardOpenOption.WRITE);
+        channel.position(HEADER_SIZE);
+        journalRecords = 0;
+    }
+
+    // ============================================================
+    // שחזור
+    // ============================================================
+
+    private void recover() throws IOException {
+        if (!Files.exists(journalPath)) {
+            resetJournal();
+            return;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(journalPath));
+        if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC) {
+            throw new IOException("Not a journal file: " + journalPath);
+        }
+        int version = data.getInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported journal format version " + version);
+        }
+        long journalGeneration = data.getLong();
+        if (journalGeneration > generation) {
+            throw new IOException("Journal generation " + journalGeneration
+                + " is newer than snapshot generation " + generation);
+        }
+        if (journalGeneration < generation) {
+            // קריסה בין כתיבת התמונה להחלפת היומן
+            resetJournal();
+            return;
+        }
+
+        // גרסאות 1 ו-2 של היומן נכתבו בפורמט של SaveGame גרסה 2 ו-3 בהתאמה
+        int recordFormat = version < FORMAT_VERSION ? version + 1 : SaveGame.FORMAT_VERSION;
+        ByteBuffer record;
+        while ((record = RecordBuffer.nextRecord(data, crc)) != null) {
+            BinaryReader in = new BinaryReader(record);
+            in.setFormatVersion(recordFormat);
+            replay(in, replayedRecords);
+            replayedRecords++;
+        }
+        int validEnd = data.position();
+        if (validEnd < data.limit() && !RecordBuffer.isTornTail(data)) {
+            throw new IOException("Corrupt journal record at offset " + validEnd + ": " + journalPath);
+        }
+
+        channel = FileChannel.open(journalPath, StandardOpenOption.WRITE);
+        if (validEnd < data.limit()) {
+            channel.truncate(validEnd);
+            channel.force(false);
+        }
+        channel.position(validEnd);
+        journalRecords = replayedRecords;
+        if (version < FORMAT_VERSION) {
+            // לא מוסיפים רשומות בפורמט חדש ליומן ישן
+            compact();
+        }
+    }
+
+    private void replay(BinaryReader in, int index) throws IOException {
+        int type = in.readByte();
+        try {
+            switch (type) {
+                case MOVE:
+                    map.moveTo(in.readString());
+                    break;
+                case COLLECT_LOOT:
+                    for (Item item : map.getCurrentLocation().collectAllLoot()) {
+                        player.addItem(item);
+                    }
+                    break;
+                case ADD_ITEM:
+                    player.addItem(Item.readFrom(in));
+                    break;
+                case REMOVE_ITEM:
+                    player.removeItem(in.readString());
+                    break;
+                case BUY_ITEM:
+                    shop.buyItem(player, in.readString());
+                    break;
+                case SELL_ITEM:
+                    shop.sellItem(player, in.readString());
+                    break;
+                case EXPERIENCE:
+                    player.gainExperience(in.readSignedVarInt());
+                    break;
+                case GOLD:
+                    player.addGold(in.readSignedVarInt());
+                    break;
+                case PLAYER:
+                    player = Character.readFrom(in);
+                    break;
+                default:
+                    throw new IOException("Unknown journal record type " + type + " at record " + index);
+            }
+        } catch (InventoryFullException e) {
+            // גם במשחק עצמו שלל שלא נכנס למלאי הולך לאיבוד
+            if (type != COLLECT_LOOT) {
+                throw new IOException("Journal record " + index + " could not be replayed", e);
+            }
+        } catch (InvalidActionException | ItemNotFoundException | InsufficientGoldException e) {
+            throw new IOException("Journal record " + index + " could not be replayed", e);
+        }
+    }
+
+    // ============================================================
+    // סגירה
+    // ============================================================
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Getters
+    public Character getPlayer() {
+        return player;
+    }
+
+    public DungeonMap getMap() {
+        return map;
+    }
+
+    public Shop getShop() {
+        return shop;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return מספר הרשומות ביומן מאז תמונת המצב האחרונה (כולל ממתינות)
+     */
+    public int getJournalRecords() {
+        return journalRecords;
+    }
+
+    public int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * @return מספר הרשומות שהורצו מחדש ב-open
+     */
+    public int getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    public long getSyncCount() {
+        return syncCount;
+    }
+}
@@ -8,23 +8,158 @@ import model.items.Potion;
 import model.exceptions.InventoryFullException;
 import model.exceptions.ItemNotFoundException;
 import model.exceptions.InsufficientGoldException;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * מחלקה המייצגת חנות במשחק.
  * מאפשרת קנייה ומכירה של פריטים.
+ *
+ * החנות בטוחה לשימוש מכמה threads (שוק משותף לכמה שחקנים): לכל פריט יש רשומה
+ * (Listing) עם מונה מלאי אטומי, והרשומות נמצאות ב-ConcurrentHashMap - כך קונים
+ * של פריטים שונים לא נוגעים באותו מונה, וקריאות לא נועלות כלום. קנייה שומרת יחידה
+ * מהמלאי ב-CAS, ואז מחייבת את הקונה בזמן שהיא מחזיקה את המוניטור של הקונה; אם
+ * אין לו מספיק זהב או מקום היחידה חוזרת למלאי והקונה לא משתנה.
+ * דמות שמשתתפת במסחר מכמה threads צריכה לסנכרן על עצמה גם בשינויים אחרים שלה.
+ *
+ * בנוסף החנות מחזיקה אינדקס של הפריטים שיש במלאי לפי קטגוריה: פעם לפי מחיר (הזול
+ * ראשון) ופעם לפי תמורה למחיר (הטוב ראשון). שאילתות כמו "מה אני יכול לקנות בזהב
+ * שלי" עולות O(log n) ועוד גודל התשובה, במקום מעבר על כל החנות.
+ *
+ * המחירים קבועים (מחיר הפריט), אלא אם מחברים PricingEngine - ואז כל עסקה מעדכנת
+ * את הביקוש והמחיר של הרשומה משתנה לפי היצע וביקוש. המחיר הנוכחי של כל רשומה
+ * נשמר בשדה volatile אחד, ולכן כל קריאת מחיר היא O(1) ובלי נעילה.
+ *
+ * אם מחוברת ShopLedger, כל הוספת מלאי, קנייה ומכירה נרשמת בה אחרי שבוצעה.
  */
 public class Shop {
     
     private String name;
-    private ArrayList<Item> inventory;
-    private HashMap<String, Integer> stock; // מיפוי שם פריט לכמות במלאי
+    private final ConcurrentHashMap<String, Listing> listings;
+    // הרשומות לפי סדר ההוספה - מוסיפים תחת listingLock, קוראים בלי נעילה
+    private volatile Listing[] ordered;
+    private volatile int listingCount;
+    private final Object listingLock;
+    // אינדקסים של פריטים במלאי, אחד לכל קטגוריה ועוד אחד לכל החנות (CATEGORY_ALL)
+    private final ArrayList<ConcurrentSkipListMap<Long, Listing>> byPrice;
+    private final ArrayList<ConcurrentSkipListMap<Ranking, Listing>> byValue;
+    private volatile PricingEngine pricing;
+    private volatile ShopLedger ledger;
+    
+    private static final int CATEGORY_WEAPON = 0;
+    private static final int CATEGORY_ARMOR = 1;
+    private static final int CATEGORY_POTION = 2;
+    private static final int CATEGORY_ALL = 3;
+    
+    /**
+     * התמורה הגבוהה ראשונה, ובתיקו הזול ראשון ואז לפי סדר ההוספה.
+     */
+    private static final Comparator<Ranking> BEST_VALUE_FIRST = new Comparator<Ranking>() {
+        @Override
+        public int compare(Ranking a, Ranking b) {
+            int compared = Double.compare(b.value, a.value);
+            return compared != 0 ? compared : Long.compare(a.priceKey, b.priceKey);
+        }
+    };
     
     public Shop(String name) {
         this.name = name;
-        this.inventory = new ArrayList<>();
-        this.stock = new HashMap<>();
+        this.listings = new ConcurrentHashMap<>();
+        this.ordered = new Listing[16];
+        this.listingCount = 0;
+        this.listingLock = new Object();
+        this.byPrice = new ArrayList<>();
+        this.byValue = new ArrayList<>();
+        for (int i = 0; i <= CATEGORY_ALL; i++) {
+            byPrice.add(new ConcurrentSkipListMap<Long, Listing>());
+            byValue.add(new ConcurrentSkipListMap<Ranking, Listing>(BEST_VALUE_FIRST));
+        }
+    }
+
+    /**
+     * פריט בחנות והכמות שלו במלאי.
+     */
+    private static final class Listing {
+        final Item item;
+        final AtomicInteger stock;
+        final int category;
+        final int sequence;
+        final double power;
+        final int baseBuyPrice;
+        final int baseSellPrice;
+        // מחיר הקנייה ב-32 הביטים העליונים ומחיר המכירה בתחתונים, כדי לקרוא את שניהם יחד
+        volatile long prices;
+        // null כשאין תמחור דינמי
+        volatile PricingEngine.Demand demand;
+        // השדות הבאים משתנים רק תחת המוניטור של הרשומה:
+        // המחיר ב-32 הביטים העליונים ומספר הרשומה בתחתונים - מפתח ייחודי שממוין לפי מחיר
+        long priceKey;
+        Ranking ranking;
+        // true כשהרשומה נמצאת באינדקסים
+        boolean indexed;
+
+        Listing(Item item, int sequence) {
+            this.item = item;
+            this.stock = new AtomicInteger();
+            this.category = categoryOf(item);
+            this.sequence = sequence;
+            this.power = powerOf(item);
+            this.baseBuyPrice = item.getBuyPrice();
+            this.baseSellPrice = item.getSellPrice();
+            setPrices(baseBuyPrice, baseSellPrice);
+        }
+
+        void setPrices(int buyPrice, int sellPrice) {
+            this.priceKey = ((long) buyPrice << 32) | sequence;
+            this.ranking = new Ranking(power / Math.max(1, buyPrice), priceKey);
+            this.prices = ((long) buyPrice << 32) | (sellPrice & 0xFFFFFFFFL);
+        }
+
+        int buyPrice() {
+            return (int) (prices >>> 32);
+        }
+
+        int sellPrice() {
+            return (int) prices;
+        }
+
+        /**
+         * מוריד count יחידות אם יש מספיק במלאי.
+         * @return false אם אין מספיק (ואז המלאי לא משתנה)
+         */
+        boolean reserve(int count) {
+            while (true) {
+                int current = stock.get();
+                if (current < count) {
+                    return false;
+                }
+                if (stock.compareAndSet(current, current - count)) {
+                    return true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * מקום ברשימת התמורה למחיר. לא משתנה אחרי שנוצר, כדי שהמיון לא יזוז מתחת ל-skip list.
+     */
+    private static final class Ranking {
+        final double value;
+        final long priceKey;
+
+        Ranking(double value, long priceKey) {
+            this.value = value;
+            this.priceKey = priceKey;
+        }
     }
     
     // ============================================================
@@ -32,117 +167,605 @@ public class Shop {
     // ============================================================
 
     public void addItemToShop(Item item, int quantity) {
-
-        boolean exists = false;
-        for (Item i : inventory) {
-            if (i.getName().equals(item.getName())) {
-                exists = true;
-                break;
-            }
+        Listing listing = listingFor(item);
+        changeStock(listing, quantity);
+        recordTrade(listing, 0, 0);
+        ShopLedger log = ledger;
+        if (log != null) {
+            log.recordRestock(listing.item, quantity);
         }
+    }
 
-        if (!exists) {
-            inventory.add(item);
-        }
+    /**
+     * מוריד מלאי בלי קונה - להרצה מחדש של קנייה מהיומן. המלאי יכול לרדת זמנית מתחת לאפס.
+     */
+    void takeFromStock(Item item, int quantity) {
+        changeStock(listingFor(item), -quantity);
+    }
 
+    /**
+     * משנה את המלאי של הרשומה ומעדכן את האינדקס אם המלאי עבר בין אפס לחיובי.
+     */
+    private void changeStock(Listing listing, int delta) {
+        int stock = listing.stock.addAndGet(delta);
+        if ((stock > 0) != (stock - delta > 0)) {
+            updateIndex(listing);
+        }
+    }
 
-        int currentStock = stock.getOrDefault(item.getName(), 0);
-        stock.put(item.getName(), currentStock + quantity);
+    /**
+     * @return הרשומה של הפריט לפי השם, ויוצר אותה אם אין (הפריט הראשון בשם הזה נשאר)
+     */
+    private Listing listingFor(Item item) {
+        Listing listing = listings.get(item.getName());
+        if (listing != null) {
+            return listing;
+        }
+        synchronized (listingLock) {
+            listing = listings.get(item.getName());
+            if (listing == null) {
+                Listing[] array = ordered;
+                int count = listingCount;
+                listing = new Listing(item, count);
+                PricingEngine engine = pricing;
+                if (engine != null) {
+                    listing.demand = engine.newDemand();
+                }
+                if (count == array.length) {
+                    array = Arrays.copyOf(array, count * 2);
+                }
+                array[count] = listing;
+                // קודם המערך ואז המונה, כך שקורא שרואה את המונה רואה גם את הרשומה
+                ordered = array;
+                listingCount = count + 1;
+                listings.put(item.getName(), listing);
+            }
+            return listing;
+        }
     }
 
     public ArrayList<Item> getAvailableItems() {
+        int count = listingCount;
+        Listing[] array = ordered;
         ArrayList<Item> available = new ArrayList<>();
-        for (Item item : inventory) {
-            if (getItemStock(item.getName()) > 0) {
-                available.add(item);
+        for (int i = 0; i < count; i++) {
+            if (array[i].stock.get() > 0) {
+                available.add(array[i].item);
             }
         }
         return available;
     }
 
+    /**
+     * @return הפריטים במלאי מהקטגוריה (weapon, armor או potion), מהזול ליקר
+     */
     public ArrayList<Item> getItemsByCategory(String category) {
+        int index = categoryIndex(category);
+        if (index < 0) {
+            return new ArrayList<>();
+        }
+        return inStock(byPrice.get(index).values());
+    }
+    
+    // ============================================================
+    // אינדקס מחירים
+    // ============================================================
+    
+    /**
+     * @return הפריטים במלאי שמחירם לכל היותר gold, מהזול ליקר
+     */
+    public ArrayList<Item> getAffordableItems(int gold) {
+        return affordable(CATEGORY_ALL, gold);
+    }
+    
+    /**
+     * @return הפריטים במלאי מהקטגוריה שמחירם לכל היותר gold, מהזול ליקר
+     */
+    public ArrayList<Item> getAffordableItems(String category, int gold) {
+        int index = categoryIndex(category);
+        if (index < 0) {
+            return new ArrayList<>();
+        }
+        return affordable(index, gold);
+    }
+    
+    /**
+     * @return עד count הפריטים במלאי עם התמורה הטובה ביותר למחיר (ראו powerOf)
+     */
+    public ArrayList<Item> getBestValueItems(int count) {
+        return bestValue(CATEGORY_ALL, count);
+    }
+    
+    /**
+     * @return עד count הפריטים במלאי מהקטגוריה עם התמורה הטובה ביותר למחיר
+     */
+    public ArrayList<Item> getBestValueItems(String category, int count) {
+        int index = categoryIndex(category);
+        if (index < 0) {
+            return new ArrayList<>();
+        }
+        return bestValue(index, count);
+    }
+    
+    private ArrayList<Item> affordable(int index, int gold) {
+        if (gold < 0) {
+            return new ArrayList<>();
+        }
+        // המפתח הגדול ביותר עם המחיר gold
+        long maxKey = ((long) gold << 32) | 0xFFFFFFFFL;
+        return inStock(byPrice.get(index).headMap(maxKey, true).values());
+    }
+    
+    private ArrayList<Item> bestValue(int index, int count) {
         ArrayList<Item> result = new ArrayList<>();
-        String catLower = category.toLowerCase();
-
-        for (Item item : inventory) {
-            // אם אין במלאי, לא נציג (אופציונלי, תלוי בדרישות)
-            if (getItemStock(item.getName()) <= 0) continue;
-
-            if (catLower.equals("weapon") && item instanceof Weapon) {
-                result.add(item);
-            } else if (catLower.equals("armor") && item instanceof Armor) {
-                result.add(item);
-            } else if (catLower.equals("potion") && item instanceof Potion) {
-                result.add(item);
+        for (Listing listing : byValue.get(index).values()) {
+            if (result.size() >= count) {
+                break;
+            }
+            if (listing.stock.get() > 0) {
+                result.add(listing.item);
             }
         }
         return result;
     }
     
+    /**
+     * האינדקס מתעדכן מעט אחרי המונה, אז מסננים גם כאן רשומות שהמלאי שלהן נגמר בינתיים.
+     */
+    private static ArrayList<Item> inStock(Iterable<Listing> source) {
+        ArrayList<Item> result = new ArrayList<>();
+        for (Listing listing : source) {
+            if (listing.stock.get() > 0) {
+                result.add(listing.item);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * מכניס או מוציא את הרשומה מהאינדקסים לפי המלאי הנוכחי.
+     * נקרא אחרי כל שינוי שבו המלאי עבר בין אפס לחיובי. כל קריאה קוראת את המלאי
+     * מחדש תחת המוניטור של הרשומה, אז הקריאה האחרונה תמיד משאירה את האינדקס נכון
+     * גם כשכמה threads מעבירים את אותה רשומה הלוך וחזור.
+     */
+    private void updateIndex(Listing listing) {
+        synchronized (listing) {
+            boolean inStock = listing.stock.get() > 0;
+            if (inStock == listing.indexed) {
+                return;
+            }
+            listing.indexed = inStock;
+            if (inStock) {
+                index(listing);
+            } else {
+                unindex(listing);
+            }
+        }
+    }
+    
+    /**
+     * נקרא רק תחת המוניטור של הרשומה.
+     */
+    private void index(Listing listing) {
+        byPrice.get(listing.category).put(listing.priceKey, listing);
+        byPrice.get(CATEGORY_ALL).put(listing.priceKey, listing);
+        byValue.get(listing.category).put(listing.ranking, listing);
+        byValue.get(CATEGORY_ALL).put(listing.ranking, listing);
+    }
+    
+    private void unindex(Listing listing) {
+        byPrice.get(listing.category).remove(listing.priceKey);
+        byPrice.get(CATEGORY_ALL).remove(listing.priceKey);
+        byValue.get(listing.category).remove(listing.ranking);
+        byValue.get(CATEGORY_ALL).remove(listing.ranking);
+    }
+    
+    private static int categoryOf(Item item) {
+        if (item instanceof Weapon) {
+            return CATEGORY_WEAPON;
+        } else if (item instanceof Armor) {
+            return CATEGORY_ARMOR;
+        }
+        return CATEGORY_POTION;
+    }
+    
+    /**
+     * @return מספר הקטגוריה, או -1 אם השם לא מוכר
+     */
+    private static int categoryIndex(String category) {
+        String catLower = category.toLowerCase();
+        if (catLower.equals("weapon")) {
+            return CATEGORY_WEAPON;
+        } else if (catLower.equals("armor")) {
+            return CATEGORY_ARMOR;
+        } else if (catLower.equals("potion")) {
+            return CATEGORY_POTION;
+        }
+        return -1;
+    }
+    
+    /**
+     * מה שהפריט נותן: נזק ממוצע לנשק, הגנה לשריון ועוצמה כפול מספר השימושים לשיקוי.
+     * התמורה למחיר היא הערך הזה חלקי מחיר הקנייה הנוכחי.
+     */
+    private static double powerOf(Item item) {
+        double power;
+        if (item instanceof Weapon) {
+            power = ((Weapon) item).getAverageDamage();
+        } else if (item instanceof Armor) {
+            power = ((Armor) item).getDefense();
+        } else if (item instanceof Potion) {
+            power = ((Potion) item).getPotency() * ((Potion) item).getMaxUses();
+        } else {
+            power = 0;
+        }
+        return power;
+    }
+    
+    // ============================================================
+    // תמחור
+    // ============================================================
+    
+    /**
+     * מחבר מנוע תמחור דינמי (או null לחזרה למחירים הקבועים). יש לקרוא לפני שהמסחר מתחיל.
+     */
+    public void setPricingEngine(PricingEngine engine) {
+        synchronized (listingLock) {
+            pricing = engine;
+            int count = listingCount;
+            Listing[] array = ordered;
+            for (int i = 0; i < count; i++) {
+                array[i].demand = engine != null ? engine.newDemand() : null;
+                if (engine == null) {
+                    reprice(array[i], array[i].baseBuyPrice, array[i].baseSellPrice);
+                }
+            }
+        }
+    }
+    
+    public PricingEngine getPricingEngine() {
+        return pricing;
+    }
+    
+    /**
+     * מחבר יומן עסקאות (או null לניתוק). בדרך כלל נקרא מ-ShopLedger.create או open.
+     */
+    public void setLedger(ShopLedger ledger) {
+        this.ledger = ledger;
+    }
+    
+    public ShopLedger getLedger() {
+        return ledger;
+    }
+    
+    /**
+     * מחשב מחדש את המחיר של כל הפריטים עכשיו, בלי לחכות ל-updateInterval.
+     */
+    public void refreshPrices() {
+        PricingEngine engine = pricing;
+        if (engine == null) {
+            return;
+        }
+        int count = listingCount;
+        Listing[] array = ordered;
+        for (int i = 0; i < count; i++) {
+            PricingEngine.Demand demand = array[i].demand;
+            if (demand != null) {
+                reprice(array[i], engine.update(demand, array[i].stock.get()));
+            }
+        }
+    }
+    
+    /**
+     * @return מחיר הקנייה הנוכחי בחנות, או מחיר הפריט אם החנות לא מוכרת אותו
+     */
+    public int getBuyPrice(Item item) {
+        Listing listing = listings.get(item.getName());
+        return listing != null ? listing.buyPrice() : item.getBuyPrice();
+    }
+    
+    /**
+     * @return כמה החנות משלמת עכשיו על הפריט, או מחיר המכירה שלו אם החנות לא מכירה אותו
+     */
+    public int getSellPrice(Item item) {
+        Listing listing = listings.get(item.getName());
+        return listing != null ? listing.sellPrice() : item.getSellPrice();
+    }
+    
+    /**
+     * סופר את העסקה בביקוש של הרשומה, ומחשב מחיר חדש אם עבר updateInterval.
+     */
+    private void recordTrade(Listing listing, int bought, int sold) {
+        PricingEngine engine = pricing;
+        PricingEngine.Demand demand = listing.demand;
+        if (engine == null || demand == null) {
+            return;
+        }
+        if (bought > 0) {
+            demand.buys.add(bought);
+        }
+        if (sold > 0) {
+            demand.sells.add(sold);
+        }
+        if (engine.claimUpdate(demand)) {
+            reprice(listing, engine.update(demand, listing.stock.get()));
+        }
+    }
+    
+    private void reprice(Listing listing, double multiplier) {
+        reprice(listing, PricingEngine.applyMultiplier(listing.baseBuyPrice, multiplier),
+            PricingEngine.applyMultiplier(listing.baseSellPrice, multiplier));
+    }
+    
+    /**
+     * מחליף את המחירים של הרשומה, ומזיז אותה באינדקסים אם היא בהם.
+     */
+    private void reprice(Listing listing, int buyPrice, int sellPrice) {
+        synchronized (listing) {
+            if (listing.buyPrice() == buyPrice && listing.sellPrice() == sellPrice) {
+                return;
+            }
+            if (listing.indexed) {
+                unindex(listing);
+            }
+            listing.setPrices(buyPrice, sellPrice);
+            if (listing.indexed) {
+                index(listing);
+            }
+        }
+    }
+    
+    
     // ============================================================
     // TODO: קנייה ומכירה
     // ============================================================
 
+    /**
+     * קנייה אטומית: המלאי, הזהב והמלאי של הקונה משתנים יחד, או שאף אחד מהם לא משתנה.
+     */
     public Item buyItem(Character customer, String itemName)
             throws ItemNotFoundException, InsufficientGoldException,
             InventoryFullException {
-        // Find the item
-        Item itemToBuy = null;
-        for (Item item : inventory) {
-            if (item.getName().equals(itemName)) {
-                itemToBuy = item;
-                break;
-            }
-        }
-
-        if (itemToBuy == null || stock.getOrDefault(itemName, 0) <= 0) {
+        Listing listing = listings.get(itemName);
+        if (listing == null || !listing.reserve(1)) {
             throw new ItemNotFoundException(itemName);
         }
-
-        int price = itemToBuy.getBuyPrice();
-        if (customer.getGold() < price) {
-            throw new InsufficientGoldException(price, customer.getGold());
+        if (listing.stock.get() == 0) {
+            updateIndex(listing);
         }
 
-        // Perform transaction
-        customer.spendGold(price);
-        customer.addItem(itemToBuy);
-        stock.put(itemName, stock.get(itemName) - 1);
-
+        // כל קונה מקבל עותק משלו - המצב של פריט (למשל שימושים בשיקוי) לא משותף בין קונים
+        Item itemToBuy = listing.item.getTemplate().newInstance();
+        int price = listing.buyPrice();
+        boolean committed = false;
+        try {
+            synchronized (customer) {
+                if (customer.getGold() < price) {
+                    throw new InsufficientGoldException(price, customer.getGold());
+                }
+                // addItem נכשל לפני שינוי, ואחריו spendGold תמיד מצליח
+                customer.addItem(itemToBuy);
+                customer.spendGold(price);
+            }
+            committed = true;
+        } finally {
+            if (!committed) {
+                changeStock(listing, 1);
+            }
+        }
+        recordTrade(listing, 1, 0);
+        ShopLedger log = ledger;
+        if (log != null) {
+            log.recordBuy(listing.item, customer.getName(), 1, price);
+        }
         return itemToBuy;
     }
 
     public int sellItem(Character seller, String itemName)
             throws ItemNotFoundException {
+        Item itemToSell;
+        Listing listing;
+        int sellPrice;
+        synchronized (seller) {
+            itemToSell = seller.removeItem(itemName);
 
-        Item itemToSell = seller.removeItem(itemName);
-
-        if (!itemToSell.isSellable()) {
+            if (!itemToSell.isSellable()) {
 
-            try {
-                seller.addItem(itemToSell);
-            } catch (InventoryFullException e) {
+                try {
+                    seller.addItem(itemToSell);
+                } catch (InventoryFullException e) {
 
+                }
+                throw new ItemNotFoundException(itemName);
             }
-            throw new ItemNotFoundException(itemName);
+
+            listing = listingFor(itemToSell);
+            sellPrice = listing.sellPrice();
+            seller.addGold(sellPrice);
         }
 
-        int sellPrice = itemToSell.getSellPrice();
-        seller.addGold(sellPrice);
+        changeStock(listing, 1);
+        recordTrade(listing, 0, 1);
+        ShopLedger log = ledger;
+        if (log != null) {
+            log.recordSell(listing.item, seller.getName(), 1, sellPrice);
+        }
 
+        return sellPrice;
+    }
 
-        addItemToShop(itemToSell, 1);
+    // ============================================================
+    // עסקאות מרובות פריטים
+    // ============================================================
 
-        return sellPrice;
+    /**
+     * קונה את כל העגלה (שם פריט -> כמות) כעסקה אחת: קודם שומר את כל המלאי, ואז
+     * בודק זהב ומקום לכל העגלה ומחייב את הקונה פעם אחת. אם שורה אחת נכשלת, שום
+     * דבר לא משתנה - לא המלאי, לא הזהב ולא המלאי של הקונה.
+     *
+     * @return קבלה עם הפריטים לפי סדר העגלה
+     * @throws ItemNotFoundException אם פריט לא קיים או שאין ממנו מספיק במלאי
+     * @throws IllegalArgumentException אם כמות אינה חיובית
+     */
+    public ShopReceipt buyItems(Character customer, HashMap<String, Integer> cart)
+            throws ItemNotFoundException, InsufficientGoldException,
+            InventoryFullException {
+        Listing[] lines = new Listing[cart.size()];
+        int[] quantities = new int[cart.size()];
+        int[] prices = new int[cart.size()];
+        int lineCount = 0;
+        int itemCount = 0;
+        long total = 0;
+        ArrayList<Item> bought;
+        boolean committed = false;
+        try {
+            for (Map.Entry<String, Integer> entry : cart.entrySet()) {
+                int quantity = entry.getValue();
+                if (quantity <= 0) {
+                    throw new IllegalArgumentException("Quantity must be positive: " + entry.getKey());
+                }
+                Listing listing = listings.get(entry.getKey());
+                if (listing == null || !listing.reserve(quantity)) {
+                    throw new ItemNotFoundException(entry.getKey());
+                }
+                if (listing.stock.get() == 0) {
+                    updateIndex(listing);
+                }
+                lines[lineCount] = listing;
+                quantities[lineCount] = quantity;
+                prices[lineCount] = listing.buyPrice();
+                total += (long) prices[lineCount] * quantity;
+                lineCount++;
+                itemCount += quantity;
+            }
+
+            bought = new ArrayList<>(itemCount);
+            for (int i = 0; i < lineCount; i++) {
+                for (int j = 0; j < quantities[i]; j++) {
+                    bought.add(lines[i].item.getTemplate().newInstance());
+                }
+            }
+            synchronized (customer) {
+                if (total > customer.getGold()) {
+                    throw new InsufficientGoldException((int) Math.min(total, Integer.MAX_VALUE),
+                        customer.getGold());
+                }
+                int free = customer.getMaxInventorySize() - customer.getInventorySize();
+                if (itemCount > free) {
+                    // השורה הראשונה שכבר לא נכנסת, לפי סדר העגלה
+                    int overflow = 0;
+                    for (int fits = quantities[0]; fits <= free; fits += quantities[overflow]) {
+                        overflow++;
+                    }
+                    throw new InventoryFullException(lines[overflow].item.getName(), customer.getMaxInventorySize());
+                }
+                // יש מספיק מקום לכולם, אז אף addItem לא ייכשל באמצע
+                for (int i = 0; i < bought.size(); i++) {
+                    customer.addItem(bought.get(i));
+                }
+                customer.spendGold((int) total);
+            }
+            committed = true;
+        } finally {
+            if (!committed) {
+                for (int i = 0; i < lineCount; i++) {
+                    changeStock(lines[i], quantities[i]);
+                }
+            }
+        }
+        ShopLedger log = ledger;
+        for (int i = 0; i < lineCount; i++) {
+            recordTrade(lines[i], quantities[i], 0);
+            if (log != null) {
+                log.recordBuy(lines[i].item, customer.getName(), quantities[i], prices[i]);
+            }
+        }
+        return new ShopReceipt(true, bought, (int) total);
+    }
+
+    /**
+     * מוכר את כל הרשימה (שם פריט -> כמות) כעסקה אחת: בודק שלמוכר יש את כל הכמויות,
+     * מוציא את הפריטים ומשלם פעם אחת. אם פריט חסר או שאי אפשר למכור אותו (למשל
+     * שיקוי משומש), כל הפריטים חוזרים למוכר והעסקה לא מתבצעת.
+     *
+     * @return קבלה עם הפריטים שנמכרו
+     * @throws ItemNotFoundException אם חסר פריט או שאחד הפריטים אינו ניתן למכירה
+     * @throws IllegalArgumentException אם כמות אינה חיובית
+     */
+    public ShopReceipt sellItems(Character seller, HashMap<String, Integer> items)
+            throws ItemNotFoundException {
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive: " + entry.getKey());
+            }
+        }
+
+        ArrayList<Item> sold = new ArrayList<>();
+        Listing[] lines = new Listing[items.size()];
+        int[] prices = new int[items.size()];
+        int total = 0;
+        synchronized (seller) {
+            for (Map.Entry<String, Integer> entry : items.entrySet()) {
+                if (seller.getItemCount(entry.getKey()) < entry.getValue()) {
+                    throw new ItemNotFoundException(entry.getKey());
+                }
+            }
+            String unsellable = null;
+            for (Map.Entry<String, Integer> entry : items.entrySet()) {
+                for (int i = 0; i < entry.getValue(); i++) {
+                    Item item = seller.removeItem(entry.getKey());
+                    sold.add(item);
+                    if (!item.isSellable()) {
+                        unsellable = entry.getKey();
+                    }
+                }
+            }
+            if (unsellable != null) {
+                // הפריטים רק יצאו מהמלאי, אז יש להם מקום לחזור
+                for (int i = 0; i < sold.size(); i++) {
+                    try {
+                        seller.addItem(sold.get(i));
+                    } catch (InventoryFullException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                throw new ItemNotFoundException(unsellable);
+            }
+            int line = 0;
+            int index = 0;
+            for (Map.Entry<String, Integer> entry : items.entrySet()) {
+                lines[line] = listingFor(sold.get(index));
+                prices[line] = lines[line].sellPrice();
+                total += prices[line] * entry.getValue();
+                index += entry.getValue();
+                line++;
+            }
+            seller.addGold(total);
+        }
+
+        ShopLedger log = ledger;
+        int line = 0;
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            changeStock(lines[line], entry.getValue());
+            recordTrade(lines[line], 0, entry.getValue());
+            if (log != null) {
+                log.recordSell(lines[line].item, seller.getName(), entry.getValue(), prices[line]);
+            }
+            line++;
+        }
+        return new ShopReceipt(false, sold, total);
     }
 
     public int getItemStock(String itemName) {
-        return stock.getOrDefault(itemName, 0);
+        Listing listing = listings.get(itemName);
+        return listing != null ? listing.stock.get() : 0;
     }
     public int getTotalValue() {
         int totalValue = 0;
-        for (Item item : inventory) {
-            totalValue += item.getBuyPrice() * getItemStock(item.getName());
+        int count = listingCount;
+        Listing[] array = ordered;
+        for (int i = 0; i < count; i++) {
+            totalValue += array[i].buyPrice() * array[i].stock.get();
         }
         return totalValue;
     }
@@ -152,33 +775,66 @@ public class Shop {
 
     public HashMap<String, String> getInventoryReport() {
         HashMap<String, String> report = new HashMap<>();
-        for (Item item : inventory) {
-            report.put(item.getName(), "Price: " + item.getBuyPrice() + " | Stock: " + getItemStock(item.getName()));
+        for (Listing listing : listings.values()) {
+            report.put(listing.item.getName(), "Price: " + listing.buyPrice() + " | Stock: " + listing.stock.get());
         }
         return report;
     }
 
+    /**
+     * @return שם -> {מחיר קנייה, מחיר מכירה} הנוכחיים (כולל התמחור הדינמי)
+     */
     public HashMap<String, int[]> getPriceComparison() {
         HashMap<String, int[]> comparison = new HashMap<>();
-        for (Item item : inventory) {
-            comparison.put(item.getName(), new int[]{item.getBuyPrice(), item.getSellPrice()});
+        for (Listing listing : listings.values()) {
+            // קריאה אחת של prices, כך ששני המחירים מאותו עדכון
+            long prices = listing.prices;
+            comparison.put(listing.item.getName(), new int[]{(int) (prices >>> 32), (int) prices});
         }
         return comparison;
     }
     
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+    
+    /**
+     * כותב את החנות: כל פריט במלאי ואחריו הכמות שלו.
+     */
+    public void writeTo(BinaryWriter out) throws IOException {
+        int count = listingCount;
+        Listing[] array = ordered;
+        out.writeString(name);
+        out.writeVarInt(count);
+        for (int i = 0; i < count; i++) {
+            array[i].item.writeTo(out);
+            out.writeVarInt(array[i].stock.get());
+        }
+    }
+    
+    public static Shop readFrom(BinaryReader in) throws IOException {
+        Shop shop = new Shop(in.readString());
+        int count = in.readLength();
+        for (int i = 0; i < count; i++) {
+            Item item = Item.readFrom(in);
+            shop.addItemToShop(item, in.readVarInt());
+        }
+        return shop;
+    }
+    
     // Getters
     public String getName() {
         return name;
     }
     
     public int getUniqueItemCount() {
-        return inventory.size();
+        return listingCount;
     }
     
     public int getTotalItemCount() {
         int total = 0;
-        for (int count : stock.values()) {
-            total += count;
+        for (Listing listing : listings.values()) {
+            total += listing.stock.get();
         }
         return total;
     }
@@ -0,0 +1,542 @@
+package game;
+
+import model.items.Item;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * יומן עסקאות של חנות (event sourcing): כל הוספת מלאי, קנייה ומכירה נרשמת כאירוע
+ * בינארי בסוף הקובץ, עם הפריט, המחיר ליחידה, הכמות, הלקוח והזמן. הקובץ רק גדל.
+ *
+ * מהאירועים אפשר לבנות מחדש את החנות (open מריץ אותם על חנות חדשה), וגם מחושבים
+ * מהם סיכומי זהב לפי פריט, נדירות ושעה. הסיכומים מתעדכנים בכל אירוע, כך שהשאילתות
+ * עולות רק כמספר המפתחות ולא כמספר האירועים.
+ *
+ * פריטים ולקוחות נכתבים פעם אחת (רשומות ITEM ו-CUSTOMER) ואחר כך רק המספר שלהם.
+ * כל רשומה ממוסגרת עם אורך ו-CRC32 כמו ב-SaveJournal, ורשומה קטועה בסוף נחתכת.
+ * הרשומות נאספות בזיכרון ונכתבות לקובץ כשמצטבר flushBytes או ב-flush/close;
+ * שגיאת כתיבה בזמן עסקה נשמרת ונזרקת ב-flush או ב-close הבאים.
+ * אין גבול זמן לעמידות: בחנות שקטה אירועים יכולים לחכות בזיכרון ללא הגבלה,
+ * וקריסה מאבדת את כל מה שנרשם מאז הכתיבה האחרונה. מי שצריך גבול כזה קורא
+ * ל-flush בעצמו (למשל בכל מעבר חדר או מטיימר), או מקטין את flushBytes.
+ *
+ * האירועים משנים את המלאי בהפרשים (+/-), ולכן הסדר ביניהם כשכמה threads סוחרים
+ * במקביל לא משנה את המצב שנבנה מחדש.
+ */
+public class ShopLedger implements Closeable {
+
+    public static final int MAGIC = 0x4447534c; // "DGSL"
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 12;
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final int SHOP = 1;
+    private static final int ITEM = 2;
+    private static final int CUSTOMER = 3;
+    private static final int RESTOCK = 4;
+    private static final int BUY = 5;
+    private static final int SELL = 6;
+
+    /**
+     * מקור זמן במילישניות (להחלפה בבדיקות).
+     */
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private final Path path;
+    private Shop shop;
+    private FileChannel channel;
+    private final RecordBuffer pending;
+    private final BinaryWriter writer;
+    private final CRC32 crc;
+    private int itemFormat;
+    private IOException writeFailure;
+
+    private Clock clock;
+    private int flushBytes;
+
+    // מספרים של פריטים ולקוחות שכבר נכתבו
+    private final HashMap<String, Integer> itemIds;
+    private final ArrayList<Item> items;
+    private final HashMap<String, Integer> customerIds;
+    private final ArrayList<String> customers;
+
+    // סיכומים: {הכנסות מקניות, תשלומים על מכירות}
+    private final HashMap<String, long[]> byItem;
+    private final HashMap<Item.ItemRarity, long[]> byRarity;
+    private final TreeMap<Long, long[]> byHour;
+    private long totalRevenue;
+    private long totalPayouts;
+    private long eventCount;
+    private int replayedRecords;
+
+    private ShopLedger(Path path) {
+        this.path = path.toAbsolutePath();
+        this.pending = new RecordBuffer();
+        this.writer = new BinaryWriter(pending);
+        this.crc = new CRC32();
+        this.itemFormat = SaveGame.FORMAT_VERSION;
+        this.clock = SYSTEM_CLOCK;
+        this.flushBytes = 64 * 1024;
+        this.itemIds = new HashMap<>();
+        this.items = new ArrayList<>();
+        this.customerIds = new HashMap<>();
+        this.customers = new ArrayList<>();
+        this.byItem = new HashMap<>();
+        this.byRarity = new HashMap<>();
+        this.byHour = new TreeMap<>();
+    }
+
+    /**
+     * מתחיל יומן חדש (ודורס קובץ קיים) לחנות: רושם את המלאי הנוכחי שלה כהוספות
+     * מלאי ומחבר את היומן לחנות. יש לקרוא לפני שהמסחר מתחיל.
+     */
+    public static ShopLedger create(Path path, Shop shop) throws IOException {
+        ShopLedger ledger = new ShopLedger(path);
+        ledger.channel = FileChannel.open(ledger.path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(ledger.itemFormat).flip();
+        while (header.hasRemaining()) {
+            ledger.channel.write(header);
+        }
+        ledger.shop = shop;
+        BinaryWriter out = ledger.begin(SHOP);
+        out.writeString(shop.getName());
+        ledger.end();
+        for (Item item : shop.getAvailableItems()) {
+            ledger.recordRestock(item, shop.getItemStock(item.getName()));
+        }
+        ledger.flush();
+        shop.setLedger(ledger);
+        return ledger;
+    }
+
+    /**
+     * קורא יומן קיים: בונה מחדש את החנות והסיכומים מכל האירועים, חותך רשומה אחרונה
+     * קטועה, ומחבר את היומן לחנות שנבנתה (getShop) כדי להמשיך לרשום.
+     * @throws IOException אם הקובץ אינו יומן חנות או שרשומה שאינה האחרונה פגומה
+     *         (ואז הקובץ לא משתנה)
+     */
+    public static ShopLedger open(Path path) throws IOException {
+        ShopLedger ledger = new ShopLedger(path);
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(ledger.path));
+        if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC) {
+            throw new IOException("Not a shop ledger: " + ledger.path);
+        }
+        int version = data.getInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported ledger format version " + version);
+        }
+        ledger.itemFormat = data.getInt();
+        if (ledger.itemFormat < 1 || ledger.itemFormat > SaveGame.FORMAT_VERSION) {
+            throw new IOException("Unsupported item format version " + ledger.itemFormat);
+        }
+
+        ByteBuffer record;
+        while ((record = RecordBuffer.nextRecord(data, ledger.crc)) != null) {
+            BinaryReader in = new BinaryReader(record);
+            in.setFormatVersion(ledger.itemFormat);
+            ledger.replay(in);
+            ledger.replayedRecords++;
+        }
+        if (ledger.shop == null) {
+            throw new IOException("Ledger has no shop record: " + ledger.path);
+        }
+        int validEnd = data.position();
+        if (validEnd < data.limit() && !RecordBuffer.isTornTail(data)) {
+            throw new IOException("Corrupt ledger record at offset " + validEnd + ": " + ledger.path);
+        }
+
+        ledger.channel = FileChannel.open(ledger.path, StandardOpenOption.WRITE);
+        if (validEnd < data.limit()) {
+            ledger.channel.truncate(validEnd);
+            ledger.channel.force(false);
+        }
+        ledger.channel.position(validEnd);
+        ledger.shop.setLedger(ledger);
+        return ledger;
+    }
+
+    // ============================================================
+    // הגדרות
+    // ============================================================
+
+    public ShopLedger withClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock is required");
+        }
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * @param bytes כמה בתים של רשומות נאספים בזיכרון לפני כתיבה לקובץ.
+     *        זה הגבול היחיד לכתיבה אוטומטית - אין כתיבה לפי זמן, ראו flush
+     */
+    public ShopLedger withFlushBytes(int bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("Flush threshold must be positive: " + bytes);
+        }
+        this.flushBytes = bytes;
+        return this;
+    }
+
+    // ============================================================
+    // אירועים (נקראים מ-Shop אחרי שהעסקה בוצעה)
+    // ============================================================
+
+    synchronized void recordRestock(Item item, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        int itemId = itemId(item);
+        long time = clock.currentTimeMillis();
+        try {
+            BinaryWriter out = begin(RESTOCK);
+            out.writeVarInt(itemId);
+            out.writeVarInt(quantity);
+            out.writeLong(time);
+            end();
+        } catch (IOException e) {
+            fail(e);
+        }
+        eventCount++;
+    }
+
+    synchronized void recordBuy(Item item, String customer, int quantity, int unitPrice) {
+        recordTrade(BUY, item, customer, quantity, unitPrice);
+    }
+
+    synchronized void recordSell(Item item, String customer, int quantity, int unitPrice) {
+        recordTrade(SELL, item, customer, quantity, unitPrice);
+    }
+
+    private void recordTrade(int type, Item item, String customer, int quantity, int unitPrice) {
+        int itemId = itemId(item);
+        int customerId = customerId(customer);
+        long time = clock.currentTimeMillis();
+        try {
+            BinaryWriter out = begin(type);
+            out.writeVarInt(itemId);
+            out.writeVarInt(customerId);
+            out.writeVarInt(quantity);
+            out.writeVarInt(unitPrice);
+            out.writeLong(time);
+            end();
+        } catch (IOException e) {
+            fail(e);
+        }
+        aggregate(type == BUY, items.get(itemId), (long) unitPrice * quantity, time);
+    }
+
+    /**
+     * @return מספר הפריט ביומן, וכותב אותו אם זו הפעם הראשונה
+     */
+    private int itemId(Item item) {
+        Integer id = itemIds.get(item.getName());
+        if (id != null) {
+            return id;
+        }
+        int next = items.size();
+        itemIds.put(item.getName(), next);
+        items.add(item);
+        try {
+            BinaryWriter out = begin(ITEM);
+            out.writeVarInt(next);
+            item.writeTo(out);
+            end();
+        } catch (IOException e) {
+            fail(e);
+        }
+        return next;
+    }
+
+    private int customerId(String customer) {
+        Integer id = customerIds.get(customer);
+        if (id != null) {
+            return id;
+        }
+        int next = customers.size();
+        customerIds.put(customer, next);
+        customers.add(customer);
+        try {
+            BinaryWriter out = begin(CUSTOMER);
+            out.writeVarInt(next);
+            out.writeString(customer);
+            end();
+        } catch (IOException e) {
+            fail(e);
+        }
+        return next;
+    }
+
+    /**
+     * מעדכן את הסיכומים באירוע אחד - O(1) לכל אירוע.
+     */
+    private void aggregate(boolean purchase, Item item, long gold, long time) {
+        int column = purchase ? 0 : 1;
+        totalsFor(byItem, item.getName())[column] += gold;
+        totalsFor(byRarity, item.getRarity())[column] += gold;
+        totalsFor(byHour, time - Math.floorMod(time, HOUR_MILLIS))[column] += gold;
+        if (purchase) {
+            totalRevenue += gold;
+        } else {
+            totalPayouts += gold;
+        }
+        eventCount++;
+    }
+
+    private static <K> long[] totalsFor(Map<K, long[]> totals, K key) {
+        long[] row = totals.get(key);
+        if (row == null) {
+            row = new long[2];
+            totals.put(key, row);
+        }
+        return row;
+    }
+
+    // ============================================================
+    // כתיבת רשומות
+    // ============================================================
+
+    private BinaryWriter begin(int type) throws IOException {
+        if (channel == null) {
+            throw new IOException("Ledger is closed");
+        }
+        if (writeFailure != null) {
+            // לא אוספים עוד רשומות אחרי שכתיבה נכשלה
+            throw new IOException("Ledger write failed", writeFailure);
+        }
+        pending.reserve(RecordBuffer.FRAME_SIZE);
+        writer.clearSharedTables();
+        writer.writeByte(type);
+        return writer;
+    }
+
+    private void end() throws IOException {
+        writer.flush();
+        pending.sealRecord(crc);
+        if (pending.size >= flushBytes && writeFailure == null) {
+            writePending();
+        }
+    }
+
+    private void writePending() throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(pending.bytes, 0, pending.size);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        pending.clear();
+    }
+
+    private void fail(IOException e) {
+        if (writeFailure == null) {
+            writeFailure = e;
+        }
+    }
+
+    /**
+     * כותב לקובץ את כל הרשומות שממתינות ומחכה שיגיעו לדיסק.
+     * @throws IOException אם כתיבה קודמת (בזמן עסקה) או הנוכחית נכשלה
+     */
+    public synchronized void flush() throws IOException {
+        if (writeFailure != null) {
+            throw new IOException("Ledger write failed", writeFailure);
+        }
+        if (channel == null) {
+            return;
+        }
+        try {
+            writePending();
+            channel.force(false);
+        } catch (IOException e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (shop != null && shop.getLedger() == this) {
+                shop.setLedger(null);
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    // ============================================================
+    // הרצה מחדש
+    // ============================================================
+
+    private void replay(BinaryReader in) throws IOException {
+        int type = in.readByte();
+        switch (type) {
+            case SHOP:
+                shop = new Shop(in.readString());
+                break;
+            case ITEM: {
+                int id = in.readVarInt();
+                Item item = Item.readFrom(in);
+                if (id != items.size()) {
+                    throw new IOException("Ledger item " + id + " is out of order");
+                }
+                itemIds.put(item.getName(), id);
+                items.add(item);
+                break;
+            }
+            case CUSTOMER: {
+                int id = in.readVarInt();
+                String customer = in.readString();
+                if (id != customers.size()) {
+                    throw new IOException("Ledger customer " + id + " is out of order");
+                }
+                customerIds.put(customer, id);
+                customers.add(customer);
+                break;
+            }
+            case RESTOCK: {
+                Item item = readItem(in);
+                int quantity = in.readVarInt();
+                in.readLong();
+                requireShop().addItemToShop(item, quantity);
+                eventCount++;
+                break;
+            }
+            case BUY:
+            case SELL: {
+                Item item = readItem(in);
+                readCustomer(in);
+                int quantity = in.readVarInt();
+                int unitPrice = in.readVarInt();
+                long time = in.readLong();
+                if (type == BUY) {
+                    requireShop().takeFromStock(item, quantity);
+                } else {
+                    requireShop().addItemToShop(item, quantity);
+                }
+                aggregate(type == BUY, item, (long) unitPrice * quantity, time);
+                break;
+            }
+            default:
+                throw new IOException("Unknown ledger record type " + type);
+        }
+    }
+
+    private Item readItem(BinaryReader in) throws IOException {
+        int id = in.readVarInt();
+        if (id < 0 || id >= items.size()) {
+            throw new IOException("Unknown ledger item " + id);
+        }
+        return items.get(id);
+    }
+
+    private String readCustomer(BinaryReader in) throws IOException {
+        int id = in.readVarInt();
+        if (id < 0 || id >= customers.size()) {
+            throw new IOException("Unknown ledger customer " + id);
+        }
+        return customers.get(id);
+    }
+
+    private Shop requireShop() throws IOException {
+        if (shop == null) {
+            throw new IOException("Ledger event before shop record");
+        }
+        return shop;
+    }
+
+    // ============================================================
+    // סיכומים (עותקים - לא מתעדכנים אחרי שהוחזרו)
+    // ============================================================
+
+    /**
+     * @return שם פריט -> {זהב שלקוחות שילמו, זהב שהחנות שילמה}
+     */
+    public synchronized HashMap<String, long[]> getRevenueByItem() {
+        HashMap<String, long[]> copy = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : byItem.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    /**
+     * @return נדירות -> {זהב שלקוחות שילמו, זהב שהחנות שילמה}
+     */
+    public synchronized HashMap<Item.ItemRarity, long[]> getRevenueByRarity() {
+        HashMap<Item.ItemRarity, long[]> copy = new HashMap<>();
+        for (Map.Entry<Item.ItemRarity, long[]> entry : byRarity.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    /**
+     * @return תחילת השעה (מילישניות מ-1970) -> {זהב שלקוחות שילמו, זהב שהחנות שילמה}, לפי סדר הזמן
+     */
+    public synchronized TreeMap<Long, long[]> getRevenueByHour() {
+        TreeMap<Long, long[]> copy = new TreeMap<>();
+        for (Map.Entry<Long, long[]> entry : byHour.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    public synchronized long getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public synchronized long getTotalPayouts() {
+        return totalPayouts;
+    }
+
+    /**
+     * @return מספר האירועים (הוספות מלאי, קניות ומכירות) ביומן, כולל אלה שנקראו ב-open
+     */
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return מספר הרשומות שנקראו ב-open
+     */
+    public int getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    public Shop getShop() {
+        return shop;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,54 @@
+package game;
+
+import model.items.Item;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * קבלה על עסקה מרובת פריטים בחנות (Shop.buyItems / Shop.sellItems).
+ * אובייקט בלתי ניתן לשינוי שנוצר רק אחרי שכל העסקה בוצעה.
+ */
+public class ShopReceipt {
+
+    private final boolean purchase;
+    private final List<Item> items;
+    private final int total;
+
+    ShopReceipt(boolean purchase, ArrayList<Item> items, int total) {
+        this.purchase = purchase;
+        this.items = Collections.unmodifiableList(items);
+        this.total = total;
+    }
+
+    /**
+     * @return true לקנייה, false למכירה
+     */
+    public boolean isPurchase() {
+        return purchase;
+    }
+
+    /**
+     * @return הפריטים שעברו ידיים, לפי סדר השורות בעסקה
+     */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * @return הזהב ששולם (בקנייה) או שהתקבל (במכירה)
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %d items for %d gold",
+            purchase ? "Bought" : "Sold", items.size(), total);
+    }
+}
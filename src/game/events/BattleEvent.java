@@ -0,0 +1,136 @@
+package game.events;
+
+import model.characters.Character;
+
+/**
+ * אירוע קרב עם שדות פרימיטיביים בלבד (ללא מחרוזות מורכבות).
+ *
+ * BattleSystem משתמש באותו מופע שוב ושוב לכל האירועים, ולכן מאזין שרוצה
+ * לשמור אירוע מעבר לקריאה חייב להעתיק אותו (copyFrom) או את השדות שלו.
+ */
+public class BattleEvent {
+
+    public enum Type {
+        ATTACK,
+        SPECIAL,
+        DEFEND,
+        ITEM,
+        FLEE,
+        DEFEAT,
+        REWARD
+    }
+
+    private Type type;
+    private int round;
+    private Character actor;
+    private Character target;
+    private int amount;          // נזק בפועל, או זהב בפרס
+    private int secondaryAmount; // ניסיון בפרס
+    private boolean success;
+    private String itemName;     // הפניה לשם הפריט (ללא העתקה)
+
+    /**
+     * ממלא את האירוע מחדש.
+     * @return האירוע עצמו
+     */
+    public BattleEvent set(Type type, int round, Character actor, Character target,
+                           int amount, int secondaryAmount, boolean success, String itemName) {
+        this.type = type;
+        this.round = round;
+        this.actor = actor;
+        this.target = target;
+        this.amount = amount;
+        this.secondaryAmount = secondaryAmount;
+        this.success = success;
+        this.itemName = itemName;
+        return this;
+    }
+
+    public BattleEvent copyFrom(BattleEvent other) {
+        return set(other.type, other.round, other.actor, other.target,
+            other.amount, other.secondaryAmount, other.success, other.itemName);
+    }
+
+    // ============================================================
+    // עיצוב טקסט - נקרא רק על ידי מאזינים שצריכים טקסט
+    // ============================================================
+
+    /**
+     * מוסיף תיאור טקסטואלי של האירוע ל-StringBuilder קיים.
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append("Round ").append(round).append(": ");
+        String actorName = actor != null ? actor.getName() : "?";
+        switch (type) {
+            case ATTACK:
+                sb.append(actorName).append(" attacked for ").append(amount).append(" damage.");
+                break;
+            case SPECIAL:
+                sb.append(actorName).append(success ? " used special ability" : " failed special ability");
+                if (success && amount > 0) {
+                    sb.append(" for ").append(amount).append(" damage");
+                }
+                sb.append(success ? "!" : ".");
+                break;
+            case DEFEND:
+                sb.append(actorName).append(" is defending.");
+                break;
+            case ITEM:
+                if (success) {
+                    sb.append(actorName).append(" used ").append(itemName).append('.');
+                } else {
+                    sb.append(actorName).append(" failed to use ").append(itemName).append('.');
+                }
+                break;
+            case FLEE:
+                sb.append(actorName).append(success ? " fled the battle!" : " failed to flee.");
+                break;
+            case DEFEAT:
+                sb.append(actorName).append(" was defeated!");
+                break;
+            case REWARD:
+                sb.append(actorName).append(" gained ").append(amount).append(" gold and ")
+                    .append(secondaryAmount).append(" experience.");
+                break;
+        }
+        return sb;
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public Character getActor() {
+        return actor;
+    }
+
+    public Character getTarget() {
+        return target;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public int getSecondaryAmount() {
+        return secondaryAmount;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+}
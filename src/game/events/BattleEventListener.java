@@ -0,0 +1,14 @@
+package game.events;
+
+/**
+ * ממשק למאזין לאירועי קרב.
+ */
+public interface BattleEventListener {
+
+    /**
+     * נקרא עבור כל אירוע בקרב.
+     * האירוע ממוחזר אחרי החזרה מהמתודה - אין לשמור את ההפניה אליו.
+     * @param event האירוע
+     */
+    void onEvent(BattleEvent event);
+}
@@ -0,0 +1,17 @@
+package game.events;
+
+/**
+ * מאזין שמתעלם מכל האירועים. ברירת המחדל לקרבות בסימולציה.
+ */
+public final class NoOpEventSink implements BattleEventListener {
+
+    public static final NoOpEventSink INSTANCE = new NoOpEventSink();
+
+    private NoOpEventSink() {
+    }
+
+    @Override
+    public void onEvent(BattleEvent event) {
+        // Intentionally empty
+    }
+}
@@ -0,0 +1,95 @@
+package game.events;
+
+import model.characters.Character;
+
+/**
+ * שומר את N האירועים האחרונים במערכים פרימיטיביים בגודל קבוע.
+ * אין הקצאות אחרי הבנייה - אירוע חדש דורס את הישן ביותר.
+ */
+public class RingBufferEventSink implements BattleEventListener {
+
+    private static final BattleEvent.Type[] TYPES = BattleEvent.Type.values();
+
+    private final int capacity;
+    private final byte[] types;
+    private final int[] rounds;
+    private final Character[] actors;
+    private final Character[] targets;
+    private final int[] amounts;
+    private final int[] secondaryAmounts;
+    private final boolean[] successes;
+    private final String[] itemNames;
+    private long published;
+
+    public RingBufferEventSink(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.types = new byte[capacity];
+        this.rounds = new int[capacity];
+        this.actors = new Character[capacity];
+        this.targets = new Character[capacity];
+        this.amounts = new int[capacity];
+        this.secondaryAmounts = new int[capacity];
+        this.successes = new boolean[capacity];
+        this.itemNames = new String[capacity];
+        this.published = 0;
+    }
+
+    @Override
+    public void onEvent(BattleEvent event) {
+        int slot = (int) (published % capacity);
+        types[slot] = (byte) event.getType().ordinal();
+        rounds[slot] = event.getRound();
+        actors[slot] = event.getActor();
+        targets[slot] = event.getTarget();
+        amounts[slot] = event.getAmount();
+        secondaryAmounts[slot] = event.getSecondaryAmount();
+        successes[slot] = event.isSuccess();
+        itemNames[slot] = event.getItemName();
+        published++;
+    }
+
+    /**
+     * מעתיק את האירוע במקום index לתוך אירוע שהקורא מספק.
+     * @param index 0 הוא האירוע הישן ביותר שנשמר, size()-1 הוא החדש ביותר
+     * @param into האירוע למילוי
+     * @return into
+     */
+    public BattleEvent get(int index, BattleEvent into) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size());
+        }
+        int slot = (int) ((published - size() + index) % capacity);
+        return into.set(TYPES[types[slot]], rounds[slot], actors[slot], targets[slot],
+            amounts[slot], secondaryAmounts[slot], successes[slot], itemNames[slot]);
+    }
+
+    /**
+     * @return מספר האירועים השמורים כרגע (לכל היותר capacity)
+     */
+    public int size() {
+        return (int) Math.min(published, capacity);
+    }
+
+    public void clear() {
+        published = 0;
+        for (int i = 0; i < capacity; i++) {
+            actors[i] = null;
+            targets[i] = null;
+            itemNames[i] = null;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return סך כל האירועים שהתקבלו, כולל כאלה שנדרסו
+     */
+    public long getPublishedCount() {
+        return published;
+    }
+}
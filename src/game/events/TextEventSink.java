@@ -0,0 +1,29 @@
+package game.events;
+
+import java.io.PrintStream;
+
+/**
+ * כותב אירועים כטקסט (למשל לקונסול).
+ * הטקסט נבנה רק כאן, ברגע הכתיבה, בעזרת StringBuilder אחד שממוחזר.
+ */
+public class TextEventSink implements BattleEventListener {
+
+    private final PrintStream out;
+    private final StringBuilder buffer;
+
+    public TextEventSink() {
+        this(System.out);
+    }
+
+    public TextEventSink(PrintStream out) {
+        this.out = out;
+        this.buffer = new StringBuilder(128);
+    }
+
+    @Override
+    public void onEvent(BattleEvent event) {
+        buffer.setLength(0);
+        event.appendTo(buffer);
+        out.println(buffer);
+    }
+}
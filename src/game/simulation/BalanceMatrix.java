@@ -0,0 +1,108 @@
+package game.simulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * מטריצת תוצאות של סריקת איזון: שורה לכל תצורת שחקן, עמודה לכל סוג אויב.
+ * ניתנת לייצוא ל-CSV לצורך קביעת רמות סכנה ב-DungeonMap.
+ */
+public class BalanceMatrix {
+
+    private static final int MAX_DANGER_LEVEL = 5;
+
+    private final ArrayList<CombatantSpec> playerSpecs;
+    private final ArrayList<String> enemyNames;
+    private final SimulationResult[] results;
+
+    BalanceMatrix(ArrayList<CombatantSpec> playerSpecs, ArrayList<String> enemyNames,
+                  SimulationResult[] results) {
+        this.playerSpecs = playerSpecs;
+        this.enemyNames = enemyNames;
+        this.results = results;
+    }
+
+    // ============================================================
+    // גישה לתאים
+    // ============================================================
+
+    public SimulationResult getResult(int playerIndex, int enemyIndex) {
+        return results[playerIndex * enemyNames.size() + enemyIndex];
+    }
+
+    /**
+     * ממליץ על רמת סכנה (1-5) לפי הסתברות הניצחון של השחקן.
+     */
+    public static int suggestDangerLevel(double winRate) {
+        int danger = 1 + (int) ((1.0 - winRate) * MAX_DANGER_LEVEL);
+        return Math.min(MAX_DANGER_LEVEL, Math.max(1, danger));
+    }
+
+    /**
+     * רמת סכנה מומלצת לאויב, לפי ממוצע הסתברויות הניצחון על פני כל תצורות השחקן.
+     */
+    public int getSuggestedDangerLevel(int enemyIndex) {
+        double totalWinRate = 0;
+        for (int p = 0; p < playerSpecs.size(); p++) {
+            totalWinRate += getResult(p, enemyIndex).getWinRate();
+        }
+        return suggestDangerLevel(totalWinRate / playerSpecs.size());
+    }
+
+    // ============================================================
+    // ייצוא
+    // ============================================================
+
+    public void writeCsv(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeCsv(writer);
+        }
+    }
+
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("class,level,weapon,armor,enemy,battles,win_rate,avg_rounds,"
+            + "avg_rounds_to_win,avg_damage_dealt,avg_damage_taken,suggested_danger\n");
+        for (int p = 0; p < playerSpecs.size(); p++) {
+            CombatantSpec spec = playerSpecs.get(p);
+            String weapon = spec.getWeapon() != null ? spec.getWeapon().getName() : "None";
+            String armor = spec.getArmor().isEmpty() ? "None" : spec.getArmor().get(0).getName();
+            for (int e = 0; e < enemyNames.size(); e++) {
+                SimulationResult r = getResult(p, e);
+                writer.write(String.format(Locale.ROOT, "%s,%d,%s,%s,%s,%d,%.4f,%.3f,%.3f,%.2f,%.2f,%d%n",
+                    spec.getCharacterClass().getDisplayName(), spec.getLevel(),
+                    weapon, armor, enemyNames.get(e), r.getBattles(), r.getWinRate(),
+                    r.getAverageRounds(), r.getAverageRoundsToWin(),
+                    r.getDamageDealt().getMean(), r.getDamageTaken().getMean(),
+                    suggestDangerLevel(r.getWinRate())));
+            }
+        }
+        writer.flush();
+    }
+
+    // Getters
+    public int getPlayerSpecCount() {
+        return playerSpecs.size();
+    }
+
+    public int getEnemyCount() {
+        return enemyNames.size();
+    }
+
+    public int getCellCount() {
+        return results.length;
+    }
+
+    public CombatantSpec getPlayerSpec(int playerIndex) {
+        return playerSpecs.get(playerIndex);
+    }
+
+    public String getEnemyName(int enemyIndex) {
+        return enemyNames.get(enemyIndex);
+    }
+}
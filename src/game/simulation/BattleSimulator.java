@@ -0,0 +1,192 @@
+package game.simulation;
+
+import game.BattleAction;
+import game.BattleSystem;
+import model.characters.Character;
+import model.exceptions.InvalidActionException;
+import model.items.Armor;
+import model.items.Item;
+import model.items.Potion;
+import model.items.Weapon;
+import utils.RandomSource;
+import java.util.ArrayList;
+
+/**
+ * מריץ קרבות BattleSystem ללא קלט וללא פלט לקונסול.
+ * משמש לאיזון מפגשים: אחוז ניצחון, מספר סבבים ממוצע והתפלגות נזק.
+ */
+public class BattleSimulator {
+
+    public static final int DEFAULT_MAX_ROUNDS = 200;
+
+    private static final String PLAYER_NAME = "Player";
+    private static final String ENEMY_NAME = "Enemy";
+
+    private final int maxRounds;
+
+    public BattleSimulator() {
+        this(DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * @param maxRounds מספר סבבים מקסימלי לקרב לפני שנחשב כחריגת זמן
+     */
+    public BattleSimulator(int maxRounds) {
+        if (maxRounds < 1) {
+            throw new IllegalArgumentException("Max rounds must be at least 1: " + maxRounds);
+        }
+        this.maxRounds = maxRounds;
+    }
+
+    // ============================================================
+    // הרצת סימולציה
+    // ============================================================
+
+    /**
+     * מריץ סדרת קרבות בין השחקן לאויב עם זרע אקראי.
+     */
+    public SimulationResult run(CombatantSpec playerSpec, CombatantSpec enemySpec,
+                                PlayerPolicy policy, long battles) {
+        return run(playerSpec, enemySpec, policy, battles, new RandomSource());
+    }
+
+    /**
+     * מריץ סדרת קרבות בין השחקן לאויב.
+     * @param playerSpec תיאור השחקן
+     * @param enemySpec תיאור האויב
+     * @param policy מדיניות השחקן
+     * @param battles מספר הקרבות
+     * @param random מקור האקראיות - כל קרב מקבל זרם מפוצל ממנו
+     * @return סיכום התוצאות
+     */
+    public SimulationResult run(CombatantSpec playerSpec, CombatantSpec enemySpec,
+                                PlayerPolicy policy, long battles, RandomSource random) {
+        SimulationResult result = new SimulationResult();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < battles; i++) {
+            result.record(runBattle(playerSpec, enemySpec, policy, random.split()));
+        }
+
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * מריץ קרב יחיד עד לסיומו או עד למספר הסבבים המקסימלי.
+     * הקרב והדמויות מקבלים זרמים מפוצלים מאותו מקור, כך שאותו זרע נותן אותו קרב.
+     * @param random מקור האקראיות של הקרב
+     * @return הקרב שהסתיים, לצורך קריאת הסטטיסטיקות
+     */
+    public BattleSystem runBattle(CombatantSpec playerSpec, CombatantSpec enemySpec,
+                                  PlayerPolicy policy, RandomSource random) {
+        Character player = playerSpec.create(PLAYER_NAME);
+        Character enemy = enemySpec.create(ENEMY_NAME);
+        player.setRandomSource(random.split());
+        enemy.setRandomSource(random.split());
+        BattleSystem battle = new BattleSystem(player, enemy, true, random);
+
+        while (!battle.isBattleEnded() && battle.getRoundsPlayed() < maxRounds) {
+            BattleAction.ActionType actionType =
+                policy.chooseAction(player, enemy, battle.getRoundsPlayed());
+            try {
+                if (actionType == BattleAction.ActionType.USE_ITEM) {
+                    battle.queuePlayerItemAction(policy.getItemName());
+                } else {
+                    battle.queuePlayerAction(actionType);
+                }
+            } catch (InvalidActionException e) {
+                break;
+            }
+            battle.processRound();
+        }
+
+        return battle;
+    }
+
+    /**
+     * מריץ קרב קבוצות: כל חבר קבוצה חי פועל בכל סבב לפי המדיניות,
+     * וכל אויב חי מקבל פעולה אוטומטית.
+     * @param partySpecs תיאורי חברי הקבוצה
+     * @param enemySpecs תיאורי האויבים
+     * @param policy מדיניות לכל חברי הקבוצה
+     * @param random מקור האקראיות של הקרב
+     * @return הקרב שהסתיים
+     */
+    public BattleSystem runPartyBattle(ArrayList<CombatantSpec> partySpecs,
+                                       ArrayList<CombatantSpec> enemySpecs,
+                                       PlayerPolicy policy, RandomSource random) {
+        ArrayList<Character> party = createSide(partySpecs, PLAYER_NAME, random);
+        ArrayList<Character> enemies = createSide(enemySpecs, ENEMY_NAME, random);
+        BattleSystem battle = new BattleSystem(party, enemies, true, random);
+
+        while (!battle.isBattleEnded() && battle.getRoundsPlayed() < maxRounds) {
+            Character enemyLeader = battle.getEnemy();
+            try {
+                for (int i = 0; i < party.size(); i++) {
+                    Character member = party.get(i);
+                    if (!member.isAlive()) {
+                        continue;
+                    }
+                    BattleAction.ActionType actionType =
+                        policy.chooseAction(member, enemyLeader, battle.getRoundsPlayed());
+                    if (actionType == BattleAction.ActionType.USE_ITEM) {
+                        battle.queueAction(new BattleAction(member, enemyLeader, actionType,
+                            policy.getItemName()));
+                    } else {
+                        battle.queuePartyAction(member, actionType);
+                    }
+                }
+            } catch (InvalidActionException e) {
+                break;
+            }
+            battle.processRound();
+        }
+
+        return battle;
+    }
+
+    private static ArrayList<Character> createSide(ArrayList<CombatantSpec> specs, String name,
+                                                   RandomSource random) {
+        ArrayList<Character> side = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            Character character = specs.get(i).create(specs.size() == 1 ? name : name + " " + (i + 1));
+            character.setRandomSource(random.split());
+            side.add(character);
+        }
+        return side;
+    }
+
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    /**
+     * הרצה לדוגמה: לוחם רמה 5 מול לוחם רמה 5 עם גרזן.
+     * ארגומנטים (אופציונליים): מספר הקרבות, זרע.
+     */
+    public static void main(String[] args) {
+        long battles = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        RandomSource random = args.length > 1
+            ? new RandomSource(Long.parseLong(args[1]))
+            : new RandomSource();
+
+        Potion healthPotion = new Potion("Health Potion", "Restores 30 HP", 20,
+            Item.ItemRarity.COMMON, Potion.PotionType.HEALTH, 30, 1);
+        CombatantSpec player = new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 5)
+            .withWeapon(new Weapon("Iron Sword", "A sturdy iron sword", 6, 50,
+                Item.ItemRarity.COMMON, 8, 15, Weapon.WeaponType.SWORD))
+            .withArmor(new Armor("Chain Mail", "Decent chest protection", 8, 80,
+                Item.ItemRarity.UNCOMMON, 15, Armor.ArmorSlot.CHEST))
+            .withPotions(healthPotion, 3);
+        CombatantSpec enemy = new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 5)
+            .withWeapon(new Weapon("Battle Axe", "A heavy battle axe", 10, 75,
+                Item.ItemRarity.UNCOMMON, 12, 20, Weapon.WeaponType.AXE));
+        PlayerPolicy policy = PlayerPolicy.healBelow(0.3, healthPotion.getName(),
+            PlayerPolicy.specialEvery(5));
+
+        System.out.println("Simulating " + battles + " battles: " + player + " vs " + enemy);
+        SimulationResult result = new BattleSimulator().run(player, enemy, policy, battles, random);
+        System.out.println(result);
+    }
+}
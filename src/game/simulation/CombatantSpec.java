@@ -0,0 +1,159 @@
+package game.simulation;
+
+import model.characters.Archer;
+import model.characters.Character;
+import model.characters.Mage;
+import model.characters.Warrior;
+import model.exceptions.InventoryFullException;
+import model.exceptions.ItemNotFoundException;
+import model.items.Armor;
+import model.items.Potion;
+import model.items.Weapon;
+import java.util.ArrayList;
+
+/**
+ * תיאור של לוחם לסימולציה: מחלקה, רמה וציוד.
+ * בכל קרב נוצרת דמות חדשה מהתיאור, כך שקרבות לא משפיעים זה על זה.
+ */
+public class CombatantSpec {
+
+    public enum CharacterClass {
+        WARRIOR("Warrior"),
+        MAGE("Mage"),
+        ARCHER("Archer");
+
+        private final String displayName;
+
+        CharacterClass(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final CharacterClass characterClass;
+    private final int level;
+    private Weapon weapon;
+    private final ArrayList<Armor> armor;
+    private Potion potion;
+    private int potionCount;
+
+    public CombatantSpec(CharacterClass characterClass, int level) {
+        if (level < 1) {
+            throw new IllegalArgumentException("Level must be at least 1: " + level);
+        }
+        this.characterClass = characterClass;
+        this.level = level;
+        this.weapon = null;
+        this.armor = new ArrayList<>();
+        this.potion = null;
+        this.potionCount = 0;
+    }
+
+    // ============================================================
+    // הגדרת ציוד
+    // ============================================================
+
+    /**
+     * נשקים ושריונות אינם משתנים בקרב ולכן משותפים בין כל הקרבות.
+     */
+    public CombatantSpec withWeapon(Weapon weapon) {
+        this.weapon = weapon;
+        return this;
+    }
+
+    public CombatantSpec withArmor(Armor piece) {
+        armor.add(piece);
+        return this;
+    }
+
+    /**
+     * שיקויים מועתקים לכל קרב מחדש כי מספר השימושים בהם משתנה.
+     */
+    public CombatantSpec withPotions(Potion potion, int count) {
+        this.potion = potion;
+        this.potionCount = count;
+        return this;
+    }
+
+    // ============================================================
+    // יצירת דמות
+    // ============================================================
+
+    /**
+     * יוצר דמות חדשה לפי התיאור, ללא פלט לקונסול.
+     * @param name שם הדמות
+     * @return דמות מצוידת ברמה המבוקשת
+     */
+    public Character create(String name) {
+        Character character;
+        switch (characterClass) {
+            case MAGE:
+                character = new Mage(name);
+                break;
+            case ARCHER:
+                character = new Archer(name);
+                break;
+            default:
+                character = new Warrior(name);
+                break;
+        }
+        character.setConsoleOutput(false);
+
+        if (level > 1) {
+            character.gainExperience((level - 1) * Character.getExperiencePerLevel());
+        }
+
+        try {
+            if (weapon != null) {
+                character.addItem(weapon);
+                character.equipWeapon(weapon);
+            }
+            for (Armor piece : armor) {
+                character.addItem(piece);
+                character.equipArmor(piece);
+            }
+            for (int i = 0; i < potionCount; i++) {
+                character.addItem(new Potion(potion));
+            }
+        } catch (InventoryFullException | ItemNotFoundException e) {
+            throw new IllegalStateException("Invalid equipment for " + this + ": " + e.getMessage(), e);
+        }
+
+        return character;
+    }
+
+    // Getters
+    public CharacterClass getCharacterClass() {
+        return characterClass;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Weapon getWeapon() {
+        return weapon;
+    }
+
+    public ArrayList<Armor> getArmor() {
+        return new ArrayList<>(armor);
+    }
+
+    public Potion getPotion() {
+        return potion;
+    }
+
+    public int getPotionCount() {
+        return potionCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s L%d (Weapon: %s, Armor: %d, Potions: %d)",
+            characterClass.getDisplayName(), level,
+            weapon != null ? weapon.getName() : "None", armor.size(), potionCount);
+    }
+}
@@ -0,0 +1,111 @@
+package game.simulation;
+
+/**
+ * היסטוגרמה של ערכי נזק עם דליים ברוחב קבוע.
+ * ערכים מעבר לטווח נספרים בדלי האחרון.
+ */
+public class DamageHistogram {
+
+    private static final int DEFAULT_BUCKET_WIDTH = 10;
+    private static final int DEFAULT_BUCKET_COUNT = 100;
+
+    private final int bucketWidth;
+    private final long[] buckets;
+    private long count;
+    private long sum;
+    private int min;
+    private int max;
+
+    public DamageHistogram() {
+        this(DEFAULT_BUCKET_WIDTH, DEFAULT_BUCKET_COUNT);
+    }
+
+    public DamageHistogram(int bucketWidth, int bucketCount) {
+        if (bucketWidth < 1 || bucketCount < 1) {
+            throw new IllegalArgumentException("Bucket width and count must be positive");
+        }
+        this.bucketWidth = bucketWidth;
+        this.buckets = new long[bucketCount];
+        this.count = 0;
+        this.sum = 0;
+        this.min = Integer.MAX_VALUE;
+        this.max = Integer.MIN_VALUE;
+    }
+
+    public void record(int value) {
+        int index = Math.max(0, value) / bucketWidth;
+        if (index >= buckets.length) {
+            index = buckets.length - 1;
+        }
+        buckets[index]++;
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * ממזג היסטוגרמה אחרת עם אותו מבנה דליים.
+     */
+    public void merge(DamageHistogram other) {
+        if (other.bucketWidth != bucketWidth || other.buckets.length != buckets.length) {
+            throw new IllegalArgumentException("Cannot merge histograms with different buckets");
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * מחזיר הערכה של האחוזון לפי הגבול העליון של הדלי.
+     * @param percentile ערך בין 0 ל-100
+     */
+    public int getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= Math.max(1, target)) {
+                return Math.min(max, (i + 1) * bucketWidth - 1);
+            }
+        }
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public int getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public int getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean %.1f | min %d | p50 %d | p90 %d | p99 %d | max %d",
+            getMean(), getMin(), getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+    }
+}
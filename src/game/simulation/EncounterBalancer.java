@@ -0,0 +1,273 @@
+package game.simulation;
+
+import model.items.Armor;
+import model.items.Item;
+import model.items.Weapon;
+import utils.RandomSource;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * סורק Monte Carlo מקבילי למפגשים: מחלקה × רמה × נשק × שריון מול כל סוג אויב.
+ *
+ * העבודה מחולקת ליחידות של עד BATTLES_PER_CHUNK קרבות ומורצת ב-ForkJoinPool.
+ * כל יחידה מקבלת זרם אקראיות משלה (לפי הזרע ומספר היחידה) וכותבת לתא משלה
+ * במערך התוצאות, כך שאין נעילות ואין שיתוף מצב בין ה-workers.
+ * התוצאה דטרמיניסטית לכל זרע, ללא תלות במספר הליבות.
+ */
+public class EncounterBalancer {
+
+    private static final int BATTLES_PER_CHUNK = 512;
+
+    private final ArrayList<CombatantSpec.CharacterClass> classes;
+    private final ArrayList<Integer> levels;
+    private final ArrayList<Weapon> weapons;
+    private final ArrayList<Armor> armors;
+    private final LinkedHashMap<String, CombatantSpec> enemies;
+    private final PlayerPolicy policy;
+    private final int battlesPerCell;
+    private final long seed;
+    private final BattleSimulator simulator;
+
+    /**
+     * @param policy מדיניות השחקן בכל הקרבות
+     * @param battlesPerCell מספר קרבות לכל תא במטריצה
+     * @param seed זרע הסריקה
+     */
+    public EncounterBalancer(PlayerPolicy policy, int battlesPerCell, long seed) {
+        if (battlesPerCell < 1) {
+            throw new IllegalArgumentException("Battles per cell must be at least 1: " + battlesPerCell);
+        }
+        this.classes = new ArrayList<>();
+        this.levels = new ArrayList<>();
+        this.weapons = new ArrayList<>();
+        this.armors = new ArrayList<>();
+        this.enemies = new LinkedHashMap<>();
+        this.policy = policy;
+        this.battlesPerCell = battlesPerCell;
+        this.seed = seed;
+        this.simulator = new BattleSimulator();
+    }
+
+    // ============================================================
+    // הגדרת מרחב הסריקה
+    // ============================================================
+
+    public EncounterBalancer addClass(CombatantSpec.CharacterClass characterClass) {
+        classes.add(characterClass);
+        return this;
+    }
+
+    public EncounterBalancer addLevel(int level) {
+        levels.add(level);
+        return this;
+    }
+
+    /**
+     * @param weapon נשק לסריקה, או null עבור ללא נשק
+     */
+    public EncounterBalancer addWeapon(Weapon weapon) {
+        weapons.add(weapon);
+        return this;
+    }
+
+    /**
+     * @param armor שריון לסריקה, או null עבור ללא שריון
+     */
+    public EncounterBalancer addArmor(Armor armor) {
+        armors.add(armor);
+        return this;
+    }
+
+    public EncounterBalancer addEnemy(String name, CombatantSpec enemy) {
+        enemies.put(name, enemy);
+        return this;
+    }
+
+    // ============================================================
+    // הרצה
+    // ============================================================
+
+    public BalanceMatrix run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * מריץ את כל המטריצה על ה-pool הנתון.
+     * @param pool ה-pool להרצה (מספר ה-workers קובע את רמת המקביליות)
+     * @return מטריצת התוצאות
+     */
+    public BalanceMatrix run(ForkJoinPool pool) {
+        ArrayList<CombatantSpec> playerSpecs = buildPlayerSpecs();
+        ArrayList<CombatantSpec> enemySpecs = new ArrayList<>(enemies.values());
+        ArrayList<String> enemyNames = new ArrayList<>(enemies.keySet());
+        if (playerSpecs.isEmpty() || enemySpecs.isEmpty()) {
+            throw new IllegalStateException("Balancer needs at least one player configuration and one enemy");
+        }
+
+        int cellCount = playerSpecs.size() * enemySpecs.size();
+        int chunksPerCell = (battlesPerCell + BATTLES_PER_CHUNK - 1) / BATTLES_PER_CHUNK;
+        SimulationResult[] chunkResults = new SimulationResult[cellCount * chunksPerCell];
+
+        long start = System.nanoTime();
+        pool.invoke(new ChunkTask(playerSpecs, enemySpecs, chunksPerCell, chunkResults,
+            0, chunkResults.length));
+        long elapsed = System.nanoTime() - start;
+
+        // מיזוג סדרתי של היחידות לתאים - רץ אחרי join ולכן ללא נעילות
+        SimulationResult[] cells = new SimulationResult[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            SimulationResult merged = new SimulationResult();
+            for (int chunk = 0; chunk < chunksPerCell; chunk++) {
+                merged.merge(chunkResults[cell * chunksPerCell + chunk]);
+            }
+            merged.setElapsedNanos(elapsed);
+            cells[cell] = merged;
+        }
+
+        return new BalanceMatrix(playerSpecs, enemyNames, cells);
+    }
+
+    private ArrayList<CombatantSpec> buildPlayerSpecs() {
+        ArrayList<Weapon> weaponOptions = weapons.isEmpty() ? EncounterBalancer.<Weapon>singleNull() : weapons;
+        ArrayList<Armor> armorOptions = armors.isEmpty() ? EncounterBalancer.<Armor>singleNull() : armors;
+
+        ArrayList<CombatantSpec> specs = new ArrayList<>();
+        for (CombatantSpec.CharacterClass characterClass : classes) {
+            for (int level : levels) {
+                for (Weapon weapon : weaponOptions) {
+                    for (Armor armor : armorOptions) {
+                        CombatantSpec spec = new CombatantSpec(characterClass, level).withWeapon(weapon);
+                        if (armor != null) {
+                            spec.withArmor(armor);
+                        }
+                        specs.add(spec);
+                    }
+                }
+            }
+        }
+        return specs;
+    }
+
+    private static <T> ArrayList<T> singleNull() {
+        ArrayList<T> list = new ArrayList<>();
+        list.add(null);
+        return list;
+    }
+
+    /**
+     * משימת fork/join על טווח יחידות [from, to).
+     * מתפצלת לחצאים עד יחידה אחת, שמריצה את הקרבות שלה וכותבת לתא הפרטי שלה.
+     */
+    private class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<CombatantSpec> playerSpecs;
+        private final ArrayList<CombatantSpec> enemySpecs;
+        private final int chunksPerCell;
+        private final SimulationResult[] chunkResults;
+        private final int from;
+        private final int to;
+
+        ChunkTask(ArrayList<CombatantSpec> playerSpecs, ArrayList<CombatantSpec> enemySpecs,
+                  int chunksPerCell, SimulationResult[] chunkResults, int from, int to) {
+            this.playerSpecs = playerSpecs;
+            this.enemySpecs = enemySpecs;
+            this.chunksPerCell = chunksPerCell;
+            this.chunkResults = chunkResults;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                    new ChunkTask(playerSpecs, enemySpecs, chunksPerCell, chunkResults, from, mid),
+                    new ChunkTask(playerSpecs, enemySpecs, chunksPerCell, chunkResults, mid, to));
+                return;
+            }
+
+            int unit = from;
+            int cell = unit / chunksPerCell;
+            int chunk = unit % chunksPerCell;
+            int battles = Math.min(BATTLES_PER_CHUNK, battlesPerCell - chunk * BATTLES_PER_CHUNK);
+
+            CombatantSpec player = playerSpecs.get(cell / enemySpecs.size());
+            CombatantSpec enemy = enemySpecs.get(cell % enemySpecs.size());
+            RandomSource random = RandomSource.forStream(seed, unit);
+
+            chunkResults[unit] = simulator.run(player, enemy, policy, battles, random);
+        }
+    }
+
+    // Getters
+    public int getBattlesPerCell() {
+        return battlesPerCell;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * סריקה לדוגמה על הציוד של החנות מול שלושה סוגי אויבים.
+     * ארגומנטים (אופציונליים): קובץ CSV לפלט (אחרת stdout), קרבות לתא, זרע.
+     */
+    public static void main(String[] args) throws IOException {
+        int battlesPerCell = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        EncounterBalancer balancer = new EncounterBalancer(PlayerPolicy.specialEvery(4), battlesPerCell, seed);
+        for (CombatantSpec.CharacterClass characterClass : CombatantSpec.CharacterClass.values()) {
+            balancer.addClass(characterClass);
+        }
+        balancer.addLevel(1).addLevel(3).addLevel(5)
+            .addWeapon(null)
+            .addWeapon(new Weapon("Iron Sword", "A sturdy iron sword", 6, 50,
+                Item.ItemRarity.COMMON, 8, 15, Weapon.WeaponType.SWORD))
+            .addWeapon(new Weapon("Battle Axe", "A heavy battle axe", 10, 75,
+                Item.ItemRarity.UNCOMMON, 12, 20, Weapon.WeaponType.AXE))
+            .addWeapon(new Weapon("Oak Staff", "A magical staff", 4, 60,
+                Item.ItemRarity.COMMON, 6, 12, Weapon.WeaponType.STAFF))
+            .addWeapon(new Weapon("Hunting Bow", "A reliable bow", 3, 55,
+                Item.ItemRarity.COMMON, 7, 14, Weapon.WeaponType.BOW))
+            .addArmor(null)
+            .addArmor(new Armor("Chain Mail", "Decent chest protection", 8, 80,
+                Item.ItemRarity.UNCOMMON, 15, Armor.ArmorSlot.CHEST))
+            .addEnemy("Goblin", new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 1))
+            .addEnemy("Orc", new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 3))
+            .addEnemy("Dark Knight", new CombatantSpec(CombatantSpec.CharacterClass.WARRIOR, 5)
+                .withWeapon(new Weapon("Dark Blade", "The dark lord's blade", 8, 200,
+                    Item.ItemRarity.EPIC, 15, 25, Weapon.WeaponType.SWORD)));
+
+        long start = System.nanoTime();
+        BalanceMatrix matrix = balancer.run();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        if (args.length > 0) {
+            matrix.writeCsv(Paths.get(args[0]));
+        } else {
+            Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            matrix.writeCsv(out);
+        }
+
+        long totalBattles = (long) matrix.getCellCount() * battlesPerCell;
+        System.err.printf("%d cells, %d battles in %.2fs (%.0f battles/sec, %d workers)%n",
+            matrix.getCellCount(), totalBattles, seconds, totalBattles / seconds,
+            ForkJoinPool.commonPool().getParallelism());
+        for (int e = 0; e < matrix.getEnemyCount(); e++) {
+            System.err.println("Suggested danger for " + matrix.getEnemyName(e) + ": "
+                + matrix.getSuggestedDangerLevel(e));
+        }
+    }
+}
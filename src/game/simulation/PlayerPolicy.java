@@ -0,0 +1,84 @@
+package game.simulation;
+
+import game.BattleAction;
+import model.characters.Character;
+
+/**
+ * ממשק למדיניות שחקן אוטומטית בסימולציות.
+ * מחליט איזו פעולה השחקן מבצע בכל סבב, במקום קלט מהמשתמש.
+ */
+public interface PlayerPolicy {
+
+    /**
+     * בוחר את פעולת השחקן לסבב הנוכחי.
+     * @param player השחקן
+     * @param enemy האויב
+     * @param round מספר הסבב (מתחיל מ-0)
+     * @return סוג הפעולה
+     */
+    BattleAction.ActionType chooseAction(Character player, Character enemy, int round);
+
+    /**
+     * שם הפריט לשימוש כאשר chooseAction מחזיר USE_ITEM.
+     * @return שם הפריט, או null אם המדיניות לא משתמשת בפריטים
+     */
+    default String getItemName() {
+        return null;
+    }
+
+    // ============================================================
+    // מדיניויות מוכנות
+    // ============================================================
+
+    /**
+     * תמיד תוקף.
+     */
+    static PlayerPolicy attackOnly() {
+        return new PlayerPolicy() {
+            @Override
+            public BattleAction.ActionType chooseAction(Character player, Character enemy, int round) {
+                return BattleAction.ActionType.ATTACK;
+            }
+        };
+    }
+
+    /**
+     * משתמש ביכולת המיוחדת כל interval סבבים, ותוקף בשאר הזמן.
+     */
+    static PlayerPolicy specialEvery(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be at least 1: " + interval);
+        }
+        return new PlayerPolicy() {
+            @Override
+            public BattleAction.ActionType chooseAction(Character player, Character enemy, int round) {
+                return round % interval == interval - 1
+                    ? BattleAction.ActionType.SPECIAL
+                    : BattleAction.ActionType.ATTACK;
+            }
+        };
+    }
+
+    /**
+     * שותה שיקוי כאשר החיים יורדים מתחת לסף, אחרת פועל לפי מדיניות אחרת.
+     * @param healthFraction סף החיים (0-1)
+     * @param potionName שם השיקוי
+     * @param fallback המדיניות כשאין צורך בריפוי
+     */
+    static PlayerPolicy healBelow(double healthFraction, String potionName, PlayerPolicy fallback) {
+        return new PlayerPolicy() {
+            @Override
+            public BattleAction.ActionType chooseAction(Character player, Character enemy, int round) {
+                if (player.getCurrentHealth() < player.getMaxHealth() * healthFraction) {
+                    return BattleAction.ActionType.USE_ITEM;
+                }
+                return fallback.chooseAction(player, enemy, round);
+            }
+
+            @Override
+            public String getItemName() {
+                return potionName;
+            }
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package game.simulation;
+
+import game.BattleSystem;
+import model.characters.Character;
+
+/**
+ * סיכום סטטיסטי של סדרת קרבות מדומים.
+ */
+public class SimulationResult {
+
+    private long battles;
+    private long wins;
+    private long losses;
+    private long fled;
+    private long timeouts;
+    private long totalRounds;
+    private long totalRoundsToWin;
+    private final DamageHistogram damageDealt;
+    private final DamageHistogram damageTaken;
+    private long elapsedNanos;
+
+    public SimulationResult() {
+        this.damageDealt = new DamageHistogram();
+        this.damageTaken = new DamageHistogram();
+    }
+
+    /**
+     * רושם את תוצאת הקרב.
+     * קרב שלא הסתיים נספר כחריגת זמן, ובריחה מזוהה לפי כך שהמפסיק עדיין בחיים.
+     */
+    public void record(BattleSystem battle) {
+        battles++;
+        totalRounds += battle.getRoundsPlayed();
+        damageDealt.record(battle.getDamageDealtByPlayer());
+        damageTaken.record(battle.getDamageDealtByEnemy());
+
+        Character player = battle.getPlayer();
+        Character winner = battle.getWinner();
+        if (!battle.isBattleEnded()) {
+            timeouts++;
+        } else if (winner == player) {
+            wins++;
+            totalRoundsToWin += battle.getRoundsPlayed();
+        } else if (player.isAlive()) {
+            fled++;
+        } else {
+            losses++;
+        }
+    }
+
+    /**
+     * ממזג תוצאות של סדרה אחרת (למשל מ-thread אחר).
+     */
+    public void merge(SimulationResult other) {
+        battles += other.battles;
+        wins += other.wins;
+        losses += other.losses;
+        fled += other.fled;
+        timeouts += other.timeouts;
+        totalRounds += other.totalRounds;
+        totalRoundsToWin += other.totalRoundsToWin;
+        damageDealt.merge(other.damageDealt);
+        damageTaken.merge(other.damageTaken);
+        elapsedNanos = Math.max(elapsedNanos, other.elapsedNanos);
+    }
+
+    // ============================================================
+    // חישובים
+    // ============================================================
+
+    public double getWinRate() {
+        return battles == 0 ? 0.0 : (double) wins / battles;
+    }
+
+    public double getAverageRounds() {
+        return battles == 0 ? 0.0 : (double) totalRounds / battles;
+    }
+
+    /**
+     * זמן ממוצע להרוג את האויב (בסבבים), רק עבור קרבות שבהם השחקן ניצח.
+     */
+    public double getAverageRoundsToWin() {
+        return wins == 0 ? 0.0 : (double) totalRoundsToWin / wins;
+    }
+
+    public double getBattlesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : battles * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    // Getters & Setters
+    public long getBattles() {
+        return battles;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getFled() {
+        return fled;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getTotalRounds() {
+        return totalRounds;
+    }
+
+    public long getTotalRoundsToWin() {
+        return totalRoundsToWin;
+    }
+
+    public DamageHistogram getDamageDealt() {
+        return damageDealt;
+    }
+
+    public DamageHistogram getDamageTaken() {
+        return damageTaken;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Battles: %d | Win rate: %.2f%% (W %d / L %d / Fled %d / Timeout %d)%n" +
+            "Average rounds: %.2f (to win: %.2f)%n" +
+            "Damage dealt: %s%n" +
+            "Damage taken: %s%n" +
+            "Throughput: %.0f battles/sec",
+            battles, getWinRate() * 100, wins, losses, fled, timeouts,
+            getAverageRounds(), getAverageRoundsToWin(), damageDealt, damageTaken, getBattlesPerSecond());
+    }
+}
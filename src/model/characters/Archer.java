@@ -1,5 +1,9 @@
 package model.characters;
 
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
 /**
  * מחלקה המייצגת קשת במשחק.
  * יורשת מ-Character.
@@ -12,10 +16,16 @@ public class Archer extends Character {
     private int arrows;
     private static final int MAX_ARROWS = 30;
     private static final int MULTISHOT_ARROW_COST = 3;
+    private static final int EVASIVE_MANEUVER_MANA_COST = 15;
+    private static final int EVASION_DURATION = 1;
     
     public Archer(String name) {
+        this(name, DEFAULT_INVENTORY_SIZE);
+    }
+    
+    public Archer(String name, int maxInventorySize) {
         // קשת: חיים בינוניים, מאנה בינונית, כוח בינוני, הגנה נמוכה
-        super(name, 100, 80, 12, 5);
+        super(name, 100, 80, 12, 5, maxInventorySize);
         this.criticalChance = 0.15; // 15% סיכוי לקריטי
         this.criticalMultiplier = 2.0; // נזק כפול בקריטי
         this.arrows = MAX_ARROWS;
@@ -44,14 +54,14 @@ public class Archer extends Character {
 
     @Override
     public int calculateAttackDamage() {
-        int damage = baseStrength;
+        int damage = getAttackStrength();
         if (equippedWeapon != null) {
-            damage += equippedWeapon.calculateDamage();
+            damage += equippedWeapon.calculateDamage(random);
         }
 
-        if (Math.random() < criticalChance) {
+        if (random.chance(criticalChance)) {
             damage *= criticalMultiplier;
-            System.out.println(name + " landed a CRITICAL HIT!");
+            announce(name + " landed a CRITICAL HIT!");
         }
 
         return damage;
@@ -60,27 +70,27 @@ public class Archer extends Character {
     @Override
     public boolean useSpecialAbility(Character target) {
         if (arrows < MULTISHOT_ARROW_COST) {
-            System.out.println(name + " doesn't have enough arrows for Multishot!");
+            announce(name + " doesn't have enough arrows for Multishot!");
             return false;
         }
 
         arrows -= MULTISHOT_ARROW_COST;
-        System.out.println(name + " uses Multishot!");
+        announce(name + " uses Multishot!");
 
         for (int i = 0; i < 3; i++) {
 
-            int baseDamage = baseStrength;
+            int baseDamage = getAttackStrength();
             if (equippedWeapon != null) {
-                baseDamage += equippedWeapon.calculateDamage();
+                baseDamage += equippedWeapon.calculateDamage(random);
             }
 
 
             int shotDamage = (int) (baseDamage * 0.7);
 
 
-            if (Math.random() < criticalChance) {
+            if (random.chance(criticalChance)) {
                 shotDamage *= criticalMultiplier;
-                System.out.println("-> Arrow " + (i + 1) + " CRITICAL!");
+                announce("-> Arrow " + (i + 1) + " CRITICAL!");
             }
 
             target.takeDamage(shotDamage);
@@ -95,7 +105,7 @@ public class Archer extends Character {
 
     public int shootArrow(Character target) {
         if (arrows <= 0) {
-            System.out.println(name + " is out of arrows!");
+            announce(name + " is out of arrows!");
             return -1;
         }
 
@@ -114,28 +124,57 @@ public class Archer extends Character {
         int cost = missingArrows * 5;
         if (spendGold(cost)) {
             arrows = MAX_ARROWS;
-            System.out.println(name + " bought " + missingArrows + " arrows for " + cost + " gold.");
+            announce(name + " bought " + missingArrows + " arrows for " + cost + " gold.");
             return true;
         } else {
-            System.out.println("Not enough gold to refill arrows (Cost: " + cost + ")");
+            announce("Not enough gold to refill arrows (Cost: " + cost + ")");
             return false;
         }
     }
+    /**
+     * תמרון התחמקות: לסבב הנוכחי יש סיכוי של criticalChance * 1.5 להתחמק מכל פגיעה.
+     * @return true אם התמרון בוצע (היה מספיק מאנה)
+     */
     public boolean evasiveManeuver() {
-        if (!useMana(15)) {
+        if (!useMana(EVASIVE_MANEUVER_MANA_COST)) {
             return false;
         }
 
-        double dodgeChance = criticalChance * 1.5;
-        if (Math.random() < dodgeChance) {
-            System.out.println(name + " performed an evasive maneuver!");
-            return true;
-        }
+        int dodgePercent = (int) Math.round(criticalChance * 1.5 * 100);
+        applyStatusEffect(new StatusEffect(StatusEffect.Type.EVASION, dodgePercent, EVASION_DURATION));
+        announce(name + " performed an evasive maneuver!");
+        return true;
+    }
 
-        System.out.println(name + " failed to evade.");
-        return false;
+    @Override
+    public void defend() {
+        super.defend();
+        evasiveManeuver();
     }
     
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+
+    @Override
+    protected int getClassTag() {
+        return TAG_ARCHER;
+    }
+
+    @Override
+    protected void writeClassState(BinaryWriter out) throws IOException {
+        out.writeDouble(criticalChance);
+        out.writeDouble(criticalMultiplier);
+        out.writeVarInt(arrows);
+    }
+
+    @Override
+    protected void readClassState(BinaryReader in) throws IOException {
+        criticalChance = in.readDouble();
+        criticalMultiplier = in.readDouble();
+        arrows = in.readVarInt();
+    }
+
     // Getters
     public double getCriticalChance() {
         return criticalChance;
@@ -3,10 +3,18 @@ package model.characters;
 import model.items.Weapon;
 import model.items.Armor;
 import model.items.Item;
+import model.items.Inventory;
 import model.exceptions.InventoryFullException;
 import model.exceptions.ItemNotFoundException;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import utils.RandomSource;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 /**
@@ -32,21 +40,59 @@ public abstract class Character implements Attackable {
     protected int baseStrength;
     protected int baseDefense;
     
+    // בונוסים זמניים (באפים) מעל הנתונים הבסיסיים
+    protected int bonusStrength;
+    protected int bonusDefense;
+    
     // Equipment - HashMap מ-slot לשריון
     protected HashMap<Armor.ArmorSlot, Armor> equippedArmor;
     protected Weapon equippedWeapon;
     
-    // Inventory - ArrayList של פריטים + Stack לפריטים אחרונים שהשתמשנו בהם
-    protected ArrayList<Item> inventory;
+    // Inventory - מלאי עם אינדקס לפי שם וערימות + Stack לפריטים אחרונים שהשתמשנו בהם
+    protected Inventory inventory;
     protected Stack<Item> recentlyUsedItems;
     protected final int maxInventorySize;
     
+    // האם להדפיס הודעות לקונסול (כבוי בסימולציות)
+    protected boolean consoleOutput;
+    
+    // מקור אקראיות פרטי לדמות (ניתן להחלפה לקרבות דטרמיניסטיים)
+    protected RandomSource random;
+    
+    // Status effects - האפקטים הפעילים על הדמות, מתוזמנים על ידי effectEngine
+    protected StatusEffectEngine effectEngine;
+    // true כשהמנוע שייך לקרב, שמקדם אותו בעצמו
+    private boolean sharedEffectEngine;
+    private final ArrayList<StatusEffect> statusEffects;
+    private final List<StatusEffect> statusEffectsView;
+    private final int[] statusEffectCounts;
+    private int defendReduction;
+    private int evasionChance;
+    
+    // Derived stats - מחושבים מחדש רק אחרי שינוי ציוד, רמה או באפים
+    private boolean statsDirty;
+    private int cachedAttackStrength;
+    private int cachedTotalDefense;
+    private int cachedMinAttack;
+    private int cachedMaxAttack;
+    private double cachedDamageReduction;
+    
     // Constants
     protected static final int EXPERIENCE_PER_LEVEL = 100;
     protected static final int DEFAULT_INVENTORY_SIZE = 20;
+    protected static final int BASE_INITIATIVE = 100;
+    protected static final int DEFEND_DAMAGE_REDUCTION = 50; // אחוזים
     
     public Character(String name, int maxHealth, int maxMana, 
                      int baseStrength, int baseDefense) {
+        this(name, maxHealth, maxMana, baseStrength, baseDefense, DEFAULT_INVENTORY_SIZE);
+    }
+    
+    /**
+     * @param maxInventorySize גודל מלאי מקסימלי (למשל עבור בוטים עם מלאי גדול)
+     */
+    public Character(String name, int maxHealth, int maxMana, 
+                     int baseStrength, int baseDefense, int maxInventorySize) {
         this.name = name;
         this.level = 1;
         this.experience = 0;
@@ -62,10 +108,18 @@ public abstract class Character implements Attackable {
         
         this.equippedArmor = new HashMap<>();
         this.equippedWeapon = null;
+        this.statsDirty = true;
+        this.effectEngine = null;
+        this.sharedEffectEngine = false;
+        this.statusEffects = new ArrayList<>();
+        this.statusEffectsView = Collections.unmodifiableList(statusEffects);
+        this.statusEffectCounts = new int[StatusEffect.Type.values().length];
         
-        this.inventory = new ArrayList<>();
+        this.inventory = new Inventory();
         this.recentlyUsedItems = new Stack<>();
-        this.maxInventorySize = DEFAULT_INVENTORY_SIZE;
+        this.maxInventorySize = maxInventorySize;
+        this.consoleOutput = true;
+        this.random = new RandomSource();
     }
     
     // ============================================================
@@ -74,10 +128,22 @@ public abstract class Character implements Attackable {
 
     @Override
     public void takeDamage(int damage) {
+        if (evasionChance > 0 && random.chance(evasionChance / 100.0)) {
+            announce(name + " evaded the attack!");
+            return;
+        }
+
         int defense = getTotalDefense();
         // הנזק לא יכול להיות שלילי (לא מרפאים מאויב חלש)
         int finalDamage = Math.max(0, damage - defense);
 
+        if (defendReduction > 0) {
+            finalDamage = finalDamage * (100 - Math.min(defendReduction, 100)) / 100;
+        }
+        if (statusEffectCounts[StatusEffect.Type.MANA_SHIELD.ordinal()] > 0) {
+            finalDamage = absorbWithMana(finalDamage);
+        }
+
         this.currentHealth -= finalDamage;
 
         // הבריאות לא תרד מתחת ל-0
@@ -113,16 +179,30 @@ public abstract class Character implements Attackable {
     }
 
     public Item removeItem(String itemName) throws ItemNotFoundException {
-        for (Item item : inventory) {
-            if (item.getName().equals(itemName)) {
-                inventory.remove(item);
-                return item;
-            }
+        Item item = inventory.removeByName(itemName);
+        if (item == null) {
+            throw new ItemNotFoundException("Item '" + itemName + "' not found in inventory.");
         }
-        throw new ItemNotFoundException("Item '" + itemName + "' not found in inventory.");
+        return item;
+    }
+
+    public boolean hasItem(String itemName) {
+        return inventory.containsName(itemName);
+    }
+
+    /**
+     * @return כמות הפריטים במלאי עם השם הנתון (למשל שיקויים בערימה)
+     */
+    public int getItemCount(String itemName) {
+        return inventory.countByName(itemName);
     }
 
     public <T extends Item> ArrayList<T> findItemsByType(Class<T> itemClass) {
+        List<T> indexed = inventory.getIndexedView(itemClass);
+        if (indexed != null) {
+            return new ArrayList<>(indexed);
+        }
+
         ArrayList<T> result = new ArrayList<>();
         for (Item item : inventory) {
             if (itemClass.isInstance(item)) {
@@ -135,14 +215,30 @@ public abstract class Character implements Attackable {
     public HashMap<Item.ItemRarity, ArrayList<Item>> getItemsByRarity() {
         HashMap<Item.ItemRarity, ArrayList<Item>> map = new HashMap<>();
 
-        for (Item item : inventory) {
-            Item.ItemRarity rarity = item.getRarity();
-            map.putIfAbsent(rarity, new ArrayList<>());
-            map.get(rarity).add(item);
+        for (Map.Entry<Item.ItemRarity, List<Item>> entry : inventory.getRarityViews().entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                map.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
         }
 
         return map;
     }
+
+    /**
+     * תצוגה לקריאה בלבד של פריטי המלאי מהסוג הנתון, בלי העתקה עבור Weapon/Armor/Potion.
+     * לסוגים אחרים מוחזרת רשימה חדשה.
+     */
+    public <T extends Item> List<T> getItemsView(Class<T> itemClass) {
+        List<T> indexed = inventory.getIndexedView(itemClass);
+        return indexed != null ? indexed : Collections.unmodifiableList(findItemsByType(itemClass));
+    }
+
+    /**
+     * תצוגה לקריאה בלבד של פריטי המלאי בנדירות הנתונה, בלי העתקה.
+     */
+    public List<Item> getItemsOfRarity(Item.ItemRarity rarity) {
+        return inventory.getItemsOfRarity(rarity);
+    }
     
     // ============================================================
     // TODO: ציוד (Equipment)
@@ -158,6 +254,7 @@ public abstract class Character implements Attackable {
             inventory.add(equippedWeapon);
         }
         equippedWeapon = weapon;
+        invalidateStats();
     }
 
     public void equipArmor(Armor armor) throws ItemNotFoundException, InventoryFullException {
@@ -177,15 +274,95 @@ public abstract class Character implements Attackable {
 
 
         equippedArmor.put(slot, armor);
+        invalidateStats();
+    }
+    /**
+     * יוזמה (מהירות) בקרב - נשק כבד מאט, נשק קל מזרז.
+     * @return BASE_INITIATIVE מחולק במקדם המהירות של הנשק
+     */
+    public int getInitiative() {
+        if (equippedWeapon == null) {
+            return BASE_INITIATIVE;
+        }
+        return (int) Math.round(BASE_INITIATIVE / equippedWeapon.getWeaponType().getSpeedModifier());
     }
-    public int getTotalDefense() {
-        int totalDefense = baseDefense;
 
+    public int getTotalDefense() {
+        refreshStats();
+        return cachedTotalDefense;
+    }
+    
+    // ============================================================
+    // Derived Stats Cache
+    // ============================================================
+    
+    /**
+     * כוח ההתקפה: כוח בסיסי + באפים.
+     */
+    public int getAttackStrength() {
+        refreshStats();
+        return cachedAttackStrength;
+    }
+    
+    /**
+     * @return נזק התקפה רגילה מינימלי (כוח + נזק מינימלי של הנשק)
+     */
+    public int getMinAttackDamage() {
+        refreshStats();
+        return cachedMinAttack;
+    }
+    
+    /**
+     * @return נזק התקפה רגילה מקסימלי (כוח + נזק מקסימלי של הנשק)
+     */
+    public int getMaxAttackDamage() {
+        refreshStats();
+        return cachedMaxAttack;
+    }
+    
+    /**
+     * סך הפחתת הנזק של השריון המצויד (סכום Armor.calculateDamageReduction, עד 75%).
+     */
+    public double getArmorDamageReduction() {
+        refreshStats();
+        return cachedDamageReduction;
+    }
+    
+    /**
+     * מוסיף (או מסיר, עם ערכים שליליים) בונוס זמני לכוח ולהגנה.
+     * @param strength שינוי בכוח
+     * @param defense שינוי בהגנה
+     */
+    public void applyStatBonus(int strength, int defense) {
+        bonusStrength += strength;
+        bonusDefense += defense;
+        invalidateStats();
+    }
+    
+    /**
+     * מסמן שהנתונים הנגזרים צריכים חישוב מחדש.
+     * נקרא אחרי החלפת ציוד, עליית רמה ושינוי באפים.
+     */
+    protected void invalidateStats() {
+        statsDirty = true;
+    }
+    
+    private void refreshStats() {
+        if (!statsDirty) {
+            return;
+        }
+        int defense = baseDefense + bonusDefense;
+        double reduction = 0;
         for (Armor armor : equippedArmor.values()) {
-            totalDefense += armor.getDefense();
+            defense += armor.getDefense();
+            reduction += armor.calculateDamageReduction();
         }
-
-        return totalDefense;
+        cachedTotalDefense = defense;
+        cachedDamageReduction = Math.min(reduction, 0.75);
+        cachedAttackStrength = baseStrength + bonusStrength;
+        cachedMinAttack = cachedAttackStrength + (equippedWeapon != null ? equippedWeapon.getMinDamage() : 0);
+        cachedMaxAttack = cachedAttackStrength + (equippedWeapon != null ? equippedWeapon.getMaxDamage() : 0);
+        statsDirty = false;
     }
     
     // ============================================================
@@ -216,6 +393,21 @@ public abstract class Character implements Attackable {
         }
         return false;
     }
+
+    /**
+     * סופג נזק במאנה: כל נקודת מאנה סופגת 2 נקודות נזק.
+     * @return הנזק שנותר אחרי הספיגה
+     */
+    protected int absorbWithMana(int incomingDamage) {
+        int maxAbsorb = currentMana * 2;
+        if (maxAbsorb >= incomingDamage) {
+            int manaNeeded = (int) Math.ceil(incomingDamage / 2.0);
+            useMana(manaNeeded);
+            return 0;
+        }
+        currentMana = 0;
+        return incomingDamage - maxAbsorb;
+    }
     
     // ============================================================
     // TODO: ניסיון ורמות (Experience & Leveling)
@@ -239,6 +431,7 @@ public abstract class Character implements Attackable {
 
             // קריאה לפונקציה הספציפית של הדמות
             onLevelUp();
+            invalidateStats();
         }
     }
     
@@ -265,6 +458,166 @@ public abstract class Character implements Attackable {
      */
     public abstract boolean useSpecialAbility(Character target);
     
+    // ============================================================
+    // Status Effects
+    // ============================================================
+    
+    /**
+     * עמידת הגנה לסבב הנוכחי. מחלקות יכולות להוסיף הגנות משלהן.
+     */
+    public void defend() {
+        applyStatusEffect(new StatusEffect(StatusEffect.Type.DEFEND, DEFEND_DAMAGE_REDUCTION, 1));
+    }
+    
+    /**
+     * מפעיל אפקט על הדמות ומתזמן אותו במנוע האפקטים שלה.
+     * מחוץ לקרב נוצר לדמות מנוע משלה, והאפקט פוקע לפי advanceStatusEffects.
+     * @param effect אפקט שאינו פעיל כרגע
+     */
+    public void applyStatusEffect(StatusEffect effect) {
+        if (effectEngine == null) {
+            effectEngine = new StatusEffectEngine();
+        }
+        effect.attach(this, effectEngine);
+        effect.ownerIndex = statusEffects.size();
+        statusEffects.add(effect);
+        statusEffectCounts[effect.getType().ordinal()]++;
+        
+        switch (effect.getType()) {
+            case DEFEND:
+                defendReduction += effect.getMagnitude();
+                break;
+            case EVASION:
+                evasionChance += effect.getMagnitude();
+                break;
+            case STRENGTH:
+                applyStatBonus(effect.getMagnitude(), 0);
+                break;
+            case DEFENSE:
+                applyStatBonus(0, effect.getMagnitude());
+                break;
+            default:
+                break;
+        }
+        effectEngine.schedule(effect);
+    }
+    
+    /**
+     * מסיר אפקט פעיל לפני הזמן (למשל ריפוי מרעל).
+     * @return true אם האפקט היה פעיל על הדמות
+     */
+    public boolean removeStatusEffect(StatusEffect effect) {
+        if (effect.getTarget() != this) {
+            return false;
+        }
+        effectEngine.cancel(effect);
+        detachStatusEffect(effect);
+        return true;
+    }
+    
+    /**
+     * מסיר את כל האפקטים הפעילים.
+     */
+    public void clearStatusEffects() {
+        while (!statusEffects.isEmpty()) {
+            removeStatusEffect(statusEffects.get(statusEffects.size() - 1));
+        }
+    }
+    
+    /**
+     * מבטל את ההשפעה של אפקט ומוציא אותו מהרשימה (החלפה עם האחרון, O(1)).
+     */
+    void detachStatusEffect(StatusEffect effect) {
+        switch (effect.getType()) {
+            case DEFEND:
+                defendReduction -= effect.getMagnitude();
+                break;
+            case EVASION:
+                evasionChance -= effect.getMagnitude();
+                break;
+            case STRENGTH:
+                applyStatBonus(-effect.getMagnitude(), 0);
+                break;
+            case DEFENSE:
+                applyStatBonus(0, -effect.getMagnitude());
+                break;
+            default:
+                break;
+        }
+        statusEffectCounts[effect.getType().ordinal()]--;
+        
+        StatusEffect last = statusEffects.remove(statusEffects.size() - 1);
+        if (last != effect) {
+            statusEffects.set(effect.ownerIndex, last);
+            last.ownerIndex = effect.ownerIndex;
+        }
+        effect.detach();
+    }
+    
+    /**
+     * פעולה של אפקט מחזורי בסוף סבב.
+     */
+    void tickStatusEffect(StatusEffect effect) {
+        if (effect.getType() == StatusEffect.Type.POISON) {
+            currentHealth = Math.max(0, currentHealth - effect.getMagnitude());
+        } else if (effect.getType() == StatusEffect.Type.REGENERATION && isAlive()) {
+            heal(effect.getMagnitude());
+        }
+    }
+    
+    public boolean hasStatusEffect(StatusEffect.Type type) {
+        return statusEffectCounts[type.ordinal()] > 0;
+    }
+    
+    public boolean isStunned() {
+        return statusEffectCounts[StatusEffect.Type.STUN.ordinal()] > 0;
+    }
+    
+    /**
+     * @return תצוגה לקריאה בלבד של האפקטים הפעילים (ללא סדר מובטח)
+     */
+    public List<StatusEffect> getStatusEffects() {
+        return statusEffectsView;
+    }
+    
+    public StatusEffectEngine getStatusEffectEngine() {
+        return effectEngine;
+    }
+    
+    /**
+     * מחבר את הדמות למנוע אפקטים משותף (למשל של קרב), או מחזיר אותה למנוע משלה (null).
+     * אפקטים פעילים עוברים למנוע החדש עם הסבבים שנותרו להם.
+     */
+    public void setStatusEffectEngine(StatusEffectEngine effectEngine) {
+        boolean shared = effectEngine != null;
+        if (!shared) {
+            if (!sharedEffectEngine) {
+                return;
+            }
+            effectEngine = statusEffects.isEmpty() ? null : new StatusEffectEngine();
+        }
+        StatusEffectEngine previous = this.effectEngine;
+        this.effectEngine = effectEngine;
+        this.sharedEffectEngine = shared;
+        if (previous != null && previous != effectEngine) {
+            for (int i = 0; i < statusEffects.size(); i++) {
+                previous.transfer(statusEffects.get(i), effectEngine);
+            }
+        }
+    }
+    
+    /**
+     * מקדם בסבב אחד את האפקטים של דמות מחוץ לקרב (המשחק קורא לזה בכל מעבר חדר).
+     * בזמן קרב השעון שייך לקרב, ואז אין כאן השפעה.
+     * @return מספר האפקטים שפעלו או פקעו
+     */
+    public int advanceStatusEffects() {
+        if (effectEngine == null || sharedEffectEngine) {
+            return 0;
+        }
+        return effectEngine.advance();
+    }
+    
     // ============================================================
     // Recently Used Items Stack
     // ============================================================
@@ -299,6 +652,200 @@ public abstract class Character implements Attackable {
         return recentlyUsedItems.peek();
     }
     
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+    
+    // תגי המחלקה בפורמט השמירה - אסור לשנות ערכים קיימים
+    protected static final int TAG_WARRIOR = 1;
+    protected static final int TAG_MAGE = 2;
+    protected static final int TAG_ARCHER = 3;
+    
+    /**
+     * כותב את מצב הדמות: נתונים, ציוד, מלאי, סטאק הפריטים האחרונים והאפקטים הפעילים.
+     * הבונוסים נכתבים בלי התרומה של האפקטים, וכל אפקט נכתב עם הסבבים שנותרו לו,
+     * כך שבטעינה הוא מופעל מחדש ועדיין פוקע בזמן (גם מחוץ לקרב).
+     */
+    public void writeTo(BinaryWriter out) throws IOException {
+        out.writeByte(getClassTag());
+        out.writeString(name);
+        out.writeVarInt(maxInventorySize);
+        out.writeVarInt(level);
+        out.writeVarInt(experience);
+        out.writeVarInt(gold);
+        out.writeVarInt(maxHealth);
+        out.writeVarInt(currentHealth);
+        out.writeVarInt(maxMana);
+        out.writeVarInt(currentMana);
+        out.writeVarInt(baseStrength);
+        out.writeVarInt(baseDefense);
+        int effectStrength = 0;
+        int effectDefense = 0;
+        for (StatusEffect effect : statusEffects) {
+            if (effect.getType() == StatusEffect.Type.STRENGTH) {
+                effectStrength += effect.getMagnitude();
+            } else if (effect.getType() == StatusEffect.Type.DEFENSE) {
+                effectDefense += effect.getMagnitude();
+            }
+        }
+        out.writeSignedVarInt(bonusStrength - effectStrength);
+        out.writeSignedVarInt(bonusDefense - effectDefense);
+        writeClassState(out);
+        
+        out.writeBoolean(equippedWeapon != null);
+        if (equippedWeapon != null) {
+            equippedWeapon.writeTo(out);
+        }
+        out.writeVarInt(equippedArmor.size());
+        for (Armor armor : equippedArmor.values()) {
+            armor.writeTo(out);
+        }
+        out.writeVarInt(inventory.size());
+        for (Item item : inventory) {
+            item.writeTo(out);
+        }
+        // מהתחתית לראש, כדי שהטעינה תדחוף באותו סדר
+        out.writeVarInt(recentlyUsedItems.size());
+        for (Item item : recentlyUsedItems) {
+            item.writeTo(out);
+        }
+        out.writeVarInt(statusEffects.size());
+        for (StatusEffect effect : statusEffects) {
+            out.writeByte(effect.getType().ordinal());
+            out.writeSignedVarInt(effect.getMagnitude());
+            out.writeVarInt(effect.getRoundsLeft());
+        }
+    }
+    
+    /**
+     * קורא דמות שנכתבה ב-writeTo.
+     * @throws IOException אם תג המחלקה אינו מוכר
+     */
+    public static Character readFrom(BinaryReader in) throws IOException {
+        int tag = in.readByte();
+        String name = in.readString();
+        int maxInventorySize = in.readVarInt();
+        Character character;
+        switch (tag) {
+            case TAG_WARRIOR:
+                character = new Warrior(name, maxInventorySize);
+                break;
+            case TAG_MAGE:
+                character = new Mage(name, maxInventorySize);
+                break;
+            case TAG_ARCHER:
+                character = new Archer(name, maxInventorySize);
+                break;
+            default:
+                throw new IOException("Unknown character class " + tag);
+        }
+        
+        character.level = in.readVarInt();
+        character.experience = in.readVarInt();
+        character.gold = in.readVarInt();
+        character.maxHealth = in.readVarInt();
+        character.currentHealth = in.readVarInt();
+        character.maxMana = in.readVarInt();
+        character.currentMana = in.readVarInt();
+        character.baseStrength = in.readVarInt();
+        character.baseDefense = in.readVarInt();
+        character.bonusStrength = in.readSignedVarInt();
+        character.bonusDefense = in.readSignedVarInt();
+        character.readClassState(in);
+        
+        if (in.readBoolean()) {
+            Item weapon = Item.readFrom(in);
+            if (!(weapon instanceof Weapon)) {
+                throw new IOException("Equipped weapon is a " + weapon.getClass().getSimpleName());
+            }
+            character.equippedWeapon = (Weapon) weapon;
+        }
+        int armorCount = in.readLength();
+        for (int i = 0; i < armorCount; i++) {
+            Item armor = Item.readFrom(in);
+            if (!(armor instanceof Armor)) {
+                throw new IOException("Equipped armor is a " + armor.getClass().getSimpleName());
+            }
+            character.equippedArmor.put(((Armor) armor).getSlot(), (Armor) armor);
+        }
+        int itemCount = in.readLength();
+        for (int i = 0; i < itemCount; i++) {
+            character.inventory.add(Item.readFrom(in));
+        }
+        int recentCount = in.readLength();
+        for (int i = 0; i < recentCount; i++) {
+            character.recentlyUsedItems.push(Item.readFrom(in));
+        }
+        // עד גרסה 3 הבונוסים כללו את האפקטים, והאפקטים עצמם לא נשמרו
+        if (in.getFormatVersion() >= 4) {
+            int effectCount = in.readLength();
+            for (int i = 0; i < effectCount; i++) {
+                StatusEffect.Type type = in.readEnum(StatusEffect.Type.values());
+                int magnitude = in.readSignedVarInt();
+                int rounds = in.readVarInt();
+                if (rounds < 1) {
+                    throw new IOException("Invalid status effect duration " + rounds);
+                }
+                character.applyStatusEffect(new StatusEffect(type, magnitude, rounds));
+            }
+        }
+        character.invalidateStats();
+        return character;
+    }
+    
+    /**
+     * @return תג המחלקה בפורמט השמירה
+     */
+    protected abstract int getClassTag();
+    
+    /**
+     * כותב את השדות הייחודיים למחלקה היורשת.
+     */
+    protected abstract void writeClassState(BinaryWriter out) throws IOException;
+    
+    /**
+     * קורא את השדות שנכתבו ב-writeClassState.
+     */
+    protected abstract void readClassState(BinaryReader in) throws IOException;
+    
+    // ============================================================
+    // Console Output
+    // ============================================================
+    
+    /**
+     * מדפיס הודעה לקונסול רק אם הפלט מופעל.
+     * @param message ההודעה להדפסה
+     */
+    protected void announce(String message) {
+        if (consoleOutput) {
+            System.out.println(message);
+        }
+    }
+    
+    public boolean isConsoleOutput() {
+        return consoleOutput;
+    }
+    
+    public void setConsoleOutput(boolean consoleOutput) {
+        this.consoleOutput = consoleOutput;
+    }
+    
+    // ============================================================
+    // Randomness
+    // ============================================================
+    
+    public RandomSource getRandomSource() {
+        return random;
+    }
+    
+    /**
+     * מחליף את מקור האקראיות של הדמות.
+     * @param random מקור חדש (למשל מפוצל ממקור של הקרב)
+     */
+    public void setRandomSource(RandomSource random) {
+        this.random = random;
+    }
+    
     // ============================================================
     // Getters & Setters
     // ============================================================
@@ -356,7 +903,7 @@ public abstract class Character implements Attackable {
     }
     
     public ArrayList<Item> getInventory() {
-        return new ArrayList<>(inventory);
+        return inventory.toList();
     }
     
     public int getInventorySize() {
@@ -367,6 +914,10 @@ public abstract class Character implements Attackable {
         return maxInventorySize;
     }
     
+    public static int getExperiencePerLevel() {
+        return EXPERIENCE_PER_LEVEL;
+    }
+    
     @Override
     public String toString() {
         return String.format("%s (Level %d) - HP: %d/%d, Mana: %d/%d, Gold: %d",
@@ -1,5 +1,9 @@
 package model.characters;
 
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
 /**
  * מחלקה המייצגת קוסם במשחק.
  * יורשת מ-Character.
@@ -10,10 +14,15 @@ public class Mage extends Character {
     private int spellPower;
     private static final int FIREBALL_MANA_COST = 25;
     private static final int HEAL_MANA_COST = 30;
+    private static final int MANA_SHIELD_DURATION = 2;
     
     public Mage(String name) {
+        this(name, DEFAULT_INVENTORY_SIZE);
+    }
+    
+    public Mage(String name, int maxInventorySize) {
         // קוסם: מעט חיים, הרבה מאנה, כוח נמוך, הגנה נמוכה
-        super(name, 80, 150, 5, 3);
+        super(name, 80, 150, 5, 3, maxInventorySize);
         this.spellPower = 20;
     }
     
@@ -35,9 +44,9 @@ public class Mage extends Character {
 
     @Override
     public int calculateAttackDamage() {
-        int damage = baseStrength;
+        int damage = getAttackStrength();
         if (equippedWeapon != null) {
-            damage += equippedWeapon.calculateDamage();
+            damage += equippedWeapon.calculateDamage(random);
         }
         return damage;
     }
@@ -69,23 +78,51 @@ public class Mage extends Character {
     }
 
     public int castManaShield(int incomingDamage) {
-        int maxAbsorb = currentMana * 2;
-
-        if (maxAbsorb >= incomingDamage) {
-            int manaNeeded = (int) Math.ceil(incomingDamage / 2.0);
-            useMana(manaNeeded);
-            return 0;
-        } else {
-            int damageReduced = maxAbsorb;
-            currentMana = 0;
-            return incomingDamage - damageReduced;
+        return absorbWithMana(incomingDamage);
+    }
+
+    /**
+     * מגן מאנה ל-MANA_SHIELD_DURATION סבבים: כל פגיעה נספגת במאנה עד שהיא נגמרת.
+     * @return true אם המגן הופעל (יש מאנה ואין מגן פעיל)
+     */
+    public boolean castManaShield() {
+        if (currentMana <= 0 || hasStatusEffect(StatusEffect.Type.MANA_SHIELD)) {
+            return false;
         }
+        applyStatusEffect(new StatusEffect(StatusEffect.Type.MANA_SHIELD, 0, MANA_SHIELD_DURATION));
+        announce(name + " raised a mana shield!");
+        return true;
+    }
+
+    @Override
+    public void defend() {
+        super.defend();
+        castManaShield();
     }
 
     public int calculateSpellDamage(double multiplier) {
         return (int) Math.ceil(spellPower * multiplier);
     }
     
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+
+    @Override
+    protected int getClassTag() {
+        return TAG_MAGE;
+    }
+
+    @Override
+    protected void writeClassState(BinaryWriter out) throws IOException {
+        out.writeVarInt(spellPower);
+    }
+
+    @Override
+    protected void readClassState(BinaryReader in) throws IOException {
+        spellPower = in.readVarInt();
+    }
+
     // Getters
     public int getSpellPower() {
         return spellPower;
@@ -0,0 +1,151 @@
+package model.characters;
+
+import utils.TimerWheel;
+
+/**
+ * אפקט זמני על דמות (עמידת הגנה, מגן מאנה, רעל, ריפוי מתמשך, הלם, באפים ודיבאפים).
+ *
+ * משך האפקט נמדד בסבבים (ticks של StatusEffectEngine). אפקט מחזורי (רעל, ריפוי)
+ * פועל פעם בכל סבב עד שהמשך נגמר; אפקט רגיל פוקע פעם אחת בסוף המשך.
+ * כל מופע יכול להיות פעיל על דמות אחת בלבד בכל רגע.
+ */
+public class StatusEffect extends TimerWheel.Timer {
+
+    /**
+     * סוגי האפקטים ומשמעות העוצמה (magnitude) של כל אחד
+     */
+    public enum Type {
+        DEFEND("Defensive Stance", false),     // אחוז הפחתת נזק
+        MANA_SHIELD("Mana Shield", false),     // מאנה סופגת נזק (2 נזק לכל נקודת מאנה)
+        EVASION("Evasion", false),             // אחוז סיכוי להתחמק מפגיעה
+        POISON("Poison", true),                // נזק בכל סבב (עוקף הגנה)
+        REGENERATION("Regeneration", true),    // ריפוי בכל סבב
+        STUN("Stun", false),                   // הדמות מפסידה את הפעולות שלה
+        STRENGTH("Strength", false),           // שינוי בכוח (שלילי = דיבאף)
+        DEFENSE("Defense", false);             // שינוי בהגנה (שלילי = דיבאף)
+
+        private final String displayName;
+        private final boolean periodic;
+
+        Type(String displayName, boolean periodic) {
+            this.displayName = displayName;
+            this.periodic = periodic;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public boolean isPeriodic() {
+            return periodic;
+        }
+    }
+
+    private final Type type;
+    private final int magnitude;
+    private final int duration;
+
+    // מצב בזמן שהאפקט פעיל
+    private Character target;
+    private StatusEffectEngine engine;
+    private int remainingRounds;
+    int ownerIndex; // מיקום ברשימת האפקטים של הדמות (להסרה ב-O(1))
+
+    /**
+     * @param type סוג האפקט
+     * @param magnitude העוצמה (משמעותה לפי הסוג)
+     * @param duration משך בסבבים (לפחות 1)
+     */
+    public StatusEffect(Type type, int magnitude, int duration) {
+        if (duration < 1) {
+            throw new IllegalArgumentException("Status effect duration must be at least 1 round: " + duration);
+        }
+        this.type = type;
+        this.magnitude = magnitude;
+        this.duration = duration;
+    }
+
+    // ============================================================
+    // מחזור חיים (נקרא על ידי Character ו-StatusEffectEngine)
+    // ============================================================
+
+    void attach(Character target, StatusEffectEngine engine) {
+        if (this.target != null) {
+            throw new IllegalStateException(type.getDisplayName() + " is already active on " + this.target.getName());
+        }
+        this.target = target;
+        this.engine = engine;
+        this.remainingRounds = duration;
+    }
+
+    void moveTo(StatusEffectEngine engine) {
+        this.engine = engine;
+    }
+
+    void detach() {
+        this.target = null;
+        this.engine = null;
+        this.remainingRounds = 0;
+    }
+
+    @Override
+    protected void onExpire(TimerWheel wheel, long tick) {
+        Character affected = target;
+        if (type.isPeriodic()) {
+            affected.tickStatusEffect(this);
+            if (!affected.isAlive()) {
+                engine.recordDefeat(affected);
+            }
+            remainingRounds--;
+            if (remainingRounds > 0 && affected.isAlive()) {
+                wheel.schedule(this, 1);
+                return;
+            }
+        }
+        engine.effectEnded();
+        affected.detachStatusEffect(this);
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    public int getMagnitude() {
+        return magnitude;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public boolean isActive() {
+        return target != null;
+    }
+
+    public Character getTarget() {
+        return target;
+    }
+
+    /**
+     * @return סבבים שנותרו לאפקט מחזורי (לאפקט רגיל - המשך המלא עד שפקע)
+     */
+    public int getRemainingRounds() {
+        return remainingRounds;
+    }
+
+    /**
+     * @return הסבבים שנותרו עד שהאפקט פוקע (לאפקט מחזורי - הפעולות שנותרו לו)
+     */
+    int getRoundsLeft() {
+        if (type.isPeriodic()) {
+            return remainingRounds;
+        }
+        return (int) Math.max(1, getDeadline() - engine.getCurrentRound());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d) - %d rounds", type.getDisplayName(), magnitude, duration);
+    }
+}
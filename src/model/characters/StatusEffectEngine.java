@@ -0,0 +1,83 @@
+package model.characters;
+
+import utils.TimerWheel;
+import java.util.ArrayList;
+
+/**
+ * שעון האפקטים: מתזמן את כל האפקטים הפעילים על גלגל טיימרים אחד.
+ *
+ * כל קרב מחזיק מנוע אחד לכל הדמויות ומקדם אותו ב-tick אחד בסוף כל סבב,
+ * כך שעלות הסבב תלויה רק במספר האפקטים שפועלים או פוקעים בו.
+ * מחוץ לקרב לכל דמות מנוע משלה, שמתקדם ב-Character.advanceStatusEffects.
+ */
+public class StatusEffectEngine {
+
+    private final TimerWheel wheel;
+    private final ArrayList<Character> defeatedLastTick;
+    private int activeEffects;
+
+    public StatusEffectEngine() {
+        this.wheel = new TimerWheel();
+        this.defeatedLastTick = new ArrayList<>();
+        this.activeEffects = 0;
+    }
+
+    /**
+     * מקדם את השעון בסבב אחד: אפקטים מחזוריים פועלים ואפקטים שהמשך שלהם נגמר מוסרים.
+     * @return מספר האפקטים שפעלו או פקעו
+     */
+    public int advance() {
+        defeatedLastTick.clear();
+        return wheel.advance();
+    }
+
+    // ============================================================
+    // נקרא על ידי Character ו-StatusEffect
+    // ============================================================
+
+    void schedule(StatusEffect effect) {
+        wheel.schedule(effect, effect.getType().isPeriodic() ? 1 : effect.getDuration());
+        activeEffects++;
+    }
+
+    void cancel(StatusEffect effect) {
+        if (wheel.cancel(effect)) {
+            activeEffects--;
+        }
+    }
+
+    /**
+     * מעביר אפקט פעיל למנוע אחר, עם אותו מספר סבבים עד שהוא פועל או פוקע.
+     */
+    void transfer(StatusEffect effect, StatusEffectEngine target) {
+        long delay = effect.getDeadline() - wheel.getCurrentTick();
+        cancel(effect);
+        effect.moveTo(target);
+        target.wheel.schedule(effect, delay);
+        target.activeEffects++;
+    }
+
+    void effectEnded() {
+        activeEffects--;
+    }
+
+    void recordDefeat(Character character) {
+        defeatedLastTick.add(character);
+    }
+
+    // Getters
+    /**
+     * @return דמויות שהובסו מאפקטים מחזוריים ב-advance האחרון (רשימה חיה, לקריאה בלבד)
+     */
+    public ArrayList<Character> getDefeatedLastTick() {
+        return defeatedLastTick;
+    }
+
+    public int getActiveEffectCount() {
+        return activeEffects;
+    }
+
+    public long getCurrentRound() {
+        return wheel.getCurrentTick();
+    }
+}
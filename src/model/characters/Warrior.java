@@ -1,5 +1,9 @@
 package model.characters;
 
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
 /**
  * מחלקה המייצגת לוחם במשחק.
  * יורשת מ-Character.
@@ -13,8 +17,12 @@ public class Warrior extends Character {
     private static final int BERSERK_RAGE_COST = 50;
     
     public Warrior(String name) {
+        this(name, DEFAULT_INVENTORY_SIZE);
+    }
+    
+    public Warrior(String name, int maxInventorySize) {
         // לוחם: הרבה חיים, מעט מאנה, כוח גבוה, הגנה גבוהה
-        super(name, 150, 30, 15, 10);
+        super(name, 150, 30, 15, 10, maxInventorySize);
         this.rage = 0;
     }
     
@@ -35,9 +43,9 @@ public class Warrior extends Character {
 
     @Override
     public int calculateAttackDamage() {
-        int weaponDamage = (equippedWeapon != null) ? equippedWeapon.calculateDamage() : 0;
+        int weaponDamage = (equippedWeapon != null) ? equippedWeapon.calculateDamage(random) : 0;
         int rageBonus = rage / 10;
-        return baseStrength + weaponDamage + rageBonus;
+        return getAttackStrength() + weaponDamage + rageBonus;
     }
 
     @Override
@@ -46,7 +54,7 @@ public class Warrior extends Character {
             rage -= BERSERK_RAGE_COST;
             int damage = calculateAttackDamage() * 2;
             target.takeDamage(damage);
-            System.out.println(name + " used BERSERK on " + target.getName() + " for " + damage + " damage!");
+            announce(name + " used BERSERK on " + target.getName() + " for " + damage + " damage!");
             return true;
         }
         return false;
@@ -65,12 +73,31 @@ public class Warrior extends Character {
         if (useMana(20)) {
             int reducedDamage = (int) (incomingDamage * 0.25);
             super.takeDamage(reducedDamage);
-            System.out.println(name + " blocked with shield! Reduced damage to " + reducedDamage);
+            announce(name + " blocked with shield! Reduced damage to " + reducedDamage);
             return true;
         }
         return false;
     }
     
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+
+    @Override
+    protected int getClassTag() {
+        return TAG_WARRIOR;
+    }
+
+    @Override
+    protected void writeClassState(BinaryWriter out) throws IOException {
+        out.writeVarInt(rage);
+    }
+
+    @Override
+    protected void readClassState(BinaryReader in) throws IOException {
+        rage = in.readVarInt();
+    }
+
     // Getters
     public int getRage() {
         return rage;
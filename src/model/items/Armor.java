@@ -6,9 +6,6 @@ package model.items;
  */
 public class Armor extends Item {
     
-    private int defense;
-    private ArmorSlot slot;
-    
     /**
      * חלקי הגוף עליהם ניתן ללבוש שריון
      */
@@ -38,9 +35,14 @@ public class Armor extends Item {
     
     public Armor(String name, String description, int weight, int basePrice,
                  ItemRarity rarity, int defense, ArmorSlot slot) {
-        super(name, description, weight, basePrice, rarity);
-        this.defense = defense;
-        this.slot = slot;
+        this(new ArmorTemplate(name, description, weight, basePrice, rarity, defense, slot));
+    }
+
+    /**
+     * שריון שמשתף תבנית קיימת (למשל מהקטלוג).
+     */
+    public Armor(ArmorTemplate template) {
+        super(template);
     }
     
     // ============================================================
@@ -48,7 +50,7 @@ public class Armor extends Item {
     // ============================================================
 
     public double calculateDamageReduction() {
-        double reduction = (defense * slot.getDefenseContribution()) / 100.0;
+        double reduction = (getDefense() * getSlot().getDefenseContribution()) / 100.0;
         return Math.min(reduction, 0.75);
     }
 
@@ -59,17 +61,22 @@ public class Armor extends Item {
     }
     
     // Getters
+    @Override
+    public ArmorTemplate getTemplate() {
+        return (ArmorTemplate) template;
+    }
+
     public int getDefense() {
-        return defense;
+        return getTemplate().getDefense();
     }
     
     public ArmorSlot getSlot() {
-        return slot;
+        return getTemplate().getSlot();
     }
     
     @Override
     public String toString() {
         return String.format("%s | Defense: %d | Slot: %s",
-            super.toString(), defense, slot.getDisplayName());
+            super.toString(), getDefense(), getSlot().getDisplayName());
     }
 }
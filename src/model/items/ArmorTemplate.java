@@ -0,0 +1,53 @@
+package model.items;
+
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
+/**
+ * תבנית משותפת של שריון: ההגנה והמקום על הגוף.
+ */
+public final class ArmorTemplate extends ItemTemplate {
+
+    private final int defense;
+    private final Armor.ArmorSlot slot;
+
+    public ArmorTemplate(String name, String description, int weight, int basePrice,
+                         Item.ItemRarity rarity, int defense, Armor.ArmorSlot slot) {
+        super(name, description, weight, basePrice, rarity);
+        this.defense = defense;
+        this.slot = slot;
+    }
+
+    @Override
+    public Armor newInstance() {
+        return new Armor(this);
+    }
+
+    @Override
+    int getTypeTag() {
+        return Item.TAG_ARMOR;
+    }
+
+    @Override
+    void writeFields(BinaryWriter out) throws IOException {
+        out.writeVarInt(defense);
+        out.writeByte(slot.ordinal());
+    }
+
+    static ArmorTemplate readFields(BinaryReader in, String name, String description, int weight,
+                                    int basePrice, Item.ItemRarity rarity) throws IOException {
+        int defense = in.readVarInt();
+        Armor.ArmorSlot slot = in.readEnum(Armor.ArmorSlot.values());
+        return new ArmorTemplate(name, description, weight, basePrice, rarity, defense, slot);
+    }
+
+    // Getters
+    public int getDefense() {
+        return defense;
+    }
+
+    public Armor.ArmorSlot getSlot() {
+        return slot;
+    }
+}
@@ -0,0 +1,391 @@
+package model.items;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * מלאי פריטים עם אינדקס לפי שם וערימות (stacks) של פריטים זהים.
+ *
+ * פריטים זהים לפי Item.equals (שם + נדירות) נשמרים בערימה אחת.
+ * הערימות שמורות ב-LinkedHashMap לפי סדר ההוספה, ולצידן אינדקס משם לערימות,
+ * כך שהוספה, הסרה, חיפוש וספירה לפי שם הם O(1).
+ *
+ * בנוסף נשמרים אינדקסים משניים לפי נדירות ולפי סוג (נשק/שריון/שיקוי),
+ * שמתעדכנים בכל הוספה והסרה (הסרה ב-swap עם האחרון, O(1)).
+ * השאילתות עליהם מחזירות תצוגות לקריאה בלבד, בלי העתקה.
+ */
+public class Inventory implements Iterable<Item> {
+
+    // ערימות לפי פריט מייצג (equals = שם + נדירות), בסדר ההוספה
+    private final LinkedHashMap<Item, ItemStack> stacks;
+    // שם פריט -> הערימות עם השם הזה (בדרך כלל אחת, יותר אם יש כמה נדירויות)
+    private final HashMap<String, ArrayList<ItemStack>> byName;
+    private int size;
+
+    // אינדקסים משניים - הסדר בתוכם אינו סדר ההוספה
+    private final EnumMap<Item.ItemRarity, ArrayList<Slot>> byRarity;
+    private final ArrayList<Slot> weapons;
+    private final ArrayList<Slot> armors;
+    private final ArrayList<Slot> potions;
+
+    // תצוגות קבועות על האינדקסים (נוצרות פעם אחת)
+    private final Map<Item.ItemRarity, List<Item>> rarityViews;
+    private final List<Weapon> weaponView;
+    private final List<Armor> armorView;
+    private final List<Potion> potionView;
+
+    public Inventory() {
+        this.stacks = new LinkedHashMap<>();
+        this.byName = new HashMap<>();
+        this.size = 0;
+
+        this.byRarity = new EnumMap<>(Item.ItemRarity.class);
+        EnumMap<Item.ItemRarity, List<Item>> views = new EnumMap<>(Item.ItemRarity.class);
+        for (Item.ItemRarity rarity : Item.ItemRarity.values()) {
+            ArrayList<Slot> bucket = new ArrayList<>();
+            byRarity.put(rarity, bucket);
+            views.put(rarity, new SlotView<Item>(bucket));
+        }
+        this.rarityViews = Collections.unmodifiableMap(views);
+
+        this.weapons = new ArrayList<>();
+        this.armors = new ArrayList<>();
+        this.potions = new ArrayList<>();
+        this.weaponView = new SlotView<>(weapons);
+        this.armorView = new SlotView<>(armors);
+        this.potionView = new SlotView<>(potions);
+    }
+
+    // ============================================================
+    // הוספה והסרה
+    // ============================================================
+
+    public void add(Item item) {
+        ItemStack stack = stacks.get(item);
+        if (stack == null) {
+            stack = new ItemStack(item);
+            stacks.put(item, stack);
+            ArrayList<ItemStack> named = byName.get(item.getName());
+            if (named == null) {
+                named = new ArrayList<>(1);
+                byName.put(item.getName(), named);
+            }
+            named.add(stack);
+        }
+
+        Slot slot = new Slot(item);
+        stack.slots.addLast(slot);
+        size++;
+
+        ArrayList<Slot> rarityBucket = byRarity.get(item.getRarity());
+        slot.rarityIndex = rarityBucket.size();
+        rarityBucket.add(slot);
+
+        ArrayList<Slot> typeBucket = typeBucketFor(item);
+        if (typeBucket != null) {
+            slot.typeIndex = typeBucket.size();
+            typeBucket.add(slot);
+        }
+    }
+
+    /**
+     * מסיר את הפריט הראשון (לפי סדר ההוספה) עם השם הנתון.
+     * @return הפריט שהוסר, או null אם אין פריט כזה
+     */
+    public Item removeByName(String itemName) {
+        ArrayList<ItemStack> named = byName.get(itemName);
+        if (named == null) {
+            return null;
+        }
+        return removeFrom(named.get(0));
+    }
+
+    /**
+     * מסיר פריט אחד ששווה (equals) לפריט הנתון.
+     * @return true אם הוסר פריט
+     */
+    public boolean remove(Item item) {
+        ItemStack stack = stacks.get(item);
+        if (stack == null) {
+            return false;
+        }
+        removeFrom(stack);
+        return true;
+    }
+
+    private Item removeFrom(ItemStack stack) {
+        Slot slot = stack.slots.pollFirst();
+        size--;
+        if (stack.slots.isEmpty()) {
+            stacks.remove(stack.key);
+            ArrayList<ItemStack> named = byName.get(stack.key.getName());
+            named.remove(stack);
+            if (named.isEmpty()) {
+                byName.remove(stack.key.getName());
+            }
+        }
+
+        Item item = slot.item;
+        ArrayList<Slot> rarityBucket = byRarity.get(item.getRarity());
+        Slot moved = swapRemove(rarityBucket, slot.rarityIndex);
+        if (moved != null) {
+            moved.rarityIndex = slot.rarityIndex;
+        }
+
+        ArrayList<Slot> typeBucket = typeBucketFor(item);
+        if (typeBucket != null) {
+            moved = swapRemove(typeBucket, slot.typeIndex);
+            if (moved != null) {
+                moved.typeIndex = slot.typeIndex;
+            }
+        }
+        return item;
+    }
+
+    /**
+     * מסיר את האיבר במיקום הנתון ע"י העברת האחרון למקומו.
+     * @return האיבר שהועבר, או null אם הוסר האחרון
+     */
+    private static Slot swapRemove(ArrayList<Slot> bucket, int index) {
+        Slot last = bucket.remove(bucket.size() - 1);
+        if (index == bucket.size()) {
+            return null;
+        }
+        bucket.set(index, last);
+        return last;
+    }
+
+    private ArrayList<Slot> typeBucketFor(Item item) {
+        if (item instanceof Weapon) {
+            return weapons;
+        }
+        if (item instanceof Armor) {
+            return armors;
+        }
+        if (item instanceof Potion) {
+            return potions;
+        }
+        return null;
+    }
+
+    public void clear() {
+        stacks.clear();
+        byName.clear();
+        size = 0;
+        for (ArrayList<Slot> bucket : byRarity.values()) {
+            bucket.clear();
+        }
+        weapons.clear();
+        armors.clear();
+        potions.clear();
+    }
+
+    // ============================================================
+    // חיפוש וספירה
+    // ============================================================
+
+    public boolean contains(Item item) {
+        return stacks.containsKey(item);
+    }
+
+    public boolean containsName(String itemName) {
+        return byName.containsKey(itemName);
+    }
+
+    /**
+     * @return הפריט הראשון עם השם הנתון (בלי להסיר), או null
+     */
+    public Item findByName(String itemName) {
+        ArrayList<ItemStack> named = byName.get(itemName);
+        return named == null ? null : named.get(0).slots.peekFirst().item;
+    }
+
+    /**
+     * @return מספר הפריטים עם השם הנתון, בכל הנדירויות
+     */
+    public int countByName(String itemName) {
+        ArrayList<ItemStack> named = byName.get(itemName);
+        if (named == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < named.size(); i++) {
+            count += named.get(i).slots.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return מספר הפריטים ששווים (equals) לפריט הנתון
+     */
+    public int count(Item item) {
+        ItemStack stack = stacks.get(item);
+        return stack == null ? 0 : stack.slots.size();
+    }
+
+    /**
+     * @return מספר הפריטים הכולל (כל פריט בערימה נספר)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return מספר הערימות (סוגי פריטים שונים)
+     */
+    public int stackCount() {
+        return stacks.size();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // ============================================================
+    // תצוגות לפי נדירות וסוג (לקריאה בלבד, ללא העתקה)
+    // ============================================================
+
+    /**
+     * @return תצוגה חיה של הפריטים בנדירות הנתונה
+     */
+    public List<Item> getItemsOfRarity(Item.ItemRarity rarity) {
+        return rarityViews.get(rarity);
+    }
+
+    /**
+     * @return מפה חיה מכל נדירות לתצוגת הפריטים שלה (כולל נדירויות ריקות)
+     */
+    public Map<Item.ItemRarity, List<Item>> getRarityViews() {
+        return rarityViews;
+    }
+
+    public List<Weapon> getWeapons() {
+        return weaponView;
+    }
+
+    public List<Armor> getArmors() {
+        return armorView;
+    }
+
+    public List<Potion> getPotions() {
+        return potionView;
+    }
+
+    /**
+     * @return תצוגה חיה לפי סוג אם יש לו אינדקס (Weapon/Armor/Potion), אחרת null
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Item> List<T> getIndexedView(Class<T> itemClass) {
+        if (itemClass == Weapon.class) {
+            return (List<T>) weaponView;
+        }
+        if (itemClass == Armor.class) {
+            return (List<T>) armorView;
+        }
+        if (itemClass == Potion.class) {
+            return (List<T>) potionView;
+        }
+        return null;
+    }
+
+    // ============================================================
+    // מעבר על כל הפריטים
+    // ============================================================
+
+    /**
+     * @return עותק שטוח של כל הפריטים, ערימה אחר ערימה לפי סדר ההוספה
+     */
+    public ArrayList<Item> toList() {
+        ArrayList<Item> list = new ArrayList<>(size);
+        for (ItemStack stack : stacks.values()) {
+            for (Slot slot : stack.slots) {
+                list.add(slot.item);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * מעבר על כל הפריטים בלי להעתיק. אין לשנות את המלאי בזמן המעבר.
+     */
+    @Override
+    public Iterator<Item> iterator() {
+        return new Iterator<Item>() {
+            private final Iterator<ItemStack> stackIterator = stacks.values().iterator();
+            private Iterator<Slot> current = null;
+
+            @Override
+            public boolean hasNext() {
+                while ((current == null || !current.hasNext()) && stackIterator.hasNext()) {
+                    current = stackIterator.next().slots.iterator();
+                }
+                return current != null && current.hasNext();
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next().item;
+            }
+        };
+    }
+
+    /**
+     * ערימה של פריטים זהים. הפריט הראשון שנוסף משמש כמפתח.
+     */
+    private static final class ItemStack {
+        private final Item key;
+        private final ArrayDeque<Slot> slots;
+
+        ItemStack(Item key) {
+            this.key = key;
+            this.slots = new ArrayDeque<>(2);
+        }
+    }
+
+    /**
+     * פריט בודד במלאי, עם המיקום שלו באינדקסים המשניים.
+     */
+    private static final class Slot {
+        private final Item item;
+        private int rarityIndex;
+        private int typeIndex;
+
+        Slot(Item item) {
+            this.item = item;
+        }
+    }
+
+    /**
+     * תצוגה לקריאה בלבד על רשימת slots (AbstractList זורק על כל שינוי).
+     */
+    private static final class SlotView<T extends Item> extends AbstractList<T> {
+        private final ArrayList<Slot> slots;
+
+        SlotView(ArrayList<Slot> slots) {
+            this.slots = slots;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            return (T) slots.get(index).item;
+        }
+
+        @Override
+        public int size() {
+            return slots.size();
+        }
+    }
+}
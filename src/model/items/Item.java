@@ -1,16 +1,19 @@
 package model.items;
 
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
 /**
  * מחלקה בסיסית המייצגת פריט במשחק.
  * כל סוגי הפריטים (נשק, שריון, שיקוי) יורשים ממחלקה זו.
+ *
+ * הנתונים הקבועים של הפריט נמצאים בתבנית משותפת (ItemTemplate), והפריט עצמו מחזיק
+ * רק הפניה אליה ואת המצב שלו - כך מיליוני עותקים של אותו פריט עולים מעט זיכרון.
  */
 public abstract class Item implements Tradeable {
     
-    protected String name;
-    protected String description;
-    protected int weight;
-    protected int basePrice;
-    protected ItemRarity rarity;
+    protected final ItemTemplate template;
     
     /**
      * enum המייצג את רמת הנדירות של הפריט
@@ -33,36 +36,90 @@ public abstract class Item implements Tradeable {
         }
     }
     
-    public Item(String name, String description, int weight, int basePrice, ItemRarity rarity) {
-        this.name = name;
-        this.description = description;
-        this.weight = weight;
-        this.basePrice = basePrice;
-        this.rarity = rarity;
+    protected Item(ItemTemplate template) {
+        this.template = template;
     }
     
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+
+    // תגי הסוג בפורמט השמירה - אסור לשנות ערכים קיימים
+    static final int TAG_WEAPON = 1;
+    static final int TAG_ARMOR = 2;
+    static final int TAG_POTION = 3;
+
+    /**
+     * כותב את הפריט: התבנית (פעם אחת לכל כותב, ואחר כך רק הפניה אליה) ואז המצב שלו.
+     */
+    public void writeTo(BinaryWriter out) throws IOException {
+        if (!out.writeSharedReference(template)) {
+            template.writeTo(out);
+        }
+        writeState(out);
+    }
+
+    /**
+     * קורא פריט שנכתב ב-writeTo. שמירות מגרסה 2 ומטה כתבו כל פריט במלואו, בלי הפניה.
+     * @throws IOException אם תג הסוג אינו מוכר
+     */
+    public static Item readFrom(BinaryReader in) throws IOException {
+        ItemTemplate template;
+        if (in.getFormatVersion() >= 3) {
+            Object shared = in.readSharedReference();
+            if (shared != null && !(shared instanceof ItemTemplate)) {
+                throw new IOException("Shared object is not an item template");
+            }
+            template = (ItemTemplate) shared;
+            if (template == null) {
+                template = ItemTemplate.readFrom(in);
+                in.addSharedObject(template);
+            }
+        } else {
+            template = ItemTemplate.readFrom(in);
+        }
+        Item item = template.newInstance();
+        item.readState(in);
+        return item;
+    }
+
+    /**
+     * כותב את המצב של העותק הזה (ברירת מחדל - אין מצב).
+     */
+    protected void writeState(BinaryWriter out) throws IOException {
+    }
+
+    protected void readState(BinaryReader in) throws IOException {
+    }
+
+    /**
+     * @return התבנית המשותפת של הפריט
+     */
+    public ItemTemplate getTemplate() {
+        return template;
+    }
+
     // Getters
     public String getName() {
-        return name;
+        return template.getName();
     }
     
     public String getDescription() {
-        return description;
+        return template.getDescription();
     }
     
     public int getWeight() {
-        return weight;
+        return template.getWeight();
     }
     
     public ItemRarity getRarity() {
-        return rarity;
+        return template.getRarity();
     }
     
 
     @Override
     public int getBuyPrice() {
-        double price = basePrice * rarity.getPriceMultiplier();
-        return (int) Math.ceil(price);
+        return template.getBuyPrice();
     }
 
     @Override
@@ -79,7 +136,7 @@ public abstract class Item implements Tradeable {
     @Override
     public String toString() {
         return String.format("[%s] %s - %s (Weight: %d)", 
-            rarity, name, description, weight);
+            getRarity(), getName(), getDescription(), getWeight());
     }
     
     @Override
@@ -87,11 +144,11 @@ public abstract class Item implements Tradeable {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Item item = (Item) obj;
-        return name.equals(item.name) && rarity == item.rarity;
+        return template == item.template || (getName().equals(item.getName()) && getRarity() == item.getRarity());
     }
     
     @Override
     public int hashCode() {
-        return name.hashCode() * 31 + rarity.hashCode();
+        return getName().hashCode() * 31 + getRarity().hashCode();
     }
 }
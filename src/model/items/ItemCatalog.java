@@ -0,0 +1,333 @@
+package model.items;
+
+import model.exceptions.ItemNotFoundException;
+import utils.BinaryWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * קטלוג הגדרות פריטים בקובץ בינארי שממופה לזיכרון (MappedByteBuffer).
+ *
+ * מבנה הקובץ: כותרת, רשומה ברוחב קבוע לכל פריט, טבלת גיבוב של שמות (open addressing)
+ * ומאגר מחרוזות בסוף. הפתיחה רק ממפה את הקובץ ובודקת את הכותרת - רשומה מפוענחת
+ * לתבנית (ItemTemplate) רק כשניגשים אליה, והתבנית נשמרת אחרי הפענוח הראשון. כך קטלוג
+ * של מאות אלפי פריטים נפתח כמעט מיד, ותהליכים שממפים את אותו קובץ חולקים את אותם דפים.
+ *
+ * create מחזיר תמיד פריט חדש שמשתף את התבנית של הרשומה, כך שכל העותקים של פריט
+ * מהקטלוג חולקים שם, תיאור ונתונים. הקטלוג מיועד לקריאה בלבד, וקריאה מכמה threads
+ * בטוחה (לכל היותר רשומה תפוענח פעמיים).
+ */
+public class ItemCatalog {
+
+    public static final int MAGIC = 0x44474943; // "DGIC"
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    // nameOffset, descriptionOffset, tag, rarity, kind, (ריפוד), weight, basePrice, a, b
+    private static final int RECORD_SIZE = 28;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final Item.ItemRarity[] RARITIES = Item.ItemRarity.values();
+    private static final Weapon.WeaponType[] WEAPON_TYPES = Weapon.WeaponType.values();
+    private static final Armor.ArmorSlot[] ARMOR_SLOTS = Armor.ArmorSlot.values();
+    private static final Potion.PotionType[] POTION_TYPES = Potion.PotionType.values();
+
+    private final ByteBuffer data;
+    private final int count;
+    private final int tableOffset;
+    private final int tableMask;
+    private final String[] names;
+    private final ItemTemplate[] templates;
+
+    private ItemCatalog(ByteBuffer data) throws IOException {
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Not an item catalog");
+        }
+        int version = data.getInt(4);
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog format version " + version);
+        }
+        this.count = data.getInt(8);
+        int tableSize = data.getInt(12);
+        if (count < 0 || tableSize < 1 || Integer.bitCount(tableSize) != 1
+                || HEADER_SIZE + (long) count * RECORD_SIZE + tableSize * 4L > data.limit()) {
+            throw new IOException("Item catalog is corrupt");
+        }
+        this.data = data;
+        this.tableOffset = HEADER_SIZE + count * RECORD_SIZE;
+        this.tableMask = tableSize - 1;
+        this.names = new String[count];
+        this.templates = new ItemTemplate[count];
+    }
+
+    /**
+     * ממפה קטלוג קיים לזיכרון. הקובץ נשאר ממופה גם אחרי שהערוץ נסגר.
+     */
+    public static ItemCatalog open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Item catalog is larger than 2 GB");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new ItemCatalog(mapped);
+        }
+    }
+
+    // ============================================================
+    // גישה
+    // ============================================================
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return אינדקס הפריט בקטלוג, או -1 אם אין פריט בשם הזה
+     */
+    public int indexOf(String name) {
+        for (int slot = mix(name.hashCode()) & tableMask; ; slot = (slot + 1) & tableMask) {
+            int entry = data.getInt(tableOffset + slot * 4);
+            if (entry == 0) {
+                return -1;
+            }
+            if (getName(entry - 1).equals(name)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    public String getName(int index) {
+        String name = names[index];
+        if (name == null) {
+            name = readString(data.getInt(record(index)));
+            names[index] = name;
+        }
+        return name;
+    }
+
+    /**
+     * @return פריט חדש לפי ההגדרה בקטלוג
+     * @throws ItemNotFoundException אם אין פריט בשם הזה
+     */
+    public Item create(String name) throws ItemNotFoundException {
+        int index = indexOf(name);
+        if (index < 0) {
+            throw new ItemNotFoundException(name);
+        }
+        return create(index);
+    }
+
+    /**
+     * @return פריט חדש שמשתף את התבנית במקום index
+     */
+    public Item create(int index) {
+        return getTemplate(index).newInstance();
+    }
+
+    /**
+     * @return התבנית המשותפת במקום index (מפוענחת בגישה הראשונה)
+     */
+    public ItemTemplate getTemplate(int index) {
+        ItemTemplate template = templates[index];
+        if (template == null) {
+            template = decode(index);
+            templates[index] = template;
+        }
+        return template;
+    }
+
+    private ItemTemplate decode(int index) {
+        int at = record(index);
+        String name = getName(index);
+        String description = readString(data.getInt(at + 4));
+        int tag = data.get(at + 8);
+        int rarity = data.get(at + 9);
+        int kind = data.get(at + 10);
+        int weight = data.getInt(at + 12);
+        int basePrice = data.getInt(at + 16);
+        int a = data.getInt(at + 20);
+        int b = data.getInt(at + 24);
+        if (rarity < 0 || rarity >= RARITIES.length) {
+            throw corrupt(index);
+        }
+        switch (tag) {
+            case Item.TAG_WEAPON:
+                if (kind < 0 || kind >= WEAPON_TYPES.length || a > b) {
+                    throw corrupt(index);
+                }
+                return new WeaponTemplate(name, description, weight, basePrice, RARITIES[rarity], a, b,
+                    WEAPON_TYPES[kind]);
+            case Item.TAG_ARMOR:
+                if (kind < 0 || kind >= ARMOR_SLOTS.length) {
+                    throw corrupt(index);
+                }
+                return new ArmorTemplate(name, description, weight, basePrice, RARITIES[rarity], a, ARMOR_SLOTS[kind]);
+            case Item.TAG_POTION:
+                if (kind < 0 || kind >= POTION_TYPES.length) {
+                    throw corrupt(index);
+                }
+                return new PotionTemplate(name, description, basePrice, RARITIES[rarity], POTION_TYPES[kind], a, b);
+            default:
+                throw corrupt(index);
+        }
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Catalog index " + index + " of " + count);
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private String readString(int offset) {
+        if (offset < 0 || offset > data.limit() - 2) {
+            throw new IllegalStateException("Corrupt item catalog string offset " + offset);
+        }
+        int length = data.getShort(offset) & 0xFFFF;
+        if (length > data.limit() - offset - 2) {
+            throw new IllegalStateException("Corrupt item catalog string at " + offset);
+        }
+        byte[] bytes = new byte[length];
+        // קריאה מוחלטת בלבד - ה-position של ה-buffer המשותף לא זז
+        for (int i = 0; i < length; i++) {
+            bytes[i] = data.get(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static IllegalStateException corrupt(int index) {
+        return new IllegalStateException("Corrupt item catalog record " + index);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    // ============================================================
+    // כתיבה
+    // ============================================================
+
+    /**
+     * כותב קטלוג מרשימת פריטים (לפי הסדר שלהם) לקובץ זמני ומחליף אותו בסוף,
+     * כך שתהליכים שכבר ממפים את הקובץ הישן ממשיכים לראות אותו שלם.
+     * @throws IllegalArgumentException אם יש שני פריטים באותו שם
+     */
+    public static void write(Path path, ArrayList<? extends Item> items) throws IOException {
+        int count = items.size();
+        int tableSize = Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1;
+        int[] table = new int[tableSize];
+        HashSet<String> seen = new HashSet<>();
+        // מאגר המחרוזות: כל מחרוזת נכתבת פעם אחת
+        HashMap<String, Integer> offsets = new HashMap<>();
+        ArrayList<byte[]> pool = new ArrayList<>();
+        long stringsOffset = HEADER_SIZE + (long) count * RECORD_SIZE + tableSize * 4L;
+        long poolSize = 0;
+        int[] nameOffsets = new int[count];
+        int[] descriptionOffsets = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            Item item = items.get(i);
+            if (!seen.add(item.getName())) {
+                throw new IllegalArgumentException("Duplicate catalog item: " + item.getName());
+            }
+            int slot = mix(item.getName().hashCode()) & (tableSize - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            table[slot] = i + 1;
+
+            String[] strings = {item.getName(), item.getDescription() != null ? item.getDescription() : ""};
+            for (int s = 0; s < 2; s++) {
+                Integer offset = offsets.get(strings[s]);
+                if (offset == null) {
+                    byte[] bytes = strings[s].getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > MAX_STRING_BYTES) {
+                        throw new IllegalArgumentException("Catalog string too long: " + bytes.length + " bytes");
+                    }
+                    if (stringsOffset + poolSize + 2 + bytes.length > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("Item catalog would exceed 2 GB");
+                    }
+                    offset = (int) (stringsOffset + poolSize);
+                    offsets.put(strings[s], offset);
+                    pool.add(bytes);
+                    poolSize += 2 + bytes.length;
+                }
+                if (s == 0) {
+                    nameOffsets[i] = offset;
+                } else {
+                    descriptionOffsets[i] = offset;
+                }
+            }
+        }
+
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (BinaryWriter out = BinaryWriter.open(temp)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(count);
+            out.writeInt(tableSize);
+            for (int i = 0; i < count; i++) {
+                writeRecord(out, items.get(i).getTemplate(), nameOffsets[i], descriptionOffsets[i]);
+            }
+            for (int entry : table) {
+                out.writeInt(entry);
+            }
+            for (byte[] bytes : pool) {
+                out.writeByte(bytes.length >>> 8);
+                out.writeByte(bytes.length);
+                out.writeBytes(bytes);
+            }
+            out.sync();
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeRecord(BinaryWriter out, ItemTemplate template, int nameOffset,
+                                    int descriptionOffset) throws IOException {
+        int kind;
+        int a;
+        int b;
+        if (template instanceof WeaponTemplate) {
+            WeaponTemplate weapon = (WeaponTemplate) template;
+            kind = weapon.getWeaponType().ordinal();
+            a = weapon.getMinDamage();
+            b = weapon.getMaxDamage();
+        } else if (template instanceof ArmorTemplate) {
+            ArmorTemplate armor = (ArmorTemplate) template;
+            kind = armor.getSlot().ordinal();
+            a = armor.getDefense();
+            b = 0;
+        } else {
+            PotionTemplate potion = (PotionTemplate) template;
+            kind = potion.getPotionType().ordinal();
+            a = potion.getPotency();
+            b = potion.getMaxUses();
+        }
+        out.writeInt(nameOffset);
+        out.writeInt(descriptionOffset);
+        out.writeByte(template.getTypeTag());
+        out.writeByte(template.getRarity().ordinal());
+        out.writeByte(kind);
+        out.writeByte(0);
+        out.writeInt(template.getWeight());
+        out.writeInt(template.getBasePrice());
+        out.writeInt(a);
+        out.writeInt(b);
+    }
+}
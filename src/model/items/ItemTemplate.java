@@ -0,0 +1,111 @@
+package model.items;
+
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
+/**
+ * הנתונים הקבועים של סוג פריט (flyweight): שם, תיאור, משקל, מחיר ונדירות, ובמחלקות
+ * היורשות גם הנתונים של הנשק, השריון או השיקוי.
+ *
+ * תבנית אחת משותפת לכל העותקים של אותו פריט - Item מחזיק רק הפניה אליה ואת המצב
+ * שמשתנה אצלו (למשל שימושים שנשארו בשיקוי). התבנית לא משתנה אחרי הבנייה,
+ * ולכן אפשר לשתף אותה בין דמויות, חנויות, חדרים ו-threads.
+ */
+public abstract class ItemTemplate {
+
+    private final String name;
+    private final String description;
+    private final int weight;
+    private final int basePrice;
+    private final Item.ItemRarity rarity;
+    private final int buyPrice;
+
+    protected ItemTemplate(String name, String description, int weight, int basePrice, Item.ItemRarity rarity) {
+        this.name = name;
+        this.description = description;
+        this.weight = weight;
+        this.basePrice = basePrice;
+        this.rarity = rarity;
+        this.buyPrice = (int) Math.ceil(basePrice * rarity.getPriceMultiplier());
+    }
+
+    /**
+     * @return עותק חדש של הפריט שמשתף את התבנית הזו
+     */
+    public abstract Item newInstance();
+
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+
+    /**
+     * @return תג הסוג בפורמט השמירה (Item.TAG_*)
+     */
+    abstract int getTypeTag();
+
+    abstract void writeFields(BinaryWriter out) throws IOException;
+
+    /**
+     * כותב את התבנית: תג הסוג, השדות המשותפים ואז השדות של המחלקה היורשת.
+     */
+    void writeTo(BinaryWriter out) throws IOException {
+        out.writeByte(getTypeTag());
+        out.writeSharedString(name);
+        out.writeSharedString(description);
+        out.writeVarInt(weight);
+        out.writeVarInt(basePrice);
+        out.writeByte(rarity.ordinal());
+        writeFields(out);
+    }
+
+    /**
+     * @throws IOException אם תג הסוג אינו מוכר
+     */
+    static ItemTemplate readFrom(BinaryReader in) throws IOException {
+        int tag = in.readByte();
+        String name = in.readSharedString();
+        String description = in.readSharedString();
+        int weight = in.readVarInt();
+        int basePrice = in.readVarInt();
+        Item.ItemRarity rarity = in.readEnum(Item.ItemRarity.values());
+        switch (tag) {
+            case Item.TAG_WEAPON:
+                return WeaponTemplate.readFields(in, name, description, weight, basePrice, rarity);
+            case Item.TAG_ARMOR:
+                return ArmorTemplate.readFields(in, name, description, weight, basePrice, rarity);
+            case Item.TAG_POTION:
+                return PotionTemplate.readFields(in, name, description, basePrice, rarity);
+            default:
+                throw new IOException("Unknown item type " + tag);
+        }
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getBasePrice() {
+        return basePrice;
+    }
+
+    public Item.ItemRarity getRarity() {
+        return rarity;
+    }
+
+    /**
+     * @return מחיר הקנייה - המחיר הבסיסי כפול מכפיל הנדירות, מעוגל למעלה
+     */
+    public int getBuyPrice() {
+        return buyPrice;
+    }
+}
@@ -1,6 +1,10 @@
 package model.items;
 
 import model.characters.Character;
+import model.characters.StatusEffect;
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
 
 /**
  * מחלקה המייצגת שיקוי במשחק.
@@ -8,10 +12,10 @@ import model.characters.Character;
  */
 public class Potion extends Item implements Usable {
     
-    private PotionType potionType;
-    private int potency;
     private int remainingUses;
-    private final int maxUses;
+    
+    // משך האפקט של שיקויי כוח והגנה (בסבבים)
+    private static final int BUFF_DURATION = 3;
     
     /**
      * סוגי שיקויים במשחק
@@ -35,11 +39,23 @@ public class Potion extends Item implements Usable {
     
     public Potion(String name, String description, int basePrice, ItemRarity rarity,
                   PotionType potionType, int potency, int maxUses) {
-        super(name, description, 1, basePrice, rarity); // Potions weigh 1
-        this.potionType = potionType;
-        this.potency = potency;
-        this.maxUses = maxUses;
-        this.remainingUses = maxUses;
+        this(new PotionTemplate(name, description, basePrice, rarity, potionType, potency, maxUses));
+    }
+
+    /**
+     * שיקוי חדש ומלא שמשתף תבנית קיימת (למשל מהקטלוג).
+     */
+    public Potion(PotionTemplate template) {
+        super(template);
+        this.remainingUses = template.getMaxUses();
+    }
+    
+    /**
+     * בנאי העתקה - יוצר שיקוי חדש ומלא עם אותם נתונים (ואותה תבנית).
+     * @param other השיקוי להעתקה
+     */
+    public Potion(Potion other) {
+        this(other.getTemplate());
     }
     
     // ============================================================
@@ -52,10 +68,16 @@ public class Potion extends Item implements Usable {
             return false;
         }
 
+        PotionType potionType = getPotionType();
+        int potency = getPotency();
         if (potionType == PotionType.HEALTH) {
             target.heal(potency);
         } else if (potionType == PotionType.MANA) {
             target.restoreMana(potency);
+        } else if (potionType == PotionType.STRENGTH) {
+            target.applyStatusEffect(new StatusEffect(StatusEffect.Type.STRENGTH, potency, BUFF_DURATION));
+        } else if (potionType == PotionType.DEFENSE) {
+            target.applyStatusEffect(new StatusEffect(StatusEffect.Type.DEFENSE, potency, BUFF_DURATION));
         }
 
         remainingUses--;
@@ -68,6 +90,7 @@ public class Potion extends Item implements Usable {
             return false;
         }
 
+        PotionType potionType = getPotionType();
         if (potionType == PotionType.HEALTH) {
             return target.getCurrentHealth() < target.getMaxHealth();
         } else if (potionType == PotionType.MANA) {
@@ -83,25 +106,44 @@ public class Potion extends Item implements Usable {
 
     @Override
     public boolean isSellable() {
-        return remainingUses == maxUses;
+        return remainingUses == getMaxUses();
+    }
+    
+    // ============================================================
+    // שמירה וטעינה
+    // ============================================================
+
+    @Override
+    protected void writeState(BinaryWriter out) throws IOException {
+        out.writeVarInt(remainingUses);
+    }
+
+    @Override
+    protected void readState(BinaryReader in) throws IOException {
+        remainingUses = in.readVarInt();
     }
     
     // Getters
+    @Override
+    public PotionTemplate getTemplate() {
+        return (PotionTemplate) template;
+    }
+
     public PotionType getPotionType() {
-        return potionType;
+        return getTemplate().getPotionType();
     }
     
     public int getPotency() {
-        return potency;
+        return getTemplate().getPotency();
     }
     
     public int getMaxUses() {
-        return maxUses;
+        return getTemplate().getMaxUses();
     }
     
     @Override
     public String toString() {
         return String.format("%s | Type: %s | Potency: %d | Uses: %d/%d",
-            super.toString(), potionType, potency, remainingUses, maxUses);
+            super.toString(), getPotionType(), getPotency(), remainingUses, getMaxUses());
     }
 }
@@ -0,0 +1,62 @@
+package model.items;
+
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
+/**
+ * תבנית משותפת של שיקוי: הסוג, העוצמה ומספר השימושים המלא.
+ * השימושים שנשארו שייכים לכל שיקוי בנפרד (Potion).
+ */
+public final class PotionTemplate extends ItemTemplate {
+
+    private final Potion.PotionType potionType;
+    private final int potency;
+    private final int maxUses;
+
+    public PotionTemplate(String name, String description, int basePrice, Item.ItemRarity rarity,
+                          Potion.PotionType potionType, int potency, int maxUses) {
+        super(name, description, 1, basePrice, rarity); // Potions weigh 1
+        this.potionType = potionType;
+        this.potency = potency;
+        this.maxUses = maxUses;
+    }
+
+    @Override
+    public Potion newInstance() {
+        return new Potion(this);
+    }
+
+    @Override
+    int getTypeTag() {
+        return Item.TAG_POTION;
+    }
+
+    @Override
+    void writeFields(BinaryWriter out) throws IOException {
+        out.writeByte(potionType.ordinal());
+        out.writeVarInt(potency);
+        out.writeVarInt(maxUses);
+    }
+
+    static PotionTemplate readFields(BinaryReader in, String name, String description,
+                                     int basePrice, Item.ItemRarity rarity) throws IOException {
+        Potion.PotionType potionType = in.readEnum(Potion.PotionType.values());
+        int potency = in.readVarInt();
+        int maxUses = in.readVarInt();
+        return new PotionTemplate(name, description, basePrice, rarity, potionType, potency, maxUses);
+    }
+
+    // Getters
+    public Potion.PotionType getPotionType() {
+        return potionType;
+    }
+
+    public int getPotency() {
+        return potency;
+    }
+
+    public int getMaxUses() {
+        return maxUses;
+    }
+}
@@ -1,15 +1,14 @@
 package model.items;
 
+import utils.RandomSource;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * מחלקה המייצגת נשק במשחק.
  * יורשת מ-Item ומוסיפה מאפייני נזק.
  */
 public class Weapon extends Item {
     
-    private int minDamage;
-    private int maxDamage;
-    private WeaponType weaponType;
-    
     /**
      * סוגי נשקים במשחק
      */
@@ -37,12 +36,19 @@ public class Weapon extends Item {
         }
     }
     
+    /**
+     * @throws IllegalArgumentException אם minDamage גדול מ-maxDamage
+     */
     public Weapon(String name, String description, int weight, int basePrice, 
                   ItemRarity rarity, int minDamage, int maxDamage, WeaponType weaponType) {
-        super(name, description, weight, basePrice, rarity);
-        this.minDamage = minDamage;
-        this.maxDamage = maxDamage;
-        this.weaponType = weaponType;
+        this(new WeaponTemplate(name, description, weight, basePrice, rarity, minDamage, maxDamage, weaponType));
+    }
+
+    /**
+     * נשק שמשתף תבנית קיימת (למשל מהקטלוג).
+     */
+    public Weapon(WeaponTemplate template) {
+        super(template);
     }
     
     // ============================================================
@@ -50,29 +56,44 @@ public class Weapon extends Item {
     // ============================================================
 
     public int calculateDamage() {
-        return (int) (Math.random() * (maxDamage - minDamage + 1) + minDamage);
+        WeaponTemplate stats = getTemplate();
+        return ThreadLocalRandom.current().nextInt(stats.getMinDamage(), stats.getMaxDamage() + 1);
+    }
+
+    /**
+     * מחשב נזק בעזרת מקור אקראיות נתון (לקרבות דטרמיניסטיים).
+     * @param random מקור האקראיות של הדמות או הקרב
+     */
+    public int calculateDamage(RandomSource random) {
+        WeaponTemplate stats = getTemplate();
+        return random.nextInt(stats.getMinDamage(), stats.getMaxDamage() + 1);
     }
 
     public double getAverageDamage() {
-        return (minDamage + maxDamage) / 2.0;
+        return (getMinDamage() + getMaxDamage()) / 2.0;
     }
     
     // Getters
+    @Override
+    public WeaponTemplate getTemplate() {
+        return (WeaponTemplate) template;
+    }
+
     public int getMinDamage() {
-        return minDamage;
+        return getTemplate().getMinDamage();
     }
     
     public int getMaxDamage() {
-        return maxDamage;
+        return getTemplate().getMaxDamage();
     }
     
     public WeaponType getWeaponType() {
-        return weaponType;
+        return getTemplate().getWeaponType();
     }
     
     @Override
     public String toString() {
         return String.format("%s | Damage: %d-%d | Type: %s", 
-            super.toString(), minDamage, maxDamage, weaponType);
+            super.toString(), getMinDamage(), getMaxDamage(), getWeaponType());
     }
 }
@@ -0,0 +1,71 @@
+package model.items;
+
+import utils.BinaryReader;
+import utils.BinaryWriter;
+import java.io.IOException;
+
+/**
+ * תבנית משותפת של נשק: הנזק וסוג הנשק.
+ */
+public final class WeaponTemplate extends ItemTemplate {
+
+    private final int minDamage;
+    private final int maxDamage;
+    private final Weapon.WeaponType weaponType;
+
+    /**
+     * @throws IllegalArgumentException אם minDamage גדול מ-maxDamage
+     */
+    public WeaponTemplate(String name, String description, int weight, int basePrice,
+                          Item.ItemRarity rarity, int minDamage, int maxDamage, Weapon.WeaponType weaponType) {
+        super(name, description, weight, basePrice, rarity);
+        if (minDamage > maxDamage) {
+            throw new IllegalArgumentException("Minimum damage " + minDamage + " exceeds maximum " + maxDamage
+                + " for " + name);
+        }
+        this.minDamage = minDamage;
+        this.maxDamage = maxDamage;
+        this.weaponType = weaponType;
+    }
+
+    @Override
+    public Weapon newInstance() {
+        return new Weapon(this);
+    }
+
+    @Override
+    int getTypeTag() {
+        return Item.TAG_WEAPON;
+    }
+
+    @Override
+    void writeFields(BinaryWriter out) throws IOException {
+        out.writeVarInt(minDamage);
+        out.writeVarInt(maxDamage);
+        out.writeByte(weaponType.ordinal());
+    }
+
+    static WeaponTemplate readFields(BinaryReader in, String name, String description, int weight,
+                                     int basePrice, Item.ItemRarity rarity) throws IOException {
+        int minDamage = in.readVarInt();
+        int maxDamage = in.readVarInt();
+        Weapon.WeaponType weaponType = in.readEnum(Weapon.WeaponType.values());
+        if (minDamage > maxDamage) {
+            throw new IOException("Invalid damage range " + minDamage + "-" + maxDamage + " for " + name);
+        }
+        return new WeaponTemplate(name, description, weight, basePrice, rarity, minDamage, maxDamage, weaponType);
+    }
+
+    // Getters
+    public int getMinDamage() {
+        return minDamage;
+    }
+
+    public int getMaxDamage() {
+        return maxDamage;
+    }
+
+    public Weapon.WeaponType getWeaponType() {
+        return weaponType;
+    }
+}
@@ -0,0 +1,270 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * קורא בינארי מעל ערוץ NIO - המקביל של BinaryWriter.
+ * הקורא שומר גם את גרסת הפורמט של הקובץ, כדי שקוד הקריאה יוכל לדלג על שדות חדשים.
+ */
+public class BinaryReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final ArrayList<String> sharedStrings;
+    private final ArrayList<Object> sharedObjects;
+    private char[] chars;
+    private int formatVersion;
+
+    public BinaryReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+        this.sharedStrings = new ArrayList<>();
+        this.sharedObjects = new ArrayList<>();
+        this.chars = new char[64];
+        this.formatVersion = 0;
+    }
+
+    /**
+     * קורא מתוך נתונים שכבר נמצאים בזיכרון (מהמיקום הנוכחי ועד ה-limit של data).
+     */
+    public BinaryReader(ByteBuffer data) {
+        this.channel = null;
+        this.buffer = data;
+        this.sharedStrings = new ArrayList<>();
+        this.sharedObjects = new ArrayList<>();
+        this.chars = new char[64];
+        this.formatVersion = 0;
+    }
+
+    public static BinaryReader open(Path path) throws IOException {
+        return new BinaryReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    // ============================================================
+    // פרימיטיביים
+    // ============================================================
+
+    public int readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    public double readDouble() throws IOException {
+        require(8);
+        return buffer.getDouble();
+    }
+
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public int readSignedVarInt() throws IOException {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * קורא אורך או מספר רשומות שנכתב ב-writeVarInt.
+     * כל רשומה תופסת לפחות בית אחד, ולכן אורך גדול מהבתים שנשארו הוא נתונים פגומים.
+     * @throws IOException אם האורך שלילי או חורג מסוף הנתונים
+     */
+    public int readLength() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > available()) {
+            throw new IOException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * קורא ערך enum שנכתב כ-ordinal בבית אחד.
+     * @param values התוצאה של values() של ה-enum
+     * @throws IOException אם ה-ordinal מחוץ לטווח
+     */
+    public <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+        int ordinal = readByte();
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException("Invalid ordinal " + ordinal + " of " + values.length);
+        }
+        return values[ordinal];
+    }
+
+    // ============================================================
+    // מחרוזות
+    // ============================================================
+
+    public String readString() throws IOException {
+        int header = readVarInt();
+        if (header == 0) {
+            return null;
+        }
+        int length = header - 1;
+        if (length < 0 || length > available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        if (length <= BUFFER_SIZE) {
+            require(length);
+            // מסלול מהיר ל-ASCII: העתקה ישירה לתווים
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            int start = buffer.position();
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(start + i);
+                if (b < 0) {
+                    ascii = false;
+                    break;
+                }
+                chars[i] = (char) b;
+            }
+            if (ascii) {
+                buffer.position(start + length);
+                return new String(chars, 0, length);
+            }
+        }
+        byte[] bytes = new byte[length];
+        readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String readSharedString() throws IOException {
+        int header = readVarInt();
+        if (header == 0) {
+            return null;
+        }
+        if (header == 1) {
+            String value = readString();
+            sharedStrings.add(value);
+            return value;
+        }
+        int id = header - 2;
+        if (id < 0 || id >= sharedStrings.size()) {
+            throw new IOException("Unknown shared string " + id);
+        }
+        return sharedStrings.get(id);
+    }
+
+    /**
+     * קורא הפניה שנכתבה ב-writeSharedReference.
+     * @return האובייקט שכבר נקרא, או null אם התוכן שלו מגיע עכשיו - ואז הקורא חייב
+     *         לקרוא אותו ולהוסיף אותו ב-addSharedObject
+     */
+    public Object readSharedReference() throws IOException {
+        int header = readVarInt();
+        if (header == 0) {
+            return null;
+        }
+        int id = header - 1;
+        if (id < 0 || id >= sharedObjects.size()) {
+            throw new IOException("Unknown shared object " + id);
+        }
+        return sharedObjects.get(id);
+    }
+
+    public void addSharedObject(Object value) {
+        sharedObjects.add(value);
+    }
+
+    public void readBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                fill(1);
+            }
+            int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    // ============================================================
+    // ניהול ה-buffer
+    // ============================================================
+
+    /**
+     * @return כמה בתים נשארו לקריאה, או Long.MAX_VALUE כשהערוץ לא מספר
+     */
+    private long available() throws IOException {
+        if (channel == null) {
+            return buffer.remaining();
+        }
+        if (channel instanceof FileChannel) {
+            FileChannel file = (FileChannel) channel;
+            return buffer.remaining() + file.size() - file.position();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            fill(bytes);
+        }
+    }
+
+    private void fill(int bytes) throws IOException {
+        if (channel == null) {
+            throw new EOFException("Unexpected end of data");
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                throw new EOFException("Unexpected end of data");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * @return גרסת הפורמט שנקבעה בזמן קריאת הכותרת
+     */
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    public void setFormatVersion(int formatVersion) {
+        this.formatVersion = formatVersion;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
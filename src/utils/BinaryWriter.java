@@ -0,0 +1,230 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * כותב בינארי דחוס מעל ערוץ NIO, עם buffer ישיר אחד שמתרוקן לערוץ כשהוא מתמלא.
+ *
+ * מספרים שלמים נכתבים כ-varint (7 ביטים לבית), כך שערכים קטנים תופסים בית אחד.
+ * writeSharedString כותב כל מחרוזת פעם אחת ואחר כך רק את המספר שלה בטבלה -
+ * מתאים לשמות ותיאורים שחוזרים הרבה, ו-writeSharedReference עושה אותו דבר לאובייקטים
+ * משותפים כמו תבניות פריטים. המקביל לקריאה הוא BinaryReader.
+ */
+public class BinaryWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final HashMap<String, Integer> sharedStrings;
+    private final IdentityHashMap<Object, Integer> sharedObjects;
+    private long bytesWritten;
+
+    public BinaryWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.sharedStrings = new HashMap<>();
+        this.sharedObjects = new IdentityHashMap<>();
+        this.bytesWritten = 0;
+    }
+
+    /**
+     * פותח קובץ לכתיבה (ודורס אותו אם קיים).
+     */
+    public static BinaryWriter open(Path path) throws IOException {
+        return new BinaryWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    // ============================================================
+    // פרימיטיביים
+    // ============================================================
+
+    public void writeByte(int value) throws IOException {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    public void writeDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * varint לא שלילי (מספר שלילי נכתב ב-5 בתים).
+     */
+    public void writeVarInt(int value) throws IOException {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * varint בקידוד zigzag - גם מספרים שליליים קטנים תופסים מעט בתים.
+     */
+    public void writeSignedVarInt(int value) throws IOException {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    // ============================================================
+    // מחרוזות
+    // ============================================================
+
+    /**
+     * מחרוזת ב-UTF-8 עם אורך, או null.
+     */
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii && length + 5 <= BUFFER_SIZE) {
+            // מסלול מהיר בלי מערך ביניים
+            writeVarInt(length + 1);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        writeBytes(bytes);
+    }
+
+    /**
+     * מחרוזת מטבלה משותפת: בפעם הראשונה נכתב התוכן, ואחר כך רק המספר שלה.
+     */
+    public void writeSharedString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer id = sharedStrings.get(value);
+        if (id != null) {
+            writeVarInt(id + 2);
+            return;
+        }
+        sharedStrings.put(value, sharedStrings.size());
+        writeVarInt(1);
+        writeString(value);
+    }
+
+    /**
+     * הפניה לאובייקט משותף (השוואה לפי זהות). בפעם הראשונה נכתב 0 והקורא חייב לכתוב
+     * מיד את תוכן האובייקט - בלי הפניות משותפות נוספות בתוכו; אחר כך נכתב רק המספר שלו.
+     * @return true אם נכתבה הפניה לאובייקט שכבר נכתב, false אם צריך לכתוב את התוכן
+     */
+    public boolean writeSharedReference(Object value) throws IOException {
+        Integer id = sharedObjects.get(value);
+        if (id != null) {
+            writeVarInt(id + 1);
+            return true;
+        }
+        sharedObjects.put(value, sharedObjects.size());
+        writeVarInt(0);
+        return false;
+    }
+
+    /**
+     * מתחיל טבלאות משותפות חדשות, כך שמה שייכתב מעכשיו לא יפנה למחרוזות או לאובייקטים
+     * שכבר נכתבו.
+     */
+    public void clearSharedTables() {
+        sharedStrings.clear();
+        sharedObjects.clear();
+    }
+
+    public void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    // ============================================================
+    // ניהול ה-buffer
+    // ============================================================
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * מעביר לערוץ את כל מה שנכתב עד עכשיו.
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * מעביר לערוץ את כל מה שנכתב ומחכה שיגיע לדיסק (אם הערוץ הוא קובץ).
+     */
+    public void sync() throws IOException {
+        drain();
+        if (channel instanceof FileChannel) {
+            ((FileChannel) channel).force(true);
+        }
+    }
+
+    /**
+     * @return מספר הבתים שנכתבו (כולל מה שעדיין ב-buffer)
+     */
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
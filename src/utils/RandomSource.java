@@ -0,0 +1,97 @@
+package utils;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * מקור מספרים אקראיים שניתן לזרוע (seed) ולפצל.
+ * כל קרב או thread מחזיק מופע משלו, כך שאין תחרות על מחולל גלובלי
+ * וזרע זהה מייצר בדיוק את אותו רצף תוצאות.
+ *
+ * המחלקה אינה thread-safe - לשימוש מקביל יש לפצל עם split().
+ */
+public class RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final SplittableRandom random;
+
+    /**
+     * יוצר מקור עם זרע אקראי.
+     * הזרע נלקח מ-ThreadLocalRandom כדי לא לגעת במונה גלובלי משותף.
+     */
+    public RandomSource() {
+        this(new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * יוצר מקור דטרמיניסטי.
+     * @param seed הזרע
+     */
+    public RandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * יוצר זרם עצמאי מספר streamIndex מתוך זרע בסיס.
+     * התוצאה תלויה רק בזרע ובאינדקס ולא בסדר היצירה,
+     * ולכן מתאימה לעבודה מקבילית שבה סדר ביצוע המשימות אינו קבוע.
+     * @param seed זרע הבסיס
+     * @param streamIndex מספר הזרם
+     */
+    public static RandomSource forStream(long seed, long streamIndex) {
+        return new RandomSource(mix64(seed + (streamIndex + 1) * GOLDEN_GAMMA));
+    }
+
+    // ערבוב SplitMix64 - מפזר זרעים סמוכים לזרמים בלתי תלויים
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return מספר בטווח [0, 1)
+     */
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    /**
+     * @return מספר שלם בטווח [origin, bound)
+     */
+    public int nextInt(int origin, int bound) {
+        return random.nextInt(origin, bound);
+    }
+
+    /**
+     * @return מספר שלם בטווח [0, bound)
+     */
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    /**
+     * @param probability הסתברות בין 0 ל-1
+     * @return true בהסתברות הנתונה
+     */
+    public boolean chance(double probability) {
+        return random.nextDouble() < probability;
+    }
+
+    /**
+     * מפצל זרם עצמאי חדש. הזרם החדש דטרמיניסטי ביחס למקור.
+     * @return מקור חדש שאינו חולק מצב עם המקור הנוכחי
+     */
+    public RandomSource split() {
+        return new RandomSource(random.split());
+    }
+}
@@ -0,0 +1,204 @@
+package utils;
+
+/**
+ * גלגל טיימרים היררכי (hierarchical timing wheel) עם שעון בדיד (ticks).
+ *
+ * LEVELS רמות של SLOTS_PER_LEVEL תאים כל אחת: רמה 0 מכסה את 64 ה-ticks הקרובים,
+ * רמה 1 בלוקים של 64, רמה 2 בלוקים של 4096 וכן הלאה. טיימר רחוק יורד רמה
+ * (cascade) כשהשעון מגיע לבלוק שלו. תזמון, ביטול וירידת רמה הם O(1) לטיימר,
+ * ו-advance עולה רק לפי מספר הטיימרים שפוקעים - בלי סריקה של כל הטיימרים.
+ *
+ * כל תא הוא רשימה מקושרת כפולה מעגלית, והטיימרים עצמם הם הצמתים (ללא הקצאות).
+ */
+public class TimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVELS = 4;
+
+    private final Timer[][] wheels;
+    // טיימרים מעבר לטווח של כל הרמות - נבדקים מחדש כשהרמה העליונה משלימה סיבוב
+    private final Timer overflow;
+    private long currentTick;
+    private int size;
+
+    public TimerWheel() {
+        this.wheels = new Timer[LEVELS][SLOTS_PER_LEVEL];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS_PER_LEVEL; slot++) {
+                wheels[level][slot] = new Sentinel();
+            }
+        }
+        this.overflow = new Sentinel();
+        this.currentTick = 0;
+        this.size = 0;
+    }
+
+    // ============================================================
+    // תזמון וביטול
+    // ============================================================
+
+    /**
+     * מתזמן טיימר שיפקע בעוד delay ticks (לפחות 1).
+     * @throws IllegalStateException אם הטיימר כבר מתוזמן
+     */
+    public void schedule(Timer timer, long delay) {
+        if (timer.isScheduled()) {
+            throw new IllegalStateException("Timer is already scheduled");
+        }
+        timer.deadline = currentTick + Math.max(1, delay);
+        place(timer);
+        size++;
+    }
+
+    /**
+     * מבטל טיימר מתוזמן - O(1).
+     * @return true אם הטיימר היה מתוזמן
+     */
+    public boolean cancel(Timer timer) {
+        if (!timer.isScheduled()) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * מקדם את השעון ב-tick אחד ומפעיל את כל הטיימרים שמועדם הגיע.
+     * טיימר שפוקע רשאי לתזמן את עצמו מחדש או לבטל טיימרים אחרים.
+     * @return מספר הטיימרים שפקעו
+     */
+    public int advance() {
+        currentTick++;
+
+        // ירידת רמה מהרמה הגבוהה ביותר שהשלימה סיבוב, כלפי מטה
+        int topLevel = 0;
+        while (topLevel + 1 < LEVELS
+                && (currentTick & ((1L << (SLOT_BITS * (topLevel + 1))) - 1)) == 0) {
+            topLevel++;
+        }
+        if (topLevel == LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            cascade(overflow);
+        }
+        for (int level = topLevel; level >= 1; level--) {
+            cascade(wheels[level][slotIndex(currentTick, level)]);
+        }
+
+        Timer head = wheels[0][(int) (currentTick & SLOT_MASK)];
+        int fired = 0;
+        while (head.next != head) {
+            Timer timer = head.next;
+            timer.unlink();
+            size--;
+            fired++;
+            timer.onExpire(this, currentTick);
+        }
+        return fired;
+    }
+
+    /**
+     * מנתק את כל הרשימה של התא ומציב מחדש כל טיימר לפי המועד שלו.
+     * הניתוק קודם, כי טיימר מה-overflow עשוי לחזור לאותה רשימה.
+     */
+    private void cascade(Timer head) {
+        Timer timer = head.next;
+        head.prev = head;
+        head.next = head;
+        while (timer != head) {
+            Timer next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    /**
+     * מכניס את הטיימר לרמה הנמוכה ביותר שבה הוא חולק בלוק עם השעון הנוכחי.
+     */
+    private void place(Timer timer) {
+        long deadline = timer.deadline;
+        for (int level = 0; level < LEVELS; level++) {
+            if (((deadline ^ currentTick) >>> (SLOT_BITS * (level + 1))) == 0) {
+                timer.linkBefore(wheels[level][slotIndex(deadline, level)]);
+                return;
+            }
+        }
+        timer.linkBefore(overflow);
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    // Getters
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * טיימר בגלגל. המחלקות היורשות מגדירות מה קורה כשהוא פוקע.
+     */
+    public abstract static class Timer {
+        private Timer prev;
+        private Timer next;
+        private long deadline;
+
+        public boolean isScheduled() {
+            return next != null;
+        }
+
+        /**
+         * @return ה-tick שבו הטיימר יפקע (תקף רק כשהוא מתוזמן)
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * נקרא כשהטיימר פוקע. הטיימר כבר הוסר מהגלגל ואפשר לתזמן אותו מחדש.
+         * @param wheel הגלגל שהפעיל את הטיימר
+         * @param tick ה-tick הנוכחי
+         */
+        protected abstract void onExpire(TimerWheel wheel, long tick);
+
+        private void linkBefore(Timer head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+
+    /**
+     * ראש רשימה מעגלית של תא בגלגל.
+     */
+    private static final class Sentinel extends Timer {
+        Sentinel() {
+            super.prev = this;
+            super.next = this;
+        }
+
+        @Override
+        protected void onExpire(TimerWheel wheel, long tick) {
+            throw new IllegalStateException("Sentinel cannot expire");
+        }
+    }
+}